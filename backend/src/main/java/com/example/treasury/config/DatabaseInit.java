@@ -1,28 +1,129 @@
 package com.example.treasury.config;
 
+import jakarta.annotation.PostConstruct;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.context.event.EventListener;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.r2dbc.connection.init.ResourceDatabasePopulator;
 import org.springframework.r2dbc.core.DatabaseClient;
-import org.springframework.boot.context.event.ApplicationReadyEvent;
-import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Brings the schema up to date with the versioned scripts in {@code db/migration}, without holding
+ * up startup.
+ *
+ * Scripts are named {@code V<version>__<description>.sql} and applied in version order, each once;
+ * applied versions are recorded in {@code schema_version}. A script that fails is run again from
+ * the start on the next startup, so statements guard themselves with {@code IF NOT EXISTS} where
+ * H2 allows it.
+ *
+ * Migration starts when this bean is created, on a bounded-elastic thread since H2 runs statements
+ * on the subscribing thread. Anything that touches the tables before a request could (startup
+ * rebuilds, the lifecycle loops, order writes) waits on {@link #ready()}.
+ */
 @Configuration
-@RequiredArgsConstructor
 public class DatabaseInit {
 
+  private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(DatabaseInit.class);
+
+  static final String LOCATION = "classpath*:db/migration/V*__*.sql";
+  private static final Pattern NAME = Pattern.compile("V(\\d+)__(\\w+)\\.sql");
+
   private final DatabaseClient client;
+  private final Mono<Void> ready;
+
+  record Migration(int version, String description, Resource script) {}
+
+  public DatabaseInit(DatabaseClient client) {
+    this.client = client;
+    this.ready = Mono.defer(this::migrate).subscribeOn(Schedulers.boundedElastic()).cache();
+  }
+
+  @PostConstruct
+  void start() {
+    ready.subscribe(null, e -> log.error("Schema migration failed", e));
+  }
+
+  /** Completes once every migration has been applied, or errors with the one that failed. */
+  public Mono<Void> ready() {
+    return ready;
+  }
+
+  private Mono<Void> migrate() {
+    long started = System.nanoTime();
+    List<Migration> migrations = migrations();
+    return client.sql("""
+            CREATE TABLE IF NOT EXISTS schema_version (
+              version INT PRIMARY KEY,
+              description VARCHAR(200) NOT NULL,
+              installed_at TIMESTAMP NOT NULL
+            )
+            """)
+        .fetch().rowsUpdated()
+        .then(client.sql("SELECT version FROM schema_version")
+            .map(row -> row.get("version", Integer.class))
+            .all()
+            .collect(Collectors.toSet()))
+        .flatMap(applied -> Flux.fromIterable(migrations)
+            .filter(m -> !applied.contains(m.version()))
+            .concatMap(m -> apply(m).thenReturn(m.version()))
+            .collectList())
+        .doOnNext(done -> {
+          long ms = (System.nanoTime() - started) / 1_000_000;
+          if (done.isEmpty()) log.info("Schema up to date at version {} ({} ms)", latest(migrations), ms);
+          else log.info("Schema migrated to version {}, applied {} in {} ms", latest(migrations), done, ms);
+        })
+        .then();
+  }
+
+  /** Runs one script on a single connection, then records it. */
+  private Mono<Void> apply(Migration m) {
+    return new ResourceDatabasePopulator(m.script()).populate(client.getConnectionFactory())
+        .then(client.sql("INSERT INTO schema_version (version, description, installed_at) VALUES (:version, :description, :at)")
+            .bind("version", m.version())
+            .bind("description", m.description())
+            .bind("at", LocalDateTime.now())
+            .fetch().rowsUpdated())
+        .onErrorMap(e -> new IllegalStateException("Migration V" + m.version() + " (" + m.description() + ") failed", e))
+        .then();
+  }
+
+  /** The scripts on the classpath, in version order. */
+  static List<Migration> migrations() {
+    Resource[] scripts;
+    try {
+      scripts = new PathMatchingResourcePatternResolver(DatabaseInit.class.getClassLoader()).getResources(LOCATION);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    List<Migration> migrations = new ArrayList<>(scripts.length);
+    for (Resource script : scripts) {
+      Matcher m = NAME.matcher(script.getFilename());
+      if (!m.matches()) throw new IllegalStateException("Migration name not V<version>__<description>.sql: " + script);
+      migrations.add(new Migration(Integer.parseInt(m.group(1)), m.group(2).replace('_', ' '), script));
+    }
+    migrations.sort(Comparator.comparingInt(Migration::version));
+    for (int i = 1; i < migrations.size(); i++) {
+      if (migrations.get(i).version() == migrations.get(i - 1).version()) {
+        throw new IllegalStateException("Two migrations with version " + migrations.get(i).version());
+      }
+    }
+    return migrations;
+  }
 
-  @EventListener(ApplicationReadyEvent.class)
-  public void init() {
-    client.sql("""
-      CREATE TABLE IF NOT EXISTS orders (
-        id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
-        term VARCHAR(10) NOT NULL,
-        amount DECIMAL(19,2) NOT NULL,
-        created_at TIMESTAMP NOT NULL,
-        status VARCHAR(20) NOT NULL,
-        rate_at_submission DOUBLE
-      )
-    """).fetch().rowsUpdated().block();
+  private static int latest(List<Migration> migrations) {
+    return migrations.isEmpty() ? 0 : migrations.get(migrations.size() - 1).version();
   }
 }
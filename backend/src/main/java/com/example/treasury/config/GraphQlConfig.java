@@ -0,0 +1,18 @@
+package com.example.treasury.config;
+
+import com.example.treasury.graphql.PersistedQueries;
+import graphql.execution.preparsed.persisted.ApolloPersistedQuerySupport;
+import org.springframework.boot.autoconfigure.graphql.GraphQlSourceBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class GraphQlConfig {
+
+  // Automatic persisted queries (Apollo protocol): extensions.persistedQuery.sha256Hash
+  @Bean
+  public GraphQlSourceBuilderCustomizer persistedQuerySupport(PersistedQueries queries) {
+    return builder -> builder.configureGraphQl(graphQl ->
+        graphQl.preparsedDocumentProvider(new ApolloPersistedQuerySupport(queries)));
+  }
+}
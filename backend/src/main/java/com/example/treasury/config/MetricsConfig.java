@@ -0,0 +1,15 @@
+package com.example.treasury.config;
+
+import io.micrometer.core.instrument.config.MeterFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MetricsConfig {
+
+  // Query observations tag the calling thread; one series per event-loop thread adds nothing
+  @Bean
+  public MeterFilter dropR2dbcThreadTag() {
+    return MeterFilter.ignoreTags("r2dbc.thread");
+  }
+}
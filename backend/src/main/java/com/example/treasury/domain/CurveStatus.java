@@ -0,0 +1,19 @@
+package com.example.treasury.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class CurveStatus {
+  public static final String SOURCE_LIVE = "LIVE";         // fetched from the Treasury by this process
+  public static final String SOURCE_SNAPSHOT = "SNAPSHOT"; // restored from the on-disk snapshot
+  public static final String SOURCE_NONE = "NONE";         // no curve available
+
+  private String fetchedAt;  // ISO-8601 instant the curve was fetched, null without a curve
+  private Long ageSeconds;   // null without a curve
+  private boolean stale;     // older than the soft TTL, or no curve at all
+  private String source;
+  private boolean offline;   // upstream fetching is disabled
+  private String version;    // content hash of the curve, null without a curve
+}
@@ -0,0 +1,12 @@
+package com.example.treasury.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class KeyRateRisk {
+  private String term;
+  private double dv01;      // value lost per +1bp at this tenor only
+  private double duration;  // dv01 as a share of the book's market value, in years
+}
@@ -0,0 +1,17 @@
+package com.example.treasury.domain;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class LiquiditySummary {
+  private String asOf;               // ISO-8601 instant the summary was taken
+  private long windowSeconds;        // rolling window covered by the window* figures
+  private List<TermLiquidity> terms; // shortest maturity first
+  private double notional;
+  private long orderCount;
+  private double windowNotional;
+  private long windowOrderCount;
+}
@@ -13,6 +13,11 @@ import lombok.AllArgsConstructor;
 @AllArgsConstructor
 @Table("orders")
 public class Order {
+  public static final String STATUS_SUBMITTED = "SUBMITTED"; // written, not yet checked
+  public static final String STATUS_ACCEPTED = "ACCEPTED";   // passed the checks, awaiting settlement
+  public static final String STATUS_SETTLED = "SETTLED";
+  public static final String STATUS_REJECTED = "REJECTED";
+
   @Id
   private Long id;
   private String term;
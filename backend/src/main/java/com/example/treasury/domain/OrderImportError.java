@@ -0,0 +1,11 @@
+package com.example.treasury.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class OrderImportError {
+  private long line;       // 1-based line in the file, or position in the mutation's inputs
+  private String message;
+}
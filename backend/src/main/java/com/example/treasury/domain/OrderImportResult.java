@@ -0,0 +1,14 @@
+package com.example.treasury.domain;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class OrderImportResult {
+  private long accepted;                // orders saved
+  private long rejected;                // rows that failed to parse, validate or save
+  private List<OrderImportError> errors; // the first rejected rows
+  private boolean errorsTruncated;      // more rows were rejected than errors lists
+}
@@ -0,0 +1,13 @@
+package com.example.treasury.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class OrderRisk {
+  private double marketValue;
+  private double pnl;
+  private double modifiedDuration;
+  private double dv01;
+}
@@ -0,0 +1,19 @@
+package com.example.treasury.domain;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class PortfolioRisk {
+  private String asOf;              // valuation date, yyyy-MM-dd
+  private long positions;           // orders valued
+  private long unpriced;            // orders without a rate or with an unrecognized term
+  private double marketValue;
+  private double costBasis;         // sum of order amounts
+  private double pnl;
+  private double modifiedDuration;  // years, PV-weighted
+  private double dv01;              // value lost per +1bp parallel shift
+  private List<KeyRateRisk> keyRates;
+}
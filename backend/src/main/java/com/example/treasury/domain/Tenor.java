@@ -0,0 +1,42 @@
+package com.example.treasury.domain;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/** The par yield curve tenors the Treasury publishes, shortest first. */
+public enum Tenor {
+  M1("1M"), M1_5("1.5M"), M2("2M"), M3("3M"), M4("4M"), M6("6M"),
+  Y1("1Y"), Y2("2Y"), Y3("3Y"), Y5("5Y"), Y7("7Y"), Y10("10Y"), Y20("20Y"), Y30("30Y");
+
+  private static final Tenor[] VALUES = values();
+
+  public static final int COUNT = VALUES.length;
+
+  private static final Map<String, Tenor> BY_LABEL = new HashMap<>(COUNT * 2);
+
+  static {
+    for (Tenor t : VALUES) BY_LABEL.put(t.label, t);
+  }
+
+  private final String label;
+
+  Tenor(String label) {
+    this.label = label;
+  }
+
+  /** The term as clients write it, e.g. "1.5M" or "10Y". */
+  public String label() {
+    return label;
+  }
+
+  /** The tenor at {@code index} in curve order; same as {@code values()[index]} without the copy. */
+  public static Tenor at(int index) {
+    return VALUES[index];
+  }
+
+  /** The tenor with this label (case-insensitive), or null if the term is not one of them. */
+  public static Tenor of(String label) {
+    return label == null ? null : BY_LABEL.get(label.toUpperCase(Locale.ROOT));
+  }
+}
@@ -0,0 +1,16 @@
+package com.example.treasury.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class TermLiquidity {
+  private String term;
+  private double notional;
+  private long orderCount;
+  private Double avgRate;          // amount-weighted rateAtSubmission; null when no order had a rate
+  private double windowNotional;
+  private long windowOrderCount;
+  private Double windowAvgRate;
+}
@@ -0,0 +1,140 @@
+package com.example.treasury.domain;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * An immutable par yield curve: one rate per {@link Tenor}, in percent, NaN where the Treasury
+ * published none.
+ *
+ * Rates are kept in a {@code double[]} indexed by tenor, so looking up a tenor is an array read.
+ * {@link #version()} hashes the tenors and rates only, so the same curve fetched twice, or
+ * restored after a restart, has the same version. {@link #points()} is the GraphQL view, built
+ * once per curve and then handed out as is.
+ */
+public final class YieldCurve {
+
+  /** No curve: every rate missing, no as-of date. */
+  public static final YieldCurve EMPTY = new YieldCurve(null, missing());
+
+  private final LocalDate asOf;
+  private final double[] rates;
+  private final int size;
+  private final String version;
+  private volatile List<YieldPoint> points;
+
+  private YieldCurve(LocalDate asOf, double[] rates) {
+    this.asOf = asOf;
+    this.rates = rates;
+    int n = 0;
+    for (double r : rates) if (!Double.isNaN(r)) n++;
+    this.size = n;
+    this.version = versionOf(rates);
+  }
+
+  /**
+   * @param rates one per tenor in {@link Tenor} order, NaN where missing; copied
+   */
+  public static YieldCurve of(LocalDate asOf, double[] rates) {
+    if (rates.length != Tenor.COUNT) {
+      throw new IllegalArgumentException("Expected " + Tenor.COUNT + " rates, got " + rates.length);
+    }
+    return new YieldCurve(asOf, rates.clone());
+  }
+
+  /** A curve from points in any order; the first point of a tenor wins, unknown terms are rejected. */
+  public static YieldCurve of(LocalDate asOf, List<YieldPoint> points) {
+    double[] rates = missing();
+    for (YieldPoint p : points) {
+      Tenor t = Tenor.of(p.getTerm());
+      if (t == null) throw new IllegalArgumentException("Unknown tenor " + p.getTerm());
+      if (Double.isNaN(rates[t.ordinal()])) rates[t.ordinal()] = p.getRate();
+    }
+    return new YieldCurve(asOf, rates);
+  }
+
+  /** Business date of the Treasury entry the rates come from; null when unknown or empty. */
+  public LocalDate asOf() {
+    return asOf;
+  }
+
+  /** 64-bit FNV-1a over each present tenor's label and rate bits, as 16 hex digits. */
+  public String version() {
+    return version;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /** Number of tenors with a rate. */
+  public int size() {
+    return size;
+  }
+
+  public boolean has(Tenor tenor) {
+    return !Double.isNaN(rates[tenor.ordinal()]);
+  }
+
+  /** Rate in percent, or NaN when the tenor is missing. */
+  public double rate(Tenor tenor) {
+    return rates[tenor.ordinal()];
+  }
+
+  /** Rate of the tenor at {@code index} in {@link Tenor} order, or NaN when missing. */
+  public double rate(int index) {
+    return rates[index];
+  }
+
+  /** The present tenors in curve order, as the GraphQL type; the same list on every call. */
+  public List<YieldPoint> points() {
+    List<YieldPoint> p = points;
+    if (p == null) {
+      YieldPoint[] out = new YieldPoint[size];
+      int n = 0;
+      for (int t = 0; t < rates.length; t++) {
+        if (!Double.isNaN(rates[t])) out[n++] = new YieldPoint(Tenor.at(t).label(), rates[t]);
+      }
+      p = List.of(out);
+      points = p;
+    }
+    return p;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (!(o instanceof YieldCurve other)) return false;
+    return Objects.equals(asOf, other.asOf) && Arrays.equals(rates, other.rates);
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * Objects.hashCode(asOf) + Arrays.hashCode(rates);
+  }
+
+  @Override
+  public String toString() {
+    return "YieldCurve(asOf=" + asOf + ", points=" + points() + ")";
+  }
+
+  private static double[] missing() {
+    double[] rates = new double[Tenor.COUNT];
+    Arrays.fill(rates, Double.NaN);
+    return rates;
+  }
+
+  private static String versionOf(double[] rates) {
+    long h = 0xcbf29ce484222325L;
+    for (int t = 0; t < rates.length; t++) {
+      if (Double.isNaN(rates[t])) continue;
+      String term = Tenor.at(t).label();
+      for (int i = 0; i < term.length(); i++) h = (h ^ term.charAt(i)) * 0x100000001b3L;
+      long bits = Double.doubleToLongBits(rates[t]);
+      for (int shift = 0; shift < 64; shift += 8) h = (h ^ ((bits >>> shift) & 0xff)) * 0x100000001b3L;
+    }
+    return String.format("%016x", h);
+  }
+}
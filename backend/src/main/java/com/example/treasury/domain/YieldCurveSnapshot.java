@@ -0,0 +1,12 @@
+package com.example.treasury.domain;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class YieldCurveSnapshot {
+  private String date;             // business date, yyyy-MM-dd
+  private List<YieldPoint> points; // canonical tenor order
+}
@@ -1,11 +1,12 @@
 package com.example.treasury.domain;
 
 import lombok.AllArgsConstructor;
-import lombok.Data;
+import lombok.Value;
 
-@Data
+/** One tenor of a curve as GraphQL serves it; immutable, since curves hand out the same instances. */
+@Value
 @AllArgsConstructor
 public class YieldPoint {
-  private String term; // e.g., 1M, 3M, 6M, 1Y, 2Y, 5Y, 10Y, 20Y, 30Y
-  private float rate;  // percent
+  String term; // e.g., 1M, 3M, 6M, 1Y, 2Y, 5Y, 10Y, 20Y, 30Y
+  double rate; // percent
 }
@@ -0,0 +1,75 @@
+package com.example.treasury.graphql;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A concurrency limit that follows observed latency (additive increase, multiplicative
+ * decrease).
+ *
+ * A call within {@code targetNanos} counts towards growing the limit by one, once per limit's
+ * worth of such calls and only while at least half the limit is in use. A slower or failed call
+ * cuts the limit by a quarter, at most once per {@code targetNanos} so one slow burst is not
+ * punished per call. All state is in atomics; nothing blocks.
+ */
+final class AdaptiveLimit {
+
+  private static final double BACKOFF = 0.75;
+
+  private final int minLimit;
+  private final int maxLimit;
+  private final long targetNanos;
+  private final AtomicInteger limit;
+  private final AtomicInteger inFlight = new AtomicInteger();
+  private final AtomicInteger successes = new AtomicInteger();
+  private final AtomicLong lastDecrease;
+
+  AdaptiveLimit(int initialLimit, int minLimit, int maxLimit, long targetNanos) {
+    if (minLimit < 1 || maxLimit < minLimit) throw new IllegalArgumentException("need 1 <= min <= max");
+    this.minLimit = minLimit;
+    this.maxLimit = maxLimit;
+    this.targetNanos = targetNanos;
+    this.limit = new AtomicInteger(Math.min(maxLimit, Math.max(minLimit, initialLimit)));
+    this.lastDecrease = new AtomicLong(System.nanoTime() - targetNanos);
+  }
+
+  boolean tryAcquire() {
+    for (;;) {
+      int n = inFlight.get();
+      if (n >= limit.get()) return false;
+      if (inFlight.compareAndSet(n, n + 1)) return true;
+    }
+  }
+
+  /** Ends a call that took {@code latencyNanos}; {@code failed} counts as too slow. */
+  void release(long latencyNanos, boolean failed, long now) {
+    int busy = inFlight.getAndDecrement();
+    if (failed || latencyNanos > targetNanos) {
+      long last = lastDecrease.get();
+      if (now - last >= targetNanos && lastDecrease.compareAndSet(last, now)) {
+        successes.set(0);
+        limit.updateAndGet(l -> Math.max(minLimit, (int) (l * BACKOFF)));
+      }
+      return;
+    }
+    int current = limit.get();
+    if (busy * 2 < current) return; // not using the limit, so no evidence it could be higher
+    if (successes.incrementAndGet() >= current) {
+      successes.set(0);
+      limit.compareAndSet(current, Math.min(maxLimit, current + 1));
+    }
+  }
+
+  /** Ends a call without a latency sample (cancelled). */
+  void release() {
+    inFlight.decrementAndGet();
+  }
+
+  int limit() {
+    return limit.get();
+  }
+
+  int inFlight() {
+    return inFlight.get();
+  }
+}
@@ -0,0 +1,24 @@
+package com.example.treasury.graphql;
+
+import graphql.GraphQLError;
+import graphql.GraphqlErrorBuilder;
+import graphql.schema.DataFetchingEnvironment;
+import org.springframework.graphql.execution.DataFetcherExceptionResolverAdapter;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/** Turns {@link AdmissionRejectedException} into a classified error with {@code retryAfterMs}. */
+@Component
+public class AdmissionErrorResolver extends DataFetcherExceptionResolverAdapter {
+
+  @Override
+  protected GraphQLError resolveToSingleError(Throwable ex, DataFetchingEnvironment env) {
+    if (!(ex instanceof AdmissionRejectedException rejected)) return null;
+    return GraphqlErrorBuilder.newError(env)
+        .errorType(rejected.getReason())
+        .message(rejected.getMessage())
+        .extensions(Map.of("retryAfterMs", rejected.getRetryAfterMillis()))
+        .build();
+  }
+}
@@ -0,0 +1,37 @@
+package com.example.treasury.graphql;
+
+import graphql.ErrorClassification;
+
+/**
+ * A mutation turned away by {@link MutationAdmission} before any work was done. Resolved to a
+ * GraphQL error classified as {@link Reason#RATE_LIMITED} or {@link Reason#OVERLOADED} with a
+ * {@code retryAfterMs} extension. Carries no stack trace, so rejecting stays cheap under load.
+ */
+public class AdmissionRejectedException extends RuntimeException {
+
+  public enum Reason implements ErrorClassification {
+    /** The client used up its request budget. */
+    RATE_LIMITED,
+    /** The server is at its concurrency limit for writes. */
+    OVERLOADED
+  }
+
+  private final Reason reason;
+  private final long retryAfterMillis;
+
+  public AdmissionRejectedException(Reason reason, long retryAfterMillis) {
+    super(reason == Reason.RATE_LIMITED
+        ? "Too many requests from this client; retry in " + retryAfterMillis + " ms"
+        : "Server is busy; retry in " + retryAfterMillis + " ms", null, false, false);
+    this.reason = reason;
+    this.retryAfterMillis = retryAfterMillis;
+  }
+
+  public Reason getReason() {
+    return reason;
+  }
+
+  public long getRetryAfterMillis() {
+    return retryAfterMillis;
+  }
+}
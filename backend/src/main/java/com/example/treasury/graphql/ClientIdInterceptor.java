@@ -0,0 +1,38 @@
+package com.example.treasury.graphql;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.graphql.server.WebGraphQlInterceptor;
+import org.springframework.graphql.server.WebGraphQlRequest;
+import org.springframework.graphql.server.WebGraphQlResponse;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.util.Map;
+
+/**
+ * Puts the caller's identity in the GraphQL context for {@link MutationAdmission}: the remote
+ * address. Behind a proxy that sets {@code X-Client-Id} (and strips it from what clients send),
+ * turn on {@code treasury.graphql.admission.trust-client-id} to key on the header instead; left
+ * off, any caller could pick a fresh id per request and never run out of tokens.
+ */
+@Component
+public class ClientIdInterceptor implements WebGraphQlInterceptor {
+
+  public static final String HEADER = "X-Client-Id";
+
+  @Value("${treasury.graphql.admission.trust-client-id:false}")
+  private boolean trustClientId = false;
+
+  @Override
+  public Mono<WebGraphQlResponse> intercept(WebGraphQlRequest request, Chain chain) {
+    String id = trustClientId ? request.getHeaders().getFirst(HEADER) : null;
+    if (id == null || id.isBlank()) {
+      InetSocketAddress remote = request.getRemoteAddress();
+      id = remote != null ? remote.getHostString() : MutationAdmission.ANONYMOUS;
+    }
+    Map<String, Object> context = Map.of(MutationAdmission.CLIENT_ID, id);
+    request.configureExecutionInput((input, builder) -> builder.graphQLContext(context).build());
+    return chain.next(request);
+  }
+}
@@ -1,23 +1,51 @@
 package com.example.treasury.graphql;
 
+import com.example.treasury.domain.CurveStatus;
+import com.example.treasury.domain.LiquiditySummary;
 import com.example.treasury.domain.Order;
+import com.example.treasury.domain.OrderImportResult;
+import com.example.treasury.domain.OrderRisk;
+import com.example.treasury.domain.PortfolioRisk;
+import com.example.treasury.domain.Tenor;
+import com.example.treasury.domain.YieldCurve;
+import com.example.treasury.domain.YieldCurveSnapshot;
 import com.example.treasury.domain.YieldPoint;
+import com.example.treasury.repo.OrderCursor;
 import com.example.treasury.repo.OrderRepository;
+import com.example.treasury.service.InterpolatedCurve;
+import com.example.treasury.service.Interpolation;
+import com.example.treasury.service.LiquidityAggregates;
+import com.example.treasury.service.OrderEvents;
+import com.example.treasury.service.OrderImport;
+import com.example.treasury.service.OrderIngestService;
+import com.example.treasury.service.PortfolioRiskEngine;
+import com.example.treasury.service.YieldHistoryService;
 import com.example.treasury.service.YieldService;
+import graphql.GraphQLContext;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.convert.DurationStyle;
 import org.springframework.graphql.data.method.annotation.Argument;
+import org.springframework.graphql.data.method.annotation.BatchMapping;
 import org.springframework.graphql.data.method.annotation.MutationMapping;
 import org.springframework.graphql.data.method.annotation.QueryMapping;
+import org.springframework.graphql.data.method.annotation.SubscriptionMapping;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.Instant;
-import java.util.Comparator;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @Controller
 @RequiredArgsConstructor
@@ -25,35 +53,254 @@ import java.util.List;
 public class GraphQLApi {
 
   private final YieldService yieldService;
+  private final YieldHistoryService historyService;
   private final OrderRepository orderRepo;
+  private final OrderIngestService orderIngest;
+  private final OrderEvents orderEvents;
+  private final LiquidityAggregates liquidity;
+  private final PortfolioRiskEngine riskEngine;
+  private final MutationAdmission admission;
+
+  // One curve per request for the computed Order fields; re-read after this long so that
+  // long-lived subscriptions follow refreshes
+  private static final String PAGE_CURVE = GraphQLApi.class.getName() + ".pageCurve";
+  private static final Duration PAGE_CURVE_TTL = Duration.ofSeconds(1);
+
+  @Value("${treasury.graphql.max-page-size:500}")
+  private int maxPageSize = 500;
 
   @QueryMapping
   public Mono<List<YieldPoint>> yieldCurve() {
-    return yieldService.getYieldCurve();
+    return yieldService.getYieldCurve().map(YieldCurve::points);
+  }
+
+  @QueryMapping
+  public CurveStatus yieldCurveStatus() {
+    return yieldService.status();
+  }
+
+  @QueryMapping
+  public List<YieldCurveSnapshot> yieldCurveHistory(@Argument String from, @Argument String to,
+                                                    @Argument List<String> terms) {
+    return historyService.history(parseDate(from), parseDate(to), terms);
   }
 
   @QueryMapping
-  public Flux<Order> orders() {
-    return orderRepo.findAll()
-        .sort(Comparator.comparing(Order::getCreatedAt).reversed());
+  public YieldCurveSnapshot yieldCurveOn(@Argument String date, @Argument List<String> terms) {
+    return historyService.on(parseDate(date), terms);
+  }
+
+  @QueryMapping
+  public Mono<List<YieldPoint>> interpolatedCurve(@Argument int points, @Argument Interpolation method) {
+    if (points < 2 || points > 1000) {
+      return Mono.error(new IllegalArgumentException("points must be between 2 and 1000"));
+    }
+    return yieldService.getInterpolatedCurve(method).map(curve -> {
+      if (curve.isEmpty()) return List.of();
+      int min = curve.minDays(), max = curve.maxDays();
+      List<YieldPoint> out = new ArrayList<>(points);
+      for (int i = 0; i < points; i++) {
+        int days = min + (int) Math.round((max - min) * (double) i / (points - 1));
+        out.add(new YieldPoint(termLabel(days), curve.rateAtDays(days)));
+      }
+      return out;
+    });
+  }
+
+  @QueryMapping
+  public Mono<Double> rateAt(@Argument String term, @Argument Interpolation method) {
+    int days = InterpolatedCurve.maturityDays(term);
+    if (days <= 0) {
+      return Mono.error(new IllegalArgumentException("Unrecognized term: " + term));
+    }
+    return yieldService.getInterpolatedCurve(method)
+        .filter(curve -> !curve.isEmpty())
+        .map(curve -> curve.rateAtDays(days));
+  }
+
+  @QueryMapping
+  public LiquiditySummary liquiditySummary(@Argument String term, @Argument String window) {
+    return liquidity.summary(term != null ? term.toUpperCase() : null, parseDuration(window));
+  }
+
+  @QueryMapping
+  public Mono<PortfolioRisk> portfolioRisk() {
+    return riskEngine.portfolioRisk();
+  }
+
+  @BatchMapping(typeName = "Order")
+  public Map<Order, OrderRisk> markToMarket(List<Order> orders) {
+    return riskEngine.markToMarket(orders);
+  }
+
+  @QueryMapping
+  public Mono<OrderConnection> orders(@Argument int first, @Argument String after,
+                                      @Argument String term, @Argument String status,
+                                      @Argument String from, @Argument String to) {
+    if (first < 1 || first > maxPageSize) {
+      return Mono.error(new IllegalArgumentException("first must be between 1 and " + maxPageSize));
+    }
+    OrderCursor cursor = after != null ? OrderCursor.decode(after) : null;
+    // fetch one extra row to learn whether another page exists
+    return orderRepo.findPage(term != null ? term.toUpperCase() : null, status,
+            parseInstant(from), parseInstant(to), cursor, first + 1)
+        .collectList()
+        .map(rows -> {
+          boolean hasNext = rows.size() > first;
+          List<Order> page = hasNext ? rows.subList(0, first) : rows;
+          List<OrderConnection.Edge> edges = new ArrayList<>(page.size());
+          for (Order o : page) edges.add(new OrderConnection.Edge(OrderCursor.of(o).encode(), o));
+          String endCursor = edges.isEmpty() ? null : edges.get(edges.size() - 1).getCursor();
+          return new OrderConnection(edges, new OrderConnection.PageInfo(hasNext, endCursor));
+        });
+  }
+
+  /** Current rate for each order's term, from one curve for the whole batch; absent keys resolve to null. */
+  @BatchMapping(typeName = "Order")
+  public Mono<Map<Order, Double>> currentRate(List<Order> orders, GraphQLContext context) {
+    return pageCurve(context).map(curve -> {
+      Map<String, Double> byTerm = ratesByTerm(orders, curve);
+      Map<Order, Double> out = new HashMap<>(orders.size() * 2);
+      for (Order o : orders) {
+        Double rate = byTerm.get(o.getTerm());
+        if (rate != null) out.put(o, rate);
+      }
+      return out;
+    });
+  }
+
+  @BatchMapping(typeName = "Order")
+  public Mono<Map<Order, Double>> rateChangeBps(List<Order> orders, GraphQLContext context) {
+    return pageCurve(context).map(curve -> {
+      Map<String, Double> byTerm = ratesByTerm(orders, curve);
+      Map<Order, Double> out = new HashMap<>(orders.size() * 2);
+      for (Order o : orders) {
+        Double now = byTerm.get(o.getTerm()), then = o.getRateAtSubmission();
+        if (now != null && then != null) out.put(o, (now - then) * 100);
+      }
+      return out;
+    });
+  }
+
+  @BatchMapping(typeName = "Order")
+  public Map<Order, Long> ageSeconds(List<Order> orders) {
+    long now = Instant.now().getEpochSecond();
+    Map<Order, Long> out = new HashMap<>(orders.size() * 2);
+    for (Order o : orders) out.put(o, now - o.getCreatedAt().getEpochSecond());
+    return out;
+  }
+
+  @SubscriptionMapping
+  public Flux<List<YieldPoint>> yieldCurveUpdated() {
+    // Per subscriber: the full curve first, then only the tenors that changed since the last push
+    return Flux.defer(() -> {
+      double[] sent = new double[Tenor.COUNT];
+      Arrays.fill(sent, Double.NaN);
+      return Flux.concat(yieldService.getYieldCurve(), yieldService.curveUpdates())
+          .map(curve -> {
+            List<YieldPoint> points = curve.points();
+            List<YieldPoint> changed = new ArrayList<>();
+            int k = 0;
+            for (int t = 0; t < Tenor.COUNT; t++) {
+              double rate = curve.rate(t);
+              if (Double.isNaN(rate)) continue;
+              YieldPoint p = points.get(k++);
+              if (Double.compare(sent[t], rate) != 0) {
+                sent[t] = rate;
+                changed.add(p);
+              }
+            }
+            return changed;
+          })
+          .filter(changed -> !changed.isEmpty());
+    });
+  }
+
+  @SubscriptionMapping
+  public Flux<Order> orderCreated(@Argument String term) {
+    Flux<Order> events = orderEvents.created();
+    return term == null ? events : events.filter(o -> o.getTerm().equalsIgnoreCase(term));
+  }
+
+  @SubscriptionMapping
+  public Flux<Order> orderStatusChanged(@Argument String term) {
+    Flux<Order> events = orderEvents.statusChanged();
+    return term == null ? events : events.filter(o -> o.getTerm().equalsIgnoreCase(term));
   }
 
   @MutationMapping
-  public Mono<Order> createOrder(@Argument("input") CreateOrderInput input) {
-    if (input.amount <= 0) {
-      return Mono.error(new IllegalArgumentException("Amount must be > 0"));
+  public Mono<Order> createOrder(@Argument("input") CreateOrderInput input, GraphQLContext context) {
+    String term = input.term.trim().toUpperCase();
+    BigDecimal amount = BigDecimal.valueOf(input.amount);
+    String error = OrderIngestService.validationError(term, amount);
+    if (error != null) {
+      return Mono.error(new IllegalArgumentException(error));
+    }
+    // batched with other concurrent submissions; the rate is captured from the batch's curve snapshot
+    return admission.admit(context, 1, () -> orderIngest.submit(term, amount));
+  }
+
+  /** Same rules as createOrder; invalid inputs are reported by position and do not stop the others. */
+  @MutationMapping
+  public Mono<OrderImportResult> createOrders(@Argument List<CreateOrderInput> inputs, GraphQLContext context) {
+    return admission.admit(context, inputs.size(), () -> orderIngest.importOrders(Flux.range(0, inputs.size()).map(i -> {
+      CreateOrderInput in = inputs.get(i);
+      return OrderImport.Row.of(i + 1, in.term, BigDecimal.valueOf(in.amount));
+    })));
+  }
+
+  /** The curve orders are priced at on submission, shared by every batch of the request. */
+  private Mono<InterpolatedCurve> pageCurve(GraphQLContext context) {
+    return context.computeIfAbsent(PAGE_CURVE,
+        k -> yieldService.getInterpolatedCurve(Interpolation.MONOTONE_CUBIC).cache(PAGE_CURVE_TTL));
+  }
+
+  /** The curve rate for each distinct term in the batch; unrecognized terms are left out. */
+  private static Map<String, Double> ratesByTerm(List<Order> orders, InterpolatedCurve curve) {
+    Map<String, Double> byTerm = new HashMap<>();
+    if (curve.isEmpty()) return byTerm;
+    for (Order o : orders) {
+      if (byTerm.containsKey(o.getTerm())) continue;
+      int days = InterpolatedCurve.maturityDays(o.getTerm());
+      byTerm.put(o.getTerm(), days > 0 ? curve.rateAtDays(days) : null);
+    }
+    return byTerm;
+  }
+
+  /** Label for a sampled maturity: months below a year, years otherwise (e.g. "4.5M", "2.35Y"). */
+  private static String termLabel(int days) {
+    double months = days * 12 / 365.0;
+    if (months < 12) return trim(months) + "M";
+    return trim(days / 365.0) + "Y";
+  }
+
+  private static String trim(double v) {
+    return BigDecimal.valueOf(Math.round(v * 100) / 100.0).stripTrailingZeros().toPlainString();
+  }
+
+  private static Instant parseInstant(String s) {
+    if (s == null) return null;
+    try {
+      return Instant.parse(s);
+    } catch (DateTimeParseException e) {
+      throw new IllegalArgumentException("Invalid instant (expected ISO-8601, e.g. 2024-01-15T00:00:00Z): " + s);
+    }
+  }
+
+  private static Duration parseDuration(String s) {
+    try {
+      return DurationStyle.detectAndParse(s);
+    } catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException("Invalid window (expected e.g. 15m, 1h or PT30M): " + s);
+    }
+  }
+
+  private static LocalDate parseDate(String s) {
+    try {
+      return LocalDate.parse(s);
+    } catch (DateTimeParseException e) {
+      throw new IllegalArgumentException("Invalid date (expected yyyy-MM-dd): " + s);
     }
-    // capture yield at submission if available
-    return yieldService.getYieldCurve().map(list -> {
-      Double rate = list.stream()
-          .filter(p -> p.getTerm().equalsIgnoreCase(input.term))
-          .map(p -> (double) p.getRate())
-          .findFirst().orElse(null);
-      Order o = new Order(null, input.term.toUpperCase(),
-          BigDecimal.valueOf(input.amount), Instant.now(),
-          "SUBMITTED", rate);
-      return o;
-    }).flatMap(orderRepo::save);
   }
 
   @Data
@@ -0,0 +1,117 @@
+package com.example.treasury.graphql;
+
+import graphql.GraphQLContext;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Admission control for the order mutations, so a burst of writes cannot crowd out reads.
+ *
+ * A call first takes a token per order it writes from its client's bucket
+ * ({@code treasury.graphql.admission.client-rate} per second, bursts of {@code client-burst}), then a slot under a global concurrency limit that
+ * shrinks when writes take longer than {@code latency-target} and grows back while they are fast
+ * (see {@link AdaptiveLimit}). A call that gets neither fails at once with an
+ * {@link AdmissionRejectedException}; it never waits. Tokens taken by a call that then finds no
+ * free slot are given back. Clients are told apart by
+ * {@link ClientIdInterceptor}.
+ */
+@Component
+public class MutationAdmission {
+
+  static final String CLIENT_ID = MutationAdmission.class.getName() + ".clientId";
+  static final String ANONYMOUS = "anonymous";
+
+  @Value("${treasury.graphql.admission.enabled:true}")
+  private boolean enabled = true;
+  @Value("${treasury.graphql.admission.client-rate:200}")
+  private double clientRate = 200;
+  @Value("${treasury.graphql.admission.client-burst:400}")
+  private int clientBurst = 400;
+  @Value("${treasury.graphql.admission.max-clients:10000}")
+  private int maxClients = 10_000;
+  @Value("${treasury.graphql.admission.initial-limit:32}")
+  private int initialLimit = 32;
+  @Value("${treasury.graphql.admission.min-limit:4}")
+  private int minLimit = 4;
+  @Value("${treasury.graphql.admission.max-limit:256}")
+  private int maxLimit = 256;
+  @Value("${treasury.graphql.admission.latency-target:50ms}")
+  private Duration latencyTarget = Duration.ofMillis(50);
+
+  private TokenBuckets buckets;
+  private AdaptiveLimit limit;
+  private Counter admitted, rateLimited, overloaded;
+
+  @PostConstruct
+  void start() {
+    buckets = new TokenBuckets(clientRate, clientBurst, maxClients);
+    limit = new AdaptiveLimit(initialLimit, minLimit, maxLimit, latencyTarget.toNanos());
+    if (admitted == null) counters(new CompositeMeterRegistry());
+  }
+
+  @Autowired(required = false)
+  void bindMetrics(MeterRegistry registry) {
+    counters(registry);
+    Gauge.builder("treasury.graphql.admission.limit", this, a -> a.limit == null ? 0 : a.limit.limit())
+        .description("Current concurrency limit for order mutations").register(registry);
+    Gauge.builder("treasury.graphql.admission.in.flight", this, a -> a.limit == null ? 0 : a.limit.inFlight())
+        .description("Order mutations running").register(registry);
+  }
+
+  private void counters(MeterRegistry registry) {
+    admitted = outcome(registry, "admitted");
+    rateLimited = outcome(registry, "rate_limited");
+    overloaded = outcome(registry, "overloaded");
+  }
+
+  private static Counter outcome(MeterRegistry registry, String outcome) {
+    return Counter.builder("treasury.graphql.admission").tag("outcome", outcome)
+        .description("Order mutation admission decisions").register(registry);
+  }
+
+  /**
+   * Runs {@code call} if the caller may proceed, else fails with {@link AdmissionRejectedException}.
+   * {@code rows} is the number of orders written: the call costs that many tokens, and its latency
+   * is judged per order.
+   */
+  public <T> Mono<T> admit(GraphQLContext context, int rows, Supplier<Mono<T>> call) {
+    return Mono.defer(() -> {
+      if (!enabled) return call.get();
+      String client = context.getOrDefault(CLIENT_ID, ANONYMOUS);
+      long wait = buckets.tryAcquire(client, rows, System.nanoTime());
+      if (wait > 0) {
+        rateLimited.increment();
+        return Mono.error(new AdmissionRejectedException(AdmissionRejectedException.Reason.RATE_LIMITED,
+            Math.max(1, wait / 1_000_000)));
+      }
+      if (!limit.tryAcquire()) {
+        // the client is not to blame for this one
+        buckets.refund(client, rows);
+        overloaded.increment();
+        return Mono.error(new AdmissionRejectedException(AdmissionRejectedException.Reason.OVERLOADED,
+            latencyTarget.toMillis()));
+      }
+      admitted.increment();
+      long started = System.nanoTime();
+      return Mono.defer(call).doFinally(signal -> {
+        if (signal == SignalType.CANCEL) {
+          limit.release();
+        } else {
+          long now = System.nanoTime();
+          limit.release((now - started) / Math.max(1, rows), signal == SignalType.ON_ERROR, now);
+        }
+      });
+    });
+  }
+}
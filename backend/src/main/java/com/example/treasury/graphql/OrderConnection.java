@@ -0,0 +1,29 @@
+package com.example.treasury.graphql;
+
+import com.example.treasury.domain.Order;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/** Relay-style connection for the paginated {@code orders} query. */
+@Data
+@AllArgsConstructor
+public class OrderConnection {
+  private List<Edge> edges;
+  private PageInfo pageInfo;
+
+  @Data
+  @AllArgsConstructor
+  public static class Edge {
+    private String cursor;
+    private Order node;
+  }
+
+  @Data
+  @AllArgsConstructor
+  public static class PageInfo {
+    private boolean hasNextPage;
+    private String endCursor;
+  }
+}
@@ -0,0 +1,174 @@
+package com.example.treasury.graphql;
+
+import com.example.treasury.service.YieldService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.graphql.ExecutionGraphQlResponse;
+import org.springframework.graphql.ExecutionGraphQlService;
+import org.springframework.graphql.support.DefaultExecutionGraphQlRequest;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Serves persisted queries sent as {@code GET /graphql?extensions={"persistedQuery":...}}.
+ *
+ * Documents that select only {@code yieldCurve} are executed once per curve version; the JSON
+ * bytes are kept and handed out as is, tagged with an ETag made of the curve version and the
+ * document hash, so {@code If-None-Match} turns into a 304 until the curve changes. Other
+ * persisted queries are executed per request. An unknown hash that comes with its document in
+ * {@code query} (how clients register one over GET) is executed with it, which registers the
+ * document if it hashes to that id; without the document it gets the usual
+ * {@code PersistedQueryNotFound} error so the client resends it. POSTs and mutations are left to
+ * the regular GraphQL handler.
+ */
+@Component
+public class PersistedCurveWebFilter implements WebFilter, Ordered {
+
+  private final PersistedQueries queries;
+  private final YieldService yieldService;
+  private final ExecutionGraphQlService graphQl;
+  private final ObjectMapper json;
+  private final String path;
+
+  // Rendered curve-only responses by document hash; an entry is reused while its version is current
+  private final Map<String, CurveResponse> rendered = new ConcurrentHashMap<>();
+
+  record CurveResponse(String version, String etag, byte[] body) {}
+
+  public PersistedCurveWebFilter(PersistedQueries queries, YieldService yieldService,
+                                 ExecutionGraphQlService graphQl, ObjectMapper json,
+                                 @Value("${spring.graphql.path:/graphql}") String path) {
+    this.queries = queries;
+    this.yieldService = yieldService;
+    this.graphQl = graphQl;
+    this.json = json;
+    this.path = path;
+  }
+
+  @Override
+  public int getOrder() {
+    // after CORS and other filters that decorate the exchange
+    return Ordered.LOWEST_PRECEDENCE;
+  }
+
+  @Override
+  public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+    ServerHttpRequest request = exchange.getRequest();
+    if (!HttpMethod.GET.equals(request.getMethod()) || !path.equals(request.getPath().pathWithinApplication().value())) {
+      return chain.filter(exchange);
+    }
+    MultiValueMap<String, String> params = request.getQueryParams();
+    Map<String, Object> extensions = readMap(params.getFirst("extensions"), "extensions");
+    String hash = persistedQueryHash(extensions);
+    if (hash == null) return chain.filter(exchange);
+
+    PersistedQueries.Entry entry = queries.get(hash);
+    if (entry == null) {
+      String text = params.getFirst("query");
+      if (text == null || text.isBlank()) return write(exchange, notFound(hash), null);
+      if (!PersistedQueries.readOnly(text)) return chain.filter(exchange);
+      // graphql-java checks the hash against the text and registers the document (see PersistedQueries)
+      return execute(text, params.getFirst("operationName"), readMap(params.getFirst("variables"), "variables"), extensions)
+          .flatMap(response -> write(exchange, serialize(response), null));
+    }
+    if (!entry.query()) return chain.filter(exchange);
+
+    if (entry.curveOnly()) {
+      return curveResponse(hash, entry).flatMap(r -> {
+        if (r.etag() != null && exchange.checkNotModified(r.etag())) return exchange.getResponse().setComplete();
+        return write(exchange, r.body(), r.etag());
+      });
+    }
+    Map<String, Object> variables = readMap(params.getFirst("variables"), "variables");
+    return execute(entry.document(), params.getFirst("operationName"), variables, null)
+        .flatMap(response -> write(exchange, serialize(response), null));
+  }
+
+  /** The response for a curve-only document at the current curve, rendering it on a version change. */
+  private Mono<CurveResponse> curveResponse(String hash, PersistedQueries.Entry entry) {
+    return yieldService.getCurveVersion().flatMap(version -> {
+      CurveResponse cached = rendered.get(hash);
+      if (cached != null && cached.version().equals(version)) return Mono.just(cached);
+      return execute(entry.document(), null, null, null).map(response -> {
+        byte[] body = serialize(response);
+        // a refresh may have landed while executing; only a response known to match the version is tagged
+        if (!response.getErrors().isEmpty() || !version.equals(yieldService.curveVersion())) {
+          return new CurveResponse(version, null, body);
+        }
+        CurveResponse fresh = new CurveResponse(version, "\"" + version + "-" + hash.substring(0, 16) + "\"", body);
+        rendered.put(hash, fresh);
+        return fresh;
+      });
+    });
+  }
+
+  private Mono<ExecutionGraphQlResponse> execute(String document, String operationName, Map<String, Object> variables,
+                                                 Map<String, Object> extensions) {
+    return graphQl.execute(new DefaultExecutionGraphQlRequest(document, operationName, variables, extensions,
+        "persisted-get", null));
+  }
+
+  private Mono<Void> write(ServerWebExchange exchange, byte[] body, String etag) {
+    ServerHttpResponse response = exchange.getResponse();
+    response.setStatusCode(HttpStatus.OK);
+    response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+    if (etag != null) {
+      response.getHeaders().setETag(etag);
+      response.getHeaders().setCacheControl(CacheControl.noCache());
+    }
+    return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+  }
+
+  /** The same error graphql-java reports for an unknown hash on POST. */
+  private byte[] notFound(String hash) {
+    return serialize(Map.of("errors", List.of(Map.of(
+        "message", "PersistedQueryNotFound",
+        "extensions", Map.of("persistedQueryId", hash, "classification", "PersistedQueryNotFound")))));
+  }
+
+  private static String persistedQueryHash(Map<String, Object> extensions) {
+    Object persisted = extensions != null ? extensions.get("persistedQuery") : null;
+    if (!(persisted instanceof Map<?, ?> pq)) return null;
+    Object hash = pq.get("sha256Hash");
+    return hash instanceof String s && !s.isEmpty() ? s : null;
+  }
+
+  @SuppressWarnings("unchecked")
+  private Map<String, Object> readMap(String value, String name) {
+    if (value == null) return null;
+    try {
+      return json.readValue(value, Map.class);
+    } catch (JsonProcessingException e) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid JSON in " + name);
+    }
+  }
+
+  private byte[] serialize(ExecutionGraphQlResponse response) {
+    return serialize(response.toMap());
+  }
+
+  private byte[] serialize(Object value) {
+    try {
+      return json.writeValueAsBytes(value);
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("Cannot serialize GraphQL response", e);
+    }
+  }
+}
@@ -0,0 +1,129 @@
+package com.example.treasury.graphql;
+
+import graphql.ExecutionInput;
+import graphql.execution.preparsed.PreparsedDocumentEntry;
+import graphql.execution.preparsed.persisted.PersistedQueryCache;
+import graphql.execution.preparsed.persisted.PersistedQueryCacheMiss;
+import graphql.execution.preparsed.persisted.PersistedQueryNotFound;
+import graphql.execution.preparsed.persisted.PersistedQuerySupport;
+import graphql.language.Definition;
+import graphql.language.Document;
+import graphql.language.Field;
+import graphql.language.OperationDefinition;
+import graphql.language.Selection;
+import graphql.parser.InvalidSyntaxException;
+import graphql.parser.Parser;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Documents registered through automatic persisted queries, keyed by the SHA-256 of their text.
+ *
+ * graphql-java looks documents up here (see {@code GraphQlConfig}) so a client can send the hash
+ * alone once the full text has been seen, and parsing and validation are skipped for it. A
+ * document is kept only when its text hashes to the id it came with, so the text found under a
+ * hash is always the text the client meant. The store stops accepting documents when full;
+ * further documents still execute, they are just not remembered.
+ */
+@Component
+public class PersistedQueries implements PersistedQueryCache {
+
+  private static final String CURVE_FIELD = "yieldCurve";
+
+  private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+  @Value("${treasury.graphql.persisted-queries.max-entries:1000}")
+  private int maxEntries = 1000;
+
+  /**
+   * A registered document. {@code query} when its only operation is a query, so it may run for a
+   * GET; {@code curveOnly} when it also has no fragments or variables and selects nothing but
+   * {@code yieldCurve}, so its result depends on the curve alone.
+   */
+  record Entry(String document, PreparsedDocumentEntry parsed, boolean query, boolean curveOnly) {}
+
+  /** The document registered under {@code hash}, or null. */
+  Entry get(String hash) {
+    return entries.get(hash);
+  }
+
+  @Override
+  public CompletableFuture<PreparsedDocumentEntry> getPersistedQueryDocumentAsync(Object persistedQueryId,
+                                                                                  ExecutionInput executionInput,
+                                                                                  PersistedQueryCacheMiss onCacheMiss)
+      throws PersistedQueryNotFound {
+    return CompletableFuture.completedFuture(lookup(persistedQueryId, executionInput, onCacheMiss));
+  }
+
+  /** The cached parse of the document, parsing and (when it hashes to its id) registering it on a miss. */
+  private PreparsedDocumentEntry lookup(Object persistedQueryId, ExecutionInput executionInput,
+                                        PersistedQueryCacheMiss onCacheMiss) throws PersistedQueryNotFound {
+    String hash = persistedQueryId.toString();
+    Entry entry = entries.get(hash);
+    if (entry != null) return entry.parsed();
+
+    String text = executionInput.getQuery();
+    if (text == null || text.isBlank() || PersistedQuerySupport.PERSISTED_QUERY_MARKER.equals(text)) {
+      throw new PersistedQueryNotFound(persistedQueryId);
+    }
+    PreparsedDocumentEntry parsed = onCacheMiss.apply(text);
+    if (!parsed.hasErrors() && entries.size() < maxEntries && sha256(text).equals(hash)) {
+      Document doc = parsed.getDocument();
+      entries.putIfAbsent(hash, new Entry(text, parsed, isQuery(doc), isCurveOnly(doc)));
+    }
+    return parsed;
+  }
+
+  /** Lower-case hex SHA-256 of the UTF-8 text, as clients compute persisted query ids. */
+  static String sha256(String text) {
+    try {
+      byte[] digest = MessageDigest.getInstance("SHA-256").digest(text.getBytes(StandardCharsets.UTF_8));
+      return HexFormat.of().formatHex(digest);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e); // every JVM ships SHA-256
+    }
+  }
+
+  /**
+   * Whether {@code text} may run for a GET: it has no mutation or subscription. Text that does not
+   * parse counts as read-only, as executing it only reports the syntax error.
+   */
+  static boolean readOnly(String text) {
+    try {
+      return Parser.parse(text).getDefinitionsOfType(OperationDefinition.class).stream()
+          .allMatch(op -> op.getOperation() == OperationDefinition.Operation.QUERY);
+    } catch (InvalidSyntaxException e) {
+      return true;
+    }
+  }
+
+  private static boolean isQuery(Document doc) {
+    List<OperationDefinition> ops = doc.getDefinitionsOfType(OperationDefinition.class);
+    return ops.size() == 1 && ops.get(0).getOperation() == OperationDefinition.Operation.QUERY;
+  }
+
+  private static boolean isCurveOnly(Document doc) {
+    if (doc.getDefinitions().size() != 1) return false;
+    Definition<?> def = doc.getDefinitions().get(0);
+    if (!(def instanceof OperationDefinition op)
+        || op.getOperation() != OperationDefinition.Operation.QUERY
+        || !op.getVariableDefinitions().isEmpty()) {
+      return false;
+    }
+    for (Selection<?> s : op.getSelectionSet().getSelections()) {
+      if (!(s instanceof Field f) || !(CURVE_FIELD.equals(f.getName()) || "__typename".equals(f.getName()))) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
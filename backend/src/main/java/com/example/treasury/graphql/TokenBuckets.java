@@ -0,0 +1,101 @@
+package com.example.treasury.graphql;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * One token bucket per client, refilled at {@code ratePerSecond} up to {@code burst} tokens.
+ *
+ * Each bucket is a single long, the time at which it will be full again (the generic cell rate
+ * algorithm), so taking tokens is one compare-and-set. A call may cost several tokens; one that
+ * costs more than the burst needs a full bucket and leaves it in debt for the rest.
+ *
+ * Buckets that are already full are the same as new ones. Once {@code maxClients} are tracked, a
+ * new client first looks at a few of the longest-tracked ones, dropping those that are full and
+ * moving the others to the back; when none can go it is turned away as if rate limited. The map
+ * stays bounded and each lookup stays O(1). A dropped bucket is first marked {@link #EVICTED}
+ * with the same compare-and-set a charge uses, so a caller still holding it cannot charge it
+ * afterwards: it looks the client up again instead.
+ */
+final class TokenBuckets {
+
+  private static final int EVICTION_SAMPLE = 8;
+  private static final long EVICTED = Long.MIN_VALUE;
+
+  private final long intervalNanos;   // refill time of one token
+  private final long toleranceNanos;  // how far ahead of now a bucket may be drawn: burst - 1 tokens
+  private final int burst;
+  private final int maxClients;
+  private final ConcurrentHashMap<String, AtomicLong> fullAt = new ConcurrentHashMap<>();
+  private final ConcurrentLinkedQueue<String> tracked = new ConcurrentLinkedQueue<>(); // eviction order
+
+  TokenBuckets(double ratePerSecond, int burst, int maxClients) {
+    if (ratePerSecond <= 0 || burst < 1) throw new IllegalArgumentException("rate and burst must be positive");
+    this.intervalNanos = Math.max(1, (long) (1e9 / ratePerSecond));
+    this.toleranceNanos = (burst - 1) * intervalNanos;
+    this.burst = burst;
+    this.maxClients = Math.max(1, maxClients);
+  }
+
+  /** Takes {@code cost} tokens; returns 0 on success, otherwise the nanoseconds until they are available. */
+  long tryAcquire(String client, int cost, long now) {
+    long charge = Math.max(1, cost) * intervalNanos;
+    long needed = (Math.min(Math.max(1, cost), burst) - 1) * intervalNanos;
+    for (;;) {
+      AtomicLong bucket = fullAt.get(client);
+      if (bucket == null) {
+        if (fullAt.size() >= maxClients && !evictIdle(now)) return intervalNanos;
+        bucket = fullAt.computeIfAbsent(client, k -> {
+          tracked.add(k);
+          return new AtomicLong(now);
+        });
+      }
+      for (;;) {
+        long full = bucket.get();
+        if (full == EVICTED) {
+          fullAt.remove(client, bucket);  // in case the evicting thread has not got to it yet
+          break;
+        }
+        long base = Math.max(full, now);
+        long ahead = base - now + needed;
+        if (ahead > toleranceNanos) return ahead - toleranceNanos;
+        if (bucket.compareAndSet(full, base + charge)) return 0;
+      }
+    }
+  }
+
+  /** Gives back the tokens of a call that was then turned away for another reason. */
+  void refund(String client, int cost) {
+    AtomicLong bucket = fullAt.get(client);
+    if (bucket == null) return;
+    long charge = Math.max(1, cost) * intervalNanos;
+    for (;;) {
+      long full = bucket.get();
+      if (full == EVICTED || bucket.compareAndSet(full, full - charge)) return;
+    }
+  }
+
+  /** Looks at up to {@value #EVICTION_SAMPLE} of the longest-tracked clients; whether any was dropped. */
+  private boolean evictIdle(long now) {
+    boolean evicted = false;
+    for (int i = 0; i < EVICTION_SAMPLE; i++) {
+      String client = tracked.poll();
+      if (client == null) break;
+      AtomicLong bucket = fullAt.get(client);
+      if (bucket == null) continue;
+      long full = bucket.get();
+      if (full != EVICTED && full <= now && bucket.compareAndSet(full, EVICTED)) {
+        fullAt.remove(client, bucket);
+        evicted = true;
+      } else if (full != EVICTED) {
+        tracked.add(client);
+      }
+    }
+    return evicted;
+  }
+
+  int clients() {
+    return fullAt.size();
+  }
+}
@@ -0,0 +1,35 @@
+package com.example.treasury.repo;
+
+import com.example.treasury.domain.Order;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Keyset position in the newest-first order listing: the (created_at, id) of the last row seen.
+ * Encoded as an opaque base64 string for GraphQL clients.
+ */
+public record OrderCursor(Instant createdAt, long id) {
+
+  public static OrderCursor of(Order o) {
+    return new OrderCursor(o.getCreatedAt(), o.getId());
+  }
+
+  public String encode() {
+    String raw = createdAt.getEpochSecond() + ":" + createdAt.getNano() + ":" + id;
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.US_ASCII));
+  }
+
+  /** Decodes a cursor produced by {@link #encode()}; throws IllegalArgumentException if malformed. */
+  public static OrderCursor decode(String cursor) {
+    try {
+      String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII).split(":");
+      if (parts.length != 3) throw new IllegalArgumentException();
+      Instant createdAt = Instant.ofEpochSecond(Long.parseLong(parts[0]), Long.parseLong(parts[1]));
+      return new OrderCursor(createdAt, Long.parseLong(parts[2]));
+    } catch (RuntimeException e) {
+      throw new IllegalArgumentException("Invalid cursor: " + cursor);
+    }
+  }
+}
@@ -0,0 +1,16 @@
+package com.example.treasury.repo;
+
+import com.example.treasury.domain.Order;
+import reactor.core.publisher.Flux;
+
+import java.time.Instant;
+
+public interface OrderRepositoryCustom {
+
+  /**
+   * Newest-first page of orders after {@code after} (exclusive), using a keyset predicate on
+   * (created_at, id) so the cost does not grow with the page's offset. Null filters are ignored;
+   * {@code from} is inclusive and {@code to} exclusive.
+   */
+  Flux<Order> findPage(String term, String status, Instant from, Instant to, OrderCursor after, int limit);
+}
@@ -0,0 +1,39 @@
+package com.example.treasury.repo;
+
+import com.example.treasury.config.DatabaseInit;
+import com.example.treasury.domain.Order;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.data.relational.core.query.Criteria;
+import org.springframework.data.relational.core.query.Query;
+import reactor.core.publisher.Flux;
+
+import java.time.Instant;
+
+@RequiredArgsConstructor
+class OrderRepositoryImpl implements OrderRepositoryCustom {
+
+  private static final Sort NEWEST_FIRST = Sort.by(Sort.Order.desc("createdAt"), Sort.Order.desc("id"));
+
+  private final R2dbcEntityTemplate template;
+  private final DatabaseInit schema;
+
+  @Override
+  public Flux<Order> findPage(String term, String status, Instant from, Instant to, OrderCursor after, int limit) {
+    Criteria where = Criteria.empty();
+    if (term != null) where = where.and("term").is(term);
+    if (status != null) where = where.and("status").is(status);
+    if (from != null) where = where.and("createdAt").greaterThanOrEquals(from);
+    if (to != null) where = where.and("createdAt").lessThan(to);
+    if (after != null) {
+      // (created_at, id) < (after.createdAt, after.id)
+      where = where.and(Criteria.where("createdAt").lessThan(after.createdAt())
+          .or(Criteria.where("createdAt").is(after.createdAt()).and("id").lessThan(after.id())));
+    }
+    // the listing is the first read a client makes, possibly while the schema is still migrating
+    return schema.ready().thenMany(template.select(Order.class)
+        .matching(Query.query(where).sort(NEWEST_FIRST).limit(limit))
+        .all());
+  }
+}
@@ -0,0 +1,72 @@
+package com.example.treasury.service;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Stops calling a feed source after {@code failureThreshold} failures in a row. Once
+ * {@code openNanos} have passed, one trial call is let through: success closes the breaker,
+ * failure opens it for another period. A trial that ends without either (its caller cancelled) is
+ * handed back, so the next caller gets it. Only the trial's outcome moves the breaker out of
+ * OPEN or HALF_OPEN: ordinary calls that started before it opened and end late count towards, or
+ * reset, the failures in a row, and nothing else.
+ */
+final class CircuitBreaker {
+
+  enum State { CLOSED, OPEN, HALF_OPEN }
+
+  /** What {@link #tryAcquire} granted: nothing, an ordinary call, or the half-open trial. */
+  enum Permit { DENIED, CALL, TRIAL }
+
+  private static final long CLOSED = Long.MIN_VALUE;
+
+  private final int failureThreshold;
+  private final long openNanos;
+  private final AtomicInteger failures = new AtomicInteger();
+  private final AtomicLong openedAt = new AtomicLong(CLOSED);
+  private final AtomicBoolean trial = new AtomicBoolean();
+
+  CircuitBreaker(int failureThreshold, long openNanos) {
+    this.failureThreshold = Math.max(1, failureThreshold);
+    this.openNanos = openNanos;
+  }
+
+  /** Whether a call may go out now; when half open, only the first caller gets the trial. */
+  Permit tryAcquire(long now) {
+    long opened = openedAt.get();
+    if (opened == CLOSED) return Permit.CALL;
+    if (now - opened < openNanos) return Permit.DENIED;
+    return trial.compareAndSet(false, true) ? Permit.TRIAL : Permit.DENIED;
+  }
+
+  /** The call holding {@code permit} ended with no outcome; a trial goes back to the next caller. */
+  void release(Permit permit) {
+    if (permit == Permit.TRIAL) trial.compareAndSet(true, false);
+  }
+
+  /** The call holding {@code permit} succeeded. */
+  void onSuccess(Permit permit) {
+    failures.set(0);
+    if (permit != Permit.TRIAL) return;
+    openedAt.set(CLOSED);
+    trial.set(false);
+  }
+
+  /** The call holding {@code permit} failed at {@code now}. */
+  void onFailure(Permit permit, long now) {
+    if (permit == Permit.TRIAL) {
+      // open again before handing the trial back, so no caller sees the old period as over
+      openedAt.set(now);
+      trial.set(false);
+      return;
+    }
+    if (failures.incrementAndGet() >= failureThreshold) openedAt.compareAndSet(CLOSED, now);
+  }
+
+  State state(long now) {
+    long opened = openedAt.get();
+    if (opened == CLOSED) return State.CLOSED;
+    return now - opened < openNanos ? State.OPEN : State.HALF_OPEN;
+  }
+}
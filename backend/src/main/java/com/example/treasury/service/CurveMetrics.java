@@ -0,0 +1,132 @@
+package com.example.treasury.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Meters for the Treasury fetch, parse and cache paths.
+ *
+ * Everything is registered up front (per-status fetch timers on first use), so recording is a
+ * field read plus an add: no tag building or string formatting per request.
+ */
+final class CurveMetrics {
+
+  /** Records nothing; used until a registry is bound. */
+  static final CurveMetrics NOOP = new CurveMetrics(new CompositeMeterRegistry());
+
+  private static final int STATUS_IO_ERROR = 0;
+
+  private final MeterRegistry registry;
+  private final Timer[] fetchByStatus = new Timer[600]; // index 0: no HTTP status (connect/read failure)
+  private final DistributionSummary fetchBytes;
+  private final Timer parse;
+  private final DistributionSummary parseEntries;
+  private final Counter hit, stale, miss, backoff;
+  private final Counter refreshSuccess, refreshFailure;
+  private final Counter hedges;
+
+  CurveMetrics(MeterRegistry registry) {
+    this.registry = registry;
+    fetchBytes = DistributionSummary.builder("treasury.fetch.bytes").baseUnit("bytes")
+        .description("Size of a fetched Treasury feed month").register(registry);
+    parse = Timer.builder("treasury.parse").description("Time to parse one feed month").register(registry);
+    parseEntries = DistributionSummary.builder("treasury.parse.entries")
+        .description("Dated entries scanned per parsed feed month").register(registry);
+    hit = cacheCounter("hit");
+    stale = cacheCounter("stale");
+    miss = cacheCounter("miss");
+    backoff = cacheCounter("backoff");
+    refreshSuccess = refreshCounter("success");
+    refreshFailure = refreshCounter("failure");
+    hedges = Counter.builder("treasury.fetch.hedges")
+        .description("Extra feed requests started because the first was slow").register(registry);
+  }
+
+  /** Registers gauges over the service's refresh state. */
+  void bindState(Supplier<Number> consecutiveFailures, Supplier<Number> backoffRemainingSeconds,
+                 Supplier<Number> curveAgeSeconds) {
+    Gauge.builder("treasury.curve.refresh.failures", consecutiveFailures)
+        .description("Consecutive failed refreshes").register(registry);
+    Gauge.builder("treasury.curve.backoff.remaining", backoffRemainingSeconds).baseUnit("seconds")
+        .description("Time until the next refresh attempt is allowed").register(registry);
+    Gauge.builder("treasury.curve.age", curveAgeSeconds).baseUnit("seconds")
+        .description("Age of the cached curve").register(registry);
+  }
+
+  void cacheHit() {
+    hit.increment();
+  }
+
+  void cacheStale() {
+    stale.increment();
+  }
+
+  void cacheMiss() {
+    miss.increment();
+  }
+
+  void cacheBackoff() {
+    backoff.increment();
+  }
+
+  void refreshed(boolean success) {
+    (success ? refreshSuccess : refreshFailure).increment();
+  }
+
+  void fetched(int status, long nanos, int bytes) {
+    fetchTimer(status).record(nanos, TimeUnit.NANOSECONDS);
+    fetchBytes.record(bytes);
+  }
+
+  void fetchFailed(Throwable e, long nanos) {
+    int status = e instanceof WebClientResponseException w ? w.getStatusCode().value() : STATUS_IO_ERROR;
+    fetchTimer(status).record(nanos, TimeUnit.NANOSECONDS);
+  }
+
+  void hedged() {
+    hedges.increment();
+  }
+
+  /** Counter of failed fetches from one feed source; registered when the sources are built. */
+  Counter sourceFailures(String source) {
+    return Counter.builder("treasury.feed.source.failures").tag("source", source)
+        .description("Feed month fetches that failed, per source").register(registry);
+  }
+
+  void parsed(long nanos, int entries) {
+    parse.record(nanos, TimeUnit.NANOSECONDS);
+    parseEntries.record(entries);
+  }
+
+  private Timer fetchTimer(int status) {
+    int i = status > 0 && status < fetchByStatus.length ? status : STATUS_IO_ERROR;
+    Timer t = fetchByStatus[i];
+    if (t == null) {
+      // Benign race: the registry hands every caller the same timer
+      t = Timer.builder("treasury.fetch")
+          .description("Treasury feed month download, until the body is fully read")
+          .tag("status", i == STATUS_IO_ERROR ? "IO_ERROR" : Integer.toString(i))
+          .register(registry);
+      fetchByStatus[i] = t;
+    }
+    return t;
+  }
+
+  private Counter cacheCounter(String result) {
+    return Counter.builder("treasury.curve.requests").tag("result", result)
+        .description("Curve lookups by cache outcome").register(registry);
+  }
+
+  private Counter refreshCounter(String outcome) {
+    return Counter.builder("treasury.curve.refresh").tag("outcome", outcome)
+        .description("Completed upstream refreshes").register(registry);
+  }
+}
@@ -0,0 +1,140 @@
+package com.example.treasury.service;
+
+import com.example.treasury.domain.YieldCurve;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.zip.CRC32;
+
+/**
+ * Binary snapshot of the latest curve and the daily history.
+ *
+ * <pre>
+ * header  (16 bytes)
+ *   int    magic "TRSY"
+ *   short  format version
+ *   short  tenor count (must match {@link TreasuryFeedParser#FIELDS})
+ *   int    payload length
+ *   int    CRC32 of the payload
+ * payload
+ *   long   epoch millis the curve was fetched at
+ *   int    epoch day the curve is as of, {@link #NO_DATE} when unknown
+ *   double[] curve rate per tenor (NaN where missing)
+ *   int    history rows
+ *   int[]  epoch days, ascending
+ *   per tenor: double[] rates for every row (NaN where missing)
+ * </pre>
+ *
+ * Big-endian throughout. Files are written to a temporary sibling and atomically moved into
+ * place, so a reader sees either the previous or the new snapshot. Reads memory-map the file and
+ * reject anything with a wrong magic, version, tenor count, length or checksum.
+ */
+final class CurveSnapshotFile {
+
+  private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(CurveSnapshotFile.class);
+
+  static final int MAGIC = 0x54525359; // "TRSY"
+  static final short VERSION = 2; // 1 stored the curve as float points
+  static final int HEADER_BYTES = 16;
+  static final int NO_DATE = Integer.MIN_VALUE;
+
+  private static final int TENORS = TreasuryFeedParser.FIELDS.length;
+
+  private CurveSnapshotFile() {}
+
+  /**
+   * Decoded snapshot. {@code curve} is empty when only history was saved; history arrays hold
+   * exactly {@code days.length} rows.
+   */
+  record Snapshot(Instant fetchedAt, YieldCurve curve, int[] days, double[][] rates) {}
+
+  static void write(Path path, Instant fetchedAt, YieldCurve curve,
+                    int[] days, double[][] rates, int rows) throws IOException {
+    int payload = 8 + 4 + TENORS * 8 + 4 + rows * 4 + TENORS * rows * 8;
+    ByteBuffer buf = ByteBuffer.allocate(HEADER_BYTES + payload);
+    buf.position(HEADER_BYTES);
+    buf.putLong(fetchedAt.toEpochMilli());
+    buf.putInt(curve.asOf() == null ? NO_DATE : (int) curve.asOf().toEpochDay());
+    for (int t = 0; t < TENORS; t++) buf.putDouble(curve.rate(t));
+    buf.putInt(rows);
+    for (int i = 0; i < rows; i++) buf.putInt(days[i]);
+    for (int t = 0; t < TENORS; t++) {
+      for (int i = 0; i < rows; i++) buf.putDouble(rates[t][i]);
+    }
+
+    CRC32 crc = new CRC32();
+    crc.update(buf.array(), HEADER_BYTES, payload);
+    buf.putInt(0, MAGIC);
+    buf.putShort(4, VERSION);
+    buf.putShort(6, (short) TENORS);
+    buf.putInt(8, payload);
+    buf.putInt(12, (int) crc.getValue());
+    buf.rewind();
+
+    Path dir = path.toAbsolutePath().getParent();
+    if (dir != null) Files.createDirectories(dir);
+    Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+    try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+        StandardOpenOption.TRUNCATE_EXISTING)) {
+      while (buf.hasRemaining()) ch.write(buf);
+      ch.force(false);
+    }
+    Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  /** Reads and validates {@code path}; returns null if it is missing or unusable. */
+  static Snapshot read(Path path) {
+    try (FileChannel ch = FileChannel.open(path, StandardOpenOption.READ)) {
+      long size = ch.size();
+      if (size < HEADER_BYTES || size > Integer.MAX_VALUE) return reject(path, "size " + size);
+      MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, size);
+      if (buf.getInt(0) != MAGIC) return reject(path, "bad magic");
+      if (buf.getShort(4) != VERSION) return reject(path, "format version " + buf.getShort(4));
+      if (buf.getShort(6) != TENORS) return reject(path, "tenor count " + buf.getShort(6));
+      int payload = buf.getInt(8);
+      if (payload != size - HEADER_BYTES) return reject(path, "truncated");
+
+      CRC32 crc = new CRC32();
+      crc.update(buf.slice(HEADER_BYTES, payload));
+      if ((int) crc.getValue() != buf.getInt(12)) return reject(path, "checksum mismatch");
+
+      buf.position(HEADER_BYTES);
+      Instant fetchedAt = Instant.ofEpochMilli(buf.getLong());
+      int asOf = buf.getInt();
+      double[] curveRates = new double[TENORS];
+      buf.asDoubleBuffer().get(curveRates);
+      buf.position(buf.position() + TENORS * 8);
+      YieldCurve curve = YieldCurve.of(asOf == NO_DATE ? null : LocalDate.ofEpochDay(asOf), curveRates);
+      int rows = buf.getInt();
+      if (rows < 0 || buf.remaining() != (long) rows * (4 + 8L * TENORS)) return reject(path, "history of " + rows + " rows");
+      int[] days = new int[rows];
+      buf.asIntBuffer().get(days);
+      buf.position(buf.position() + rows * 4);
+      double[][] rates = new double[TENORS][rows];
+      for (int t = 0; t < TENORS; t++) {
+        buf.asDoubleBuffer().get(rates[t]);
+        buf.position(buf.position() + rows * 8);
+      }
+      return new Snapshot(fetchedAt, curve, days, rates);
+    } catch (NoSuchFileException e) {
+      return null;
+    } catch (IOException | RuntimeException e) {
+      log.warn("Could not read curve snapshot {}: {}", path, e.toString());
+      return null;
+    }
+  }
+
+  private static Snapshot reject(Path path, String reason) {
+    log.warn("Ignoring curve snapshot {}: {}", path, reason);
+    return null;
+  }
+}
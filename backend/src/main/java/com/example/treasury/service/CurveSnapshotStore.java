@@ -0,0 +1,111 @@
+package com.example.treasury.service;
+
+import com.example.treasury.domain.YieldCurve;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Keeps the latest curve and the daily history on disk in a {@link CurveSnapshotFile}.
+ *
+ * The file is read once when the bean is created, so the curve cache can be warm before the
+ * first request. Updates only mark the snapshot dirty; a single writer on the bounded-elastic
+ * scheduler persists whatever is newest, so bursts of updates cost one write.
+ * An empty {@code treasury.snapshot.path} disables persistence.
+ */
+@Service
+public class CurveSnapshotStore {
+
+  private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(CurveSnapshotStore.class);
+
+  private static final YieldHistoryStore.Columns NO_HISTORY =
+      new YieldHistoryStore.Columns(new int[0], new double[TreasuryFeedParser.FIELDS.length][0], 0);
+
+  @Value("${treasury.snapshot.path:}")
+  private String path = "";
+
+  private Path file;
+  private CurveSnapshotFile.Snapshot restored;
+
+  // Latest state to persist
+  private volatile YieldCurve curve = YieldCurve.EMPTY;
+  private volatile Instant fetchedAt = Instant.EPOCH;
+  private volatile YieldHistoryStore.Columns history = NO_HISTORY;
+
+  private final AtomicBoolean writeScheduled = new AtomicBoolean();
+
+  public CurveSnapshotStore() {}
+
+  CurveSnapshotStore(Path file) {
+    this.path = file.toString();
+    load();
+  }
+
+  @PostConstruct
+  void load() {
+    if (path == null || path.isBlank()) return;
+    file = Path.of(path);
+    long started = System.nanoTime();
+    restored = CurveSnapshotFile.read(file);
+    if (restored != null) {
+      curve = restored.curve();
+      fetchedAt = restored.fetchedAt();
+      history = new YieldHistoryStore.Columns(restored.days(), restored.rates(), restored.days().length);
+      log.info("Restored curve snapshot from {} ({} points fetched at {}, {} history days) in {} us",
+          file, curve.size(), fetchedAt, restored.days().length, (System.nanoTime() - started) / 1_000);
+    }
+  }
+
+  public boolean enabled() {
+    return file != null;
+  }
+
+  /** What was on disk at startup, or null. */
+  CurveSnapshotFile.Snapshot restored() {
+    return restored;
+  }
+
+  void saveCurve(YieldCurve curve, Instant fetchedAt) {
+    this.curve = curve;
+    this.fetchedAt = fetchedAt;
+    scheduleWrite();
+  }
+
+  void saveHistory(YieldHistoryStore.Columns history) {
+    this.history = history;
+    scheduleWrite();
+  }
+
+  @PreDestroy
+  void close() {
+    // a write may still be queued on the scheduler; don't lose it on shutdown
+    if (writeScheduled.get()) flush();
+  }
+
+  /** Writes the current state now. */
+  synchronized void flush() {
+    if (file == null) return;
+    YieldHistoryStore.Columns h = history;
+    try {
+      CurveSnapshotFile.write(file, fetchedAt, curve, h.days(), h.rates(), h.size());
+    } catch (IOException | RuntimeException e) {
+      log.warn("Could not write curve snapshot {}: {}", file, e.toString());
+    }
+  }
+
+  private void scheduleWrite() {
+    if (file == null || !writeScheduled.compareAndSet(false, true)) return;
+    Schedulers.boundedElastic().schedule(() -> {
+      // Cleared before writing: an update arriving mid-write schedules another pass
+      writeScheduled.set(false);
+      flush();
+    });
+  }
+}
@@ -0,0 +1,113 @@
+package com.example.treasury.service;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.YearMonth;
+
+/** A place feed months can be read from: the Treasury site, a mirror of it, or a directory of saved months. */
+interface FeedSource {
+
+  String name();
+
+  /** The month's XML; empty when this source does not have the month, an error when it failed. */
+  Mono<byte[]> fetchMonth(YearMonth month);
+
+  /** The Treasury XML pages, or a mirror that answers the same query. */
+  final class Http implements FeedSource {
+    private final String name;
+    private final WebClient client;
+    private final String baseUrl;
+    private final CurveMetrics metrics;
+
+    Http(String name, WebClient client, String baseUrl, CurveMetrics metrics) {
+      this.name = name;
+      this.client = client;
+      this.baseUrl = baseUrl;
+      this.metrics = metrics;
+    }
+
+    @Override
+    public String name() {
+      return name;
+    }
+
+    @Override
+    public Mono<byte[]> fetchMonth(YearMonth month) {
+      String url = baseUrl + "?data=daily_treasury_yield_curve&field_tdr_date_value_month=" + fileStem(month);
+      return Mono.defer(() -> {
+        long start = System.nanoTime();
+        return client.get()
+            .uri(url)
+            .retrieve()
+            .onStatus(s -> s.is4xxClientError() || s.is5xxServerError(), resp -> resp.createException())
+            .toEntityFlux(DataBuffer.class)
+            .flatMap(entity -> DataBufferUtils.join(entity.getBody())
+                .map(buf -> {
+                  // copied off the pooled buffer, so an abandoned hedge attempt cannot leak it
+                  byte[] bytes = new byte[buf.readableByteCount()];
+                  buf.read(bytes);
+                  DataBufferUtils.release(buf);
+                  metrics.fetched(entity.getStatusCode().value(), System.nanoTime() - start, bytes.length);
+                  return bytes;
+                }))
+            .doOnError(e -> metrics.fetchFailed(e, System.nanoTime() - start));
+      });
+    }
+  }
+
+  /**
+   * Months saved as {@code yyyyMM.xml} files: a local mirror, or the on-disk cache that
+   * {@link FeedSources} fills with every month fetched from another source.
+   */
+  final class Directory implements FeedSource {
+    private final String name;
+    private final Path dir;
+
+    Directory(String name, Path dir) {
+      this.name = name;
+      this.dir = dir;
+    }
+
+    @Override
+    public String name() {
+      return name;
+    }
+
+    @Override
+    public Mono<byte[]> fetchMonth(YearMonth month) {
+      return Mono.fromCallable(() -> {
+            try {
+              return Files.readAllBytes(file(month));
+            } catch (NoSuchFileException e) {
+              return null;
+            }
+          })
+          .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /** Replaces the saved month; written to a temporary file first so readers never see half of it. */
+    void store(YearMonth month, byte[] xml) throws IOException {
+      Files.createDirectories(dir);
+      Path tmp = Files.createTempFile(dir, fileStem(month), ".tmp");
+      Files.write(tmp, xml);
+      Files.move(tmp, file(month), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private Path file(YearMonth month) {
+      return dir.resolve(fileStem(month) + ".xml");
+    }
+  }
+
+  private static String fileStem(YearMonth month) {
+    return String.format("%04d%02d", month.getYear(), month.getMonthValue());
+  }
+}
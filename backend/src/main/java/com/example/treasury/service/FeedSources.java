@@ -0,0 +1,234 @@
+package com.example.treasury.service;
+
+import io.micrometer.core.instrument.Counter;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Reads a feed month from an ordered list of sources.
+ *
+ * Sources are tried in order; one that fails, does not have the month, or has its
+ * {@link CircuitBreaker} open is skipped. When a source has not answered within its hedge delay
+ * (the p95 of its recent successful fetches, kept between {@code minHedgeDelay} and
+ * {@code maxHedgeDelay}), the next source is started alongside it, or the last source is asked a
+ * second time, and the first answer wins. Months fetched from elsewhere are saved to the cache
+ * directory, which is the last source.
+ *
+ * Every call holds a permit from its source's breaker and records exactly one outcome: success,
+ * failure, or, when the caller cancels first, handing the permit back. Calls are shared between
+ * the primary path and its hedge, so cancelling a fetch does not reach them; the fetch releases
+ * the permits its calls still hold instead.
+ */
+final class FeedSources {
+
+  private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(FeedSources.class);
+
+  private final List<Entry> sources;
+  private final FeedSource.Directory cache;
+  private final boolean hedge;
+  private final long minHedgeNanos;
+  private final long maxHedgeNanos;
+  private final CurveMetrics metrics;
+
+  private static final class Entry {
+    final FeedSource source;
+    final CircuitBreaker breaker;
+    final Latencies latencies = new Latencies();
+    final Counter failures;
+
+    Entry(FeedSource source, CircuitBreaker breaker, Counter failures) {
+      this.source = source;
+      this.breaker = breaker;
+      this.failures = failures;
+    }
+  }
+
+  /**
+   * @param cache also read as the last source when not null
+   */
+  FeedSources(List<FeedSource> sources, FeedSource.Directory cache, boolean hedge, Duration minHedgeDelay,
+              Duration maxHedgeDelay, int failureThreshold, Duration openFor, CurveMetrics metrics) {
+    List<FeedSource> all = new ArrayList<>(sources);
+    if (cache != null) all.add(cache);
+    List<Entry> entries = new ArrayList<>(all.size());
+    for (FeedSource s : all) {
+      entries.add(new Entry(s, new CircuitBreaker(failureThreshold, openFor.toNanos()), metrics.sourceFailures(s.name())));
+    }
+    this.sources = List.copyOf(entries);
+    this.cache = cache;
+    this.hedge = hedge;
+    this.minHedgeNanos = minHedgeDelay.toNanos();
+    this.maxHedgeNanos = Math.max(minHedgeNanos, maxHedgeDelay.toNanos());
+    this.metrics = metrics;
+  }
+
+  /** The month from the first source that has it; an error when every source tried failed. */
+  Mono<byte[]> fetchMonth(YearMonth month) {
+    return Mono.defer(() -> {
+      Fetch fetch = new Fetch();
+      return from(month, 0, fetch)
+          .switchIfEmpty(Mono.defer(() -> {
+            Throwable e = fetch.lastError.get();
+            return e != null ? Mono.error(e) : Mono.empty();
+          }))
+          .doOnCancel(fetch::cancel);
+    });
+  }
+
+  /** How long the first source may take before a hedge is started. */
+  Duration hedgeDelay() {
+    return Duration.ofNanos(hedgeDelayNanos(sources.get(0)));
+  }
+
+  CircuitBreaker.State state(int source) {
+    return sources.get(source).breaker.state(System.nanoTime());
+  }
+
+  private Mono<byte[]> from(YearMonth month, int first, Fetch fetch) {
+    return Mono.defer(() -> {
+      int i = first;
+      CircuitBreaker.Permit permit = CircuitBreaker.Permit.DENIED;
+      while (i < sources.size()
+          && (permit = sources.get(i).breaker.tryAcquire(System.nanoTime())) == CircuitBreaker.Permit.DENIED) i++;
+      if (i == sources.size()) return Mono.empty();
+      Entry entry = sources.get(i);
+      boolean last = i == sources.size() - 1;
+
+      Mono<byte[]> rest = last ? Mono.empty() : from(month, i + 1, fetch).cache();
+      Mono<byte[]> attempt = attempt(entry, permit, month, fetch).cache();
+      Mono<byte[]> primary = attempt.switchIfEmpty(rest);
+      if (!hedge) return primary;
+
+      // only if the attempt is still pending when the delay is up
+      Mono<byte[]> hedged = Mono.delay(Duration.ofNanos(hedgeDelayNanos(entry)))
+          .takeUntilOther(attempt.materialize())
+          .flatMap(t -> {
+            metrics.hedged();
+            log.debug("Feed source {} slow for {}, hedging", entry.source.name(), month);
+            if (!last) return rest;
+            // asking the same source again goes through its breaker too
+            CircuitBreaker.Permit again = entry.breaker.tryAcquire(System.nanoTime());
+            return again == CircuitBreaker.Permit.DENIED ? Mono.empty() : attempt(entry, again, month, fetch);
+          });
+      return Mono.firstWithValue(primary, hedged)
+          .onErrorResume(NoSuchElementException.class, e -> Mono.empty());
+    });
+  }
+
+  /** One call to a source under {@code permit}: failures are recorded and turned into an empty result. */
+  private Mono<byte[]> attempt(Entry entry, CircuitBreaker.Permit permit, YearMonth month, Fetch fetch) {
+    return Mono.defer(() -> {
+      Call call = new Call(entry.breaker, permit);
+      if (!fetch.add(call)) return Mono.empty();
+      long start = System.nanoTime();
+      return entry.source.fetchMonth(month)
+          .doOnNext(xml -> {
+            entry.latencies.record(System.nanoTime() - start);
+            if (cache != null && entry.source != cache) save(month, xml);
+          })
+          .doOnSuccess(xml -> {
+            if (call.settle()) entry.breaker.onSuccess(permit);
+          })
+          .onErrorResume(e -> {
+            if (call.settle()) entry.breaker.onFailure(permit, System.nanoTime());
+            entry.failures.increment();
+            fetch.lastError.set(e);
+            log.warn("Feed source {} failed for {}: {}", entry.source.name(), month, e.toString());
+            return Mono.empty();
+          });
+    });
+  }
+
+  private void save(YearMonth month, byte[] xml) {
+    Schedulers.boundedElastic().schedule(() -> {
+      try {
+        cache.store(month, xml);
+      } catch (IOException e) {
+        log.warn("Could not cache feed month {}: {}", month, e.toString());
+      }
+    });
+  }
+
+  private long hedgeDelayNanos(Entry entry) {
+    long p95 = entry.latencies.p95();
+    return p95 < 0 ? maxHedgeNanos : Math.min(maxHedgeNanos, Math.max(minHedgeNanos, p95));
+  }
+
+  /** One {@link #fetchMonth} call: its last failure and the calls it started. */
+  private static final class Fetch {
+    final AtomicReference<Throwable> lastError = new AtomicReference<>();
+    private final Queue<Call> calls = new ConcurrentLinkedQueue<>();
+    private volatile boolean cancelled;
+
+    /** Whether the call may go out; once the fetch is cancelled its permit is released instead. */
+    boolean add(Call call) {
+      calls.add(call);
+      if (!cancelled) return true;
+      call.release();
+      return false;
+    }
+
+    void cancel() {
+      cancelled = true;
+      calls.forEach(Call::release);
+    }
+  }
+
+  /** A permit held by one call to a source, until its outcome is recorded or it is released. */
+  private static final class Call {
+    private final CircuitBreaker breaker;
+    private final CircuitBreaker.Permit permit;
+    private final AtomicBoolean held = new AtomicBoolean(true);
+
+    Call(CircuitBreaker breaker, CircuitBreaker.Permit permit) {
+      this.breaker = breaker;
+      this.permit = permit;
+    }
+
+    /** Whether this call still held its permit, so its outcome is the one to record. */
+    boolean settle() {
+      return held.compareAndSet(true, false);
+    }
+
+    void release() {
+      if (settle()) breaker.release(permit);
+    }
+  }
+
+  /** The last {@value #SIZE} successful fetch times of one source. */
+  private static final class Latencies {
+    private static final int SIZE = 64;
+    private static final int MIN_SAMPLES = 8;
+
+    private final AtomicLongArray samples = new AtomicLongArray(SIZE);
+    private final AtomicLong count = new AtomicLong();
+
+    void record(long nanos) {
+      samples.set((int) (count.getAndIncrement() % SIZE), nanos);
+    }
+
+    /** The 95th percentile, or -1 with too few samples to tell. */
+    long p95() {
+      int n = (int) Math.min(count.get(), SIZE);
+      if (n < MIN_SAMPLES) return -1;
+      long[] sorted = new long[n];
+      for (int i = 0; i < n; i++) sorted[i] = samples.get(i);
+      Arrays.sort(sorted);
+      return sorted[(int) Math.ceil(n * 0.95) - 1];
+    }
+  }
+}
@@ -0,0 +1,300 @@
+package com.example.treasury.service;
+
+import com.example.treasury.domain.Tenor;
+import com.example.treasury.domain.YieldCurve;
+import com.example.treasury.domain.YieldPoint;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A yield curve fitted once and then queried at arbitrary maturities.
+ *
+ * All coefficients are computed in {@link #fit}; {@link #rateAt(double)} is a binary search over
+ * a handful of knots plus a cubic evaluation (or a closed-form NSS evaluation) and allocates nothing.
+ * The piecewise methods extrapolate flat outside the fitted tenors; NSS is flat below the
+ * shortest tenor and follows the fitted function beyond the longest.
+ */
+public final class InterpolatedCurve {
+
+  private static final double DAYS_PER_YEAR = 365.0;
+
+  // NSS decay grid searched during fitting (years)
+  private static final double[] TAU_GRID = logGrid(0.1, 30.0, 40);
+
+  // Maturity of each Tenor in years; ascending, like the tenors
+  private static final double[] TENOR_YEARS = new double[Tenor.COUNT];
+
+  static {
+    for (int t = 0; t < Tenor.COUNT; t++) TENOR_YEARS[t] = maturityDays(Tenor.at(t).label()) / DAYS_PER_YEAR;
+  }
+
+  private final Interpolation method;
+  private final double[] x;  // knot maturities in years, ascending
+  private final double[] y;  // knot rates in percent
+  // Piecewise cubic on [x[k], x[k+1]]: y[k] + c1[k]*dx + c2[k]*dx^2 + c3[k]*dx^3
+  private final double[] c1, c2, c3;
+  // Nelson-Siegel-Svensson parameters
+  private final double b0, b1, b2, b3, tau1, tau2;
+
+  private InterpolatedCurve(Interpolation method, double[] x, double[] y, double[] c1, double[] c2, double[] c3,
+                            double[] nss) {
+    this.method = method;
+    this.x = x;
+    this.y = y;
+    this.c1 = c1;
+    this.c2 = c2;
+    this.c3 = c3;
+    this.b0 = nss[0];
+    this.b1 = nss[1];
+    this.b2 = nss[2];
+    this.b3 = nss[3];
+    this.tau1 = nss[4];
+    this.tau2 = nss[5];
+  }
+
+  /**
+   * Fits {@code points} (any order; terms that {@link #maturityDays} cannot parse are ignored).
+   * Nelson-Siegel-Svensson needs at least six tenors and falls back to linear otherwise.
+   */
+  public static InterpolatedCurve fit(List<YieldPoint> points, Interpolation method) {
+    int n = 0;
+    double[] xs = new double[points.size()];
+    double[] ys = new double[points.size()];
+    for (YieldPoint p : points) {
+      int days = maturityDays(p.getTerm());
+      if (days <= 0) continue;
+      // insertion sort; curves have at most a few dozen tenors. First point wins on duplicates.
+      double t = days / DAYS_PER_YEAR;
+      int i = n;
+      while (i > 0 && xs[i - 1] > t) i--;
+      if (i > 0 && xs[i - 1] == t) continue;
+      System.arraycopy(xs, i, xs, i + 1, n - i);
+      System.arraycopy(ys, i, ys, i + 1, n - i);
+      xs[i] = t;
+      ys[i] = p.getRate();
+      n++;
+    }
+    return fit(Arrays.copyOf(xs, n), Arrays.copyOf(ys, n), method);
+  }
+
+  /** Fits the present tenors of {@code curve}; they are already in maturity order. */
+  public static InterpolatedCurve fit(YieldCurve curve, Interpolation method) {
+    double[] x = new double[curve.size()];
+    double[] y = new double[x.length];
+    int n = 0;
+    for (int t = 0; t < Tenor.COUNT; t++) {
+      double r = curve.rate(t);
+      if (Double.isNaN(r)) continue;
+      x[n] = TENOR_YEARS[t];
+      y[n++] = r;
+    }
+    return fit(x, y, method);
+  }
+
+  private static InterpolatedCurve fit(double[] x, double[] y, Interpolation method) {
+    int n = x.length;
+    double[] c1 = new double[Math.max(n - 1, 0)];
+    double[] c2 = new double[c1.length];
+    double[] c3 = new double[c1.length];
+    double[] nss = new double[6];
+
+    Interpolation effective = method;
+    if (method == Interpolation.NELSON_SIEGEL_SVENSSON && n < 6) effective = Interpolation.LINEAR;
+
+    switch (effective) {
+      case LINEAR -> linear(x, y, c1);
+      case MONOTONE_CUBIC -> monotoneCubic(x, y, c1, c2, c3);
+      case NELSON_SIEGEL_SVENSSON -> fitNss(x, y, nss);
+    }
+    return new InterpolatedCurve(effective, x, y, c1, c2, c3, nss);
+  }
+
+  public Interpolation method() {
+    return method;
+  }
+
+  public boolean isEmpty() {
+    return x.length == 0;
+  }
+
+  /** Shortest and longest fitted maturities in days, or 0 when empty. */
+  public int minDays() {
+    return x.length == 0 ? 0 : (int) Math.round(x[0] * DAYS_PER_YEAR);
+  }
+
+  public int maxDays() {
+    return x.length == 0 ? 0 : (int) Math.round(x[x.length - 1] * DAYS_PER_YEAR);
+  }
+
+  /** Rate in percent for a maturity in days; NaN when the curve is empty. */
+  public double rateAtDays(int maturityInDays) {
+    return rateAt(maturityInDays / DAYS_PER_YEAR);
+  }
+
+  /** Rate in percent for a maturity in years; NaN when the curve is empty. */
+  public double rateAt(double years) {
+    int n = x.length;
+    if (n == 0) return Double.NaN;
+    if (method == Interpolation.NELSON_SIEGEL_SVENSSON) {
+      return nss(Math.max(years, x[0]));
+    }
+    if (years <= x[0]) return y[0];
+    if (years >= x[n - 1]) return y[n - 1];
+    // last knot <= years
+    int lo = 0, hi = n - 1;
+    while (hi - lo > 1) {
+      int mid = (lo + hi) >>> 1;
+      if (x[mid] <= years) lo = mid; else hi = mid;
+    }
+    double dx = years - x[lo];
+    return y[lo] + dx * (c1[lo] + dx * (c2[lo] + dx * c3[lo]));
+  }
+
+  /**
+   * Parses a tenor such as "1M", "1.5M", "10Y", "90D" or "2W" into days
+   * (months are 365/12 days, matching the Treasury's constant-maturity convention).
+   * Returns -1 if the term is not of that form.
+   */
+  public static int maturityDays(String term) {
+    if (term == null) return -1;
+    String s = term.trim();
+    if (s.length() < 2) return -1;
+    char unit = Character.toUpperCase(s.charAt(s.length() - 1));
+    double qty;
+    try {
+      qty = Double.parseDouble(s.substring(0, s.length() - 1));
+    } catch (NumberFormatException e) {
+      return -1;
+    }
+    if (!(qty > 0) || Double.isInfinite(qty)) return -1;
+    double days = switch (unit) {
+      case 'D' -> qty;
+      case 'W' -> qty * 7;
+      case 'M' -> qty * DAYS_PER_YEAR / 12;
+      case 'Y' -> qty * DAYS_PER_YEAR;
+      default -> -1;
+    };
+    return days <= 0 || days > 100 * DAYS_PER_YEAR ? -1 : (int) Math.round(days);
+  }
+
+  private static void linear(double[] x, double[] y, double[] c1) {
+    for (int k = 0; k < c1.length; k++) c1[k] = (y[k + 1] - y[k]) / (x[k + 1] - x[k]);
+  }
+
+  /** Fritsch-Carlson tangents, then Hermite coefficients per interval. */
+  private static void monotoneCubic(double[] x, double[] y, double[] c1, double[] c2, double[] c3) {
+    int n = x.length;
+    if (n < 2) return;
+    double[] delta = new double[n - 1];
+    for (int k = 0; k < n - 1; k++) delta[k] = (y[k + 1] - y[k]) / (x[k + 1] - x[k]);
+
+    double[] m = new double[n];
+    m[0] = delta[0];
+    m[n - 1] = delta[n - 2];
+    for (int k = 1; k < n - 1; k++) {
+      m[k] = delta[k - 1] * delta[k] <= 0 ? 0 : (delta[k - 1] + delta[k]) / 2;
+    }
+    for (int k = 0; k < n - 1; k++) {
+      if (delta[k] == 0) {
+        m[k] = 0;
+        m[k + 1] = 0;
+        continue;
+      }
+      double a = m[k] / delta[k];
+      double b = m[k + 1] / delta[k];
+      double s = a * a + b * b;
+      if (s > 9) {
+        double t = 3 / Math.sqrt(s);
+        m[k] = t * a * delta[k];
+        m[k + 1] = t * b * delta[k];
+      }
+    }
+    for (int k = 0; k < n - 1; k++) {
+      double h = x[k + 1] - x[k];
+      c1[k] = m[k];
+      c2[k] = (3 * delta[k] - 2 * m[k] - m[k + 1]) / h;
+      c3[k] = (m[k] + m[k + 1] - 2 * delta[k]) / (h * h);
+    }
+  }
+
+  private double nss(double t) {
+    return b0 + b1 * f1(t, tau1) + b2 * f2(t, tau1) + b3 * f2(t, tau2);
+  }
+
+  private static double f1(double t, double tau) {
+    double u = t / tau;
+    return u < 1e-8 ? 1 : (1 - Math.exp(-u)) / u;
+  }
+
+  private static double f2(double t, double tau) {
+    return f1(t, tau) - Math.exp(-t / tau);
+  }
+
+  /**
+   * For every (tau1, tau2) on a log grid the betas are linear, so each candidate is an ordinary
+   * least-squares solve; the pair with the lowest squared error wins.
+   */
+  private static void fitNss(double[] x, double[] y, double[] out) {
+    int n = x.length;
+    double[][] basis = new double[n][4];
+    double[] beta = new double[4];
+    double bestErr = Double.POSITIVE_INFINITY;
+    for (int i = 0; i < TAU_GRID.length; i++) {
+      for (int j = i + 1; j < TAU_GRID.length; j++) {
+        double t1 = TAU_GRID[i], t2 = TAU_GRID[j];
+        for (int k = 0; k < n; k++) {
+          basis[k][0] = 1;
+          basis[k][1] = f1(x[k], t1);
+          basis[k][2] = f2(x[k], t1);
+          basis[k][3] = f2(x[k], t2);
+        }
+        if (!leastSquares(basis, y, beta)) continue;
+        double err = 0;
+        for (int k = 0; k < n; k++) {
+          double fit = beta[0] + beta[1] * basis[k][1] + beta[2] * basis[k][2] + beta[3] * basis[k][3];
+          err += (fit - y[k]) * (fit - y[k]);
+        }
+        if (err < bestErr) {
+          bestErr = err;
+          System.arraycopy(beta, 0, out, 0, 4);
+          out[4] = t1;
+          out[5] = t2;
+        }
+      }
+    }
+  }
+
+  /** Solves the 4x4 normal equations by Gaussian elimination with partial pivoting. */
+  private static boolean leastSquares(double[][] a, double[] y, double[] beta) {
+    double[][] m = new double[4][5];
+    for (double[] row : a) {
+      for (int r = 0; r < 4; r++) {
+        for (int c = 0; c < 4; c++) m[r][c] += row[r] * row[c];
+      }
+    }
+    for (int k = 0; k < a.length; k++) {
+      for (int r = 0; r < 4; r++) m[r][4] += a[k][r] * y[k];
+    }
+    for (int col = 0; col < 4; col++) {
+      int piv = col;
+      for (int r = col + 1; r < 4; r++) if (Math.abs(m[r][col]) > Math.abs(m[piv][col])) piv = r;
+      if (Math.abs(m[piv][col]) < 1e-12) return false;
+      double[] tmp = m[col]; m[col] = m[piv]; m[piv] = tmp;
+      for (int r = 0; r < 4; r++) {
+        if (r == col) continue;
+        double f = m[r][col] / m[col][col];
+        for (int c = col; c < 5; c++) m[r][c] -= f * m[col][c];
+      }
+    }
+    for (int r = 0; r < 4; r++) beta[r] = m[r][4] / m[r][r];
+    return true;
+  }
+
+  private static double[] logGrid(double from, double to, int steps) {
+    double[] g = new double[steps];
+    double ratio = Math.pow(to / from, 1.0 / (steps - 1));
+    for (int i = 0; i < steps; i++) g[i] = from * Math.pow(ratio, i);
+    return g;
+  }
+}
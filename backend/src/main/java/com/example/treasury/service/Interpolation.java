@@ -0,0 +1,11 @@
+package com.example.treasury.service;
+
+/** Methods for rates between canonical tenors; names match the GraphQL InterpolationMethod enum. */
+public enum Interpolation {
+  /** Piecewise linear between tenors. */
+  LINEAR,
+  /** Fritsch-Carlson monotone cubic Hermite spline; no overshoot between tenors. */
+  MONOTONE_CUBIC,
+  /** Least-squares Nelson-Siegel-Svensson fit; smooth, does not pass through every tenor. */
+  NELSON_SIEGEL_SVENSSON
+}
@@ -0,0 +1,66 @@
+package com.example.treasury.service;
+
+import com.example.treasury.domain.Order;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Meters for {@link OrderLifecycleProcessor}: transitions per target status (throughput), how
+ * long orders waited for each step (lag), batch times and recovered claims. Registered up front,
+ * like {@link CurveMetrics}.
+ */
+final class LifecycleMetrics {
+
+  /** Records nothing; used until a registry is bound. */
+  static final LifecycleMetrics NOOP = new LifecycleMetrics(new CompositeMeterRegistry());
+
+  private final Counter accepted, rejected, settled, recovered;
+  private final Timer checkLag, settleLag;
+  private final Timer checkBatch, settleBatch;
+
+  LifecycleMetrics(MeterRegistry registry) {
+    accepted = transitions(registry, Order.STATUS_ACCEPTED);
+    rejected = transitions(registry, Order.STATUS_REJECTED);
+    settled = transitions(registry, Order.STATUS_SETTLED);
+    recovered = Counter.builder("treasury.orders.lifecycle.recovered")
+        .description("Orders claimed again after their previous claim timed out").register(registry);
+    checkLag = Timer.builder("treasury.orders.lifecycle.lag").tag("step", "check")
+        .description("From submission to accepted or rejected").register(registry);
+    settleLag = Timer.builder("treasury.orders.lifecycle.lag").tag("step", "settle")
+        .description("From settlement due to settled").register(registry);
+    checkBatch = Timer.builder("treasury.orders.lifecycle.batch").tag("step", "check")
+        .description("Claim, decide and update one batch").register(registry);
+    settleBatch = Timer.builder("treasury.orders.lifecycle.batch").tag("step", "settle")
+        .description("Claim, decide and update one batch").register(registry);
+  }
+
+  private static Counter transitions(MeterRegistry registry, String status) {
+    return Counter.builder("treasury.orders.lifecycle.transitions").tag("to", status)
+        .description("Orders moved to this status").register(registry);
+  }
+
+  void transitioned(String status, long n) {
+    switch (status) {
+      case Order.STATUS_ACCEPTED -> accepted.increment(n);
+      case Order.STATUS_REJECTED -> rejected.increment(n);
+      case Order.STATUS_SETTLED -> settled.increment(n);
+      default -> { }
+    }
+  }
+
+  void recovered(long n) {
+    if (n > 0) recovered.increment(n);
+  }
+
+  void lag(boolean settle, long millis) {
+    (settle ? settleLag : checkLag).record(Math.max(0, millis), TimeUnit.MILLISECONDS);
+  }
+
+  void batch(boolean settle, long nanos) {
+    (settle ? settleBatch : checkBatch).record(nanos, TimeUnit.NANOSECONDS);
+  }
+}
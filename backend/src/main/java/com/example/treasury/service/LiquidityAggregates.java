@@ -0,0 +1,282 @@
+package com.example.treasury.service;
+
+import com.example.treasury.config.DatabaseInit;
+import com.example.treasury.domain.LiquiditySummary;
+import com.example.treasury.domain.Order;
+import com.example.treasury.domain.TermLiquidity;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-term notional, order count and amount-weighted rate, kept current as orders are written.
+ *
+ * Every term has running totals plus a ring of one-minute buckets covering {@link #HORIZON}, all
+ * made of {@link LongAdder}/{@link DoubleAdder} cells, so concurrent writers never contend on a
+ * lock or a single CAS location. Amounts are summed in exact cents without a ceiling (see
+ * {@link Cents}): a single order may already hold more cents than a long. A summary reads each term's totals and at most one bucket per
+ * minute of the window: its cost depends on the number of terms, not on the number of orders.
+ *
+ * On startup the books are rebuilt from the database up to the highest order id at that moment;
+ * orders recorded while the rebuild runs are queued and applied afterwards unless the rebuild
+ * already counted them. A failed rebuild is retried with backoff; its queue is dropped, as the
+ * next attempt reads those orders from the table.
+ */
+@Service
+@RequiredArgsConstructor
+public class LiquidityAggregates {
+
+  private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(LiquidityAggregates.class);
+
+  /** Longest window a summary can cover. */
+  public static final Duration HORIZON = Duration.ofHours(24);
+  private static final long BUCKET_SECONDS = 60;
+  private static final int BUCKETS = (int) (HORIZON.getSeconds() / BUCKET_SECONDS);
+  private static final Duration REBUILD_RETRY_MIN = Duration.ofSeconds(1);
+  private static final Duration REBUILD_RETRY_MAX = Duration.ofMinutes(1);
+
+  private final DatabaseClient client;
+  private final DatabaseInit schema;
+
+  private volatile Map<String, TermBook> books = new ConcurrentHashMap<>();
+  private volatile long rebuiltThroughId = 0;  // orders with a lower or equal id came from the rebuild
+  private volatile boolean ready = false;
+  private final Queue<Order> pending = new ConcurrentLinkedQueue<>();
+
+  /**
+   * A sum of amounts in cents. Each amount is split into its high and low 32 bits, summed in
+   * separate adders and put back together when read, so the sum neither throws nor wraps until
+   * some two billion orders of a term.
+   */
+  private static final class Cents {
+    private static final long LOW_BITS = 0xffff_ffffL;
+    private final LongAdder high = new LongAdder();
+    private final LongAdder low = new LongAdder();
+
+    void add(BigInteger cents) {
+      long c = cents.longValue();  // its lowest 64 bits
+      high.add(cents.bitLength() < Long.SIZE ? c >> 32 : cents.shiftRight(32).longValueExact());
+      low.add(c & LOW_BITS);
+    }
+
+    double value() {
+      return high.sum() * 0x1p32 + low.sum();
+    }
+  }
+
+  /** Running sums; rates are weighted by amount in cents. */
+  private static class Totals {
+    final LongAdder count = new LongAdder();
+    final Cents cents = new Cents();
+    final Cents ratedCents = new Cents();
+    final DoubleAdder weightedRate = new DoubleAdder();
+
+    void add(long n, BigInteger amountCents, BigInteger ratedAmountCents, double rateTimesCents) {
+      count.add(n);
+      cents.add(amountCents);
+      if (ratedAmountCents.signum() != 0) {
+        ratedCents.add(ratedAmountCents);
+        weightedRate.add(rateTimesCents);
+      }
+    }
+  }
+
+  private static final class Bucket extends Totals {
+    final long minute;
+
+    Bucket(long minute) {
+      this.minute = minute;
+    }
+  }
+
+  private static final class TermBook {
+    final Totals all = new Totals();
+    final AtomicReferenceArray<Bucket> ring = new AtomicReferenceArray<>(BUCKETS);
+
+    /** The bucket for {@code minute}, or null if that minute has already left the ring. */
+    Bucket bucket(long minute) {
+      int slot = (int) Math.floorMod(minute, (long) BUCKETS);
+      while (true) {
+        Bucket b = ring.get(slot);
+        if (b != null && b.minute == minute) return b;
+        if (b != null && b.minute > minute) return null;
+        Bucket fresh = new Bucket(minute);
+        if (ring.compareAndSet(slot, b, fresh)) return fresh;
+      }
+    }
+  }
+
+  /** Adds a saved order (with its id) to the books. */
+  public void record(Order o) {
+    if (!ready) {
+      pending.add(o);
+      // the rebuild may have finished between the check and the add
+      if (ready) drain();
+      return;
+    }
+    apply(books, o);
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void start() {
+    Mono.defer(this::rebuild)
+        .doOnError(e -> {
+          // every order queued so far is already committed, so below the next attempt's MAX(id)
+          pending.clear();
+          log.error("Liquidity rebuild failed, retrying: {}", e.toString());
+        })
+        .retryWhen(Retry.backoff(Long.MAX_VALUE, REBUILD_RETRY_MIN).maxBackoff(REBUILD_RETRY_MAX))
+        .subscribe();
+  }
+
+  /** Recomputes the books from the orders table. */
+  public Mono<Void> rebuild() {
+    ready = false;
+    long started = System.nanoTime();
+    Map<String, TermBook> fresh = new ConcurrentHashMap<>();
+    Instant since = Instant.now().minus(HORIZON);
+    return schema.ready().then(client.sql("SELECT COALESCE(MAX(id), 0) AS max_id FROM orders")
+        .map(row -> row.get("max_id", Long.class))
+        .one())
+        .flatMap(maxId -> client.sql("""
+                SELECT term, COUNT(*) AS n, SUM(amount) AS notional,
+                       SUM(CASE WHEN rate_at_submission IS NULL THEN 0 ELSE amount END) AS rated,
+                       SUM(amount * rate_at_submission) AS weighted
+                FROM orders WHERE id <= :maxId GROUP BY term
+                """)
+            .bind("maxId", maxId)
+            .map(row -> {
+              TermBook book = fresh.computeIfAbsent(row.get("term", String.class), t -> new TermBook());
+              Number weighted = row.get("weighted", Number.class);
+              book.all.add(row.get("n", Long.class), cents(row.get("notional", BigDecimal.class)),
+                  cents(row.get("rated", BigDecimal.class)), weighted == null ? 0 : weighted.doubleValue() * 100);
+              return 1;
+            })
+            .all()
+            .thenMany(client.sql("""
+                    SELECT id, term, amount, created_at, rate_at_submission
+                    FROM orders WHERE id <= :maxId AND created_at >= :since
+                    """)
+                .bind("maxId", maxId)
+                .bind("since", since)
+                .map(row -> new Order(row.get("id", Long.class), row.get("term", String.class),
+                    row.get("amount", BigDecimal.class), createdAt(row.get("created_at", LocalDateTime.class)), null,
+                    row.get("rate_at_submission", Double.class)))
+                .all()
+                .doOnNext(o -> applyToWindow(fresh.computeIfAbsent(o.getTerm(), t -> new TermBook()), o)))
+            .then(Mono.fromRunnable(() -> {
+              books = fresh;
+              rebuiltThroughId = maxId;
+              ready = true;
+              drain();
+              log.info("Liquidity books rebuilt through order {} ({} terms) in {} ms",
+                  maxId, fresh.size(), (System.nanoTime() - started) / 1_000_000);
+            })));
+  }
+
+  /**
+   * Totals per term (all terms when {@code term} is null) and over the last {@code window},
+   * which is rounded up to whole minutes and must not exceed {@link #HORIZON}.
+   */
+  public LiquiditySummary summary(String term, Duration window) {
+    if (window.isNegative() || window.isZero() || window.compareTo(HORIZON) > 0) {
+      throw new IllegalArgumentException("window must be positive and at most " + HORIZON.toHours() + "h");
+    }
+    Instant now = Instant.now();
+    long nowMinute = now.getEpochSecond() / BUCKET_SECONDS;
+    long minutes = (window.getSeconds() + BUCKET_SECONDS - 1) / BUCKET_SECONDS;
+    Map<String, TermBook> current = books;
+
+    List<TermLiquidity> terms = new ArrayList<>();
+    double notional = 0, windowNotional = 0;
+    long count = 0, windowCount = 0;
+    for (Map.Entry<String, TermBook> e : current.entrySet()) {
+      if (term != null && !term.equalsIgnoreCase(e.getKey())) continue;
+      TermBook book = e.getValue();
+      long n = book.all.count.sum();
+      double c = book.all.cents.value();
+      double rc = book.all.ratedCents.value();
+      double wr = book.all.weightedRate.sum();
+
+      long wn = 0;
+      double wc = 0, wrc = 0, wwr = 0;
+      for (long m = nowMinute - minutes + 1; m <= nowMinute; m++) {
+        Bucket b = book.ring.get((int) Math.floorMod(m, (long) BUCKETS));
+        if (b == null || b.minute != m) continue;
+        wn += b.count.sum();
+        wc += b.cents.value();
+        wrc += b.ratedCents.value();
+        wwr += b.weightedRate.sum();
+      }
+      terms.add(new TermLiquidity(e.getKey(), c / 100.0, n, rc == 0 ? null : wr / rc,
+          wc / 100.0, wn, wrc == 0 ? null : wwr / wrc));
+      notional += c / 100.0;
+      count += n;
+      windowNotional += wc / 100.0;
+      windowCount += wn;
+    }
+    terms.sort(Comparator.comparingInt((TermLiquidity t) -> maturityOrder(t.getTerm())).thenComparing(TermLiquidity::getTerm));
+    return new LiquiditySummary(now.toString(), minutes * BUCKET_SECONDS, terms,
+        notional, count, windowNotional, windowCount);
+  }
+
+  private void drain() {
+    Order o;
+    while ((o = pending.poll()) != null) apply(books, o);
+  }
+
+  private void apply(Map<String, TermBook> target, Order o) {
+    if (o.getId() != null && o.getId() <= rebuiltThroughId) return;
+    TermBook book = target.computeIfAbsent(o.getTerm(), t -> new TermBook());
+    BigInteger c = cents(o.getAmount());
+    Double rate = o.getRateAtSubmission();
+    book.all.add(1, c, rate == null ? BigInteger.ZERO : c, rate == null ? 0 : rate * c.doubleValue());
+    applyToWindow(book, o);
+  }
+
+  private static void applyToWindow(TermBook book, Order o) {
+    if (o.getCreatedAt() == null) return;
+    Bucket b = book.bucket(o.getCreatedAt().getEpochSecond() / BUCKET_SECONDS);
+    if (b == null) return;
+    BigInteger c = cents(o.getAmount());
+    Double rate = o.getRateAtSubmission();
+    b.add(1, c, rate == null ? BigInteger.ZERO : c, rate == null ? 0 : rate * c.doubleValue());
+  }
+
+  // TIMESTAMP columns hold the instant in the JVM's zone, as Spring Data reads them back
+  private static Instant createdAt(LocalDateTime t) {
+    return t.atZone(ZoneId.systemDefault()).toInstant();
+  }
+
+  // Same rounding as the DECIMAL(19,2) amount column
+  private static BigInteger cents(BigDecimal amount) {
+    return amount == null ? BigInteger.ZERO : amount.setScale(2, RoundingMode.HALF_UP).unscaledValue();
+  }
+
+  private static int maturityOrder(String term) {
+    int days = InterpolatedCurve.maturityDays(term);
+    return days > 0 ? days : Integer.MAX_VALUE;
+  }
+}
@@ -0,0 +1,61 @@
+package com.example.treasury.service;
+
+import com.example.treasury.domain.Order;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+
+/**
+ * In-process broadcast of order lifecycle events for GraphQL subscriptions.
+ *
+ * The sinks are multicast best-effort: a subscriber that has no outstanding demand misses events
+ * rather than slowing down the write path or other subscribers. Each subscriber gets a small
+ * buffer that drops its oldest events when it cannot keep up.
+ */
+@Service
+public class OrderEvents {
+
+  private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(OrderEvents.class);
+
+  static final int SUBSCRIBER_BUFFER = 256;
+
+  // Emission may race between batch writers; retry briefly instead of failing on contention
+  private static final Sinks.EmitFailureHandler RETRY_NON_SERIALIZED =
+      Sinks.EmitFailureHandler.busyLooping(Duration.ofMillis(50));
+
+  private final Sinks.Many<Order> created = Sinks.many().multicast().directBestEffort();
+  private final Sinks.Many<Order> statusChanged = Sinks.many().multicast().directBestEffort();
+
+  public void publishCreated(Order order) {
+    emit(created, order);
+  }
+
+  public void publishStatusChanged(Order order) {
+    emit(statusChanged, order);
+  }
+
+  public Flux<Order> created() {
+    return subscriberView(created.asFlux());
+  }
+
+  public Flux<Order> statusChanged() {
+    return subscriberView(statusChanged.asFlux());
+  }
+
+  private static Flux<Order> subscriberView(Flux<Order> source) {
+    return source.onBackpressureBuffer(SUBSCRIBER_BUFFER,
+        dropped -> log.debug("Dropped order event {} for a slow subscriber", dropped.getId()),
+        BufferOverflowStrategy.DROP_OLDEST);
+  }
+
+  private static void emit(Sinks.Many<Order> sink, Order order) {
+    try {
+      sink.emitNext(order, RETRY_NON_SERIALIZED);
+    } catch (Sinks.EmissionException e) {
+      log.warn("Could not publish order event {}: {}", order.getId(), e.getReason());
+    }
+  }
+}
@@ -0,0 +1,217 @@
+package com.example.treasury.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Turns an order file into {@link Row}s as its buffers arrive, one row per line.
+ *
+ * Only the unfinished tail line is carried from one buffer to the next, so memory does not grow
+ * with the file. Buffers are requested a couple at a time, so a slow consumer slows the upload
+ * down. Lines that cannot be read become rows with an {@code error}; blank lines are skipped
+ * but still counted, so {@code line} matches the file.
+ *
+ * NDJSON lines are objects with {@code term} and {@code amount}, other fields are ignored. CSV
+ * lines are {@code term,amount}, optionally quoted, with an optional header line.
+ */
+public final class OrderImport {
+
+  private static final JsonFactory JSON = new JsonFactory();
+  private static final int BUFFER_PREFETCH = 2;
+
+  private OrderImport() {}
+
+  /** One order to import; {@code line} is 1-based, {@code error} is set when it could not be read. */
+  public record Row(long line, String term, BigDecimal amount, String error) {
+
+    public static Row of(long line, String term, BigDecimal amount) {
+      return new Row(line, term != null ? term.trim().toUpperCase() : null, amount, null);
+    }
+
+    static Row invalid(long line, String error) {
+      return new Row(line, null, null, error);
+    }
+  }
+
+  public static Flux<Row> ndjson(Flux<DataBuffer> body, int maxLineBytes) {
+    return rows(body, maxLineBytes, OrderImport::parseJson);
+  }
+
+  public static Flux<Row> csv(Flux<DataBuffer> body, int maxLineBytes) {
+    return rows(body, maxLineBytes, OrderImport::parseCsv);
+  }
+
+  private static Flux<Row> rows(Flux<DataBuffer> body, int maxLineBytes, LineParser parser) {
+    return Flux.defer(() -> {
+      Splitter splitter = new Splitter(parser, maxLineBytes);
+      return body
+          .concatMapIterable(buf -> {
+            try {
+              return splitter.split(buf);
+            } finally {
+              DataBufferUtils.release(buf);
+            }
+          }, BUFFER_PREFETCH)
+          .concatWith(Mono.fromSupplier(splitter::finish));
+    });
+  }
+
+  @FunctionalInterface
+  private interface LineParser {
+    /** The row for bytes [from, to) of {@code b}, without the line break; null to skip the line. */
+    Row parse(byte[] b, int from, int to, long line);
+  }
+
+  private static final class Splitter {
+    private final LineParser parser;
+    private final int maxLineBytes;
+    private byte[] carry = new byte[256];
+    private int carryLength;
+    private boolean overflow; // the current line is already too long; its bytes are dropped
+    private long line;
+
+    Splitter(LineParser parser, int maxLineBytes) {
+      this.parser = parser;
+      this.maxLineBytes = maxLineBytes;
+    }
+
+    List<Row> split(DataBuffer buf) {
+      byte[] bytes = new byte[buf.readableByteCount()];
+      buf.read(bytes);
+      List<Row> rows = new ArrayList<>();
+      int start = 0;
+      for (int i = 0; i < bytes.length; i++) {
+        if (bytes[i] != '\n') continue;
+        if (carryLength == 0 && !overflow) {
+          emit(rows, bytes, start, i);
+        } else {
+          append(bytes, start, i);
+          emit(rows, carry, 0, carryLength);
+          carryLength = 0;
+        }
+        start = i + 1;
+      }
+      append(bytes, start, bytes.length);
+      return rows;
+    }
+
+    /** The row for a last line without a trailing line break, or null. */
+    Row finish() {
+      if (carryLength == 0 && !overflow) return null;
+      List<Row> rows = new ArrayList<>(1);
+      emit(rows, carry, 0, carryLength);
+      carryLength = 0;
+      return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    private void append(byte[] bytes, int from, int to) {
+      int n = to - from;
+      if (overflow || n == 0) return;
+      if (carryLength + n > maxLineBytes) {
+        overflow = true;
+        carryLength = 0;
+        return;
+      }
+      if (carryLength + n > carry.length) carry = Arrays.copyOf(carry, Math.max(carry.length * 2, carryLength + n));
+      System.arraycopy(bytes, from, carry, carryLength, n);
+      carryLength += n;
+    }
+
+    private void emit(List<Row> rows, byte[] b, int from, int to) {
+      line++;
+      if (overflow || to - from > maxLineBytes) {
+        overflow = false;
+        rows.add(Row.invalid(line, "Line longer than " + maxLineBytes + " bytes"));
+        return;
+      }
+      if (to > from && b[to - 1] == '\r') to--;
+      while (from < to && isBlank(b[from])) from++;
+      if (from == to) return;
+      Row row = parser.parse(b, from, to, line);
+      if (row != null) rows.add(row);
+    }
+  }
+
+  private static Row parseJson(byte[] b, int from, int to, long line) {
+    String term = null;
+    BigDecimal amount = null;
+    try (JsonParser p = JSON.createParser(b, from, to - from)) {
+      if (p.nextToken() != JsonToken.START_OBJECT) return Row.invalid(line, "Expected a JSON object");
+      JsonToken t;
+      while ((t = p.nextToken()) == JsonToken.FIELD_NAME) {
+        String field = p.currentName();
+        JsonToken value = p.nextToken();
+        if (value == null) break;
+        if ("term".equals(field) && value == JsonToken.VALUE_STRING) {
+          term = p.getText();
+        } else if ("amount".equals(field) && value.isNumeric()) {
+          amount = p.getDecimalValue();
+        } else if ("amount".equals(field) && value == JsonToken.VALUE_STRING) {
+          amount = decimal(p.getText());
+          if (amount == null) return Row.invalid(line, "Invalid amount: " + p.getText());
+        } else {
+          p.skipChildren();
+        }
+      }
+      if (t != JsonToken.END_OBJECT) return Row.invalid(line, "Expected a JSON object");
+    } catch (IOException e) {
+      return Row.invalid(line, "Invalid JSON");
+    }
+    if (term == null) return Row.invalid(line, "Missing term");
+    if (amount == null) return Row.invalid(line, "Missing amount");
+    return Row.of(line, term, amount);
+  }
+
+  private static Row parseCsv(byte[] b, int from, int to, long line) {
+    int comma = -1;
+    for (int i = from; i < to; i++) {
+      if (b[i] == ',') {
+        comma = i;
+        break;
+      }
+    }
+    if (comma < 0) return Row.invalid(line, "Expected term,amount");
+    String term = field(b, from, comma);
+    String amountText = field(b, comma + 1, to);
+    if (line == 1 && term.equalsIgnoreCase("term")) return null; // header
+    if (term.isEmpty()) return Row.invalid(line, "Missing term");
+    BigDecimal amount = decimal(amountText);
+    if (amount == null) return Row.invalid(line, "Invalid amount: " + amountText);
+    return Row.of(line, term, amount);
+  }
+
+  /** Field text without surrounding blanks and double quotes. */
+  private static String field(byte[] b, int from, int to) {
+    while (from < to && isBlank(b[from])) from++;
+    while (to > from && isBlank(b[to - 1])) to--;
+    if (to - from >= 2 && b[from] == '"' && b[to - 1] == '"') {
+      from++;
+      to--;
+    }
+    return new String(b, from, to - from, StandardCharsets.UTF_8);
+  }
+
+  private static BigDecimal decimal(String s) {
+    try {
+      return new BigDecimal(s.trim());
+    } catch (NumberFormatException e) {
+      return null;
+    }
+  }
+
+  private static boolean isBlank(byte c) {
+    return c == ' ' || c == '\t' || c == '\r';
+  }
+}
@@ -0,0 +1,377 @@
+package com.example.treasury.service;
+
+import com.example.treasury.config.DatabaseInit;
+import com.example.treasury.domain.Order;
+import com.example.treasury.domain.OrderImportError;
+import com.example.treasury.domain.OrderImportResult;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Micro-batches order writes.
+ *
+ * Submitted orders are queued until {@code treasury.orders.batch-size} are pending or
+ * {@code treasury.orders.linger} has passed since the oldest one, then written with a single
+ * multi-row INSERT. Every order in a batch is priced from the same curve snapshot, fetched once
+ * per batch. At most {@code treasury.orders.max-in-flight} batches are written concurrently;
+ * orders that queued up meanwhile go out as soon as a writer is free.
+ * Saved orders are added to {@link LiquidityAggregates} and {@link PortfolioRiskEngine} before
+ * their callers complete; callers are answered from the INSERT alone, so a failure in that
+ * bookkeeping is logged rather than reported for orders that were saved.
+ *
+ * Bulk imports ({@link #importOrders}) skip the linger: rows are cut into batches of
+ * {@code treasury.orders.import-batch-size} as they are read, and no more rows are requested
+ * than the batches being written can take. A batch the database rejects is retried row by row.
+ */
+@Service
+@RequiredArgsConstructor
+public class OrderIngestService {
+
+  private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(OrderIngestService.class);
+
+  private final YieldService yieldService;
+  private final DatabaseClient client;
+  private final DatabaseInit schema;
+  private final OrderEvents events;
+  private final LiquidityAggregates liquidity;
+  private final PortfolioRiskEngine risk;
+
+  @Value("${treasury.orders.batch-size:64}")
+  private int batchSize = 64;
+  @Value("${treasury.orders.linger:200us}")
+  private Duration linger = Duration.ofNanos(200_000);
+  @Value("${treasury.orders.max-in-flight:4}")
+  private int maxInFlight = 4;
+  @Value("${treasury.orders.import-batch-size:1000}")
+  private int importBatchSize = 1000;
+  @Value("${treasury.orders.import-max-errors:1000}")
+  private int importMaxErrors = 1000;
+
+  // Column widths of the orders table (term VARCHAR(10), amount DECIMAL(19,2))
+  static final int MAX_TERM_LENGTH = 10;
+  private static final int MAX_AMOUNT_INTEGER_DIGITS = 17;
+
+  // Orders waiting for a batch; drained by one thread at a time (see drain())
+  private final Queue<Pending> queue = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger queued = new AtomicInteger();
+  private final AtomicInteger writing = new AtomicInteger();
+  private final AtomicInteger drainers = new AtomicInteger();
+  // Set while a linger timer is scheduled for the oldest queued order
+  private final AtomicBoolean lingerArmed = new AtomicBoolean();
+  private volatile boolean stopped;
+  private volatile Disposable lingerTimer;
+  private String[] insertSql;   // indexed by row count, up to batchSize
+  private String importSql;     // importBatchSize rows
+  private String[][] paramNames; // [row][column]
+
+  private record Pending(String term, BigDecimal amount, Instant createdAt, long queuedNanos, Sinks.One<Order> result) {}
+
+  @PostConstruct
+  void start() {
+    insertSql = new String[batchSize + 1];
+    for (int n = 1; n <= batchSize; n++) insertSql[n] = buildInsert(n);
+    importSql = buildInsert(importBatchSize);
+    int maxRows = Math.max(batchSize, importBatchSize);
+    paramNames = new String[maxRows][];
+    for (int i = 0; i < maxRows; i++) paramNames[i] = new String[] {"t" + i, "a" + i, "c" + i, "s" + i, "r" + i};
+  }
+
+  @PreDestroy
+  void stop() {
+    stopped = true;
+    Disposable timer = lingerTimer;
+    if (timer != null) timer.dispose();
+    Pending p;
+    while ((p = queue.poll()) != null) p.result().tryEmitError(new IllegalStateException("Order intake is shutting down"));
+  }
+
+  /**
+   * Queues an order for the next batch; completes with the saved order (including its id). An
+   * order that would not fit the table's columns errors on its own instead of failing its batch.
+   */
+  public Mono<Order> submit(String term, BigDecimal amount) {
+    return Mono.defer(() -> {
+      String error = widthError(term, amount);
+      if (error != null) return Mono.error(new IllegalArgumentException(error));
+      if (stopped) return Mono.error(new IllegalStateException("Order intake is shutting down"));
+      Sinks.One<Order> result = Sinks.one();
+      queue.offer(new Pending(term, amount, Instant.now(), System.nanoTime(), result));
+      queued.incrementAndGet();
+      drain();
+      return result.asMono();
+    });
+  }
+
+  /**
+   * Starts batch writes while a writer is free and either a full batch is queued or the oldest
+   * order has lingered long enough; otherwise makes sure a timer will look again. Whichever thread
+   * gets here first does the work, and runs again for calls that arrived meanwhile, so submitters,
+   * finished writes and the timer never drain concurrently.
+   */
+  private void drain() {
+    if (drainers.getAndIncrement() != 0) return;
+    int missed = 1;
+    do {
+      while (!stopped && writing.get() < maxInFlight) {
+        Pending oldest = queue.peek();
+        if (oldest == null) break;
+        long waitNanos = oldest.queuedNanos() + linger.toNanos() - System.nanoTime();
+        if (queued.get() < batchSize && waitNanos > 0) {
+          armLinger(waitNanos);
+          break;
+        }
+        List<Pending> batch = new ArrayList<>(Math.min(queued.get(), batchSize));
+        Pending p;
+        while (batch.size() < batchSize && (p = queue.poll()) != null) batch.add(p);
+        queued.addAndGet(-batch.size());
+        writing.incrementAndGet();
+        writeBatch(batch)
+            .doFinally(signal -> {
+              writing.decrementAndGet();
+              drain();
+            })
+            .subscribe();
+      }
+      missed = drainers.addAndGet(-missed);
+    } while (missed != 0);
+  }
+
+  /** Orders queued or being written; zero once every submit() caller has its answer. */
+  int pending() {
+    return queued.get() + writing.get();
+  }
+
+  private void armLinger(long delayNanos) {
+    if (!lingerArmed.compareAndSet(false, true)) return;
+    lingerTimer = Schedulers.parallel().schedule(() -> {
+      lingerArmed.set(false);
+      drain();
+    }, delayNanos, TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * Reason an order would be rejected by {@code createOrder} or an import, or null when it is
+   * valid: the amount must be positive and the term a maturity such as 3M, 2Y or 90D, both within
+   * the widths of their columns.
+   */
+  public static String validationError(String term, BigDecimal amount) {
+    if (amount == null || amount.signum() <= 0) return "Amount must be > 0";
+    String error = widthError(term, amount);
+    if (error != null) return error;
+    if (InterpolatedCurve.maturityDays(term) <= 0) return "Unrecognized term: " + term;
+    return null;
+  }
+
+  /** Reason the order would not fit the orders table, or null; one such row would fail its whole INSERT. */
+  private static String widthError(String term, BigDecimal amount) {
+    if (term == null || term.length() > MAX_TERM_LENGTH) return "Unrecognized term: " + term;
+    if (amount == null) return "Amount must be > 0";
+    if (amount.precision() - amount.scale() > MAX_AMOUNT_INTEGER_DIGITS) return "Amount too large: " + amount.toPlainString();
+    return null;
+  }
+
+  /**
+   * Validates and saves a stream of orders in batches, reporting rows that could not be read,
+   * validated or saved instead of failing. Rows should be read lazily: they are requested only
+   * as fast as batches are written.
+   */
+  public Mono<OrderImportResult> importOrders(Flux<OrderImport.Row> rows) {
+    return Mono.defer(() -> {
+      ImportTally tally = new ImportTally(importMaxErrors);
+      return rows
+          .<OrderImport.Row>handle((row, sink) -> {
+            String error = row.error() != null ? row.error() : validationError(row.term(), row.amount());
+            if (error != null) tally.reject(row.line(), error);
+            else sink.next(row);
+          })
+          .buffer(importBatchSize)
+          .flatMap(batch -> writeImport(batch, tally), maxInFlight)
+          .then(Mono.fromSupplier(tally::result));
+    });
+  }
+
+  private Mono<Void> writeBatch(List<Pending> batch) {
+    Order[] orders = new Order[batch.size()];
+    for (int i = 0; i < orders.length; i++) {
+      Pending p = batch.get(i);
+      orders[i] = new Order(null, p.term(), p.amount(), p.createdAt(), Order.STATUS_SUBMITTED, null);
+    }
+    return curve()
+        .flatMap(curve -> insert(orders, curve))
+        .doOnError(e -> {
+          log.error("Order batch of {} failed: {}", batch.size(), e.toString());
+          for (Pending p : batch) p.result().tryEmitError(e);
+        })
+        .onErrorResume(e -> Mono.empty())
+        // the rows are committed from here on, whatever the bookkeeping does
+        .doOnNext(saved -> {
+          record(saved);
+          for (int i = 0; i < saved.length; i++) batch.get(i).result().tryEmitValue(saved[i]);
+          for (Order o : saved) events.publishCreated(o);
+        })
+        .then();
+  }
+
+  /**
+   * Saves one import batch. When the batch INSERT fails its rows are retried one at a time, so a
+   * row the database rejects is reported on its own line instead of taking the batch with it.
+   * Only the INSERT is retried: rows it committed are never written again, and all of them are
+   * priced from one curve.
+   */
+  private Mono<Void> writeImport(List<OrderImport.Row> batch, ImportTally tally) {
+    return curve()
+        .onErrorResume(e -> {
+          // no curve to price the batch with, so none of it was written
+          for (OrderImport.Row row : batch) tally.reject(row.line(), "Not saved: " + e.getMessage());
+          return Mono.empty();
+        })
+        .flatMapMany(curve -> insert(importOrders(batch), curve)
+            .flux()
+            .onErrorResume(e -> {
+              if (batch.size() == 1) {
+                tally.reject(batch.get(0).line(), "Not saved: " + e.getMessage());
+                return Mono.empty();
+              }
+              log.warn("Order import batch of {} failed, saving its rows one by one: {}", batch.size(), e.toString());
+              return Flux.fromIterable(batch)
+                  .concatMap(row -> insert(importOrders(List.of(row)), curve)
+                      .onErrorResume(rowError -> {
+                        tally.reject(row.line(), "Not saved: " + rowError.getMessage());
+                        return Mono.empty();
+                      }));
+            }))
+        .doOnNext(saved -> {
+          record(saved);
+          tally.accept(saved.length);
+          for (Order o : saved) events.publishCreated(o);
+        })
+        .then();
+  }
+
+  private static Order[] importOrders(List<OrderImport.Row> rows) {
+    Instant now = Instant.now();
+    Order[] orders = new Order[rows.size()];
+    for (int i = 0; i < orders.length; i++) {
+      OrderImport.Row row = rows.get(i);
+      orders[i] = new Order(null, row.term(), row.amount(), now, Order.STATUS_SUBMITTED, null);
+    }
+    return orders;
+  }
+
+  /** The curve a batch is priced from, once the orders table exists. */
+  private Mono<InterpolatedCurve> curve() {
+    return schema.ready().then(yieldService.getInterpolatedCurve(Interpolation.MONOTONE_CUBIC));
+  }
+
+  /**
+   * Prices {@code orders} from {@code curve}, writes them with a single INSERT and sets their ids.
+   * Errors only when the INSERT does; once it succeeds the rows are committed.
+   */
+  private Mono<Order[]> insert(Order[] orders, InterpolatedCurve curve) {
+    return Mono.defer(() -> {
+      DatabaseClient.GenericExecuteSpec spec = client.sql(insertSql(orders.length));
+      for (int i = 0; i < orders.length; i++) {
+        Order o = orders[i];
+        int days = InterpolatedCurve.maturityDays(o.getTerm());
+        Double rate = days > 0 && !curve.isEmpty() ? curve.rateAtDays(days) : null;
+        o.setRateAtSubmission(rate);
+        String[] names = paramNames[i];
+        spec = spec.bind(names[0], o.getTerm())
+            .bind(names[1], o.getAmount())
+            .bind(names[2], o.getCreatedAt())
+            .bind(names[3], Order.STATUS_SUBMITTED);
+        spec = rate != null ? spec.bind(names[4], rate) : spec.bindNull(names[4], Double.class);
+      }
+      return spec.filter(s -> s.returnGeneratedValues("id"))
+          .map(row -> row.get("id", Long.class))
+          .all()
+          .collectList()
+          .map(ids -> {
+            if (ids.size() == orders.length) {
+              for (int i = 0; i < orders.length; i++) orders[i].setId(ids.get(i));
+            } else {
+              log.error("Saved {} orders but got {} generated ids; their ids are left unset", orders.length, ids.size());
+            }
+            return orders;
+          });
+    });
+  }
+
+  /**
+   * Adds saved orders to the in-memory aggregates, before their callers complete so a summary
+   * read after submit() includes them. The orders are committed by now: a failure here is logged
+   * and does not fail them.
+   */
+  private void record(Order[] saved) {
+    for (Order o : saved) {
+      try {
+        liquidity.record(o);
+        risk.record(o);
+      } catch (RuntimeException e) {
+        log.error("Order {} was saved but not added to the aggregates: {}", o.getId(), e.toString());
+      }
+    }
+  }
+
+  private String insertSql(int rows) {
+    if (rows < insertSql.length) return insertSql[rows];
+    return rows == importBatchSize ? importSql : buildInsert(rows);
+  }
+
+  /** Counts and first errors of one import; rejections may come from several batch writers. */
+  private static final class ImportTally {
+    private final int maxErrors;
+    private final List<OrderImportError> errors = new ArrayList<>();
+    private final AtomicLong accepted = new AtomicLong();
+    private long rejected;
+
+    ImportTally(int maxErrors) {
+      this.maxErrors = maxErrors;
+    }
+
+    void accept(int n) {
+      accepted.addAndGet(n);
+    }
+
+    synchronized void reject(long line, String message) {
+      rejected++;
+      if (errors.size() < maxErrors) errors.add(new OrderImportError(line, message));
+    }
+
+    synchronized OrderImportResult result() {
+      return new OrderImportResult(accepted.get(), rejected, List.copyOf(errors), rejected > errors.size());
+    }
+  }
+
+  private static String buildInsert(int rows) {
+    StringBuilder sql = new StringBuilder(
+        "INSERT INTO orders (term, amount, created_at, status, rate_at_submission) VALUES ");
+    for (int i = 0; i < rows; i++) {
+      if (i > 0) sql.append(", ");
+      sql.append("(:t").append(i).append(", :a").append(i).append(", :c").append(i)
+          .append(", :s").append(i).append(", :r").append(i).append(')');
+    }
+    return sql.toString();
+  }
+}
@@ -0,0 +1,289 @@
+package com.example.treasury.service;
+
+import com.example.treasury.config.DatabaseInit;
+import com.example.treasury.domain.Order;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Moves orders through their lifecycle: SUBMITTED orders are checked and become ACCEPTED or
+ * REJECTED, ACCEPTED orders become SETTLED once {@code treasury.lifecycle.settle-after} has
+ * passed since submission.
+ *
+ * Orders are split into {@code treasury.lifecycle.workers} shards by {@code id mod workers}, and
+ * each shard is worked by one loop, so no two workers ever compete for a row. A loop claims up to
+ * {@code batch-size} pending rows by stamping them with a token, decides them, and writes all new
+ * statuses with one UPDATE that also clears the claim. When a pass finds nothing to do the loop
+ * waits {@code poll-interval}.
+ *
+ * A claim older than {@code claim-timeout} is treated as abandoned (a crash between claim and
+ * update) and the rows are claimed again, which is counted as recovered: {@code attempts} counts
+ * claims since the row's last completed step. Updates only apply to rows still holding the
+ * updater's token, so a slow worker cannot overwrite a newer claim. The update leaves
+ * {@code claimed_at} as it was; when it touches fewer rows than were claimed, the rows this pass
+ * did move are read back by that claim time, and only those are counted and published.
+ *
+ * Checks use the current monotone cubic curve: an order is rejected for an unrecognized term, an
+ * amount outside (0, {@code max-amount}], or when the rate for its maturity has moved more than
+ * {@code max-rate-move-bps} since submission. Without a curve, orders stay SUBMITTED.
+ */
+@Service
+@RequiredArgsConstructor
+public class OrderLifecycleProcessor {
+
+  private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(OrderLifecycleProcessor.class);
+
+  private static final String CANDIDATES = """
+      SELECT id FROM orders
+      WHERE status = :status AND MOD(id, :shards) = :shard
+        AND (claim_token IS NULL OR claimed_at < :staleBefore)
+      """;
+  private static final String DUE = "  AND created_at <= :dueBefore\n";
+  private static final String ORDER_BY = "ORDER BY id LIMIT :limit";
+  private static final InterpolatedCurve NO_CURVE = InterpolatedCurve.fit(List.of(), Interpolation.LINEAR);
+
+  private final DatabaseClient client;
+  private final DatabaseInit schema;
+  private final YieldService yieldService;
+  private final OrderEvents events;
+
+  @Value("${treasury.lifecycle.enabled:true}")
+  private boolean enabled = true;
+  @Value("${treasury.lifecycle.workers:4}")
+  private int workers = 4;
+  @Value("${treasury.lifecycle.batch-size:500}")
+  private int batchSize = 500;
+  @Value("${treasury.lifecycle.poll-interval:1s}")
+  private Duration pollInterval = Duration.ofSeconds(1);
+  @Value("${treasury.lifecycle.claim-timeout:30s}")
+  private Duration claimTimeout = Duration.ofSeconds(30);
+  @Value("${treasury.lifecycle.settle-after:1m}")
+  private Duration settleAfter = Duration.ofMinutes(1);
+  @Value("${treasury.lifecycle.max-rate-move-bps:50}")
+  private double maxRateMoveBps = 50;
+  @Value("${treasury.lifecycle.max-amount:1000000000}")
+  private BigDecimal maxAmount = new BigDecimal("1000000000");
+
+  private final String instance = UUID.randomUUID().toString().substring(0, 8);
+  private final AtomicLong claims = new AtomicLong();
+  private LifecycleMetrics metrics = LifecycleMetrics.NOOP;
+  private Scheduler scheduler;
+  private Disposable loops;
+
+  private record Claimed(Order order, int attempts) {}
+
+  @Autowired(required = false)
+  void bindMetrics(MeterRegistry registry) {
+    metrics = new LifecycleMetrics(registry);
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void start() {
+    if (!enabled) return;
+    // H2 runs statements on the subscribing thread, so each shard loop gets a thread of its own
+    scheduler = Schedulers.newParallel("order-lifecycle", workers);
+    loops = schema.ready()
+        .thenMany(Flux.range(0, workers))
+        .flatMap(this::loop, workers)
+        .subscribe(null, e -> log.error("Order lifecycle not started: {}", e.toString()));
+    log.info("Order lifecycle started with {} shards", workers);
+  }
+
+  @PreDestroy
+  void stop() {
+    if (loops != null) loops.dispose();
+    if (scheduler != null) scheduler.dispose();
+  }
+
+  private Flux<Integer> loop(int shard) {
+    return Mono.defer(() -> processShard(shard))
+        .onErrorResume(e -> {
+          log.warn("Order lifecycle pass for shard {} failed: {}", shard, e.toString());
+          return Mono.just(0);
+        })
+        .flatMap(n -> n > 0 ? Mono.just(n) : Mono.delay(pollInterval, scheduler).thenReturn(0))
+        .repeat()
+        .subscribeOn(scheduler);
+  }
+
+  /** One pass over a shard: a batch of submitted orders, then a batch due for settlement. */
+  Mono<Integer> processShard(int shard) {
+    return process(shard, false).flatMap(checked -> process(shard, true).map(settled -> checked + settled));
+  }
+
+  /** Claims, decides and updates one batch; completes with the number of orders moved on. */
+  private Mono<Integer> process(int shard, boolean settle) {
+    return Mono.defer(() -> {
+      long started = System.nanoTime();
+      Instant now = Instant.now().truncatedTo(ChronoUnit.MILLIS); // read back as claimed_at
+      String token = instance + "-" + claims.incrementAndGet();
+      String status = settle ? Order.STATUS_ACCEPTED : Order.STATUS_SUBMITTED;
+      LocalDateTime staleBefore = local(now.minus(claimTimeout));
+      DatabaseClient.GenericExecuteSpec select = client.sql(CANDIDATES + (settle ? DUE : "") + ORDER_BY)
+          .bind("status", status)
+          .bind("shards", workers)
+          .bind("shard", shard)
+          .bind("staleBefore", staleBefore)
+          .bind("limit", batchSize);
+      if (settle) select = select.bind("dueBefore", local(now.minus(settleAfter)));
+      return select.map(row -> row.get("id", Long.class))
+          .all()
+          .collectList()
+          .flatMap(ids -> ids.isEmpty() ? Mono.just(0) : claim(ids, status, token, now, staleBefore)
+              .flatMap(claimed -> decideAndUpdate(claimed, settle, token, now))
+              .doOnNext(n -> metrics.batch(settle, System.nanoTime() - started)));
+    });
+  }
+
+  private Mono<List<Claimed>> claim(List<Long> ids, String status, String token, Instant now,
+      LocalDateTime staleBefore) {
+    String in = idList(ids);
+    return client.sql("UPDATE orders SET claim_token = :token, claimed_at = :now, attempts = attempts + 1"
+            + " WHERE id IN (" + in + ") AND status = :status"
+            + " AND (claim_token IS NULL OR claimed_at < :staleBefore)")
+        .bind("token", token)
+        .bind("now", local(now))
+        .bind("status", status)
+        .bind("staleBefore", staleBefore)
+        .fetch().rowsUpdated()
+        .flatMap(n -> n == 0 ? Mono.just(List.<Claimed>of()) : client.sql(
+                "SELECT id, term, amount, created_at, status, rate_at_submission, attempts FROM orders"
+                    + " WHERE id IN (" + in + ") AND claim_token = :token")
+            .bind("token", token)
+            .map(row -> new Claimed(new Order(
+                row.get("id", Long.class),
+                row.get("term", String.class),
+                row.get("amount", BigDecimal.class),
+                row.get("created_at", LocalDateTime.class).atZone(ZoneId.systemDefault()).toInstant(),
+                row.get("status", String.class),
+                row.get("rate_at_submission", Double.class)),
+                row.get("attempts", Integer.class)))
+            .all()
+            .collectList());
+  }
+
+  private Mono<Integer> decideAndUpdate(List<Claimed> claimed, boolean settle, String token, Instant now) {
+    if (claimed.isEmpty()) return Mono.just(0);
+    Mono<InterpolatedCurve> curve = settle
+        ? Mono.just(NO_CURVE) // settling needs no checks
+        : yieldService.getInterpolatedCurve(Interpolation.MONOTONE_CUBIC);
+    return curve.flatMap(c -> {
+      List<Order> changed = new ArrayList<>(claimed.size());
+      List<String> targets = new ArrayList<>(claimed.size());
+      long recovered = 0;
+      for (Claimed cl : claimed) {
+        if (cl.attempts() > 1) recovered++;
+        String target = settle ? Order.STATUS_SETTLED : check(cl.order(), c);
+        if (target == null) continue;
+        changed.add(cl.order());
+        targets.add(target);
+        cl.order().setStatus(target); // published only once the update has moved the row
+      }
+      metrics.recovered(recovered);
+      return client.sql(updateSql(claimed, changed, targets))
+          .bind("token", token)
+          .fetch().rowsUpdated()
+          .flatMap(updated -> {
+            if (updated == claimed.size()) return Mono.just(changed);
+            log.warn("{} of {} claimed orders were taken over before their update", claimed.size() - updated,
+                claimed.size());
+            return updatedIds(changed, now).map(ids -> changed.stream().filter(o -> ids.contains(o.getId())).toList());
+          })
+          .map(moved -> {
+            for (Order o : moved) {
+              metrics.transitioned(o.getStatus(), 1);
+              Instant from = settle ? o.getCreatedAt().plus(settleAfter) : o.getCreatedAt();
+              metrics.lag(settle, now.toEpochMilli() - from.toEpochMilli());
+              events.publishStatusChanged(o);
+            }
+            return moved.size();
+          });
+    });
+  }
+
+  /** Which of {@code changed} the update claimed at {@code claimedAt} moved on; a newer claim leaves its own time. */
+  private Mono<Set<Long>> updatedIds(List<Order> changed, Instant claimedAt) {
+    if (changed.isEmpty()) return Mono.just(Set.of());
+    List<Long> ids = new ArrayList<>(changed.size());
+    for (Order o : changed) ids.add(o.getId());
+    return client.sql("SELECT id FROM orders WHERE id IN (" + idList(ids) + ")"
+            + " AND claim_token IS NULL AND claimed_at = :claimedAt")
+        .bind("claimedAt", local(claimedAt))
+        .map(row -> row.get("id", Long.class))
+        .all()
+        .collect(Collectors.toSet());
+  }
+
+  /** The status a submitted order moves to, or null to leave it submitted. */
+  String check(Order order, InterpolatedCurve curve) {
+    int days = InterpolatedCurve.maturityDays(order.getTerm());
+    BigDecimal amount = order.getAmount();
+    if (days <= 0 || amount == null || amount.signum() <= 0 || amount.compareTo(maxAmount) > 0) {
+      return Order.STATUS_REJECTED;
+    }
+    if (curve.isEmpty()) return null;
+    Double atSubmission = order.getRateAtSubmission();
+    if (atSubmission != null && Math.abs(curve.rateAtDays(days) - atSubmission) * 100 > maxRateMoveBps) {
+      return Order.STATUS_REJECTED;
+    }
+    return Order.STATUS_ACCEPTED;
+  }
+
+  /** Sets each changed order's new status and releases every claimed row (keeping its claim time), in one statement. */
+  private static String updateSql(List<Claimed> claimed, List<Order> changed, List<String> targets) {
+    StringBuilder sql = new StringBuilder("UPDATE orders SET ");
+    if (!changed.isEmpty()) {
+      sql.append("status = CASE");
+      for (String status : List.of(Order.STATUS_ACCEPTED, Order.STATUS_REJECTED, Order.STATUS_SETTLED)) {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < changed.size(); i++) {
+          if (targets.get(i).equals(status)) ids.add(changed.get(i).getId());
+        }
+        if (!ids.isEmpty()) sql.append(" WHEN id IN (").append(idList(ids)).append(") THEN '").append(status).append('\'');
+      }
+      sql.append(" ELSE status END, ");
+    }
+    List<Long> all = new ArrayList<>(claimed.size());
+    for (Claimed c : claimed) all.add(c.order().getId());
+    return sql.append("claim_token = NULL, attempts = 0 WHERE id IN (").append(idList(all))
+        .append(") AND claim_token = :token").toString();
+  }
+
+  private static String idList(List<Long> ids) {
+    StringBuilder s = new StringBuilder(ids.size() * 8);
+    for (Long id : ids) {
+      if (s.length() > 0) s.append(',');
+      s.append(id.longValue());
+    }
+    return s.toString();
+  }
+
+  private static LocalDateTime local(Instant instant) {
+    return LocalDateTime.ofInstant(instant, ZoneId.systemDefault());
+  }
+}
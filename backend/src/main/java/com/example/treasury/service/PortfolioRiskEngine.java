@@ -0,0 +1,275 @@
+package com.example.treasury.service;
+
+import com.example.treasury.config.DatabaseInit;
+import com.example.treasury.domain.KeyRateRisk;
+import com.example.treasury.domain.Order;
+import com.example.treasury.domain.OrderRisk;
+import com.example.treasury.domain.PortfolioRisk;
+import com.example.treasury.domain.Tenor;
+import com.example.treasury.domain.YieldCurve;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Values the order book against the current curve: mark-to-market P&L, modified duration, DV01
+ * and key-rate DV01 per canonical tenor (see {@link RiskBook} for the model).
+ *
+ * The book is loaded from the orders table on startup; saved orders are added as they are
+ * written. Each published curve revalues only the maturity segments next to the tenors that
+ * moved, on a dedicated fork-join pool of {@code treasury.risk.parallelism} threads.
+ */
+@Service
+@RequiredArgsConstructor
+public class PortfolioRiskEngine {
+
+  private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(PortfolioRiskEngine.class);
+
+  private static final long SECONDS_PER_DAY = 86_400;
+
+  private final DatabaseClient client;
+  private final DatabaseInit schema;
+  private final YieldService yieldService;
+
+  @Value("${treasury.risk.parallelism:0}")
+  private int parallelism;
+
+  private ForkJoinPool pool;
+  private final ReentrantLock lock = new ReentrantLock(); // guards book, unpriced and loadedThroughId
+  private RiskBook book;
+  private long unpriced;
+  private long loadedThroughId;
+  private volatile boolean loaded;
+  private volatile double[] rates;   // tenor rates of the last curve, for per-order valuation
+  private final Queue<Order> pending = new ConcurrentLinkedQueue<>();
+  private Disposable updates;
+
+  @PostConstruct
+  void init() {
+    pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    book = new RiskBook(pool, today());
+  }
+
+  @PreDestroy
+  void stop() {
+    if (updates != null) updates.dispose();
+    pool.shutdownNow();
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void start() {
+    updates = yieldService.curveUpdates()
+        .publishOn(Schedulers.boundedElastic())
+        .subscribe(this::onCurve, e -> log.error("Curve updates ended: {}", e.toString()));
+    reload()
+        .then(yieldService.getYieldCurve())
+        .publishOn(Schedulers.boundedElastic())
+        .subscribe(this::onCurve, e -> log.error("Risk book load failed: {}", e.toString()));
+  }
+
+  /** Rebuilds the book from the orders table. */
+  public Mono<Void> reload() {
+    loaded = false;
+    long started = System.nanoTime();
+    RiskBook fresh = new RiskBook(pool, today());
+    long[] skipped = new long[1];
+    return schema.ready().then(client.sql("SELECT COALESCE(MAX(id), 0) AS max_id FROM orders")
+        .map(row -> row.get("max_id", Long.class))
+        .one())
+        .flatMap(maxId -> client.sql("""
+                SELECT id, term, amount, created_at, rate_at_submission
+                FROM orders WHERE id <= :maxId
+                """)
+            .bind("maxId", maxId)
+            .map(row -> {
+              LocalDateTime created = row.get("created_at", LocalDateTime.class);
+              if (!add(fresh, row.get("id", Long.class), row.get("term", String.class),
+                  row.get("amount", BigDecimal.class), created.atZone(ZoneId.systemDefault()).toInstant(),
+                  row.get("rate_at_submission", Double.class))) {
+                skipped[0]++;
+              }
+              return 1;
+            })
+            .all()
+            .then(Mono.fromRunnable(() -> {
+              lock.lock();
+              try {
+                double[] current = rates;
+                if (current != null) fresh.setCurve(current);
+                book = fresh;
+                unpriced = skipped[0];
+                loadedThroughId = maxId;
+                loaded = true;
+                drainLocked();
+              } finally {
+                lock.unlock();
+              }
+              drain();
+              log.info("Risk book loaded through order {} ({} positions) in {} ms",
+                  maxId, fresh.size(), (System.nanoTime() - started) / 1_000_000);
+            })));
+  }
+
+  /** Adds a saved order (with its id) to the book. */
+  public void record(Order o) {
+    pending.add(o);
+    drain();
+  }
+
+  /** Book-wide risk at the current curve, or empty before the first curve. */
+  public Mono<PortfolioRisk> portfolioRisk() {
+    // the first call of a new day re-segments the whole book, so keep it off the event loop
+    return Mono.fromCallable(this::risk).subscribeOn(Schedulers.boundedElastic());
+  }
+
+  /** Risk of a single order at the current curve; null if it cannot be priced yet. */
+  public OrderRisk markToMarket(Order o) {
+    double[] r = rates;
+    return r == null ? null : markToMarket(o, r, today());
+  }
+
+  /**
+   * Risk of each order, all at the same curve and valuation day; orders that cannot be priced
+   * yet are left out.
+   */
+  public Map<Order, OrderRisk> markToMarket(List<Order> orders) {
+    double[] r = rates;
+    Map<Order, OrderRisk> out = new HashMap<>(orders.size() * 2);
+    if (r == null) return out;
+    int today = today();
+    for (Order o : orders) {
+      OrderRisk risk = markToMarket(o, r, today);
+      if (risk != null) out.put(o, risk);
+    }
+    return out;
+  }
+
+  private static OrderRisk markToMarket(Order o, double[] r, int today) {
+    int termDays = InterpolatedCurve.maturityDays(o.getTerm());
+    if (termDays <= 0 || o.getRateAtSubmission() == null || o.getAmount() == null || o.getCreatedAt() == null) {
+      return null;
+    }
+    double amount = o.getAmount().doubleValue();
+    int days = Math.max(maturityDay(o.getCreatedAt(), termDays) - today, 0);
+    double pv = RiskBook.presentValue(face(amount, o.getRateAtSubmission(), termDays), days, r);
+    double tau = days / RiskBook.DAYS_PER_YEAR;
+    return new OrderRisk(pv, pv - amount, tau, pv * tau * 1e-4);
+  }
+
+  void onCurve(YieldCurve curve) {
+    if (curve.isEmpty()) return;
+    InterpolatedCurve linear = InterpolatedCurve.fit(curve, Interpolation.LINEAR);
+    double[] r = new double[RiskBook.TENORS];
+    for (int t = 0; t < r.length; t++) r[t] = linear.rateAtDays(RiskBook.NODE_DAYS[t]);
+    lock.lock();
+    try {
+      rollIfNewDay();
+      drainLocked();
+      long started = System.nanoTime();
+      int segments = book.setCurve(r);
+      rates = r;
+      log.debug("Revalued {} risk segments in {} us", segments, (System.nanoTime() - started) / 1_000);
+    } finally {
+      lock.unlock();
+    }
+    drain();
+  }
+
+  PortfolioRisk risk() {
+    double[] totals;
+    long positions, skipped;
+    int day;
+    lock.lock();
+    try {
+      if (book.rates() == null) return null;
+      rollIfNewDay();
+      drainLocked();
+      totals = book.totals();
+      positions = book.size();
+      skipped = unpriced;
+      day = book.valuationDay();
+    } finally {
+      lock.unlock();
+    }
+    double pv = totals[0], cost = totals[1];
+    List<KeyRateRisk> keyRates = new ArrayList<>(RiskBook.TENORS);
+    for (int t = 0; t < RiskBook.TENORS; t++) {
+      double pvTau = totals[3 + t];
+      keyRates.add(new KeyRateRisk(Tenor.at(t).label(), pvTau * 1e-4, pv == 0 ? 0 : pvTau / pv));
+    }
+    return new PortfolioRisk(LocalDate.ofEpochDay(day).toString(), positions, skipped, pv, cost, pv - cost,
+        pv == 0 ? 0 : totals[2] / pv, totals[2] * 1e-4, keyRates);
+  }
+
+  private void rollIfNewDay() {
+    int day = today();
+    if (day != book.valuationDay()) book.rollTo(day);
+  }
+
+  /** Applies queued orders if no one else holds the lock; a holder drains before releasing. */
+  private void drain() {
+    while (loaded && !pending.isEmpty() && lock.tryLock()) {
+      try {
+        drainLocked();
+      } finally {
+        lock.unlock();
+      }
+    }
+  }
+
+  private void drainLocked() {
+    if (!loaded) return;
+    Order o;
+    while ((o = pending.poll()) != null) {
+      if (o.getId() != null && o.getId() <= loadedThroughId) continue;
+      if (!add(book, o.getId() == null ? 0 : o.getId(), o.getTerm(), o.getAmount(), o.getCreatedAt(),
+          o.getRateAtSubmission())) {
+        unpriced++;
+      }
+    }
+  }
+
+  private static boolean add(RiskBook target, long id, String term, BigDecimal amount, Instant createdAt,
+                             Double rate) {
+    int termDays = InterpolatedCurve.maturityDays(term);
+    if (termDays <= 0 || rate == null || amount == null || createdAt == null) return false;
+    double cost = amount.doubleValue();
+    target.add(id, face(cost, rate, termDays), cost, maturityDay(createdAt, termDays));
+    return true;
+  }
+
+  /** Amount grown at the submission rate to maturity (continuous compounding). */
+  private static double face(double amount, double rate, int termDays) {
+    return amount * Math.exp(rate / 100 * (termDays / RiskBook.DAYS_PER_YEAR));
+  }
+
+  private static int maturityDay(Instant createdAt, int termDays) {
+    return (int) Math.floorDiv(createdAt.getEpochSecond(), SECONDS_PER_DAY) + termDays;
+  }
+
+  private static int today() {
+    return (int) Math.floorDiv(Instant.now().getEpochSecond(), SECONDS_PER_DAY);
+  }
+}
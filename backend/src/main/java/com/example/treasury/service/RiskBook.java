@@ -0,0 +1,266 @@
+package com.example.treasury.service;
+
+import com.example.treasury.domain.Tenor;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * The order book as primitive arrays, valued as zero-coupon positions against a linear curve.
+ *
+ * Each order is a position of face {@code amount * exp(r0 * T)} maturing {@code T} after it was
+ * submitted, where {@code r0} is its rateAtSubmission (continuous compounding). It is discounted
+ * at the current zero rate for its remaining maturity, interpolated linearly between the
+ * canonical tenors ({@link Tenor}) and flat outside them.
+ *
+ * Orders are grouped into segments by remaining maturity: segment 0 up to the first tenor,
+ * segment k between tenors k-1 and k, and a last one beyond the longest tenor. With linear
+ * interpolation a segment depends on at most two tenor rates, so a curve move only revalues the
+ * segments next to the tenors that changed; totals are the sum of the per-segment sums.
+ * Remaining maturity shrinks daily, so the book is re-segmented when the valuation day changes.
+ *
+ * Not thread-safe: the owner serializes every call. Revaluation fans out on the given pool.
+ */
+final class RiskBook {
+
+  static final double DAYS_PER_YEAR = 365.0;
+  static final int TENORS = Tenor.COUNT;
+  /** Tenor maturities in days, ascending. */
+  static final int[] NODE_DAYS = new int[TENORS];
+
+  static {
+    for (int i = 0; i < TENORS; i++) NODE_DAYS[i] = InterpolatedCurve.maturityDays(Tenor.at(i).label());
+  }
+
+  private static final int SEGMENTS = TENORS + 1;
+  private static final int SPLIT_THRESHOLD = 1 << 15;
+
+  /** Struct-of-arrays slice of the book plus its valuation sums. */
+  static final class Segment {
+    long[] id = new long[16];
+    double[] face = new double[16];
+    double[] cost = new double[16];
+    int[] maturityDay = new int[16];   // epoch day
+    int size;
+
+    double pv, costBasis, pvTimesTau, pvTimesTauLo; // tau in years; Lo: share sensitive to the lower tenor
+
+    void add(long orderId, double orderFace, double orderCost, int orderMaturity) {
+      if (size == id.length) {
+        int cap = size * 2;
+        id = Arrays.copyOf(id, cap);
+        face = Arrays.copyOf(face, cap);
+        cost = Arrays.copyOf(cost, cap);
+        maturityDay = Arrays.copyOf(maturityDay, cap);
+      }
+      id[size] = orderId;
+      face[size] = orderFace;
+      cost[size] = orderCost;
+      maturityDay[size] = orderMaturity;
+      size++;
+    }
+  }
+
+  private final ForkJoinPool pool;
+  private Segment[] segments = newSegments();
+  private int valuationDay;
+  private double[] rates;            // percent, per tenor; null until a curve is set
+
+  RiskBook(ForkJoinPool pool, int valuationDay) {
+    this.pool = pool;
+    this.valuationDay = valuationDay;
+  }
+
+  int valuationDay() {
+    return valuationDay;
+  }
+
+  int size() {
+    int n = 0;
+    for (Segment s : segments) n += s.size;
+    return n;
+  }
+
+  /** Tenor rates (percent) the book is valued at, or null before the first curve. */
+  double[] rates() {
+    return rates;
+  }
+
+  Segment segment(int k) {
+    return segments[k];
+  }
+
+  /** Adds a position and, once a curve is set, its valuation. */
+  void add(long id, double face, double cost, int maturityDay) {
+    int k = segmentOf(maturityDay - valuationDay);
+    Segment s = segments[k];
+    int i = s.size;
+    s.add(id, face, cost, maturityDay);
+    if (rates != null) accumulate(s, value(s, i, i + 1, k));
+  }
+
+  /**
+   * Values the book at {@code newRates} (percent per tenor), revaluing only the segments whose
+   * tenors moved. Returns the number of segments revalued.
+   */
+  int setCurve(double[] newRates) {
+    boolean[] dirty = new boolean[SEGMENTS];
+    int count = 0;
+    for (int t = 0; t < TENORS; t++) {
+      if (rates != null && Double.compare(rates[t], newRates[t]) == 0) continue;
+      // tenor t bounds segments t (from above) and t+1 (from below)
+      dirty[t] = true;
+      dirty[t + 1] = true;
+    }
+    rates = newRates.clone();
+    Revalue[] tasks = new Revalue[SEGMENTS];
+    for (int k = 0; k < SEGMENTS; k++) {
+      if (!dirty[k]) continue;
+      tasks[k] = new Revalue(k, 0, segments[k].size);
+      count++;
+    }
+    revalue(tasks);
+    return count;
+  }
+
+  /** Re-segments every position for a new valuation day and revalues the whole book. */
+  void rollTo(int day) {
+    Segment[] old = segments;
+    segments = newSegments();
+    valuationDay = day;
+    for (Segment s : old) {
+      for (int i = 0; i < s.size; i++) {
+        segments[segmentOf(s.maturityDay[i] - day)].add(s.id[i], s.face[i], s.cost[i], s.maturityDay[i]);
+      }
+    }
+    if (rates != null) {
+      Revalue[] tasks = new Revalue[SEGMENTS];
+      for (int k = 0; k < SEGMENTS; k++) tasks[k] = new Revalue(k, 0, segments[k].size);
+      revalue(tasks);
+    }
+  }
+
+  /** Book-wide sums: {pv, cost, pv*tau, per-tenor pv*tau (index 3 + tenor)}. */
+  double[] totals() {
+    double[] out = new double[3 + TENORS];
+    for (int k = 0; k < SEGMENTS; k++) {
+      Segment s = segments[k];
+      out[0] += s.pv;
+      out[1] += s.costBasis;
+      out[2] += s.pvTimesTau;
+      int lo = lowerTenor(k), hi = upperTenor(k);
+      out[3 + lo] += s.pvTimesTauLo;
+      out[3 + hi] += s.pvTimesTau - s.pvTimesTauLo;
+    }
+    return out;
+  }
+
+  /**
+   * Present value of a position with {@code days} to maturity at tenor {@code rates} (percent),
+   * the same way the book values it.
+   */
+  static double presentValue(double face, int days, double[] rates) {
+    days = Math.max(days, 0);
+    int k = segmentOf(days);
+    double w = lowerWeight(k, days);
+    double rate = w * rates[lowerTenor(k)] + (1 - w) * rates[upperTenor(k)];
+    return face * Math.exp(-rate / 100 * (days / DAYS_PER_YEAR));
+  }
+
+  private void revalue(Revalue[] tasks) {
+    pool.invoke(new RecursiveTask<Void>() {
+      @Override
+      protected Void compute() {
+        for (Revalue t : tasks) if (t != null) t.fork();
+        for (int k = 0; k < tasks.length; k++) {
+          if (tasks[k] == null) continue;
+          double[] sums = tasks[k].join();
+          Segment s = segments[k];
+          s.pv = sums[0];
+          s.costBasis = sums[1];
+          s.pvTimesTau = sums[2];
+          s.pvTimesTauLo = sums[3];
+        }
+        return null;
+      }
+    });
+  }
+
+  /** Sums {pv, cost, pv*tau, pv*tau*lowerWeight} over [from, to) of a segment, splitting large ranges. */
+  private final class Revalue extends RecursiveTask<double[]> {
+    private final int k, from, to;
+
+    Revalue(int k, int from, int to) {
+      this.k = k;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected double[] compute() {
+      if (to - from <= SPLIT_THRESHOLD) return value(segments[k], from, to, k);
+      int mid = (from + to) >>> 1;
+      Revalue left = new Revalue(k, from, mid);
+      left.fork();
+      double[] right = new Revalue(k, mid, to).compute();
+      double[] l = left.join();
+      for (int i = 0; i < l.length; i++) l[i] += right[i];
+      return l;
+    }
+  }
+
+  private double[] value(Segment s, int from, int to, int k) {
+    double rLo = rates[lowerTenor(k)], rHi = rates[upperTenor(k)];
+    int dLo = k == 0 ? 0 : NODE_DAYS[k - 1];
+    int span = k == 0 || k == TENORS ? 0 : NODE_DAYS[k] - dLo;
+    int day = valuationDay;
+    double[] face = s.face, cost = s.cost;
+    int[] maturity = s.maturityDay;
+    double pv = 0, c = 0, pvTau = 0, pvTauLo = 0;
+    for (int i = from; i < to; i++) {
+      int days = Math.max(maturity[i] - day, 0);
+      double w = span == 0 ? 1 : (double) (dLo + span - days) / span;
+      double tau = days / DAYS_PER_YEAR;
+      double v = face[i] * Math.exp(-(w * rLo + (1 - w) * rHi) / 100 * tau);
+      pv += v;
+      c += cost[i];
+      pvTau += v * tau;
+      pvTauLo += v * tau * w;
+    }
+    return new double[] {pv, c, pvTau, pvTauLo};
+  }
+
+  private static void accumulate(Segment s, double[] sums) {
+    s.pv += sums[0];
+    s.costBasis += sums[1];
+    s.pvTimesTau += sums[2];
+    s.pvTimesTauLo += sums[3];
+  }
+
+  /** Segment for a remaining maturity in days: the first k with days <= NODE_DAYS[k], else TENORS. */
+  static int segmentOf(int days) {
+    int k = Arrays.binarySearch(NODE_DAYS, Math.max(days, 0));
+    return k >= 0 ? k : -k - 1;
+  }
+
+  private static int lowerTenor(int k) {
+    return k == 0 ? 0 : k - 1;
+  }
+
+  private static int upperTenor(int k) {
+    return k == TENORS ? TENORS - 1 : k;
+  }
+
+  /** Interpolation weight of the lower tenor for a maturity inside segment k. */
+  private static double lowerWeight(int k, int days) {
+    if (k == 0 || k == TENORS) return 1;
+    return (double) (NODE_DAYS[k] - days) / (NODE_DAYS[k] - NODE_DAYS[k - 1]);
+  }
+
+  private static Segment[] newSegments() {
+    Segment[] s = new Segment[SEGMENTS];
+    for (int k = 0; k < SEGMENTS; k++) s[k] = new Segment();
+    return s;
+  }
+}
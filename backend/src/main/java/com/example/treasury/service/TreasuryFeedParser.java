@@ -0,0 +1,223 @@
+package com.example.treasury.service;
+
+import com.example.treasury.domain.Tenor;
+import com.example.treasury.domain.YieldCurve;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+
+/**
+ * Single-pass StAX parser for the Treasury par yield curve XML feed.
+ *
+ * Walks the document once with a cursor reader, handing each entry's BC_* values to the
+ * caller as a primitive array; {@link #parseLatest} keeps only the newest qualifying entry. Element matching is by local name,
+ * so it is agnostic to the Atom / OData namespaces used by the feed.
+ */
+final class TreasuryFeedParser {
+
+  private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(TreasuryFeedParser.class);
+
+  /** Feed field names, index-aligned with {@link Tenor}. */
+  static final String[] FIELDS = {
+      "BC_1MONTH", "BC_1_5MONTH", "BC_2MONTH", "BC_3MONTH", "BC_4MONTH", "BC_6MONTH",
+      "BC_1YEAR", "BC_2YEAR", "BC_3YEAR", "BC_5YEAR", "BC_7YEAR", "BC_10YEAR", "BC_20YEAR", "BC_30YEAR"
+  };
+
+  static {
+    if (FIELDS.length != Tenor.COUNT) throw new IllegalStateException("Feed fields out of step with Tenor");
+  }
+
+  private static final int FIELD_OTHER = -2;
+  private static final int FIELD_DATE = -3;
+
+  private static final XMLInputFactory FACTORY = newFactory();
+
+  private TreasuryFeedParser() {}
+
+  private static XMLInputFactory newFactory() {
+    XMLInputFactory f = XMLInputFactory.newFactory();
+    // Harden against XXE/DTD
+    f.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+    f.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    f.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+    return f;
+  }
+
+  /** Receives every dated entry of a feed, in document order. */
+  interface EntryHandler {
+    /**
+     * @param date     entry date
+     * @param values   rates index-aligned with {@link #FIELDS}, NaN where missing; only valid during the call
+     * @param anyValue whether the entry had any parseable BC_* value, including unmapped ones
+     */
+    void onEntry(LocalDate date, double[] values, boolean anyValue);
+  }
+
+  /**
+   * Returns the newest curve dated on or before {@code onOrBefore}, or {@link YieldCurve#EMPTY}
+   * if the feed has no qualifying entry or cannot be parsed.
+   */
+  static YieldCurve parseLatest(InputStream in, LocalDate onOrBefore) {
+    Latest latest = new Latest(onOrBefore);
+    return parse(in, latest) ? latest.curve() : YieldCurve.EMPTY;
+  }
+
+  /** Keeps the newest entry dated on or before a cut-off and counts every entry seen. */
+  static final class Latest implements EntryHandler {
+    private final LocalDate onOrBefore;
+    private final double[] best = new double[FIELDS.length];
+    private LocalDate bestDate;
+    private int entries;
+
+    Latest(LocalDate onOrBefore) {
+      this.onOrBefore = onOrBefore;
+    }
+
+    @Override
+    public void onEntry(LocalDate d, double[] values, boolean anyValue) {
+      entries++;
+      if (!d.isAfter(onOrBefore) && anyValue && (bestDate == null || d.isAfter(bestDate))) {
+        bestDate = d;
+        System.arraycopy(values, 0, best, 0, FIELDS.length);
+      }
+    }
+
+    /** Dated entries scanned so far. */
+    int entries() {
+      return entries;
+    }
+
+    /** The kept curve, as of its entry date, or {@link YieldCurve#EMPTY} if no entry qualified. */
+    YieldCurve curve() {
+      return bestDate == null ? YieldCurve.EMPTY : YieldCurve.of(bestDate, best);
+    }
+  }
+
+  /**
+   * Streams every dated entry to {@code handler}. Returns false if the document could not be
+   * parsed; entries seen before the error have already been delivered.
+   */
+  static boolean parse(InputStream in, EntryHandler handler) {
+    XMLStreamReader r = null;
+    try {
+      r = FACTORY.createXMLStreamReader(in);
+      scan(r, handler);
+      return true;
+    } catch (XMLStreamException | RuntimeException e) {
+      log.warn("XML parse error (StAX): {}", e.toString());
+      return false;
+    } finally {
+      if (r != null) {
+        try { r.close(); } catch (XMLStreamException ignored) {}
+      }
+    }
+  }
+
+  private static void scan(XMLStreamReader r, EntryHandler handler) throws XMLStreamException {
+    final StringBuilder text = new StringBuilder(32);
+    final double[] current = new double[FIELDS.length];
+
+    // Per-entry state
+    int entryDepth = -1;     // depth of the open <entry>, -1 when outside an entry
+    boolean dateSeen = false; // only the first date element of an entry counts
+    String dateText = null;
+    boolean anyValue = false; // any parseable BC_* value, including fields we don't map
+
+    // Capture state for the element whose text is being collected
+    int captureDepth = -1;
+    int captureField = -1;    // index into FIELDS, FIELD_OTHER for unmapped BC_*, FIELD_DATE for dates
+
+    int depth = 0;
+    while (r.hasNext()) {
+      switch (r.next()) {
+        case XMLStreamConstants.START_ELEMENT -> {
+          depth++;
+          String name = r.getLocalName();
+          if (entryDepth < 0) {
+            if ("entry".equals(name)) {
+              entryDepth = depth;
+              dateSeen = false;
+              dateText = null;
+              anyValue = false;
+              Arrays.fill(current, Double.NaN);
+            }
+          } else if (captureDepth < 0) {
+            if (!dateSeen && isDateField(name)) {
+              dateSeen = true;
+              captureDepth = depth;
+              captureField = FIELD_DATE;
+              text.setLength(0);
+            } else if (name.startsWith("BC_")) {
+              captureDepth = depth;
+              captureField = fieldIndex(name);
+              if (captureField < 0) captureField = FIELD_OTHER;
+              text.setLength(0);
+            }
+          }
+        }
+        case XMLStreamConstants.CHARACTERS, XMLStreamConstants.CDATA, XMLStreamConstants.SPACE -> {
+          if (captureDepth >= 0) text.append(r.getTextCharacters(), r.getTextStart(), r.getTextLength());
+        }
+        case XMLStreamConstants.END_ELEMENT -> {
+          if (depth == captureDepth) {
+            if (captureField == FIELD_DATE) {
+              dateText = text.toString();
+            } else {
+              double v = parseRate(text);
+              if (!Double.isNaN(v)) {
+                anyValue = true;
+                if (captureField >= 0) current[captureField] = v;
+              }
+            }
+            captureDepth = -1;
+          } else if (depth == entryDepth) {
+            LocalDate d = parseDate(dateText);
+            if (d != null) handler.onEntry(d, current, anyValue);
+            entryDepth = -1;
+          }
+          depth--;
+        }
+        default -> { }
+      }
+    }
+  }
+
+  private static boolean isDateField(String name) {
+    return "NEW_DATE".equals(name) || "CMTDATE".equals(name) || "DATE".equals(name);
+  }
+
+  private static int fieldIndex(String name) {
+    for (int i = 0; i < FIELDS.length; i++) {
+      if (FIELDS[i].equals(name)) return i;
+    }
+    return -1;
+  }
+
+  private static LocalDate parseDate(String s) {
+    if (s == null || s.isBlank()) return null;
+    int t = s.indexOf('T');
+    String justDate = (t >= 0 ? s.substring(0, t) : s).trim();
+    try {
+      return LocalDate.parse(justDate);
+    } catch (DateTimeParseException ex) {
+      return null;
+    }
+  }
+
+  /** Parses a rate, returning NaN for blank, N/A or malformed text. */
+  private static double parseRate(StringBuilder sb) {
+    String s = sb.toString().trim();
+    if (s.isEmpty() || "N/A".equalsIgnoreCase(s)) return Double.NaN;
+    try {
+      return Double.parseDouble(s);
+    } catch (NumberFormatException ignored) {
+      return Double.NaN;
+    }
+  }
+}
@@ -0,0 +1,180 @@
+package com.example.treasury.service;
+
+import com.example.treasury.domain.Tenor;
+import com.example.treasury.domain.YieldCurveSnapshot;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.stream.IntStream;
+
+/**
+ * Keeps every daily curve from the Treasury feed in a {@link YieldHistoryStore}.
+ *
+ * On startup the last {@code treasury.history.years} of months are fetched in parallel
+ * (bounded by {@code fetch-concurrency}) and bulk-loaded; afterwards the current month is
+ * polled and only days newer than the last stored one are appended.
+ *
+ * History saved in the curve snapshot is loaded first; the back-fill then only fetches months
+ * from the last restored day onwards. In offline mode nothing is fetched at all.
+ */
+@Service
+@RequiredArgsConstructor
+public class YieldHistoryService {
+
+  private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(YieldHistoryService.class);
+
+  private static final int[] ALL_TENORS = IntStream.range(0, Tenor.COUNT).toArray();
+
+  private final YieldService yieldService;
+  private final CurveSnapshotStore snapshots;
+  private final YieldHistoryStore store = new YieldHistoryStore();
+  private volatile Disposable poller;
+
+  @Value("${treasury.history.enabled:false}")
+  private boolean enabled;
+  @Value("${treasury.history.years:5}")
+  private int years = 5;
+  @Value("${treasury.history.fetch-concurrency:4}")
+  private int fetchConcurrency = 4;
+  @Value("${treasury.history.poll-interval:1h}")
+  private Duration pollInterval = Duration.ofHours(1);
+  @Value("${treasury.offline:false}")
+  private boolean offline;
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void start() {
+    if (!enabled) return;
+    int restored = restore();
+    if (offline) return;
+    LocalDate last = store.lastDate();
+    Mono<Integer> initial = restored > 0 && last != null
+        ? backfillSince(last.withDayOfMonth(1))
+        : backfill(years);
+    poller = initial
+        .thenMany(Flux.interval(pollInterval, pollInterval)
+            .concatMap(tick -> ingestLatest().onErrorResume(e -> {
+              log.warn("Yield history poll failed: {}", e.toString());
+              return Mono.just(0);
+            })))
+        .subscribe();
+  }
+
+  @PreDestroy
+  public void stop() {
+    Disposable p = poller;
+    if (p != null) p.dispose();
+  }
+
+  /** Fetches the last {@code years} of months concurrently and loads them in one merge. */
+  public Mono<Integer> backfill(int years) {
+    return backfillSince(LocalDate.now().withDayOfMonth(1).minusMonths(years * 12L));
+  }
+
+  private Mono<Integer> backfillSince(LocalDate firstMonth) {
+    LocalDate thisMonth = LocalDate.now().withDayOfMonth(1);
+    int months = (int) Math.max(0, ChronoUnit.MONTHS.between(firstMonth, thisMonth));
+    long started = System.nanoTime();
+    return Flux.range(0, months + 1)
+        .map(thisMonth::minusMonths)
+        .flatMap(month -> fetchRows(month).onErrorResume(e -> {
+          log.warn("Skipping {} in history backfill: {}", month, e.toString());
+          return Mono.empty();
+        }), fetchConcurrency)
+        .collect(TreeMap<Integer, double[]>::new, TreeMap::putAll)
+        .map(rows -> {
+          store.ingest(rows);
+          snapshots.saveHistory(store.columns());
+          log.info("Yield history backfilled {} days over {} months in {} ms",
+              rows.size(), months + 1, (System.nanoTime() - started) / 1_000_000);
+          return rows.size();
+        });
+  }
+
+  /** Appends days from the current month that are newer than the last stored day. */
+  public Mono<Integer> ingestLatest() {
+    return fetchRows(LocalDate.now()).map(rows -> {
+      LocalDate last = store.lastDate();
+      SortedMap<Integer, double[]> fresh = last == null ? rows : rows.tailMap((int) last.toEpochDay() + 1);
+      store.ingest(fresh);
+      if (!fresh.isEmpty()) {
+        snapshots.saveHistory(store.columns());
+        log.debug("Yield history appended {} days", fresh.size());
+      }
+      return fresh.size();
+    });
+  }
+
+  /** Daily curves with business dates in {@code [from, to]}; {@code terms} null or empty means all tenors. */
+  public List<YieldCurveSnapshot> history(LocalDate from, LocalDate to, List<String> terms) {
+    if (to.isBefore(from)) throw new IllegalArgumentException("'to' must not be before 'from'");
+    return store.range(from, to, tenorIndexes(terms));
+  }
+
+  /** The curve of the latest business date on or before {@code date}, or null if none is stored. */
+  public YieldCurveSnapshot on(LocalDate date, List<String> terms) {
+    return store.onOrBefore(date, tenorIndexes(terms));
+  }
+
+  int size() {
+    return store.size();
+  }
+
+  /** Loads history from the startup snapshot; returns the number of days restored. */
+  private int restore() {
+    CurveSnapshotFile.Snapshot s = snapshots.restored();
+    if (s == null || s.days().length == 0) return 0;
+    TreeMap<Integer, double[]> rows = new TreeMap<>();
+    double[][] rates = s.rates();
+    for (int i = 0; i < s.days().length; i++) {
+      double[] row = new double[rates.length];
+      for (int t = 0; t < rates.length; t++) row[t] = rates[t][i];
+      rows.put(s.days()[i], row);
+    }
+    store.ingest(rows);
+    log.info("Yield history restored {} days from snapshot", rows.size());
+    return rows.size();
+  }
+
+  private Mono<TreeMap<Integer, double[]>> fetchRows(LocalDate month) {
+    return yieldService.fetchMonth(month).map(this::parseRows);
+  }
+
+  private TreeMap<Integer, double[]> parseRows(DataBuffer xml) {
+    TreeMap<Integer, double[]> rows = new TreeMap<>();
+    try (InputStream in = xml.asInputStream(true)) {
+      TreasuryFeedParser.parse(in, (date, values, anyValue) -> {
+        if (anyValue) rows.put((int) date.toEpochDay(), values.clone());
+      });
+    } catch (IOException e) {
+      log.warn("XML read error: {}", e.toString());
+    }
+    return rows;
+  }
+
+  private static int[] tenorIndexes(List<String> terms) {
+    if (terms == null || terms.isEmpty()) return ALL_TENORS;
+    int[] idx = new int[terms.size()];
+    for (int i = 0; i < idx.length; i++) {
+      Tenor t = Tenor.of(terms.get(i));
+      if (t == null) throw new IllegalArgumentException("Unknown term: " + terms.get(i));
+      idx[i] = t.ordinal();
+    }
+    return idx;
+  }
+}
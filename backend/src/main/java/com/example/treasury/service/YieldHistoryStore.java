@@ -0,0 +1,142 @@
+package com.example.treasury.service;
+
+import com.example.treasury.domain.Tenor;
+import com.example.treasury.domain.YieldCurveSnapshot;
+import com.example.treasury.domain.YieldPoint;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SortedMap;
+
+/**
+ * Columnar in-memory store of daily par yield curves.
+ *
+ * Business dates are kept as a sorted {@code int[]} of epoch days and every tenor as its own
+ * {@code double[]} column (NaN where the feed had no value), so a row costs 4 + 8 * tenors bytes
+ * and range queries are two binary searches plus a sequential scan.
+ *
+ * Writers are serialized; readers never lock. Each write publishes an immutable {@link Columns}
+ * view through a volatile field. Appending newer days fills spare capacity past the published
+ * size, which readers never look at; anything else (back-fill, revisions) copies into new arrays.
+ */
+final class YieldHistoryStore {
+
+  private static final int TENORS = TreasuryFeedParser.FIELDS.length;
+
+  /** Published view; only the first {@code size} entries of each array are meaningful. */
+  record Columns(int[] days, double[][] rates, int size) {}
+
+  private volatile Columns cols = new Columns(new int[0], new double[TENORS][0], 0);
+
+  int size() {
+    return cols.size;
+  }
+
+  /** The current columns; rows below {@code size} are never modified afterwards. */
+  Columns columns() {
+    return cols;
+  }
+
+  /** Newest stored business date, or null when empty. */
+  LocalDate lastDate() {
+    Columns c = cols;
+    return c.size == 0 ? null : LocalDate.ofEpochDay(c.days[c.size - 1]);
+  }
+
+  /**
+   * Adds or replaces rows keyed by epoch day; each value is index-aligned with
+   * {@link TreasuryFeedParser#FIELDS}.
+   */
+  synchronized void ingest(SortedMap<Integer, double[]> rows) {
+    if (rows.isEmpty()) return;
+    Columns c = cols;
+    if (c.size == 0 || rows.firstKey() > c.days[c.size - 1]) {
+      append(c, rows);
+    } else {
+      merge(c, rows);
+    }
+  }
+
+  private void append(Columns c, SortedMap<Integer, double[]> rows) {
+    int newSize = c.size + rows.size();
+    int[] days = c.days;
+    double[][] rates = c.rates;
+    if (newSize > days.length) {
+      int cap = Math.max(newSize, days.length + (days.length >> 1) + 16);
+      days = Arrays.copyOf(days, cap);
+      rates = new double[TENORS][];
+      for (int t = 0; t < TENORS; t++) rates[t] = Arrays.copyOf(c.rates[t], cap);
+    }
+    int i = c.size;
+    for (var e : rows.entrySet()) {
+      days[i] = e.getKey();
+      double[] v = e.getValue();
+      for (int t = 0; t < TENORS; t++) rates[t][i] = v[t];
+      i++;
+    }
+    cols = new Columns(days, rates, newSize);
+  }
+
+  private void merge(Columns c, SortedMap<Integer, double[]> rows) {
+    int cap = c.size + rows.size();
+    int[] days = new int[cap];
+    double[][] rates = new double[TENORS][cap];
+    int i = 0, n = 0;
+    var it = rows.entrySet().iterator();
+    var next = it.next();
+    while (i < c.size || next != null) {
+      int day;
+      if (next == null || (i < c.size && c.days[i] < next.getKey())) {
+        day = c.days[i];
+        for (int t = 0; t < TENORS; t++) rates[t][n] = c.rates[t][i];
+        i++;
+      } else {
+        day = next.getKey();
+        double[] v = next.getValue();
+        for (int t = 0; t < TENORS; t++) rates[t][n] = v[t];
+        if (i < c.size && c.days[i] == day) i++; // replaced
+        next = it.hasNext() ? it.next() : null;
+      }
+      days[n++] = day;
+    }
+    cols = new Columns(days, rates, n);
+  }
+
+  /** Curves for every stored business date in {@code [from, to]}, restricted to {@code tenors}. */
+  List<YieldCurveSnapshot> range(LocalDate from, LocalDate to, int[] tenors) {
+    Columns c = cols;
+    int lo = lowerBound(c, (int) from.toEpochDay());
+    int hi = lowerBound(c, (int) to.toEpochDay() + 1);
+    List<YieldCurveSnapshot> out = new ArrayList<>(Math.max(0, hi - lo));
+    for (int i = lo; i < hi; i++) out.add(row(c, i, tenors));
+    return out;
+  }
+
+  /** Curve for the latest stored business date on or before {@code date}, or null. */
+  YieldCurveSnapshot onOrBefore(LocalDate date, int[] tenors) {
+    Columns c = cols;
+    int i = lowerBound(c, (int) date.toEpochDay() + 1) - 1;
+    return i < 0 ? null : row(c, i, tenors);
+  }
+
+  private static YieldCurveSnapshot row(Columns c, int i, int[] tenors) {
+    List<YieldPoint> pts = new ArrayList<>(tenors.length);
+    for (int t : tenors) {
+      double v = c.rates[t][i];
+      if (!Double.isNaN(v)) pts.add(new YieldPoint(Tenor.at(t).label(), v));
+    }
+    return new YieldCurveSnapshot(LocalDate.ofEpochDay(c.days[i]).toString(), pts);
+  }
+
+  /** First index whose day is >= {@code day}. */
+  private static int lowerBound(Columns c, int day) {
+    int lo = 0, hi = c.size;
+    while (lo < hi) {
+      int mid = (lo + hi) >>> 1;
+      if (c.days[mid] < day) lo = mid + 1; else hi = mid;
+    }
+    return lo;
+  }
+}
@@ -1,16 +1,30 @@
 package com.example.treasury.service;
 
-import com.example.treasury.domain.YieldPoint;
+import com.example.treasury.domain.CurveStatus;
+import com.example.treasury.domain.YieldCurve;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
 import java.time.*;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Fetches the Daily Treasury Par Yield Curve via the official Treasury XML feed
- * and maps to a simple list of (term, rate).
+ * into an immutable {@link YieldCurve}.
  *
  * Source Docs: https://home.treasury.gov/treasury-daily-interest-rate-xml-feed
  */
@@ -19,194 +33,420 @@ public class YieldService {
 
   private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(YieldService.class);
 
-  private final WebClient http;
-  private volatile List<YieldPoint> cache = null;
+  // Created on first use (see http()): offline instances never build Netty's client, and otherwise
+  // prime() builds it in the background while the application starts (treasury.startup.warm-http-client)
+  private volatile WebClient http;
+  private reactor.netty.http.client.HttpClient netty;
+  private volatile YieldCurve cache = null;
   private volatile Instant lastFetch = Instant.EPOCH;
 
+  // Interpolation models and version of the curve currently in the cache
+  private volatile CurveModels models = null;
+
+  // Emits each refreshed curve that differs from the previous one; never blocks a refresh
+  private final Sinks.Many<YieldCurve> curveUpdates = Sinks.many().multicast().directBestEffort();
+
+  // Single-flight refresh: every caller that needs a refresh joins this Mono while it is set
+  private final AtomicReference<Mono<YieldCurve>> inFlight = new AtomicReference<>();
+
+  // Error backoff: after a failed refresh no new upstream attempt is made before this instant
+  private volatile Instant retryAfter = Instant.EPOCH;
+  private volatile int consecutiveFailures = 0;
+
+  private CurveMetrics metrics = CurveMetrics.NOOP;
+
+  // Persists refreshed curves; null when snapshots are not wired (plain unit tests)
+  private CurveSnapshotStore snapshots;
+  // True while the cached curve is the one restored from the snapshot file
+  private volatile boolean fromSnapshot = false;
+
+  // Younger than softTtl: served as is. Between softTtl and hardTtl: served stale while a
+  // background refresh runs. Older than hardTtl: callers wait for the refresh.
+  @Value("${treasury.curve.soft-ttl:30m}")
+  private Duration softTtl = Duration.ofMinutes(30);
+  @Value("${treasury.curve.hard-ttl:6h}")
+  private Duration hardTtl = Duration.ofHours(6);
+  @Value("${treasury.curve.error-backoff:30s}")
+  private Duration errorBackoff = Duration.ofSeconds(30);
+  @Value("${treasury.curve.error-backoff-max:10m}")
+  private Duration errorBackoffMax = Duration.ofMinutes(10);
+
+  // Never contact the Treasury; serve whatever the snapshot holds
+  @Value("${treasury.offline:false}")
+  private boolean offline = false;
+
   // Configurable base endpoint (overridden in tests to point to MockWebServer)
+  @Value("${treasury.feed.base-url:https://home.treasury.gov/resource-center/data-chart-center/interest-rates/pages/xml}")
   private String treasuryEndpointBase = "https://home.treasury.gov/resource-center/data-chart-center/interest-rates/pages/xml";
 
-  public YieldService() {
-    // Configure timeouts and basic headers (no custom resolver here)
-    reactor.netty.http.client.HttpClient netty = reactor.netty.http.client.HttpClient.create()
-        .compress(true)
-        .responseTimeout(java.time.Duration.ofSeconds(10))
-        .option(io.netty.channel.ChannelOption.CONNECT_TIMEOUT_MILLIS, 5000);
-
-    this.http = org.springframework.web.reactive.function.client.WebClient.builder()
-        .clientConnector(new org.springframework.http.client.reactive.ReactorClientHttpConnector(netty))
-        .defaultHeader(org.springframework.http.HttpHeaders.USER_AGENT, "TreasuryLiquidity/1.0 (+http://localhost)")
-        .defaultHeader(org.springframework.http.HttpHeaders.ACCEPT, org.springframework.http.MediaType.APPLICATION_XML_VALUE)
-        .build();
-  }
-
-  private static final Map<String,String> FIELD_TO_LABEL = Map.ofEntries(
-      Map.entry("BC_1MONTH", "1M"),
-      Map.entry("BC_1_5MONTH", "1.5M"),
-      Map.entry("BC_2MONTH", "2M"),
-      Map.entry("BC_3MONTH", "3M"),
-      Map.entry("BC_4MONTH", "4M"),
-      Map.entry("BC_6MONTH", "6M"),
-      Map.entry("BC_1YEAR", "1Y"),
-      Map.entry("BC_2YEAR", "2Y"),
-      Map.entry("BC_3YEAR", "3Y"),
-      Map.entry("BC_5YEAR", "5Y"),
-      Map.entry("BC_7YEAR", "7Y"),
-      Map.entry("BC_10YEAR", "10Y"),
-      Map.entry("BC_20YEAR", "20Y"),
-      Map.entry("BC_30YEAR", "30Y")
-  );
-
-  private static final List<String> CANONICAL_ORDER = List.of(
-      "1M","1.5M","2M","3M","4M","6M","1Y","2Y","3Y","5Y","7Y","10Y","20Y","30Y"
-  );
-
-  public Mono<List<YieldPoint>> getYieldCurve() {
-    // 30-minute cache to avoid hammering the feed
-    if (cache != null && Duration.between(lastFetch, Instant.now()).toMinutes() < 30) {
-      log.debug("Serving yield curve from cache ({} points)", cache.size());
-      return Mono.just(cache);
+  // Tried after the Treasury, in order: mirror URLs (same query) or directories of yyyyMM.xml files
+  @Value("${treasury.feed.mirrors:}")
+  private List<String> mirrors = List.of();
+  // Every fetched month is saved here and read back when all other sources fail; empty disables
+  @Value("${treasury.feed.cache-dir:}")
+  private String cacheDir = "";
+  @Value("${treasury.feed.hedge.enabled:true}")
+  private boolean hedge = true;
+  @Value("${treasury.feed.hedge.min-delay:1s}")
+  private Duration hedgeMinDelay = Duration.ofSeconds(1);
+  @Value("${treasury.feed.hedge.max-delay:3s}")
+  private Duration hedgeMaxDelay = Duration.ofSeconds(3);
+  @Value("${treasury.feed.breaker.failure-threshold:3}")
+  private int breakerFailures = 3;
+  @Value("${treasury.feed.breaker.open-for:1m}")
+  private Duration breakerOpenFor = Duration.ofMinutes(1);
+
+  // Startup work done in the background instead of by the first request (see prime())
+  @Value("${treasury.startup.prime-curve:true}")
+  private boolean primeCurve = true;
+  @Value("${treasury.startup.warm-http-client:true}")
+  private boolean warmHttpClient = true;
+
+  private volatile FeedSources feeds;
+
+  public YieldService() {}
+
+  @Autowired(required = false)
+  void bindMetrics(MeterRegistry registry) {
+    CurveMetrics m = new CurveMetrics(registry);
+    m.bindState(
+        () -> consecutiveFailures,
+        () -> Math.max(0, Duration.between(Instant.now(), retryAfter).toMillis()) / 1000.0,
+        () -> cache == null ? Double.NaN : Duration.between(lastFetch, Instant.now()).toMillis() / 1000.0);
+    metrics = m;
+  }
+
+  /** Warms the cache from the snapshot restored at startup and persists every refreshed curve. */
+  @Autowired(required = false)
+  void bindSnapshots(CurveSnapshotStore store) {
+    snapshots = store;
+    CurveSnapshotFile.Snapshot s = store.restored();
+    if (cache == null && s != null && !s.curve().isEmpty()) {
+      models = CurveModels.fit(s.curve());
+      lastFetch = s.fetchedAt();
+      fromSnapshot = true;
+      cache = s.curve();
     }
+  }
 
-    LocalDate today = LocalDate.now();
-    return fetchMonth(today)
-        .flatMap(xml -> {
-          log.debug("Fetched XML for {}, size={} bytes", today, xml != null ? xml.length() : 0);
-          List<YieldPoint> curve = extractLatestCurve(xml, today);
-          log.debug("Parsed {} points for {}", curve.size(), today);
-          return curve.isEmpty() ? Mono.empty() : Mono.just(curve);
+  /**
+   * Starts what the first request would otherwise wait for while the rest of the application
+   * starts: warms the HTTP client (event loops, DNS resolver, TLS), then asks for the curve, which
+   * fetches it unless the cache already holds a fresh one (e.g. from the snapshot). Never offline.
+   */
+  @PostConstruct
+  void prime() {
+    if (offline || !(primeCurve || warmHttpClient)) return;
+    long started = System.nanoTime();
+    Mono<Void> warm = warmHttpClient ? warmup() : Mono.empty();
+    Mono<YieldCurve> curve = primeCurve ? Mono.defer(this::getYieldCurve) : Mono.empty();
+    warm.onErrorResume(e -> {
+          log.warn("HTTP client warm-up failed: {}", e.toString());
+          return Mono.empty();
         })
-        // try previous month if current month yields nothing
-        .switchIfEmpty(fetchMonth(today.minusMonths(1))
-            .flatMap(xml -> {
-              log.debug("Fetched XML for previous month {}, size={} bytes", today.minusMonths(1), xml != null ? xml.length() : 0);
-              List<YieldPoint> curve = extractLatestCurve(xml, today.minusMonths(1));
-              log.debug("Parsed {} points for previous month {}", curve.size(), today.minusMonths(1));
-              return curve.isEmpty() ? Mono.empty() : Mono.just(curve);
-            })
-        )
-        .map(this::orderCanonically)
-        .doOnNext(list -> log.debug("Ordered canonically: {} points", list.size()))
-        .filter(list -> list != null && !list.isEmpty())
-        .doOnNext(list -> { cache = list; lastFetch = Instant.now(); })
-        .switchIfEmpty(Mono.fromSupplier(() -> {
-          log.warn("No yield curve data available from Treasury for {} or {}", today, today.minusMonths(1));
-          return List.of(); // never return null / never complete empty
-        }))
-        .onErrorResume(e -> {
-          log.error("Error retrieving yield curve: {}", e.toString(), e);
-          return Mono.just(List.of()); // ensure a response
-        });
+        .then(curve)
+        .subscribeOn(Schedulers.boundedElastic())
+        .subscribe(c -> log.info("Curve primed at startup in {} ms ({} points)",
+            (System.nanoTime() - started) / 1_000_000, c.size()),
+            e -> log.warn("Curve priming failed, the first request fetches it: {}", e.toString()));
   }
 
-  private Mono<String> fetchMonth(LocalDate date) {
-    String yyyymm = String.format("%04d%02d", date.getYear(), date.getMonthValue());
-    // Build URL using the configurable base so tests can redirect to MockWebServer
-    String url = treasuryEndpointBase + "?data=daily_treasury_yield_curve&field_tdr_date_value_month=" + yyyymm;
-    log.debug("Requesting Treasury XML: {}", url);
-    return http.get()
-        .uri(url)
-        .retrieve()
-        .onStatus(s -> s.is4xxClientError() || s.is5xxServerError(), resp -> {
-          log.warn("Treasury HTTP error: status={}", resp.statusCode());
-          return resp.createException();
-        })
-        .bodyToMono(String.class);
+  /** Builds the HTTP client and lets Netty load its event loops, resolver and TLS provider. */
+  Mono<Void> warmup() {
+    return Mono.defer(() -> {
+      http();
+      reactor.netty.http.client.HttpClient n = netty;
+      return n == null ? Mono.empty() : n.warmup();
+    });
+  }
+
+  /**
+   * The current curve. Within the soft TTL it comes from the cache; up to the hard TTL a stale
+   * curve is served while a refresh runs in the background; after that callers wait for the refresh.
+   * When the upstream fails, the last known curve (possibly restored from the snapshot) is served,
+   * and {@link YieldCurve#EMPTY} only when there is none. {@link #status()} says how old the answer is.
+   */
+  public Mono<YieldCurve> getYieldCurve() {
+    YieldCurve cached = cache;
+    Instant now = Instant.now();
+    if (offline) {
+      metrics.cacheHit();
+      return Mono.just(cached != null ? cached : YieldCurve.EMPTY);
+    }
+    if (cached != null) {
+      Duration age = Duration.between(lastFetch, now);
+      if (age.compareTo(softTtl) < 0) {
+        metrics.cacheHit();
+        return Mono.just(cached);
+      }
+      if (age.compareTo(hardTtl) < 0) {
+        // Stale-while-revalidate: kick off (or join) a background refresh, answer with what we have
+        metrics.cacheStale();
+        if (now.isAfter(retryAfter)) refresh();
+        return Mono.just(cached);
+      }
+    }
+    if (!now.isAfter(retryAfter)) {
+      metrics.cacheBackoff();
+      return Mono.just(cached != null ? cached : YieldCurve.EMPTY);
+    }
+    metrics.cacheMiss();
+    return refresh();
   }
 
-  private List<YieldPoint> extractLatestCurve(String xml, LocalDate onOrBefore) {
-    if (xml == null || xml.isBlank()) return List.of();
+  /** Where the current curve came from and how old it is. */
+  public CurveStatus status() {
+    YieldCurve cached = cache;
+    boolean hasCurve = cached != null && !cached.isEmpty();
+    Instant fetched = lastFetch;
+    long age = hasCurve ? Duration.between(fetched, Instant.now()).getSeconds() : 0;
+    String source = !hasCurve ? CurveStatus.SOURCE_NONE : fromSnapshot ? CurveStatus.SOURCE_SNAPSHOT : CurveStatus.SOURCE_LIVE;
+    return new CurveStatus(
+        hasCurve ? fetched.toString() : null,
+        hasCurve ? age : null,
+        !hasCurve || age >= softTtl.getSeconds(),
+        source,
+        offline,
+        hasCurve ? cached.version() : null);
+  }
 
-    try {
-      javax.xml.parsers.DocumentBuilderFactory dbf = javax.xml.parsers.DocumentBuilderFactory.newInstance();
-      dbf.setNamespaceAware(true);
-      dbf.setFeature(javax.xml.XMLConstants.FEATURE_SECURE_PROCESSING, true);
-      // Harden against XXE/DTD; ignore if impl doesn't support the flag
-      try {
-        dbf.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
-      } catch (javax.xml.parsers.ParserConfigurationException ignored) {}
+  /**
+   * Version of the curve {@link #getYieldCurve()} answers with, going through the same cache
+   * rules. It is a hash of the tenors and rates, so a refresh that brings back the same curve,
+   * or a restart, keeps the version.
+   */
+  public Mono<String> getCurveVersion() {
+    return getYieldCurve().map(YieldCurve::version);
+  }
 
-      javax.xml.parsers.DocumentBuilder db = dbf.newDocumentBuilder();
-      org.w3c.dom.Document doc = db.parse(new org.xml.sax.InputSource(new java.io.StringReader(xml)));
+  /** Version of the cached curve without triggering a refresh; null when nothing is cached. */
+  public String curveVersion() {
+    YieldCurve cached = cache;
+    return cached == null ? null : cached.version();
+  }
+
+  /**
+   * Curves published by refreshes, only when they differ from the curve they replace.
+   * Slow subscribers skip to the newest curve instead of queueing.
+   */
+  public Flux<YieldCurve> curveUpdates() {
+    return curveUpdates.asFlux().onBackpressureLatest();
+  }
 
-      javax.xml.xpath.XPathFactory xpf = javax.xml.xpath.XPathFactory.newInstance();
-      javax.xml.xpath.XPath xp = xpf.newXPath();
-      // Removed dependency on namespace context; use local-name() instead
+  /** The current curve fitted with {@code method}; coefficients are computed once per curve. */
+  public Mono<InterpolatedCurve> getInterpolatedCurve(Interpolation method) {
+    return getYieldCurve().map(curve -> modelsFor(curve).get(method));
+  }
 
-      // Entries (namespace-agnostic)
-      org.w3c.dom.NodeList entries = (org.w3c.dom.NodeList)
-          xp.evaluate("//*[local-name()='entry']", doc, javax.xml.xpath.XPathConstants.NODESET);
+  private CurveModels modelsFor(YieldCurve curve) {
+    CurveModels m = models;
+    if (m == null || m.source() != curve) {
+      m = CurveModels.fit(curve);
+      models = m;
+    }
+    return m;
+  }
 
-      java.time.LocalDate bestDate = null;
-      java.util.Map<String, Double> best = null;
+  private record CurveModels(YieldCurve source, InterpolatedCurve[] byMethod) {
+    static CurveModels fit(YieldCurve curve) {
+      Interpolation[] methods = Interpolation.values();
+      InterpolatedCurve[] fitted = new InterpolatedCurve[methods.length];
+      for (Interpolation m : methods) fitted[m.ordinal()] = InterpolatedCurve.fit(curve, m);
+      return new CurveModels(curve, fitted);
+    }
 
-      for (int i = 0; i < entries.getLength(); i++) {
-        org.w3c.dom.Node entry = entries.item(i);
+    InterpolatedCurve get(Interpolation method) {
+      return byMethod[method.ordinal()];
+    }
+  }
 
-        // Try multiple possible date fields seen in the feed (namespace-agnostic)
-        String dateStr = (String) xp.evaluate(
-            "string(.//*[local-name()='NEW_DATE' or local-name()='CMTDATE' or local-name()='DATE'])",
-            entry, javax.xml.xpath.XPathConstants.STRING);
+  /**
+   * Starts a refresh unless one is already running, and returns the shared result.
+   * The upstream fetch is not tied to any caller's subscription, so a cancelled
+   * request never aborts a refresh other callers are waiting on.
+   */
+  private Mono<YieldCurve> refresh() {
+    Sinks.One<YieldCurve> sink = Sinks.one();
+    Mono<YieldCurve> shared = sink.asMono();
+    while (true) {
+      Mono<YieldCurve> running = inFlight.get();
+      if (running != null) return running;
+      if (inFlight.compareAndSet(null, shared)) break;
+    }
 
-        if (dateStr == null || dateStr.isBlank()) continue;
-        String justDate = dateStr.split("T")[0].trim();
+    // Another refresh may have completed between the caller's cache check and winning the CAS
+    YieldCurve cached = cache;
+    if (cached != null && Duration.between(lastFetch, Instant.now()).compareTo(softTtl) < 0) {
+      inFlight.set(null);
+      return Mono.just(cached);
+    }
 
-        java.time.LocalDate d;
-        try {
-          d = java.time.LocalDate.parse(justDate);
-        } catch (Exception ex) {
-          continue;
-        }
-        if (d.isAfter(onOrBefore)) continue;
-
-        // Collect all yield fields BC_* (namespace-agnostic)
-        org.w3c.dom.NodeList bcNodes = (org.w3c.dom.NodeList)
-            xp.evaluate(".//*[starts-with(local-name(),'BC_')]",
-                entry, javax.xml.xpath.XPathConstants.NODESET);
-
-        java.util.Map<String, Double> map = new java.util.HashMap<>();
-        for (int j = 0; j < bcNodes.getLength(); j++) {
-          org.w3c.dom.Element el = (org.w3c.dom.Element) bcNodes.item(j);
-          String key = el.getLocalName(); // e.g., BC_2YEAR
-          String text = el.getTextContent() != null ? el.getTextContent().trim() : "";
-          if (text.isEmpty() || "N/A".equalsIgnoreCase(text)) continue;
+    // Whatever happens to the fetch, the joined callers get an answer and the next refresh can start
+    fetchCurve().subscribe(
+        curve -> {
+          YieldCurve result = null;
           try {
-            map.put(key, Double.parseDouble(text));
-          } catch (NumberFormatException ignored) {}
-        }
+            result = apply(curve);
+          } catch (RuntimeException e) {
+            log.error("Applying the refreshed yield curve failed", e);
+          } finally {
+            release(shared, sink, result != null ? result : fallback());
+          }
+        },
+        e -> {
+          log.error("Yield curve refresh failed", e);
+          release(shared, sink, fallback());
+        },
+        () -> release(shared, sink, fallback()));
+    return shared;
+  }
 
-        if (!map.isEmpty() && (bestDate == null || d.isAfter(bestDate))) {
-          bestDate = d;
-          best = map;
-        }
+  /** Takes a fetched curve into the cache, or backs off when it is empty; returns what callers get. */
+  private YieldCurve apply(YieldCurve curve) {
+    metrics.refreshed(!curve.isEmpty());
+    if (curve.isEmpty()) {
+      int failures = ++consecutiveFailures;
+      Duration backoff = errorBackoff.multipliedBy(1L << Math.min(failures - 1, 16));
+      if (backoff.compareTo(errorBackoffMax) > 0) backoff = errorBackoffMax;
+      retryAfter = Instant.now().plus(backoff);
+      log.warn("Yield curve refresh failed ({} in a row), backing off for {}", failures, backoff);
+      // keep answering with the last known curve, however old
+      return fallback();
+    }
+    YieldCurve previous = cache;
+    models = CurveModels.fit(curve);
+    cache = curve;
+    lastFetch = Instant.now();
+    fromSnapshot = false;
+    consecutiveFailures = 0;
+    retryAfter = Instant.EPOCH;
+    if (snapshots != null) snapshots.saveCurve(curve, lastFetch);
+    // only one refresh runs at a time, so emissions are already serialized
+    if (!curve.equals(previous)) curveUpdates.tryEmitNext(curve);
+    return curve;
+  }
+
+  /** The last known curve, however old, or {@link YieldCurve#EMPTY}. */
+  private YieldCurve fallback() {
+    YieldCurve cached = cache;
+    return cached != null ? cached : YieldCurve.EMPTY;
+  }
+
+  /** Ends a refresh: later callers start their own, joined ones get {@code result} (only the first call counts). */
+  private void release(Mono<YieldCurve> shared, Sinks.One<YieldCurve> sink, YieldCurve result) {
+    inFlight.compareAndSet(shared, null);
+    sink.tryEmitValue(result);
+  }
+
+  /**
+   * Fetches and parses the newest curve; never errors, emits {@link YieldCurve#EMPTY} when nothing is available.
+   * Early in a month the current page may have no entries yet and the previous month is needed;
+   * when the current month is slow to answer, the previous one is requested alongside it.
+   */
+  private Mono<YieldCurve> fetchCurve() {
+    return Mono.defer(() -> {
+      LocalDate today = LocalDate.now();
+      LocalDate lastMonth = today.minusMonths(1);
+      Mono<YieldCurve> current = monthCurve(today, today).cache();
+      Mono<YieldCurve> previous = monthCurve(lastMonth, lastMonth).cache();
+      if (hedge) {
+        Mono.delay(feeds().hedgeDelay())
+            .takeUntilOther(current.materialize())
+            .subscribe(t -> previous.subscribe(curve -> {}, e -> {}));
       }
+      return current
+          .filter(curve -> !curve.isEmpty())
+          .switchIfEmpty(previous.filter(curve -> !curve.isEmpty()))
+          .switchIfEmpty(Mono.fromSupplier(() -> {
+            log.warn("No yield curve data available from Treasury for {} or {}", today, lastMonth);
+            return YieldCurve.EMPTY; // never return null / never complete empty
+          }))
+          .onErrorResume(e -> {
+            log.error("Error retrieving yield curve: {}", e.toString(), e);
+            return Mono.just(YieldCurve.EMPTY); // ensure a response
+          });
+    });
+  }
+
+  private Mono<YieldCurve> monthCurve(LocalDate month, LocalDate onOrBefore) {
+    return fetchMonth(month)
+        .map(buf -> {
+          log.debug("Fetched XML for {}, size={} bytes", month, buf.readableByteCount());
+          YieldCurve curve = extractLatestCurve(buf, onOrBefore);
+          log.debug("Parsed {} points as of {} for {}", curve.size(), curve.asOf(), month);
+          return curve;
+        });
+  }
+
+  /**
+   * Fetches one month of the feed from the configured sources (see {@link FeedSources}). The
+   * buffer is handed off to the parallel scheduler so that parsing never runs on the Netty event
+   * loop. Errors only when every source failed; empty when none has the month.
+   */
+  Mono<DataBuffer> fetchMonth(LocalDate date) {
+    return feeds().fetchMonth(YearMonth.from(date))
+        .<DataBuffer>map(DefaultDataBufferFactory.sharedInstance::wrap)
+        .publishOn(Schedulers.parallel());
+  }
 
-      if (best == null) return List.of();
+  /** The Treasury HTTP client, built on first use. */
+  private WebClient http() {
+    WebClient c = http;
+    if (c != null) return c;
+    synchronized (this) {
+      if (http == null) {
+        // Configure timeouts and basic headers (no custom resolver here)
+        netty = reactor.netty.http.client.HttpClient.create()
+            .compress(true)
+            .responseTimeout(java.time.Duration.ofSeconds(10))
+            .option(io.netty.channel.ChannelOption.CONNECT_TIMEOUT_MILLIS, 5000);
 
-      java.util.List<YieldPoint> pts = new java.util.ArrayList<>();
-      for (var e : FIELD_TO_LABEL.entrySet()) {
-        Double v = best.get(e.getKey());
-        if (v != null) pts.add(new YieldPoint(e.getValue(), v.floatValue()));
+        http = org.springframework.web.reactive.function.client.WebClient.builder()
+            .clientConnector(new org.springframework.http.client.reactive.ReactorClientHttpConnector(netty))
+            .defaultHeader(org.springframework.http.HttpHeaders.USER_AGENT, "TreasuryLiquidity/1.0 (+http://localhost)")
+            .defaultHeader(org.springframework.http.HttpHeaders.ACCEPT, org.springframework.http.MediaType.APPLICATION_XML_VALUE)
+            .build();
       }
-      return pts;
-    } catch (Exception e) {
-      log.warn("XML parse error (DOM/XPath): {}", e.toString());
-      return List.of();
+      return http;
     }
   }
 
-  private List<YieldPoint> orderCanonically(List<YieldPoint> pts) {
-    if (pts == null || pts.isEmpty()) return List.of();
-    java.util.Map<String, YieldPoint> by =
-        pts.stream().collect(java.util.stream.Collectors.toMap(YieldPoint::getTerm, p -> p, (a, b) -> a));
-    java.util.List<YieldPoint> ordered = new java.util.ArrayList<>();
-    for (String t : CANONICAL_ORDER) {
-      YieldPoint p = by.get(t);
-      if (p != null) ordered.add(p);
+  /** The feed sources, built on first use from the configuration: Treasury, mirrors, then the cache. */
+  private FeedSources feeds() {
+    FeedSources f = feeds;
+    if (f != null) return f;
+    synchronized (this) {
+      if (feeds == null) {
+        List<FeedSource> sources = new ArrayList<>();
+        WebClient client = http();
+        sources.add(new FeedSource.Http("treasury", client, treasuryEndpointBase, metrics));
+        for (int i = 0; i < mirrors.size(); i++) {
+          String m = mirrors.get(i).trim();
+          String name = "mirror-" + (i + 1);
+          if (m.isEmpty()) continue;
+          sources.add(m.startsWith("http://") || m.startsWith("https://")
+              ? new FeedSource.Http(name, client, m, metrics)
+              : new FeedSource.Directory(name, Path.of(m.startsWith("file:") ? m.substring(5) : m)));
+        }
+        FeedSource.Directory cacheSource = cacheDir.isBlank() ? null : new FeedSource.Directory("cache", Path.of(cacheDir));
+        feeds = new FeedSources(sources, cacheSource, hedge, hedgeMinDelay, hedgeMaxDelay,
+            breakerFailures, breakerOpenFor, metrics);
+      }
+      return feeds;
     }
-    return ordered;
   }
 
-  // Minimal namespace context for Atom + OData used by the Treasury feed
-  // Removed SimpleNsContext to avoid ClassNotFound issues and make XPath namespace-agnostic
+  /** Streams the month's XML through {@link TreasuryFeedParser}, releasing the buffer. */
+  YieldCurve extractLatestCurve(DataBuffer xml, LocalDate onOrBefore) {
+    try (InputStream in = xml.asInputStream(true)) {
+      long start = System.nanoTime();
+      TreasuryFeedParser.Latest latest = new TreasuryFeedParser.Latest(onOrBefore);
+      boolean ok = TreasuryFeedParser.parse(in, latest);
+      metrics.parsed(System.nanoTime() - start, latest.entries());
+      return ok ? latest.curve() : YieldCurve.EMPTY;
+    } catch (IOException e) {
+      log.warn("XML read error: {}", e.toString());
+      return YieldCurve.EMPTY;
+    }
+  }
 }
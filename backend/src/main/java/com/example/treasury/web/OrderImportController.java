@@ -0,0 +1,40 @@
+package com.example.treasury.web;
+
+import com.example.treasury.domain.OrderImportResult;
+import com.example.treasury.service.OrderImport;
+import com.example.treasury.service.OrderIngestService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Streams an order file into the orders table: {@code POST /orders/import} with an
+ * {@code application/x-ndjson} or {@code text/csv} body (see {@link OrderImport} for the line
+ * formats). The body is read as it arrives and only as fast as batches are written. The answer
+ * comes once the whole file is processed, with per-line errors for rejected rows.
+ */
+@RestController
+@RequiredArgsConstructor
+public class OrderImportController {
+
+  private static final String TEXT_CSV = "text/csv";
+
+  private final OrderIngestService orderIngest;
+
+  @Value("${treasury.orders.import-max-line-bytes:4096}")
+  private int maxLineBytes = 4096;
+
+  @PostMapping(path = "/orders/import", consumes = {MediaType.APPLICATION_NDJSON_VALUE, TEXT_CSV},
+      produces = MediaType.APPLICATION_JSON_VALUE)
+  public Mono<OrderImportResult> importOrders(ServerHttpRequest request) {
+    Flux<DataBuffer> body = request.getBody();
+    boolean csv = MediaType.parseMediaType(TEXT_CSV).isCompatibleWith(request.getHeaders().getContentType());
+    return orderIngest.importOrders(csv ? OrderImport.csv(body, maxLineBytes) : OrderImport.ndjson(body, maxLineBytes));
+  }
+}
@@ -0,0 +1,20 @@
+-- The schema as DatabaseInit created it before migrations; IF NOT EXISTS so such databases are taken over as they are
+
+CREATE TABLE IF NOT EXISTS orders (
+  id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+  term VARCHAR(10) NOT NULL,
+  amount DECIMAL(19,2) NOT NULL,
+  created_at TIMESTAMP NOT NULL,
+  status VARCHAR(20) NOT NULL,
+  rate_at_submission DOUBLE,
+  claim_token VARCHAR(40),
+  claimed_at TIMESTAMP,
+  attempts INT DEFAULT 0 NOT NULL
+);
+
+-- Keyset pagination for the newest-first orders listing, optionally filtered by term
+CREATE INDEX IF NOT EXISTS idx_orders_created_id ON orders (created_at DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_orders_term_created ON orders (term, created_at DESC, id DESC);
+
+-- Lifecycle processing: pending orders in id order
+CREATE INDEX IF NOT EXISTS idx_orders_status_id ON orders (status, id);
@@ -0,0 +1,6 @@
+-- orders(status:) pages newest first; through idx_orders_status_id every row of the status was sorted
+CREATE INDEX IF NOT EXISTS idx_orders_status_created ON orders (status, created_at DESC, id DESC);
+
+-- Statuses are at most 9 characters and claim tokens 8 + 1 + a counter; tighter widths reject bad writes early
+ALTER TABLE orders ALTER COLUMN status SET DATA TYPE VARCHAR(12);
+ALTER TABLE orders ALTER COLUMN claim_token SET DATA TYPE VARCHAR(28);
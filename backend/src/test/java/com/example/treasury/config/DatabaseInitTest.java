@@ -0,0 +1,78 @@
+package com.example.treasury.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.r2dbc.DataR2dbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataR2dbcTest
+@Import(DatabaseInit.class)
+class DatabaseInitTest {
+
+    @Autowired
+    private DatabaseInit schema;
+
+    @Autowired
+    private DatabaseClient client;
+
+    @BeforeEach
+    void setUp() {
+        schema.ready().block(Duration.ofSeconds(10));
+    }
+
+    @Test
+    void migrations_areOrderedByVersionAndDescribed() {
+        List<DatabaseInit.Migration> migrations = DatabaseInit.migrations();
+
+        assertTrue(migrations.size() >= 2);
+        assertEquals(1, migrations.get(0).version());
+        assertEquals("create orders", migrations.get(0).description());
+        for (int i = 1; i < migrations.size(); i++) {
+            assertTrue(migrations.get(i).version() > migrations.get(i - 1).version());
+        }
+    }
+
+    @Test
+    void ready_recordsEveryMigrationOnce() {
+        // a second instance, as on the next startup, finds nothing to do
+        new DatabaseInit(client).ready().block(Duration.ofSeconds(10));
+
+        assertEquals(versions(), appliedVersions());
+        assertTrue(indexes().contains("IDX_ORDERS_STATUS_CREATED"));
+    }
+
+    @Test
+    void ready_takesOverADatabaseCreatedBeforeMigrations() {
+        // the tables as the inline DDL left them, with no record of any migration
+        client.sql("DROP TABLE schema_version").fetch().rowsUpdated().block();
+        client.sql("DROP INDEX IF EXISTS idx_orders_status_created").fetch().rowsUpdated().block();
+
+        new DatabaseInit(client).ready().block(Duration.ofSeconds(10));
+
+        assertEquals(versions(), appliedVersions());
+        assertTrue(indexes().contains("IDX_ORDERS_STATUS_CREATED"));
+    }
+
+    private static List<Integer> versions() {
+        return DatabaseInit.migrations().stream().map(DatabaseInit.Migration::version).toList();
+    }
+
+    private List<Integer> appliedVersions() {
+        return client.sql("SELECT version FROM schema_version ORDER BY version")
+            .map(row -> row.get("version", Integer.class))
+            .all().collectList().block();
+    }
+
+    private List<String> indexes() {
+        return client.sql("SELECT index_name FROM information_schema.indexes WHERE table_name = 'ORDERS'")
+            .map(row -> row.get("index_name", String.class))
+            .all().collectList().block();
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.treasury.domain;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class YieldCurveTest {
+
+    private static final LocalDate AS_OF = LocalDate.of(2024, 6, 28);
+
+    @Test
+    void looksUpTenorsByEnumAndLabel() {
+        YieldCurve curve = YieldCurve.of(AS_OF, List.of(new YieldPoint("10Y", 4.35), new YieldPoint("1M", 5.5)));
+
+        assertEquals(2, curve.size());
+        assertEquals(AS_OF, curve.asOf());
+        assertEquals(4.35, curve.rate(Tenor.Y10));
+        assertEquals(5.5, curve.rate(Tenor.of("1m")));
+        assertTrue(Double.isNaN(curve.rate(Tenor.Y2)));
+        assertFalse(curve.has(Tenor.Y2));
+        assertNull(Tenor.of("18M"));
+    }
+
+    @Test
+    void pointsAreInTenorOrderAndBuiltOnce() {
+        YieldCurve curve = YieldCurve.of(AS_OF, List.of(new YieldPoint("30Y", 4.5), new YieldPoint("1.5M", 5.4)));
+
+        assertEquals(List.of(new YieldPoint("1.5M", 5.4), new YieldPoint("30Y", 4.5)), curve.points());
+        assertSame(curve.points(), curve.points());
+        assertThrows(UnsupportedOperationException.class, () -> curve.points().clear());
+    }
+
+    @Test
+    void keepsDoublePrecisionAndOwnsItsRates() {
+        double[] rates = new double[Tenor.COUNT];
+        Arrays.fill(rates, Double.NaN);
+        rates[Tenor.Y2.ordinal()] = 4.123456789;
+        YieldCurve curve = YieldCurve.of(AS_OF, rates);
+        rates[Tenor.Y2.ordinal()] = 9;
+
+        assertEquals(4.123456789, curve.rate(Tenor.Y2));
+        assertThrows(IllegalArgumentException.class, () -> YieldCurve.of(AS_OF, new double[3]));
+        assertThrows(IllegalArgumentException.class, () -> YieldCurve.of(AS_OF, List.of(new YieldPoint("18M", 4.0))));
+    }
+
+    @Test
+    void versionFollowsRatesNotDate() {
+        List<YieldPoint> points = List.of(new YieldPoint("1M", 5.5), new YieldPoint("10Y", 4.35));
+        YieldCurve curve = YieldCurve.of(AS_OF, points);
+
+        assertEquals(curve.version(), YieldCurve.of(AS_OF.plusDays(1), points).version());
+        assertNotEquals(curve.version(),
+            YieldCurve.of(AS_OF, List.of(new YieldPoint("1M", 5.5), new YieldPoint("10Y", 4.36))).version());
+        assertEquals(curve, YieldCurve.of(AS_OF, points));
+        assertNotEquals(curve, YieldCurve.of(AS_OF.plusDays(1), points));
+        assertTrue(YieldCurve.EMPTY.isEmpty());
+        assertTrue(YieldCurve.EMPTY.points().isEmpty());
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.treasury.graphql;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.graphql.server.WebGraphQlRequest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.LinkedMultiValueMap;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClientIdInterceptorTest {
+
+    @Test
+    void keysOnTheRemoteAddressAndIgnoresTheHeaderByDefault() {
+        assertEquals("10.0.0.7", clientId(new ClientIdInterceptor(), "spoofed"));
+    }
+
+    @Test
+    void keysOnTheHeaderWhenItIsTrusted() {
+        ClientIdInterceptor interceptor = new ClientIdInterceptor();
+        ReflectionTestUtils.setField(interceptor, "trustClientId", true);
+        assertEquals("desk-1", clientId(interceptor, "desk-1"));
+        assertEquals("10.0.0.7", clientId(interceptor, null));
+    }
+
+    private static String clientId(ClientIdInterceptor interceptor, String header) {
+        HttpHeaders headers = new HttpHeaders();
+        if (header != null) headers.set(ClientIdInterceptor.HEADER, header);
+        WebGraphQlRequest request = new WebGraphQlRequest(URI.create("http://localhost/graphql"), headers,
+            new LinkedMultiValueMap<>(), new InetSocketAddress("10.0.0.7", 50000), Map.of(),
+            Map.of("query", "{ yieldCurve { term } }"), "1", Locale.ENGLISH);
+        AtomicReference<String> id = new AtomicReference<>();
+        interceptor.intercept(request, next -> {
+            id.set(next.toExecutionInput().getGraphQLContext().get(MutationAdmission.CLIENT_ID));
+            return Mono.empty();
+        }).block();
+        return id.get();
+    }
+}
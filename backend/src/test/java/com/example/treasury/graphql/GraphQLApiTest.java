@@ -0,0 +1,218 @@
+package com.example.treasury.graphql;
+
+import com.example.treasury.domain.Order;
+import com.example.treasury.domain.OrderImportError;
+import com.example.treasury.domain.OrderImportResult;
+import com.example.treasury.domain.OrderRisk;
+import com.example.treasury.domain.YieldCurve;
+import com.example.treasury.domain.YieldPoint;
+import com.example.treasury.repo.OrderRepository;
+import com.example.treasury.service.InterpolatedCurve;
+import com.example.treasury.service.Interpolation;
+import com.example.treasury.service.LiquidityAggregates;
+import com.example.treasury.service.OrderEvents;
+import com.example.treasury.service.OrderImport;
+import com.example.treasury.service.OrderIngestService;
+import com.example.treasury.service.PortfolioRiskEngine;
+import com.example.treasury.service.YieldHistoryService;
+import com.example.treasury.service.YieldService;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.graphql.GraphQlTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.graphql.test.tester.GraphQlTester;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+@GraphQlTest(GraphQLApi.class)
+@Import({OrderEvents.class, MutationAdmission.class})
+class GraphQLApiTest {
+
+    @Autowired
+    private GraphQlTester graphQlTester;
+
+    @Autowired
+    private OrderEvents orderEvents;
+
+    @MockBean
+    private YieldService yieldService;
+    @MockBean
+    private YieldHistoryService historyService;
+    @MockBean
+    private OrderRepository orderRepo;
+    @MockBean
+    private OrderIngestService orderIngest;
+    @MockBean
+    private LiquidityAggregates liquidity;
+    @MockBean
+    private PortfolioRiskEngine riskEngine;
+
+    @Test
+    void yieldCurveUpdated_sendsFullCurveThenOnlyChangedTenors() {
+        Sinks.Many<YieldCurve> updates = Sinks.many().multicast().directBestEffort();
+        when(yieldService.getYieldCurve()).thenReturn(Mono.just(curve(5.0, 4.0)));
+        when(yieldService.curveUpdates()).thenReturn(updates.asFlux());
+
+        Flux<YieldPoint[]> events = graphQlTester.document("subscription { yieldCurveUpdated { term rate } }")
+            .executeSubscription()
+            .toFlux("yieldCurveUpdated", YieldPoint[].class);
+
+        StepVerifier.create(events)
+            .assertNext(full -> assertEquals(2, full.length))
+            .then(() -> {
+                // unchanged curve: nothing pushed; then a move in the 10Y only
+                updates.tryEmitNext(curve(5.0, 4.0));
+                updates.tryEmitNext(curve(5.0, 4.1));
+            })
+            .assertNext(delta -> {
+                assertEquals(1, delta.length);
+                assertEquals("10Y", delta[0].getTerm());
+                assertEquals(4.1, delta[0].getRate());
+            })
+            .thenCancel()
+            .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void orderCreated_filtersByTerm() {
+        Flux<Order> events = graphQlTester.document("subscription { orderCreated(term: \"10y\") { id term } }")
+            .executeSubscription()
+            .toFlux("orderCreated", Order.class);
+
+        StepVerifier.create(events)
+            .then(() -> {
+                orderEvents.publishCreated(order(1L, "2Y"));
+                orderEvents.publishCreated(order(2L, "10Y"));
+            })
+            .assertNext(o -> assertEquals(2L, o.getId()))
+            .thenCancel()
+            .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void liquiditySummary_rejectsUnparseableWindow() {
+        graphQlTester.document("{ liquiditySummary(window: \"soon\") { orderCount } }")
+            .execute()
+            .errors()
+            .satisfy(errors -> assertEquals(1, errors.size()));
+        verifyNoInteractions(liquidity);
+    }
+
+    @Test
+    void orders_computedFieldsUseOneCurveLookupPerPage() {
+        List<Order> rows = new ArrayList<>();
+        for (long i = 1; i <= 200; i++) {
+            rows.add(new Order(i, i % 2 == 0 ? "10Y" : "SOON", BigDecimal.TEN,
+                Instant.now().minusSeconds(60), "SUBMITTED", i % 2 == 0 ? 4.0 : null));
+        }
+        when(orderRepo.findPage(any(), any(), any(), any(), any(), anyInt())).thenReturn(Flux.fromIterable(rows));
+        when(yieldService.getInterpolatedCurve(any())).thenReturn(Mono.just(InterpolatedCurve.fit(
+            List.of(new YieldPoint("1Y", 4.5f), new YieldPoint("10Y", 4.25f)), Interpolation.MONOTONE_CUBIC)));
+
+        graphQlTester.document("{ orders(first: 200) { edges { node { id currentRate rateChangeBps ageSeconds } } } }")
+            .execute()
+            .path("orders.edges[0].node.currentRate").valueIsNull()
+            .path("orders.edges[0].node.rateChangeBps").valueIsNull()
+            .path("orders.edges[1].node.currentRate").entity(Double.class).isEqualTo(4.25)
+            .path("orders.edges[1].node.rateChangeBps").entity(Double.class).isEqualTo(25.0)
+            .path("orders.edges[199].node.ageSeconds").entity(Long.class)
+            .satisfies(age -> assertTrue(age >= 60 && age < 120));
+
+        verify(yieldService, times(1)).getInterpolatedCurve(Interpolation.MONOTONE_CUBIC);
+        verify(yieldService, never()).getYieldCurve();
+    }
+
+    @Test
+    void orders_markToMarketIsResolvedOncePerPage() {
+        List<Order> rows = new ArrayList<>();
+        for (long i = 1; i <= 50; i++) {
+            rows.add(new Order(i, "2Y", BigDecimal.TEN, Instant.now(), "SUBMITTED", 4.0));
+        }
+        when(orderRepo.findPage(any(), any(), any(), any(), any(), anyInt())).thenReturn(Flux.fromIterable(rows));
+        when(riskEngine.markToMarket(anyList())).thenAnswer(call -> {
+            Map<Order, OrderRisk> out = new HashMap<>();
+            for (Order o : call.<List<Order>>getArgument(0)) {
+                if (o.getId() % 2 == 0) out.put(o, new OrderRisk(o.getId(), 0, 2, 0));
+            }
+            return out;
+        });
+
+        graphQlTester.document("{ orders(first: 50) { edges { node { id markToMarket { marketValue } } } } }")
+            .execute()
+            .path("orders.edges[0].node.markToMarket").valueIsNull()
+            .path("orders.edges[1].node.markToMarket.marketValue").entity(Double.class).isEqualTo(2.0);
+
+        verify(riskEngine, times(1)).markToMarket(anyList());
+        verify(riskEngine, never()).markToMarket(any(Order.class));
+    }
+
+    @Test
+    void createOrder_rejectsUnknownTerm() {
+        graphQlTester.document("mutation { createOrder(input: {term: \"SOON\", amount: 10}) { id } }")
+            .execute()
+            .errors()
+            .satisfy(errors -> assertEquals(1, errors.size()));
+        verifyNoInteractions(orderIngest);
+    }
+
+    @Test
+    void createOrder_admissionRejectionIsAClassifiedError() {
+        when(orderIngest.submit(any(), any())).thenReturn(Mono.error(
+            new AdmissionRejectedException(AdmissionRejectedException.Reason.OVERLOADED, 50)));
+
+        graphQlTester.document("mutation { createOrder(input: {term: \"2Y\", amount: 10}) { id } }")
+            .execute()
+            .errors()
+            .satisfy(errors -> {
+                assertEquals(1, errors.size());
+                assertEquals(AdmissionRejectedException.Reason.OVERLOADED, errors.get(0).getErrorType());
+                assertEquals(50L, ((Number) errors.get(0).getExtensions().get("retryAfterMs")).longValue());
+            });
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void createOrders_importsInputsByPosition() {
+        ArgumentCaptor<Flux<OrderImport.Row>> rows = ArgumentCaptor.forClass(Flux.class);
+        when(orderIngest.importOrders(rows.capture())).thenReturn(Mono.just(new OrderImportResult(1, 1,
+            List.of(new OrderImportError(2, "Amount must be > 0")), false)));
+
+        graphQlTester.document("""
+                mutation { createOrders(inputs: [{term: "2y", amount: 5}, {term: "10Y", amount: -1}]) {
+                  accepted rejected errors { line message } errorsTruncated } }
+                """)
+            .execute()
+            .path("createOrders.accepted").entity(Long.class).isEqualTo(1L)
+            .path("createOrders.errors[0].line").entity(Long.class).isEqualTo(2L);
+
+        StepVerifier.create(rows.getValue())
+            .expectNext(OrderImport.Row.of(1, "2Y", BigDecimal.valueOf(5.0)))
+            .expectNext(OrderImport.Row.of(2, "10Y", BigDecimal.valueOf(-1.0)))
+            .verifyComplete();
+    }
+
+    private static Order order(Long id, String term) {
+        return new Order(id, term, BigDecimal.TEN, Instant.now(), "SUBMITTED", 4.0);
+    }
+
+    private static YieldCurve curve(double oneMonth, double tenYear) {
+        return YieldCurve.of(null, List.of(new YieldPoint("1M", oneMonth), new YieldPoint("10Y", tenYear)));
+    }
+}
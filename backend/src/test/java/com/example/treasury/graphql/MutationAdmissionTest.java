@@ -0,0 +1,237 @@
+package com.example.treasury.graphql;
+
+import graphql.GraphQLContext;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MutationAdmissionTest {
+
+    private static final long MS = 1_000_000;
+
+    @Test
+    void tokenBuckets_burstThenRefillPerClient() {
+        TokenBuckets buckets = new TokenBuckets(10, 3, 100); // a token every 100 ms
+        long t = 1_000 * MS;
+
+        for (int i = 0; i < 3; i++) assertEquals(0, buckets.tryAcquire("a", 1, t));
+        long wait = buckets.tryAcquire("a", 1, t);
+        assertEquals(100 * MS, wait);
+        assertEquals(0, buckets.tryAcquire("b", 1, t), "other clients have their own bucket");
+
+        assertTrue(buckets.tryAcquire("a", 1, t + 99 * MS) > 0);
+        assertEquals(0, buckets.tryAcquire("a", 1, t + 100 * MS));
+        // idle long enough to be full again, but never beyond the burst
+        for (int i = 0; i < 3; i++) assertEquals(0, buckets.tryAcquire("a", 1, t + 10_000 * MS));
+        assertTrue(buckets.tryAcquire("a", 1, t + 10_000 * MS) > 0);
+    }
+
+    @Test
+    void tokenBuckets_concurrentCallersNeverExceedTheBurst() throws Exception {
+        TokenBuckets buckets = new TokenBuckets(0.001, 1000, 100); // no refill during the test
+        long t = System.nanoTime();
+        AtomicInteger granted = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int i = 0; i < 8; i++) {
+            pool.submit(() -> {
+                start.await();
+                for (int n = 0; n < 1000; n++) {
+                    if (buckets.tryAcquire("a", 1, t) == 0) granted.incrementAndGet();
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals(1000, granted.get());
+    }
+
+    @Test
+    void tokenBuckets_dropFullBucketsWhenTrackingTooManyClients() {
+        TokenBuckets buckets = new TokenBuckets(1000, 1, 2);
+        long t = 1_000 * MS;
+        buckets.tryAcquire("a", 1, t);
+        buckets.tryAcquire("b", 1, t);
+        buckets.tryAcquire("c", 1, t + 10 * MS);
+        assertEquals(1, buckets.clients());
+    }
+
+    @Test
+    void tokenBuckets_refuseNewClientsWhileEveryTrackedOneIsActive() {
+        TokenBuckets buckets = new TokenBuckets(1, 10, 2);
+        long t = 1_000 * MS;
+        assertEquals(0, buckets.tryAcquire("a", 1, t));
+        assertEquals(0, buckets.tryAcquire("b", 1, t));
+
+        assertTrue(buckets.tryAcquire("c", 1, t) > 0);
+        assertEquals(2, buckets.clients());
+        assertEquals(0, buckets.tryAcquire("a", 1, t), "tracked clients are not affected");
+        // b's bucket is full again before a's, so b makes room
+        assertEquals(0, buckets.tryAcquire("c", 1, t + 1_500 * MS));
+        assertEquals(2, buckets.clients());
+        assertTrue(buckets.tryAcquire("a", 10, t + 1_500 * MS) > 0, "a kept its bucket");
+    }
+
+    @Test
+    void tokenBuckets_chargeTheCostOfTheCall() {
+        TokenBuckets buckets = new TokenBuckets(10, 5, 100); // a token every 100 ms
+        long t = 1_000 * MS;
+
+        assertEquals(0, buckets.tryAcquire("a", 3, t));
+        assertEquals(100 * MS, buckets.tryAcquire("a", 3, t));
+        assertEquals(0, buckets.tryAcquire("a", 2, t));
+        assertTrue(buckets.tryAcquire("a", 1, t) > 0);
+
+        // a call above the burst waits for a full bucket, then pays the rest off before the next one
+        assertEquals(0, buckets.tryAcquire("b", 20, t));
+        assertEquals(1_600 * MS, buckets.tryAcquire("b", 1, t));
+        assertEquals(0, buckets.tryAcquire("b", 1, t + 1_600 * MS));
+    }
+
+    @Test
+    void adaptiveLimit_backsOffWhenSlowAndGrowsWhenBusyAndFast() {
+        long target = 10 * MS;
+        AdaptiveLimit limit = new AdaptiveLimit(8, 2, 16, target);
+        long t = System.nanoTime();
+
+        for (int i = 0; i < 8; i++) assertTrue(limit.tryAcquire());
+        assertFalse(limit.tryAcquire());
+
+        limit.release(50 * MS, false, t + target);
+        assertEquals(6, limit.limit());
+        // a second slow call within the same window does not cut again
+        limit.release(50 * MS, false, t + target + 1);
+        assertEquals(6, limit.limit());
+        limit.release(0, true, t + 2 * target);
+        assertEquals(4, limit.limit());
+        for (int i = 0; i < 5; i++) limit.release();
+        assertEquals(0, limit.inFlight());
+
+        // fast calls with the limit in use: grows one step at a time
+        for (int round = 0; round < 20 && limit.limit() < 8; round++) {
+            int current = limit.limit();
+            for (int i = 0; i < current; i++) assertTrue(limit.tryAcquire());
+            for (int i = 0; i < current; i++) limit.release(MS, false, t + 3 * target);
+        }
+        assertEquals(8, limit.limit());
+    }
+
+    @Test
+    void adaptiveLimit_staysWithinBounds() {
+        long target = MS;
+        AdaptiveLimit limit = new AdaptiveLimit(4, 2, 5, target);
+        long t = System.nanoTime();
+        for (int i = 1; i <= 10; i++) {
+            assertTrue(limit.tryAcquire());
+            limit.release(0, true, t + i * target);
+        }
+        assertEquals(2, limit.limit());
+        for (int round = 0; round < 50; round++) {
+            int current = limit.limit();
+            for (int i = 0; i < current; i++) limit.tryAcquire();
+            for (int i = 0; i < current; i++) limit.release(0, false, t);
+        }
+        assertEquals(5, limit.limit());
+    }
+
+    @Test
+    void admit_rejectsOverLimitCallsAndReleasesSlots() {
+        MutationAdmission admission = admission(1000, 1000, 2);
+        GraphQLContext context = GraphQLContext.newContext().of(MutationAdmission.CLIENT_ID, "a").build();
+        List<Sinks.One<String>> pending = new ArrayList<>();
+        List<Mono<String>> calls = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            Sinks.One<String> sink = Sinks.one();
+            pending.add(sink);
+            calls.add(admission.admit(context, 1, sink::asMono).cache());
+            calls.get(i).subscribe();
+        }
+
+        StepVerifier.create(admission.admit(context, 1, () -> Mono.just("third")))
+            .expectErrorSatisfies(e -> assertEquals(AdmissionRejectedException.Reason.OVERLOADED,
+                ((AdmissionRejectedException) e).getReason()))
+            .verify(Duration.ofSeconds(5));
+
+        pending.get(0).tryEmitValue("first");
+        StepVerifier.create(admission.admit(context, 1, () -> Mono.just("fourth")))
+            .expectNext("fourth")
+            .verifyComplete();
+        pending.get(1).tryEmitValue("second");
+    }
+
+    @Test
+    void admit_rateLimitsEachClient() {
+        MutationAdmission admission = admission(1, 2, 64);
+        GraphQLContext a = GraphQLContext.newContext().of(MutationAdmission.CLIENT_ID, "a").build();
+        GraphQLContext b = GraphQLContext.newContext().of(MutationAdmission.CLIENT_ID, "b").build();
+
+        assertEquals("ok", admission.admit(a, 1, () -> Mono.just("ok")).block());
+        assertEquals("ok", admission.admit(a, 1, () -> Mono.just("ok")).block());
+        StepVerifier.create(admission.admit(a, 1, () -> Mono.just("ok")))
+            .expectErrorSatisfies(e -> {
+                AdmissionRejectedException rejected = (AdmissionRejectedException) e;
+                assertEquals(AdmissionRejectedException.Reason.RATE_LIMITED, rejected.getReason());
+                assertTrue(rejected.getRetryAfterMillis() > 0 && rejected.getRetryAfterMillis() <= 1000);
+            })
+            .verify(Duration.ofSeconds(5));
+        assertEquals("ok", admission.admit(b, 1, () -> Mono.just("ok")).block());
+    }
+
+    @Test
+    void admit_chargesOneTokenPerRow() {
+        MutationAdmission admission = admission(1, 10, 64);
+        GraphQLContext context = GraphQLContext.newContext().of(MutationAdmission.CLIENT_ID, "a").build();
+
+        assertEquals("ok", admission.admit(context, 8, () -> Mono.just("ok")).block());
+        StepVerifier.create(admission.admit(context, 3, () -> Mono.just("ok")))
+            .expectErrorSatisfies(e -> assertEquals(AdmissionRejectedException.Reason.RATE_LIMITED,
+                ((AdmissionRejectedException) e).getReason()))
+            .verify(Duration.ofSeconds(5));
+        assertEquals("ok", admission.admit(context, 2, () -> Mono.just("ok")).block());
+    }
+
+    @Test
+    void admit_overloadedCallsLeaveTheClientsTokens() {
+        MutationAdmission admission = admission(0.001, 2, 1); // no refill during the test
+        GraphQLContext context = GraphQLContext.newContext().of(MutationAdmission.CLIENT_ID, "a").build();
+        Sinks.One<String> running = Sinks.one();
+        Mono<String> first = admission.admit(context, 1, running::asMono).cache();
+        first.subscribe();
+
+        for (int i = 0; i < 3; i++) {
+            StepVerifier.create(admission.admit(context, 1, () -> Mono.just("ok")))
+                .expectErrorSatisfies(e -> assertEquals(AdmissionRejectedException.Reason.OVERLOADED,
+                    ((AdmissionRejectedException) e).getReason()))
+                .verify(Duration.ofSeconds(5));
+        }
+        running.tryEmitValue("first");
+        assertEquals("ok", admission.admit(context, 1, () -> Mono.just("ok")).block());
+    }
+
+    private static MutationAdmission admission(double rate, int burst, int limit) {
+        MutationAdmission admission = new MutationAdmission();
+        ReflectionTestUtils.setField(admission, "clientRate", rate);
+        ReflectionTestUtils.setField(admission, "clientBurst", burst);
+        ReflectionTestUtils.setField(admission, "initialLimit", limit);
+        ReflectionTestUtils.setField(admission, "minLimit", 1);
+        ReflectionTestUtils.setField(admission, "maxLimit", limit);
+        ReflectionTestUtils.setField(admission, "latencyTarget", Duration.ofSeconds(10));
+        admission.start();
+        return admission;
+    }
+}
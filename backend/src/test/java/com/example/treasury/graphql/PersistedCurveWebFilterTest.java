@@ -0,0 +1,173 @@
+package com.example.treasury.graphql;
+
+import com.example.treasury.service.YieldService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import graphql.ExecutionInput;
+import graphql.ExecutionResultImpl;
+import graphql.execution.preparsed.PreparsedDocumentEntry;
+import graphql.parser.Parser;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.graphql.ExecutionGraphQlRequest;
+import org.springframework.graphql.ExecutionGraphQlService;
+import org.springframework.graphql.support.DefaultExecutionGraphQlResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class PersistedCurveWebFilterTest {
+
+    private static final String CURVE = "{ yieldCurve { term rate } }";
+    private static final String STATUS = "{ yieldCurveStatus { version } }";
+
+    private final PersistedQueries queries = new PersistedQueries();
+    private final YieldService yieldService = mock(YieldService.class);
+    private final ExecutionGraphQlService graphQl = mock(ExecutionGraphQlService.class);
+    private final AtomicBoolean passedOn = new AtomicBoolean();
+    private final WebFilterChain chain = exchange -> {
+        passedOn.set(true);
+        return Mono.empty();
+    };
+    private PersistedCurveWebFilter filter;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        filter = new PersistedCurveWebFilter(queries, yieldService, graphQl, new ObjectMapper(), "/graphql");
+        for (String doc : List.of(CURVE, STATUS)) {
+            queries.getPersistedQueryDocumentAsync(PersistedQueries.sha256(doc), ExecutionInput.newExecutionInput(doc).build(),
+                text -> new PreparsedDocumentEntry(Parser.parse(text)));
+        }
+        Map<String, Object> point = new LinkedHashMap<>();
+        point.put("term", "10Y");
+        point.put("rate", 4.25);
+        when(graphQl.execute(any())).thenAnswer(inv -> Mono.just(new DefaultExecutionGraphQlResponse(
+            ExecutionInput.newExecutionInput(CURVE).build(),
+            ExecutionResultImpl.newExecutionResult().data(Map.of("yieldCurve", List.of(point))).build())));
+    }
+
+    @Test
+    void curveQueryIsRenderedOncePerVersionAndRevalidatedWithEtag() {
+        curveVersion("v1");
+
+        MockServerWebExchange first = get(CURVE, null);
+        filter.filter(first, chain).block();
+        String etag = first.getResponse().getHeaders().getETag();
+        assertEquals(HttpStatus.OK, first.getResponse().getStatusCode());
+        assertEquals("{\"data\":{\"yieldCurve\":[{\"term\":\"10Y\",\"rate\":4.25}]}}",
+            first.getResponse().getBodyAsString().block());
+        assertNotNull(etag);
+        assertTrue(etag.startsWith("\"v1-"));
+
+        MockServerWebExchange repeat = get(CURVE, null);
+        filter.filter(repeat, chain).block();
+        assertEquals(first.getResponse().getBodyAsString().block(), repeat.getResponse().getBodyAsString().block());
+
+        MockServerWebExchange revalidate = get(CURVE, etag);
+        filter.filter(revalidate, chain).block();
+        assertEquals(HttpStatus.NOT_MODIFIED, revalidate.getResponse().getStatusCode());
+
+        verify(graphQl, times(1)).execute(any());
+        assertFalse(passedOn.get());
+    }
+
+    @Test
+    void curveChangeInvalidatesTheEtag() {
+        curveVersion("v1");
+        MockServerWebExchange first = get(CURVE, null);
+        filter.filter(first, chain).block();
+        String etag = first.getResponse().getHeaders().getETag();
+
+        curveVersion("v2");
+        MockServerWebExchange after = get(CURVE, etag);
+        filter.filter(after, chain).block();
+
+        assertEquals(HttpStatus.OK, after.getResponse().getStatusCode());
+        assertTrue(after.getResponse().getHeaders().getETag().startsWith("\"v2-"));
+        verify(graphQl, times(2)).execute(any());
+    }
+
+    @Test
+    void otherPersistedQueriesRunPerRequestWithoutEtag() {
+        filter.filter(get(STATUS, null), chain).block();
+        MockServerWebExchange second = get(STATUS, null);
+        filter.filter(second, chain).block();
+
+        assertNull(second.getResponse().getHeaders().getETag());
+        verify(graphQl, times(2)).execute(any());
+        verifyNoInteractions(yieldService);
+    }
+
+    @Test
+    void unknownHashAsksForTheDocument() {
+        MockServerWebExchange exchange = get("{ portfolioRisk { dv01 } }", null);
+        filter.filter(exchange, chain).block();
+
+        assertTrue(exchange.getResponse().getBodyAsString().block().contains("PersistedQueryNotFound"));
+        verifyNoInteractions(graphQl);
+    }
+
+    @Test
+    void unknownHashWithItsDocumentIsExecutedWithIt() {
+        String document = "{ portfolioRisk { dv01 } }";
+        MockServerWebExchange exchange = registration(document);
+        filter.filter(exchange, chain).block();
+
+        ArgumentCaptor<ExecutionGraphQlRequest> request = ArgumentCaptor.forClass(ExecutionGraphQlRequest.class);
+        verify(graphQl).execute(request.capture());
+        assertEquals(document, request.getValue().getDocument());
+        // the hash goes along, so graphql-java checks it and registers the document
+        assertEquals(Map.of("version", 1, "sha256Hash", PersistedQueries.sha256(document)),
+            request.getValue().getExtensions().get("persistedQuery"));
+        assertEquals(HttpStatus.OK, exchange.getResponse().getStatusCode());
+        assertFalse(exchange.getResponse().getBodyAsString().block().contains("PersistedQueryNotFound"));
+        assertFalse(passedOn.get());
+    }
+
+    @Test
+    void mutationsSentForRegistrationArePassedOn() {
+        filter.filter(registration("mutation { createOrder(input: {term: \"1Y\", amount: 1}) { id } }"), chain).block();
+        assertTrue(passedOn.get());
+        verifyNoInteractions(graphQl);
+    }
+
+    @Test
+    void postsAndPlainGetsArePassedOn() {
+        filter.filter(MockServerWebExchange.from(MockServerHttpRequest.post("/graphql").body(CURVE)), chain).block();
+        assertTrue(passedOn.getAndSet(false));
+
+        filter.filter(MockServerWebExchange.from(MockServerHttpRequest.get("/graphql")), chain).block();
+        assertTrue(passedOn.get());
+        verifyNoInteractions(graphQl);
+    }
+
+    private static MockServerWebExchange registration(String document) {
+        String extensions = "{\"persistedQuery\":{\"version\":1,\"sha256Hash\":\"" + PersistedQueries.sha256(document) + "\"}}";
+        return MockServerWebExchange.from(
+            MockServerHttpRequest.get("/graphql?query={query}&extensions={ext}", document, extensions));
+    }
+
+    private void curveVersion(String version) {
+        when(yieldService.getCurveVersion()).thenReturn(Mono.just(version));
+        when(yieldService.curveVersion()).thenReturn(version);
+    }
+
+    private static MockServerWebExchange get(String document, String ifNoneMatch) {
+        String extensions = "{\"persistedQuery\":{\"version\":1,\"sha256Hash\":\"" + PersistedQueries.sha256(document) + "\"}}";
+        MockServerHttpRequest.BaseBuilder<?> request = MockServerHttpRequest.get("/graphql?extensions={ext}", extensions);
+        if (ifNoneMatch != null) request.header(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        return MockServerWebExchange.from(request);
+    }
+}
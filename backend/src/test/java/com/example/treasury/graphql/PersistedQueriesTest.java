@@ -0,0 +1,99 @@
+package com.example.treasury.graphql;
+
+import graphql.ExecutionInput;
+import graphql.execution.preparsed.PreparsedDocumentEntry;
+import graphql.execution.preparsed.persisted.PersistedQueryCacheMiss;
+import graphql.execution.preparsed.persisted.PersistedQueryNotFound;
+import graphql.execution.preparsed.persisted.PersistedQuerySupport;
+import graphql.parser.Parser;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PersistedQueriesTest {
+
+    private static final String CURVE = "{ yieldCurve { term rate } }";
+
+    private final PersistedQueries queries = new PersistedQueries();
+    private final AtomicInteger parses = new AtomicInteger();
+    private final PersistedQueryCacheMiss parse = text -> {
+        parses.incrementAndGet();
+        return new PreparsedDocumentEntry(Parser.parse(text));
+    };
+
+    @Test
+    void registersOnFirstSightAndServesByHashAfterwards() throws Exception {
+        String hash = PersistedQueries.sha256(CURVE);
+        queries.getPersistedQueryDocumentAsync(hash, input(CURVE), parse);
+
+        PreparsedDocumentEntry again = queries.getPersistedQueryDocumentAsync(hash,
+            input(PersistedQuerySupport.PERSISTED_QUERY_MARKER), parse).join();
+
+        assertNotNull(again.getDocument());
+        assertEquals(1, parses.get());
+        assertEquals(CURVE, queries.get(hash).document());
+    }
+
+    @Test
+    void unknownHashWithoutDocumentIsNotFound() {
+        assertThrows(PersistedQueryNotFound.class, () -> queries.getPersistedQueryDocumentAsync("abc",
+            input(PersistedQuerySupport.PERSISTED_QUERY_MARKER), parse));
+    }
+
+    @Test
+    void documentNotMatchingItsHashIsNotKept() throws Exception {
+        queries.getPersistedQueryDocumentAsync("not-the-hash", input(CURVE), parse);
+
+        assertNull(queries.get("not-the-hash"));
+    }
+
+    @Test
+    void stopsRegisteringWhenFull() throws Exception {
+        ReflectionTestUtils.setField(queries, "maxEntries", 1);
+        String other = "{ yieldCurveStatus { version } }";
+        queries.getPersistedQueryDocumentAsync(PersistedQueries.sha256(CURVE), input(CURVE), parse);
+        queries.getPersistedQueryDocumentAsync(PersistedQueries.sha256(other), input(other), parse);
+
+        assertNotNull(queries.get(PersistedQueries.sha256(CURVE)));
+        assertNull(queries.get(PersistedQueries.sha256(other)));
+    }
+
+    @Test
+    void classifiesDocuments() throws Exception {
+        assertTrue(register(CURVE).curveOnly());
+        assertTrue(register("query Curve { __typename c: yieldCurve { rate } }").curveOnly());
+
+        PersistedQueries.Entry status = register("{ yieldCurve { term } yieldCurveStatus { version } }");
+        assertTrue(status.query());
+        assertFalse(status.curveOnly());
+
+        assertFalse(register("query($t: String) { yieldCurve { term } rateAt(term: $t) }").curveOnly());
+        assertFalse(register("{ yieldCurve { ...P } } fragment P on YieldPoint { term }").curveOnly());
+
+        PersistedQueries.Entry mutation = register("mutation { createOrder(input: {term: \"2Y\", amount: 1}) { id } }");
+        assertFalse(mutation.query());
+        assertFalse(mutation.curveOnly());
+    }
+
+    @Test
+    void onlyDocumentsWithoutMutationsAreReadOnly() {
+        assertTrue(PersistedQueries.readOnly(CURVE));
+        assertTrue(PersistedQueries.readOnly("query A { yieldCurve { rate } } query B { __typename }"));
+        assertTrue(PersistedQueries.readOnly("{ yieldCurve {"), "executing it only reports the syntax error");
+        assertFalse(PersistedQueries.readOnly("mutation { createOrder(input: {term: \"2Y\", amount: 1}) { id } }"));
+        assertFalse(PersistedQueries.readOnly("{ yieldCurve { rate } } subscription { orderCreated { id } }"));
+    }
+
+    private PersistedQueries.Entry register(String document) throws Exception {
+        String hash = PersistedQueries.sha256(document);
+        queries.getPersistedQueryDocumentAsync(hash, input(document), parse);
+        return queries.get(hash);
+    }
+
+    private static ExecutionInput input(String query) {
+        return ExecutionInput.newExecutionInput(query).build();
+    }
+}
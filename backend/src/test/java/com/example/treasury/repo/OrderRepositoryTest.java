@@ -0,0 +1,79 @@
+package com.example.treasury.repo;
+
+import com.example.treasury.config.DatabaseInit;
+import com.example.treasury.domain.Order;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.r2dbc.DataR2dbcTest;
+import org.springframework.context.annotation.Import;
+import reactor.core.publisher.Flux;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataR2dbcTest
+@Import(DatabaseInit.class)
+class OrderRepositoryTest {
+
+    private static final Instant T0 = Instant.parse("2024-01-15T12:00:00Z");
+
+    @Autowired
+    private OrderRepository orderRepo;
+
+    @Autowired
+    private DatabaseInit schema;
+
+    @BeforeEach
+    void seed() {
+        schema.ready().block(Duration.ofSeconds(10));
+        orderRepo.deleteAll().block();
+        List<Order> orders = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            // pairs of orders share a timestamp so the id tie-breaker matters
+            Instant createdAt = T0.plus(i / 2, ChronoUnit.MINUTES);
+            orders.add(new Order(null, i % 3 == 0 ? "10Y" : "2Y", BigDecimal.valueOf(1000 + i), createdAt,
+                i % 5 == 0 ? "SETTLED" : "SUBMITTED", 4.0));
+        }
+        orderRepo.saveAll(Flux.fromIterable(orders)).blockLast();
+    }
+
+    @Test
+    void findPage_walksAllRowsNewestFirstWithoutGapsOrDuplicates() {
+        List<Order> expected = orderRepo.findAll().collectList().block();
+        expected.sort(Comparator.comparing(Order::getCreatedAt).thenComparing(Order::getId).reversed());
+
+        List<Order> walked = new ArrayList<>();
+        OrderCursor cursor = null;
+        while (true) {
+            List<Order> page = orderRepo.findPage(null, null, null, null, cursor, 7).collectList().block();
+            if (page.isEmpty()) break;
+            walked.addAll(page);
+            cursor = OrderCursor.decode(OrderCursor.of(page.get(page.size() - 1)).encode());
+        }
+        assertEquals(expected.stream().map(Order::getId).toList(), walked.stream().map(Order::getId).toList());
+    }
+
+    @Test
+    void findPage_appliesFilters() {
+        List<Order> tenYear = orderRepo.findPage("10Y", null, null, null, null, 100).collectList().block();
+        assertEquals(9, tenYear.size());
+        assertTrue(tenYear.stream().allMatch(o -> o.getTerm().equals("10Y")));
+
+        List<Order> settled = orderRepo.findPage(null, "SETTLED", null, null, null, 100).collectList().block();
+        assertEquals(5, settled.size());
+
+        Instant from = T0.plus(2, ChronoUnit.MINUTES);
+        Instant to = T0.plus(4, ChronoUnit.MINUTES);
+        List<Order> window = orderRepo.findPage(null, null, from, to, null, 100).collectList().block();
+        assertEquals(4, window.size());
+        assertTrue(window.stream().allMatch(o -> !o.getCreatedAt().isBefore(from) && o.getCreatedAt().isBefore(to)));
+    }
+}
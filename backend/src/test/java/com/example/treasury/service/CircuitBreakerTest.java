@@ -0,0 +1,70 @@
+package com.example.treasury.service;
+
+import com.example.treasury.service.CircuitBreaker.Permit;
+import com.example.treasury.service.CircuitBreaker.State;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CircuitBreakerTest {
+
+    private static final long OPEN = 1_000;
+
+    @Test
+    void opensAfterFailuresInARowAndClosesOnASuccessfulTrial() {
+        CircuitBreaker breaker = new CircuitBreaker(2, OPEN);
+        breaker.onFailure(breaker.tryAcquire(0), 0);
+        assertEquals(State.CLOSED, breaker.state(0));
+        breaker.onFailure(breaker.tryAcquire(0), 0);
+        assertEquals(State.OPEN, breaker.state(0));
+        assertEquals(Permit.DENIED, breaker.tryAcquire(OPEN - 1));
+
+        Permit trial = breaker.tryAcquire(OPEN);
+        assertEquals(Permit.TRIAL, trial);
+        assertEquals(Permit.DENIED, breaker.tryAcquire(OPEN), "one trial at a time");
+        breaker.onSuccess(trial);
+        assertEquals(State.CLOSED, breaker.state(OPEN));
+        assertEquals(Permit.CALL, breaker.tryAcquire(OPEN));
+    }
+
+    @Test
+    void aFailedTrialOpensTheBreakerForAnotherPeriod() {
+        CircuitBreaker breaker = new CircuitBreaker(1, OPEN);
+        breaker.onFailure(breaker.tryAcquire(0), 0);
+
+        breaker.onFailure(breaker.tryAcquire(OPEN), OPEN);
+        assertEquals(State.OPEN, breaker.state(2 * OPEN - 1));
+        assertEquals(Permit.TRIAL, breaker.tryAcquire(2 * OPEN));
+    }
+
+    @Test
+    void lateOrdinaryCallsDoNotMoveAnOpenBreaker() {
+        CircuitBreaker breaker = new CircuitBreaker(1, OPEN);
+        Permit early = breaker.tryAcquire(0);
+        Permit late = breaker.tryAcquire(0);
+        breaker.onFailure(early, 0);
+        assertEquals(State.OPEN, breaker.state(0));
+
+        // a call that went out before the breaker opened succeeds: it stays open
+        breaker.onSuccess(late);
+        assertEquals(State.OPEN, breaker.state(0));
+        assertEquals(Permit.DENIED, breaker.tryAcquire(0));
+
+        // and one that fails while the trial runs neither takes the trial's outcome nor reopens it
+        Permit trial = breaker.tryAcquire(OPEN);
+        assertEquals(Permit.TRIAL, trial);
+        breaker.onFailure(Permit.CALL, OPEN);
+        assertEquals(Permit.DENIED, breaker.tryAcquire(OPEN), "the trial is still out");
+        breaker.onSuccess(trial);
+        assertEquals(State.CLOSED, breaker.state(OPEN));
+    }
+
+    @Test
+    void aReleasedTrialGoesToTheNextCaller() {
+        CircuitBreaker breaker = new CircuitBreaker(1, OPEN);
+        breaker.onFailure(breaker.tryAcquire(0), 0);
+        Permit trial = breaker.tryAcquire(OPEN);
+        breaker.release(trial);
+        assertEquals(Permit.TRIAL, breaker.tryAcquire(OPEN));
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.treasury.service;
+
+import com.example.treasury.domain.YieldCurve;
+import com.example.treasury.domain.YieldPoint;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CurveSnapshotFileTest {
+
+    private static final int TENORS = TreasuryFeedParser.FIELDS.length;
+    private static final Instant FETCHED = Instant.parse("2024-06-28T18:00:00Z");
+    private static final YieldCurve CURVE = YieldCurve.of(LocalDate.of(2024, 6, 28), List.of(
+        new YieldPoint("1M", 5.50), new YieldPoint("2Y", 4.70), new YieldPoint("10Y", 4.35)));
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void roundTripsCurveAndHistory() throws IOException {
+        Path file = dir.resolve("snap.bin");
+        int[] days = {19_000, 19_001, 19_004};
+        double[][] rates = new double[TENORS][days.length + 2]; // spare capacity is not written
+        for (double[] col : rates) Arrays.fill(col, 4.0);
+        rates[1][1] = Double.NaN;
+
+        CurveSnapshotFile.write(file, FETCHED, CURVE, days, rates, days.length);
+        CurveSnapshotFile.Snapshot s = CurveSnapshotFile.read(file);
+
+        assertNotNull(s);
+        assertEquals(FETCHED, s.fetchedAt());
+        assertEquals(CURVE, s.curve());
+        assertArrayEquals(days, s.days());
+        assertEquals(days.length, s.rates()[0].length);
+        assertTrue(Double.isNaN(s.rates()[1][1]));
+        assertEquals(4.0, s.rates()[13][2]);
+    }
+
+    @Test
+    void roundTripsHistoryWithoutCurve() throws IOException {
+        Path file = dir.resolve("snap.bin");
+        CurveSnapshotFile.write(file, FETCHED, YieldCurve.EMPTY, new int[0], new double[TENORS][0], 0);
+
+        CurveSnapshotFile.Snapshot s = CurveSnapshotFile.read(file);
+        assertNotNull(s);
+        assertTrue(s.curve().isEmpty());
+        assertNull(s.curve().asOf());
+    }
+
+    @Test
+    void missingFile_isNull() {
+        assertNull(CurveSnapshotFile.read(dir.resolve("absent.bin")));
+    }
+
+    @Test
+    void corruptedPayload_isRejected() throws IOException {
+        Path file = dir.resolve("snap.bin");
+        CurveSnapshotFile.write(file, FETCHED, CURVE, new int[0], new double[TENORS][0], 0);
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.seek(CurveSnapshotFile.HEADER_BYTES + 3);
+            raf.write(0x7f);
+        }
+        assertNull(CurveSnapshotFile.read(file));
+    }
+
+    @Test
+    void otherVersionOrTruncation_isRejected() throws IOException {
+        Path file = dir.resolve("snap.bin");
+        CurveSnapshotFile.write(file, FETCHED, CURVE, new int[0], new double[TENORS][0], 0);
+        byte[] bytes = Files.readAllBytes(file);
+
+        bytes[5] = 1; // format version 1, float curve points
+        Files.write(file, bytes);
+        assertNull(CurveSnapshotFile.read(file));
+
+        bytes[5] = 2;
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 4));
+        assertNull(CurveSnapshotFile.read(file));
+    }
+}
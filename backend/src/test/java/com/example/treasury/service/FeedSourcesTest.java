@@ -0,0 +1,254 @@
+package com.example.treasury.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FeedSourcesTest {
+
+    private static final YearMonth MONTH = YearMonth.of(2024, 3);
+
+    private final WebClient http = WebClient.create();
+    private MockWebServer primary;
+    private MockWebServer mirror;
+    private SimpleMeterRegistry registry;
+    private CurveMetrics metrics;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        primary = new MockWebServer();
+        primary.start();
+        mirror = new MockWebServer();
+        mirror.start();
+        registry = new SimpleMeterRegistry();
+        metrics = new CurveMetrics(registry);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        primary.shutdown();
+        mirror.shutdown();
+    }
+
+    @Test
+    void fallsBackToTheNextSourceWhenOneFails() {
+        primary.enqueue(new MockResponse().setResponseCode(500));
+        mirror.enqueue(new MockResponse().setBody("mirror"));
+
+        StepVerifier.create(sources(false, null).fetchMonth(MONTH).map(FeedSourcesTest::text))
+            .expectNext("mirror")
+            .verifyComplete();
+        assertEquals(1, registry.get("treasury.feed.source.failures").tag("source", "treasury").counter().count());
+    }
+
+    @Test
+    void errorsOnlyWhenEverySourceFailed() {
+        primary.enqueue(new MockResponse().setResponseCode(500));
+        mirror.enqueue(new MockResponse().setResponseCode(503));
+
+        StepVerifier.create(sources(false, null).fetchMonth(MONTH))
+            .expectError()
+            .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void hedgesASlowSourceWithTheNextOne() {
+        primary.enqueue(new MockResponse().setBody("primary").setBodyDelay(3, TimeUnit.SECONDS));
+        mirror.enqueue(new MockResponse().setBody("mirror"));
+        FeedSources sources = sources(true, null);
+
+        long start = System.nanoTime();
+        StepVerifier.create(sources.fetchMonth(MONTH).map(FeedSourcesTest::text))
+            .expectNext("mirror")
+            .verifyComplete();
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() < 2000);
+        assertEquals(1, registry.get("treasury.fetch.hedges").counter().count());
+    }
+
+    @Test
+    void doesNotHedgeAFastSource() {
+        primary.enqueue(new MockResponse().setBody("primary"));
+
+        StepVerifier.create(sources(true, null).fetchMonth(MONTH).map(FeedSourcesTest::text))
+            .expectNext("primary")
+            .verifyComplete();
+        assertEquals(0, mirror.getRequestCount());
+        assertEquals(0, registry.get("treasury.fetch.hedges").counter().count());
+    }
+
+    @Test
+    void asksTheOnlySourceAgainWhenItIsSlow() {
+        primary.enqueue(new MockResponse().setBody("slow").setBodyDelay(3, TimeUnit.SECONDS));
+        primary.enqueue(new MockResponse().setBody("fast"));
+        FeedSources sources = new FeedSources(List.of(http("treasury", primary)), null, true,
+            Duration.ofMillis(100), Duration.ofMillis(200), 3, Duration.ofMinutes(1), metrics);
+
+        StepVerifier.create(sources.fetchMonth(MONTH).map(FeedSourcesTest::text))
+            .expectNext("fast")
+            .verifyComplete();
+        assertEquals(2, primary.getRequestCount());
+    }
+
+    @Test
+    void skipsASourceWhileItsBreakerIsOpen() throws InterruptedException {
+        FeedSources sources = new FeedSources(List.of(http("treasury", primary), http("mirror", mirror)), null,
+            false, Duration.ofSeconds(1), Duration.ofSeconds(1), 2, Duration.ofMillis(300), metrics);
+        for (int i = 0; i < 2; i++) {
+            primary.enqueue(new MockResponse().setResponseCode(500));
+            mirror.enqueue(new MockResponse().setBody("mirror"));
+            sources.fetchMonth(MONTH).block(Duration.ofSeconds(5));
+        }
+        assertEquals(CircuitBreaker.State.OPEN, sources.state(0));
+
+        mirror.enqueue(new MockResponse().setBody("mirror"));
+        StepVerifier.create(sources.fetchMonth(MONTH).map(FeedSourcesTest::text))
+            .expectNext("mirror")
+            .verifyComplete();
+        assertEquals(2, primary.getRequestCount());
+
+        // once the open period is over a trial call goes out, and its success closes the breaker
+        Thread.sleep(400);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, sources.state(0));
+        primary.enqueue(new MockResponse().setBody("primary"));
+        StepVerifier.create(sources.fetchMonth(MONTH).map(FeedSourcesTest::text))
+            .expectNext("primary")
+            .verifyComplete();
+        assertEquals(CircuitBreaker.State.CLOSED, sources.state(0));
+    }
+
+    @Test
+    void aCancelledTrialCallLetsTheNextCallerTry() throws InterruptedException {
+        Scripted source = new Scripted();
+        FeedSources sources = new FeedSources(List.of(source), null, false,
+            Duration.ofSeconds(1), Duration.ofSeconds(1), 1, Duration.ofMillis(300), metrics);
+        source.replies.add(Mono.error(new IOException("down")));
+        StepVerifier.create(sources.fetchMonth(MONTH)).expectError().verify(Duration.ofSeconds(5));
+        Thread.sleep(400);
+
+        // the trial call hangs and its caller gives up
+        StepVerifier.create(sources.fetchMonth(MONTH))
+            .expectSubscription()
+            .thenAwait(Duration.ofMillis(100))
+            .thenCancel()
+            .verify();
+        assertEquals(2, source.calls.get());
+
+        source.replies.add(Mono.just("up".getBytes(StandardCharsets.UTF_8)));
+        StepVerifier.create(sources.fetchMonth(MONTH).map(FeedSourcesTest::text))
+            .expectNext("up")
+            .verifyComplete();
+        assertEquals(CircuitBreaker.State.CLOSED, sources.state(0));
+    }
+
+    @Test
+    void doesNotHedgeIntoASourceWhoseBreakerOpenedMeanwhile() {
+        Scripted source = new Scripted();
+        FeedSources sources = new FeedSources(List.of(source), null, true,
+            Duration.ofMillis(200), Duration.ofMillis(200), 1, Duration.ofMinutes(1), metrics);
+        Sinks.One<byte[]> slow = Sinks.one();
+        source.replies.add(slow.asMono());
+        source.replies.add(Mono.error(new IOException("down")));
+
+        StepVerifier.create(sources.fetchMonth(MONTH).map(FeedSourcesTest::text))
+            .expectSubscription()
+            // another caller's failure opens the breaker before the slow call's hedge is due
+            .then(() -> sources.fetchMonth(MONTH).onErrorResume(e -> Mono.empty()).block(Duration.ofSeconds(5)))
+            .then(() -> assertEquals(CircuitBreaker.State.OPEN, sources.state(0)))
+            .thenAwait(Duration.ofMillis(400))
+            .then(() -> slow.tryEmitValue("slow".getBytes(StandardCharsets.UTF_8)))
+            .expectNext("slow")
+            .verifyComplete();
+        assertEquals(2, source.calls.get());
+    }
+
+    @Test
+    void readsMonthsFromADirectoryMirror(@TempDir Path dir) throws IOException {
+        Files.writeString(dir.resolve("202403.xml"), "on disk");
+        primary.enqueue(new MockResponse().setResponseCode(500));
+        primary.enqueue(new MockResponse().setResponseCode(500));
+        FeedSources sources = new FeedSources(
+            List.of(http("treasury", primary), new FeedSource.Directory("mirror", dir)), null,
+            false, Duration.ofSeconds(1), Duration.ofSeconds(1), 3, Duration.ofMinutes(1), metrics);
+
+        StepVerifier.create(sources.fetchMonth(MONTH).map(FeedSourcesTest::text))
+            .expectNext("on disk")
+            .verifyComplete();
+        // a month the directory does not have is simply missing, the Treasury error is what surfaces
+        StepVerifier.create(sources.fetchMonth(MONTH.minusMonths(1)))
+            .expectError()
+            .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void savesFetchedMonthsAndServesThemWhenEverythingElseFails(@TempDir Path dir) throws Exception {
+        primary.enqueue(new MockResponse().setBody("fresh"));
+        FeedSources sources = new FeedSources(List.of(http("treasury", primary)),
+            new FeedSource.Directory("cache", dir), false, Duration.ofSeconds(1), Duration.ofSeconds(1), 3,
+            Duration.ofMinutes(1), metrics);
+
+        StepVerifier.create(sources.fetchMonth(MONTH).map(FeedSourcesTest::text))
+            .expectNext("fresh")
+            .verifyComplete();
+        Path saved = dir.resolve("202403.xml");
+        for (int i = 0; i < 50 && !Files.exists(saved); i++) Thread.sleep(20);
+        assertEquals("fresh", Files.readString(saved));
+
+        primary.enqueue(new MockResponse().setResponseCode(500));
+        StepVerifier.create(sources.fetchMonth(MONTH).map(FeedSourcesTest::text))
+            .expectNext("fresh")
+            .verifyComplete();
+    }
+
+    private FeedSources sources(boolean hedge, FeedSource.Directory cache) {
+        return new FeedSources(List.of(http("treasury", primary), http("mirror", mirror)), cache, hedge,
+            Duration.ofMillis(300), Duration.ofMillis(500), 3, Duration.ofMinutes(1), metrics);
+    }
+
+    /** Answers each call with the next queued reply, or never once they run out. */
+    private static final class Scripted implements FeedSource {
+        final Queue<Mono<byte[]>> replies = new ConcurrentLinkedQueue<>();
+        final AtomicInteger calls = new AtomicInteger();
+
+        @Override
+        public String name() {
+            return "scripted";
+        }
+
+        @Override
+        public Mono<byte[]> fetchMonth(YearMonth month) {
+            calls.incrementAndGet();
+            Mono<byte[]> reply = replies.poll();
+            return reply != null ? reply : Mono.never();
+        }
+    }
+
+    private FeedSource http(String name, MockWebServer server) {
+        return new FeedSource.Http(name, http, server.url("/").toString(), metrics);
+    }
+
+    private static String text(byte[] bytes) {
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.treasury.service;
+
+import com.example.treasury.domain.YieldCurve;
+import com.example.treasury.domain.YieldPoint;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InterpolatedCurveTest {
+
+    // Inverted front end, humped belly: the shape that makes naive cubic splines overshoot
+    private static final List<YieldPoint> CURVE = List.of(
+        new YieldPoint("1M", 5.50f), new YieldPoint("2M", 5.52f), new YieldPoint("3M", 5.45f),
+        new YieldPoint("6M", 5.30f), new YieldPoint("1Y", 4.95f), new YieldPoint("2Y", 4.40f),
+        new YieldPoint("3Y", 4.20f), new YieldPoint("5Y", 4.05f), new YieldPoint("7Y", 4.10f),
+        new YieldPoint("10Y", 4.15f), new YieldPoint("20Y", 4.45f), new YieldPoint("30Y", 4.30f));
+
+    @Test
+    void maturityDays_parsesTenors() {
+        assertEquals(30, InterpolatedCurve.maturityDays("1M"));
+        assertEquals(46, InterpolatedCurve.maturityDays("1.5M"));
+        assertEquals(3650, InterpolatedCurve.maturityDays("10y"));
+        assertEquals(90, InterpolatedCurve.maturityDays("90D"));
+        assertEquals(14, InterpolatedCurve.maturityDays("2W"));
+        assertEquals(-1, InterpolatedCurve.maturityDays("TEN"));
+        assertEquals(-1, InterpolatedCurve.maturityDays("0Y"));
+        assertEquals(-1, InterpolatedCurve.maturityDays(""));
+        assertEquals(-1, InterpolatedCurve.maturityDays(null));
+    }
+
+    @Test
+    void piecewiseMethods_passThroughKnots() {
+        for (Interpolation m : List.of(Interpolation.LINEAR, Interpolation.MONOTONE_CUBIC)) {
+            InterpolatedCurve c = InterpolatedCurve.fit(CURVE, m);
+            for (YieldPoint p : CURVE) {
+                assertEquals(p.getRate(), c.rateAtDays(InterpolatedCurve.maturityDays(p.getTerm())), 1e-9, m + " " + p.getTerm());
+            }
+        }
+    }
+
+    @Test
+    void fittingAYieldCurve_matchesFittingItsPoints() {
+        YieldCurve curve = YieldCurve.of(null, CURVE);
+        for (Interpolation m : Interpolation.values()) {
+            InterpolatedCurve fromPoints = InterpolatedCurve.fit(CURVE, m);
+            InterpolatedCurve fromCurve = InterpolatedCurve.fit(curve, m);
+            for (int days = 1; days <= 365 * 30; days += 97) {
+                assertEquals(fromPoints.rateAtDays(days), fromCurve.rateAtDays(days), 1e-12, m + " " + days);
+            }
+        }
+    }
+
+    @Test
+    void linear_isMidpointBetweenKnots() {
+        InterpolatedCurve c = InterpolatedCurve.fit(CURVE, Interpolation.LINEAR);
+        double mid = c.rateAt((3 + 5) / 2.0);
+        assertEquals((4.20 + 4.05) / 2, mid, 1e-6);
+    }
+
+    @Test
+    void monotoneCubic_staysWithinNeighbouringKnots() {
+        InterpolatedCurve c = InterpolatedCurve.fit(CURVE, Interpolation.MONOTONE_CUBIC);
+        List<YieldPoint> sorted = new ArrayList<>(CURVE);
+        for (int k = 0; k < sorted.size() - 1; k++) {
+            int d0 = InterpolatedCurve.maturityDays(sorted.get(k).getTerm());
+            int d1 = InterpolatedCurve.maturityDays(sorted.get(k + 1).getTerm());
+            double lo = Math.min(sorted.get(k).getRate(), sorted.get(k + 1).getRate());
+            double hi = Math.max(sorted.get(k).getRate(), sorted.get(k + 1).getRate());
+            for (int d = d0; d <= d1; d++) {
+                double r = c.rateAtDays(d);
+                assertTrue(r >= lo - 1e-9 && r <= hi + 1e-9, "overshoot at " + d + " days: " + r);
+            }
+        }
+    }
+
+    @Test
+    void extrapolatesFlat() {
+        InterpolatedCurve c = InterpolatedCurve.fit(CURVE, Interpolation.MONOTONE_CUBIC);
+        assertEquals(5.50, c.rateAtDays(7), 1e-6);
+        assertEquals(4.30, c.rateAtDays(365 * 40), 1e-6);
+    }
+
+    @Test
+    void nelsonSiegelSvensson_fitsCloselyAndIsSmooth() {
+        InterpolatedCurve c = InterpolatedCurve.fit(CURVE, Interpolation.NELSON_SIEGEL_SVENSSON);
+        assertEquals(Interpolation.NELSON_SIEGEL_SVENSSON, c.method());
+        double sse = 0;
+        for (YieldPoint p : CURVE) {
+            double diff = c.rateAtDays(InterpolatedCurve.maturityDays(p.getTerm())) - p.getRate();
+            sse += diff * diff;
+        }
+        assertTrue(Math.sqrt(sse / CURVE.size()) < 0.08, "rmse too large: " + Math.sqrt(sse / CURVE.size()));
+    }
+
+    @Test
+    void nelsonSiegelSvensson_fallsBackToLinearOnSparseCurves() {
+        InterpolatedCurve c = InterpolatedCurve.fit(CURVE.subList(0, 3), Interpolation.NELSON_SIEGEL_SVENSSON);
+        assertEquals(Interpolation.LINEAR, c.method());
+    }
+
+    @Test
+    void emptyCurve_returnsNaN() {
+        InterpolatedCurve c = InterpolatedCurve.fit(List.of(), Interpolation.MONOTONE_CUBIC);
+        assertTrue(c.isEmpty());
+        assertTrue(Double.isNaN(c.rateAtDays(365)));
+    }
+}
@@ -0,0 +1,197 @@
+package com.example.treasury.service;
+
+import com.example.treasury.config.DatabaseInit;
+import com.example.treasury.domain.LiquiditySummary;
+import com.example.treasury.domain.Order;
+import com.example.treasury.domain.TermLiquidity;
+import com.example.treasury.domain.YieldPoint;
+import com.example.treasury.repo.OrderRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.r2dbc.DataR2dbcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@DataR2dbcTest
+@Import({DatabaseInit.class, OrderIngestService.class, OrderEvents.class, LiquidityAggregates.class})
+class LiquidityAggregatesTest {
+
+    @MockBean
+    private YieldService yieldService;
+
+    @MockBean
+    private PortfolioRiskEngine riskEngine;
+
+    @Autowired
+    private LiquidityAggregates liquidity;
+
+    @Autowired
+    private OrderIngestService orderIngest;
+
+    @Autowired
+    private OrderRepository orderRepo;
+
+    @Autowired
+    private DatabaseClient client;
+
+    @Autowired
+    private DatabaseInit schema;
+
+    @BeforeEach
+    void setUp() {
+        schema.ready().block(Duration.ofSeconds(10));
+        orderRepo.deleteAll().block();
+        liquidity.rebuild().block(Duration.ofSeconds(10));
+        InterpolatedCurve curve = InterpolatedCurve.fit(
+            List.of(new YieldPoint("1Y", 4.0f), new YieldPoint("10Y", 5.0f)), Interpolation.MONOTONE_CUBIC);
+        when(yieldService.getInterpolatedCurve(any())).thenReturn(Mono.just(curve));
+    }
+
+    @Test
+    void record_concurrentWritersLoseNothing() throws Exception {
+        int threads = 8, perThread = 20_000;
+        AtomicLong ids = new AtomicLong(1_000_000);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        Instant now = Instant.now();
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < perThread; i++) {
+                    // one cent and one dollar alternately, rates 4% and 6%
+                    boolean small = (i & 1) == 0;
+                    liquidity.record(new Order(ids.incrementAndGet(), thread % 2 == 0 ? "2Y" : "10Y",
+                        small ? new BigDecimal("0.01") : BigDecimal.ONE, now, "SUBMITTED", small ? 4.0 : 6.0));
+                }
+                return null;
+            });
+        }
+        long started = System.nanoTime();
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(30, TimeUnit.SECONDS));
+        long elapsed = System.nanoTime() - started;
+
+        LiquiditySummary s = liquidity.summary(null, Duration.ofMinutes(5));
+        assertEquals((long) threads * perThread, s.getOrderCount());
+        assertEquals(s.getOrderCount(), s.getWindowOrderCount());
+        assertEquals(threads * perThread / 2 * 1.01, s.getNotional(), 1e-6);
+        assertEquals(List.of("2Y", "10Y"), s.getTerms().stream().map(TermLiquidity::getTerm).toList());
+        for (TermLiquidity t : s.getTerms()) {
+            assertEquals(threads / 2 * perThread, t.getOrderCount());
+            assertEquals((4.0 * 1 + 6.0 * 100) / 101, t.getAvgRate(), 1e-9);
+            assertEquals(t.getAvgRate(), t.getWindowAvgRate(), 1e-9);
+        }
+        System.out.printf("LiquidityAggregates: %d records on %d threads in %d ms%n",
+            threads * perThread, threads, elapsed / 1_000_000);
+    }
+
+    @Test
+    void summary_matchesDatabaseUnderConcurrentSubmits() {
+        int n = 2_000;
+        Flux.range(1, n)
+            .flatMap(i -> orderIngest.submit(i % 3 == 0 ? "10Y" : i % 3 == 1 ? "1Y" : "SOON",
+                    BigDecimal.valueOf(i, 2)).subscribeOn(Schedulers.parallel()), 256)
+            .then()
+            .block(Duration.ofSeconds(30));
+
+        Map<String, TermLiquidity> byTerm = liquidity.summary(null, Duration.ofHours(1)).getTerms().stream()
+            .collect(Collectors.toMap(TermLiquidity::getTerm, Function.identity()));
+        assertEquals(List.of("1Y", "10Y", "SOON"),
+            liquidity.summary(null, Duration.ofHours(1)).getTerms().stream().map(TermLiquidity::getTerm).toList());
+        client.sql("SELECT term, COUNT(*) AS n, SUM(amount) AS notional FROM orders GROUP BY term")
+            .map(row -> {
+                TermLiquidity t = byTerm.get(row.get("term", String.class));
+                assertEquals(row.get("n", Long.class), t.getOrderCount());
+                assertEquals(row.get("notional", BigDecimal.class).doubleValue(), t.getNotional(), 1e-6);
+                assertEquals(t.getOrderCount(), t.getWindowOrderCount());
+                return 1;
+            })
+            .all()
+            .blockLast();
+        assertEquals(5.0, byTerm.get("10Y").getAvgRate(), 1e-6);
+        assertNull(byTerm.get("SOON").getAvgRate());
+    }
+
+    @Test
+    void rebuild_restoresTotalsAndWindowFromTheTable() {
+        Instant now = Instant.now();
+        insert("2Y", "100.00", now.minus(Duration.ofMinutes(10)), 4.0);
+        insert("2Y", "300.00", now.minus(Duration.ofHours(3)), 5.0);
+        insert("2Y", "50.00", now.minus(Duration.ofDays(3)), null);
+
+        liquidity.rebuild().block(Duration.ofSeconds(10));
+        TermLiquidity t = liquidity.summary("2Y", Duration.ofHours(1)).getTerms().get(0);
+        assertEquals(3, t.getOrderCount());
+        assertEquals(450.0, t.getNotional(), 1e-9);
+        assertEquals((100 * 4.0 + 300 * 5.0) / 400, t.getAvgRate(), 1e-9);
+        assertEquals(1, t.getWindowOrderCount());
+        assertEquals(100.0, t.getWindowNotional(), 1e-9);
+        assertEquals(2, liquidity.summary("2Y", Duration.ofHours(24)).getTerms().get(0).getWindowOrderCount());
+
+        // orders that the rebuild already counted are not added twice
+        Long id = client.sql("SELECT MAX(id) AS id FROM orders").map(row -> row.get("id", Long.class)).one().block();
+        liquidity.record(new Order(id, "2Y", new BigDecimal("50.00"), now, "SUBMITTED", null));
+        assertEquals(3, liquidity.summary("2Y", Duration.ofHours(1)).getOrderCount());
+    }
+
+    @Test
+    void summary_sumsAmountsBeyondALongOfCentsExactly() {
+        // the largest amount the column takes: about 1e19 cents, more than a long holds
+        BigDecimal largest = new BigDecimal("99999999999999999.99");
+        Instant now = Instant.now();
+        insert("2Y", largest.toPlainString(), now, 4.0);
+        insert("2Y", largest.toPlainString(), now, 4.0);
+        liquidity.rebuild().block(Duration.ofSeconds(10));
+
+        Long id = client.sql("SELECT MAX(id) AS id FROM orders").map(row -> row.get("id", Long.class)).one().block();
+        for (int i = 1; i <= 3; i++) liquidity.record(new Order(id + i, "2Y", largest, now, "SUBMITTED", 6.0));
+
+        TermLiquidity t = liquidity.summary("2Y", Duration.ofHours(1)).getTerms().get(0);
+        assertEquals(5, t.getOrderCount());
+        assertEquals(largest.multiply(BigDecimal.valueOf(5)).doubleValue(), t.getNotional(), 1e3);
+        assertEquals((2 * 4.0 + 3 * 6.0) / 5, t.getAvgRate(), 1e-9);
+        assertEquals(t.getNotional(), t.getWindowNotional(), 1e3);
+    }
+
+    @Test
+    void summary_rejectsWindowsBeyondTheHorizon() {
+        assertThrows(IllegalArgumentException.class, () -> liquidity.summary(null, Duration.ofHours(25)));
+        assertThrows(IllegalArgumentException.class, () -> liquidity.summary(null, Duration.ZERO));
+    }
+
+    private void insert(String term, String amount, Instant createdAt, Double rate) {
+        DatabaseClient.GenericExecuteSpec spec = client.sql("""
+                INSERT INTO orders (term, amount, created_at, status, rate_at_submission)
+                VALUES (:term, :amount, :createdAt, 'SUBMITTED', :rate)
+                """)
+            .bind("term", term)
+            .bind("amount", new BigDecimal(amount))
+            .bind("createdAt", createdAt);
+        spec = rate != null ? spec.bind("rate", rate) : spec.bindNull("rate", Double.class);
+        spec.fetch().rowsUpdated().block();
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.treasury.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import reactor.core.publisher.Flux;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderImportTest {
+
+    @Test
+    void ndjson_linesSplitAcrossBuffers() {
+        String file = """
+            {"term":"2y","amount":1000000}
+            {"amount":"250.5","term":"10Y","note":{"desk":"A"}}
+
+            {"term":"3M","amount":5}""";
+
+        for (int chunk : new int[] {1, 7, 1024}) {
+            List<OrderImport.Row> rows = OrderImport.ndjson(chunks(file, chunk), 4096).collectList().block();
+            assertEquals(3, rows.size());
+            assertEquals(new OrderImport.Row(1, "2Y", new BigDecimal("1000000"), null), rows.get(0));
+            assertEquals(new OrderImport.Row(2, "10Y", new BigDecimal("250.5"), null), rows.get(1));
+            // the blank line still counts
+            assertEquals(new OrderImport.Row(4, "3M", new BigDecimal("5"), null), rows.get(2));
+        }
+    }
+
+    @Test
+    void ndjson_unreadableLinesBecomeErrorRows() {
+        String file = """
+            {"term":"2Y"
+            [1, 2]
+            {"term":"2Y"}
+            {"term":"2Y","amount":"lots"}
+            {"term":"2Y","amount":1}
+            """;
+
+        List<OrderImport.Row> rows = OrderImport.ndjson(chunks(file, 5), 4096).collectList().block();
+
+        assertEquals(List.of("Invalid JSON", "Expected a JSON object", "Missing amount", "Invalid amount: lots"),
+            rows.subList(0, 4).stream().map(OrderImport.Row::error).toList());
+        assertNull(rows.get(4).error());
+        assertEquals(5, rows.get(4).line());
+    }
+
+    @Test
+    void csv_headerQuotesAndCrlf() {
+        String file = "term,amount\r\n\"2Y\", 100\r\n 30y ,\"7.25\"\r\nbroken\r\n10Y,\r\n";
+
+        List<OrderImport.Row> rows = OrderImport.csv(chunks(file, 3), 4096).collectList().block();
+
+        assertEquals(4, rows.size());
+        assertEquals(new OrderImport.Row(2, "2Y", new BigDecimal("100"), null), rows.get(0));
+        assertEquals(new OrderImport.Row(3, "30Y", new BigDecimal("7.25"), null), rows.get(1));
+        assertEquals("Expected term,amount", rows.get(2).error());
+        assertEquals("Invalid amount: ", rows.get(3).error());
+    }
+
+    @Test
+    void overlongLineIsRejectedAndReadingContinues() {
+        String file = "2Y," + "1".repeat(100) + "\n3M,5\n";
+
+        for (int chunk : new int[] {4, 1024}) {
+            List<OrderImport.Row> rows = OrderImport.csv(chunks(file, chunk), 32).collectList().block();
+            assertEquals(2, rows.size());
+            assertEquals("Line longer than 32 bytes", rows.get(0).error());
+            assertEquals(new OrderImport.Row(2, "3M", new BigDecimal("5"), null), rows.get(1));
+        }
+    }
+
+    private static Flux<DataBuffer> chunks(String text, int size) {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        List<DataBuffer> buffers = new ArrayList<>();
+        for (int i = 0; i < bytes.length; i += size) {
+            byte[] part = new byte[Math.min(size, bytes.length - i)];
+            System.arraycopy(bytes, i, part, 0, part.length);
+            buffers.add(DefaultDataBufferFactory.sharedInstance.wrap(part));
+        }
+        return Flux.fromIterable(buffers);
+    }
+}
@@ -0,0 +1,276 @@
+package com.example.treasury.service;
+
+import com.example.treasury.config.DatabaseInit;
+import com.example.treasury.domain.Order;
+import com.example.treasury.domain.OrderImportError;
+import com.example.treasury.domain.OrderImportResult;
+import com.example.treasury.domain.YieldPoint;
+import com.example.treasury.repo.OrderRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.r2dbc.DataR2dbcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@DataR2dbcTest
+@Import({DatabaseInit.class, OrderIngestService.class, OrderEvents.class, LiquidityAggregates.class})
+class OrderIngestServiceTest {
+
+    @MockBean
+    private YieldService yieldService;
+
+    @MockBean
+    private PortfolioRiskEngine riskEngine;
+
+    @Autowired
+    private OrderIngestService orderIngest;
+
+    @Autowired
+    private OrderRepository orderRepo;
+
+    @Autowired
+    private DatabaseInit schema;
+
+    @Autowired
+    private OrderEvents events;
+
+    @Autowired
+    private DatabaseClient client;
+
+    @BeforeEach
+    void setUp() {
+        schema.ready().block(Duration.ofSeconds(10));
+        orderRepo.deleteAll().block();
+        ReflectionTestUtils.setField(orderIngest, "importBatchSize", 1000);
+        ReflectionTestUtils.setField(orderIngest, "importMaxErrors", 1000);
+        InterpolatedCurve curve = InterpolatedCurve.fit(
+            List.of(new YieldPoint("1Y", 4.0f), new YieldPoint("10Y", 5.0f)), Interpolation.MONOTONE_CUBIC);
+        when(yieldService.getInterpolatedCurve(any())).thenReturn(Mono.just(curve));
+    }
+
+    @Test
+    void submit_concurrentOrdersAreBatchedAndEachCallerGetsItsOwnRow() {
+        int n = 500;
+        List<Order> saved = Flux.range(1, n)
+            .flatMap(i -> orderIngest.submit(i % 2 == 0 ? "10Y" : "1Y", BigDecimal.valueOf(i))
+                .subscribeOn(Schedulers.parallel()), n)
+            .collectList()
+            .block(Duration.ofSeconds(30));
+
+        assertEquals(n, saved.size());
+        assertEquals(n, saved.stream().map(Order::getId).distinct().count());
+
+        // every caller's id points at the row holding that caller's amount and term
+        Map<Long, Order> stored = orderRepo.findAll().collectMap(Order::getId, Function.identity()).block();
+        assertEquals(n, stored.size());
+        for (Order o : saved) {
+            Order row = stored.get(o.getId());
+            assertEquals(0, o.getAmount().compareTo(row.getAmount()));
+            assertEquals(o.getTerm(), row.getTerm());
+            assertEquals(o.getTerm().equals("10Y") ? 5.0 : 4.0, row.getRateAtSubmission(), 1e-6);
+            assertEquals("SUBMITTED", row.getStatus());
+        }
+
+        // one curve snapshot per batch, not per order
+        verify(yieldService, atMost(n / 2)).getInterpolatedCurve(any());
+    }
+
+    @Test
+    void submit_burstLargerThanEveryWriterCanTakeCompletesEveryCaller() {
+        int batchSize = (int) ReflectionTestUtils.getField(orderIngest, "batchSize");
+        int maxInFlight = (int) ReflectionTestUtils.getField(orderIngest, "maxInFlight");
+        // every writer busy, several full batches waiting and a partial one left for the linger
+        int n = batchSize * maxInFlight * 3 + 29;
+
+        List<Order> saved = Flux.range(1, n)
+            .flatMap(i -> orderIngest.submit("2Y", BigDecimal.valueOf(i)), n)
+            .collectList()
+            .block(Duration.ofSeconds(10));
+
+        assertEquals(n, saved.size());
+        assertEquals(n, orderRepo.count().block());
+    }
+
+    @Test
+    void submit_orderTooWideForItsColumnsFailsAloneNotItsBatch() {
+        Map<Boolean, Long> outcome = Flux.range(1, 20)
+            .flatMap(i -> orderIngest.submit(i == 7 ? "0000000001Y" : "1Y", BigDecimal.ONE)
+                .map(o -> true).onErrorReturn(false))
+            .collect(Collectors.partitioningBy(b -> b, Collectors.counting()))
+            .block(Duration.ofSeconds(10));
+
+        assertEquals(19, outcome.get(true));
+        assertEquals(1, outcome.get(false));
+    }
+
+    @Test
+    void validationError_rejectsValuesWiderThanTheirColumns() {
+        assertNull(OrderIngestService.validationError("10Y", new BigDecimal("1000000.00")));
+        assertEquals("Unrecognized term: 0000000001Y", OrderIngestService.validationError("0000000001Y", BigDecimal.ONE));
+        assertEquals("Unrecognized term: 1.00000000Y", OrderIngestService.validationError("1.00000000Y", BigDecimal.ONE));
+        assertEquals("Amount too large: 100000000000000000000",
+            OrderIngestService.validationError("2Y", new BigDecimal("1e20")));
+        assertEquals("Amount must be > 0", OrderIngestService.validationError("2Y", BigDecimal.ZERO));
+    }
+
+    @Test
+    void submit_unknownTermHasNoRate() {
+        Order o = orderIngest.submit("SOON", BigDecimal.TEN).block(Duration.ofSeconds(10));
+        assertNotNull(o.getId());
+        assertNull(orderRepo.findById(o.getId()).block().getRateAtSubmission());
+    }
+
+    @Test
+    void submit_failedBatchErrorsEveryCaller() {
+        when(yieldService.getInterpolatedCurve(any())).thenReturn(Mono.error(new IllegalStateException("boom")));
+        Map<Boolean, Long> outcome = Flux.range(1, 10)
+            .flatMap(i -> orderIngest.submit("1Y", BigDecimal.ONE).map(o -> true).onErrorReturn(false))
+            .collect(Collectors.partitioningBy(b -> b, Collectors.counting()))
+            .block(Duration.ofSeconds(10));
+        assertEquals(10, outcome.get(false));
+    }
+
+    @Test
+    void submit_savedBatchCompletesItsCallersEvenIfTheBookkeepingFails() {
+        doThrow(new IllegalStateException("boom")).when(riskEngine).record(any());
+        Mono<List<Order>> published = events.created().take(10).collectList().cache();
+        published.subscribe();
+
+        List<Order> saved = Flux.range(1, 10)
+            .flatMap(i -> orderIngest.submit("1Y", BigDecimal.ONE))
+            .collectList()
+            .block(Duration.ofSeconds(10));
+
+        assertEquals(10, saved.size());
+        assertTrue(saved.stream().allMatch(o -> o.getId() != null));
+        assertEquals(10, orderRepo.count().block());
+        assertEquals(10, published.block(Duration.ofSeconds(10)).size());
+    }
+
+    @Test
+    void importOrders_savesValidRowsAndReportsTheRest() {
+        int n = 2500;
+        Flux<OrderImport.Row> rows = Flux.range(1, n).map(i -> i % 100 == 0
+            ? OrderImport.Row.of(i, "SOON", BigDecimal.ONE)
+            : OrderImport.Row.of(i, i % 2 == 0 ? "10Y" : "1y", BigDecimal.valueOf(i)));
+        Flux<OrderImport.Row> withUnreadable = rows.startWith(new OrderImport.Row(0, null, null, "Invalid JSON"));
+
+        OrderImportResult result = orderIngest.importOrders(withUnreadable).block(Duration.ofSeconds(30));
+
+        assertEquals(n - n / 100, result.getAccepted());
+        assertEquals(n / 100 + 1, result.getRejected());
+        assertFalse(result.isErrorsTruncated());
+        assertEquals(new OrderImportError(0, "Invalid JSON"), result.getErrors().get(0));
+        assertEquals(new OrderImportError(100, "Unrecognized term: SOON"), result.getErrors().get(1));
+        assertEquals(n - n / 100, orderRepo.count().block());
+        assertEquals(5.0, orderRepo.findAll().filter(o -> o.getTerm().equals("10Y")).blockFirst().getRateAtSubmission(), 1e-6);
+    }
+
+    @Test
+    void importOrders_listsOnlyTheFirstErrors() {
+        ReflectionTestUtils.setField(orderIngest, "importMaxErrors", 3);
+        Flux<OrderImport.Row> rows = Flux.range(1, 10).map(i -> OrderImport.Row.of(i, "2Y", BigDecimal.ZERO));
+
+        OrderImportResult result = orderIngest.importOrders(rows).block(Duration.ofSeconds(10));
+
+        assertEquals(0, result.getAccepted());
+        assertEquals(10, result.getRejected());
+        assertEquals(List.of(1L, 2L, 3L), result.getErrors().stream().map(OrderImportError::getLine).toList());
+        assertTrue(result.isErrorsTruncated());
+    }
+
+    @Test
+    void importOrders_failedBatchIsReportedAndTheImportCompletes() {
+        when(yieldService.getInterpolatedCurve(any())).thenReturn(Mono.error(new IllegalStateException("boom")));
+
+        OrderImportResult result = orderIngest.importOrders(
+            Flux.range(1, 5).map(i -> OrderImport.Row.of(i, "2Y", BigDecimal.TEN))).block(Duration.ofSeconds(10));
+
+        assertEquals(0, result.getAccepted());
+        assertEquals(5, result.getRejected());
+        assertEquals("Not saved: boom", result.getErrors().get(0).getMessage());
+        // one lookup for the batch, not one more per row
+        verify(yieldService, times(1)).getInterpolatedCurve(any());
+    }
+
+    @Test
+    void importOrders_rowTooWideForItsColumnIsTheOnlyOneRejected() {
+        Flux<OrderImport.Row> rows = Flux.range(1, 50)
+            .map(i -> OrderImport.Row.of(i, i == 20 ? "0000000001Y" : "2Y", BigDecimal.TEN));
+
+        OrderImportResult result = orderIngest.importOrders(rows).block(Duration.ofSeconds(10));
+
+        assertEquals(49, result.getAccepted());
+        assertEquals(List.of(new OrderImportError(20, "Unrecognized term: 0000000001Y")), result.getErrors());
+        assertEquals(49, orderRepo.count().block());
+    }
+
+    @Test
+    void importOrders_failedBatchIsRetriedRowByRow() {
+        // the database rejects the third row, failing the batch INSERT; the others go in one by one
+        client.sql("ALTER TABLE orders ADD CONSTRAINT no_thirteen CHECK (amount <> 13)").then().block();
+        try {
+            OrderImportResult result = orderIngest.importOrders(
+                    Flux.range(1, 5).map(i -> OrderImport.Row.of(i, "2Y", BigDecimal.valueOf(10 + i))))
+                .block(Duration.ofSeconds(10));
+
+            assertEquals(4, result.getAccepted());
+            assertEquals(1, result.getRejected());
+            assertEquals(3, result.getErrors().get(0).getLine());
+            assertEquals(4, orderRepo.count().block());
+            verify(yieldService, times(1)).getInterpolatedCurve(any());
+        } finally {
+            client.sql("ALTER TABLE orders DROP CONSTRAINT no_thirteen").then().block();
+        }
+    }
+
+    @Test
+    void importOrders_savedBatchIsNotWrittenAgainWhenTheBookkeepingFails() {
+        doThrow(new IllegalStateException("boom")).when(riskEngine).record(any());
+
+        OrderImportResult result = orderIngest.importOrders(
+            Flux.range(1, 5).map(i -> OrderImport.Row.of(i, "2Y", BigDecimal.TEN))).block(Duration.ofSeconds(10));
+
+        assertEquals(5, result.getAccepted());
+        assertEquals(0, result.getRejected());
+        assertEquals(5, orderRepo.count().block());
+    }
+
+    @Test
+    void importOrders_readsRowsOnlyAsFastAsBatchesAreWritten() {
+        ReflectionTestUtils.setField(orderIngest, "importBatchSize", 10);
+        AtomicLong requested = new AtomicLong();
+        Sinks.One<Void> release = Sinks.one();
+        when(yieldService.getInterpolatedCurve(any())).thenReturn(release.asMono().then(Mono.just(
+            InterpolatedCurve.fit(List.of(new YieldPoint("1Y", 4.0f)), Interpolation.MONOTONE_CUBIC))));
+
+        Mono<OrderImportResult> result = orderIngest.importOrders(Flux.range(1, 10_000)
+            .doOnRequest(requested::addAndGet)
+            .map(i -> OrderImport.Row.of(i, "1Y", BigDecimal.ONE))).cache();
+        result.subscribe();
+
+        // every writer slot busy: demand stays around a batch per slot plus the buffer's prefetch
+        assertTrue(requested.get() < 1_000, "requested " + requested.get());
+        release.tryEmitEmpty();
+        assertEquals(10_000, result.block(Duration.ofSeconds(60)).getAccepted());
+    }
+}
@@ -0,0 +1,226 @@
+package com.example.treasury.service;
+
+import com.example.treasury.config.DatabaseInit;
+import com.example.treasury.domain.Order;
+import com.example.treasury.domain.YieldPoint;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.r2dbc.DataR2dbcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@DataR2dbcTest(properties = {
+    "treasury.lifecycle.enabled=false",
+    "treasury.lifecycle.workers=2",
+    "treasury.lifecycle.settle-after=1h",
+    "treasury.lifecycle.claim-timeout=30s",
+    "treasury.lifecycle.max-rate-move-bps=25",
+    "treasury.lifecycle.max-amount=1000000"})
+@Import({DatabaseInit.class, OrderEvents.class, OrderLifecycleProcessor.class})
+class OrderLifecycleProcessorTest {
+
+    static final InterpolatedCurve CURVE = InterpolatedCurve.fit(
+        List.of(new YieldPoint("1Y", 4.0f), new YieldPoint("2Y", 4.2f), new YieldPoint("10Y", 4.5f)),
+        Interpolation.MONOTONE_CUBIC);
+
+    @MockBean
+    private YieldService yieldService;
+
+    @Autowired
+    private OrderLifecycleProcessor processor;
+
+    @Autowired
+    private OrderEvents events;
+
+    @Autowired
+    private DatabaseClient client;
+
+    @Autowired
+    private DatabaseInit schema;
+
+    @BeforeEach
+    void setUp() {
+        schema.ready().block(Duration.ofSeconds(10));
+        client.sql("DELETE FROM orders").fetch().rowsUpdated().block();
+        when(yieldService.getInterpolatedCurve(any())).thenReturn(Mono.just(CURVE));
+    }
+
+    @Test
+    void submitted_acceptedOrRejectedByRules() {
+        double twoYear = CURVE.rateAtDays(InterpolatedCurve.maturityDays("2Y"));
+        long ok = insert("2Y", "1000", Order.STATUS_SUBMITTED, twoYear, 0);
+        long unpriced = insert("2Y", "1000", Order.STATUS_SUBMITTED, null, 0);
+        long moved = insert("2Y", "1000", Order.STATUS_SUBMITTED, twoYear - 0.30, 0);
+        long badTerm = insert("SOON", "1000", Order.STATUS_SUBMITTED, null, 0);
+        long tooLarge = insert("2Y", "2000000", Order.STATUS_SUBMITTED, twoYear, 0);
+
+        assertEquals(5, processAll());
+
+        Map<Long, String> status = statuses();
+        assertEquals(Order.STATUS_ACCEPTED, status.get(ok));
+        assertEquals(Order.STATUS_ACCEPTED, status.get(unpriced));
+        assertEquals(Order.STATUS_REJECTED, status.get(moved));
+        assertEquals(Order.STATUS_REJECTED, status.get(badTerm));
+        assertEquals(Order.STATUS_REJECTED, status.get(tooLarge));
+        assertEquals(0, claimed());
+        assertEquals(0, processAll());
+    }
+
+    @Test
+    void accepted_settledOnceDue() {
+        long due = insert("2Y", "1000", Order.STATUS_ACCEPTED, null, 7200);
+        long recent = insert("2Y", "1000", Order.STATUS_ACCEPTED, null, 60);
+        long rejected = insert("2Y", "1000", Order.STATUS_REJECTED, null, 7200);
+
+        assertEquals(1, processAll());
+
+        Map<Long, String> status = statuses();
+        assertEquals(Order.STATUS_SETTLED, status.get(due));
+        assertEquals(Order.STATUS_ACCEPTED, status.get(recent));
+        assertEquals(Order.STATUS_REJECTED, status.get(rejected));
+    }
+
+    @Test
+    void withoutCurve_ordersStaySubmittedAndAreReleased() {
+        when(yieldService.getInterpolatedCurve(any()))
+            .thenReturn(Mono.just(InterpolatedCurve.fit(List.of(), Interpolation.MONOTONE_CUBIC)));
+        long pending = insert("2Y", "1000", Order.STATUS_SUBMITTED, null, 0);
+        long badTerm = insert("SOON", "1000", Order.STATUS_SUBMITTED, null, 0);
+
+        assertEquals(1, processAll());
+
+        Map<Long, String> status = statuses();
+        assertEquals(Order.STATUS_SUBMITTED, status.get(pending));
+        assertEquals(Order.STATUS_REJECTED, status.get(badTerm));
+        assertEquals(0, claimed());
+    }
+
+    @Test
+    void staleClaim_isRecovered_liveClaimIsLeftAlone() {
+        long stale = insert("2Y", "1000", Order.STATUS_SUBMITTED, null, 0);
+        long live = insert("2Y", "1000", Order.STATUS_SUBMITTED, null, 0);
+        claim(stale, "crashed-1", 3600);
+        claim(live, "busy-1", 1);
+
+        assertEquals(1, processAll());
+
+        Map<Long, String> status = statuses();
+        assertEquals(Order.STATUS_ACCEPTED, status.get(stale));
+        assertEquals(Order.STATUS_SUBMITTED, status.get(live));
+        Map<String, Object> row = client.sql("SELECT claim_token, attempts FROM orders WHERE id = :id")
+            .bind("id", stale).fetch().one().block();
+        assertNull(row.get("CLAIM_TOKEN"));
+        assertEquals(0, ((Number) row.get("ATTEMPTS")).intValue());
+    }
+
+    @Test
+    void shard_onlyMovesItsOwnOrders() {
+        List<Long> ids = Flux.range(0, 10)
+            .map(i -> insert("2Y", "1000", Order.STATUS_SUBMITTED, null, 0))
+            .collectList().block();
+
+        assertEquals(5, processor.processShard(0).block(Duration.ofSeconds(10)));
+
+        Map<Long, String> status = statuses();
+        for (long id : ids) {
+            assertEquals(id % 2 == 0 ? Order.STATUS_ACCEPTED : Order.STATUS_SUBMITTED, status.get(id), "order " + id);
+        }
+    }
+
+    @Test
+    void statusChanges_arePublished() {
+        long id = insert("2Y", "1000", Order.STATUS_SUBMITTED, null, 0);
+        var changes = events.statusChanged().next().toFuture();
+
+        processAll();
+
+        Order changed = changes.join();
+        assertEquals(id, changed.getId());
+        assertEquals(Order.STATUS_ACCEPTED, changed.getStatus());
+    }
+
+    @Test
+    void rowsTakenOverBeforeTheUpdateAreNeitherCountedNorPublished() {
+        for (int i = 0; i < 6; i++) insert("2Y", "1000", Order.STATUS_SUBMITTED, null, 0);
+        // between this pass's claim and its update another worker takes over two of the rows,
+        // and has already moved one of them on
+        List<Long> taken = new ArrayList<>();
+        LocalDateTime later = LocalDateTime.now().plusSeconds(1);
+        when(yieldService.getInterpolatedCurve(any())).thenReturn(
+            client.sql("SELECT id FROM orders WHERE claim_token IS NOT NULL ORDER BY id LIMIT 2")
+                .map(row -> row.get("id", Long.class)).all().collectList()
+                .doOnNext(taken::addAll)
+                .flatMap(ids -> client.sql("UPDATE orders SET claim_token = 'other-1', claimed_at = :at WHERE id = :id")
+                    .bind("at", later).bind("id", ids.get(0)).fetch().rowsUpdated()
+                    .then(client.sql("UPDATE orders SET status = 'ACCEPTED', claim_token = NULL, claimed_at = :at,"
+                            + " attempts = 0 WHERE id = :id")
+                        .bind("at", later).bind("id", ids.get(1)).fetch().rowsUpdated()))
+                .thenReturn(CURVE));
+        var published = events.statusChanged().map(Order::getId).take(Duration.ofSeconds(1)).collectList().toFuture();
+
+        assertEquals(1, processor.processShard(0).block(Duration.ofSeconds(10)));
+
+        List<Long> ids = published.join();
+        assertEquals(1, ids.size());
+        assertFalse(taken.contains(ids.get(0)));
+        assertEquals(Order.STATUS_ACCEPTED, statuses().get(ids.get(0)));
+        assertEquals(1, claimed(), "the other worker still holds its claim");
+    }
+
+    private int processAll() {
+        return processor.processShard(0).block(Duration.ofSeconds(10))
+            + processor.processShard(1).block(Duration.ofSeconds(10));
+    }
+
+    private long insert(String term, String amount, String status, Double rate, long ageSeconds) {
+        LocalDateTime created = LocalDateTime.ofInstant(Instant.now().minusSeconds(ageSeconds), ZoneId.systemDefault());
+        DatabaseClient.GenericExecuteSpec spec = client.sql("""
+                INSERT INTO orders (term, amount, created_at, status, rate_at_submission)
+                VALUES (:term, :amount, :createdAt, :status, :rate)
+                """)
+            .bind("term", term)
+            .bind("amount", new BigDecimal(amount))
+            .bind("createdAt", created)
+            .bind("status", status);
+        spec = rate != null ? spec.bind("rate", rate) : spec.bindNull("rate", Double.class);
+        return spec.filter(s -> s.returnGeneratedValues("id"))
+            .map(row -> row.get("id", Long.class))
+            .one().block();
+    }
+
+    private void claim(long id, String token, long ageSeconds) {
+        client.sql("UPDATE orders SET claim_token = :token, claimed_at = :at, attempts = 1 WHERE id = :id")
+            .bind("token", token)
+            .bind("at", LocalDateTime.ofInstant(Instant.now().minusSeconds(ageSeconds), ZoneId.systemDefault()))
+            .bind("id", id)
+            .fetch().rowsUpdated().block();
+    }
+
+    private Map<Long, String> statuses() {
+        return client.sql("SELECT id, status FROM orders")
+            .map(row -> Map.entry(row.get("id", Long.class), row.get("status", String.class)))
+            .all().collectMap(Map.Entry::getKey, Map.Entry::getValue).block();
+    }
+
+    private long claimed() {
+        return client.sql("SELECT COUNT(*) AS n FROM orders WHERE claim_token IS NOT NULL")
+            .map(row -> row.get("n", Long.class)).one().block();
+    }
+}
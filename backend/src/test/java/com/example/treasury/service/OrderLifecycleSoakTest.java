@@ -0,0 +1,144 @@
+package com.example.treasury.service;
+
+import com.example.treasury.config.DatabaseInit;
+import com.example.treasury.domain.Order;
+import com.example.treasury.domain.YieldPoint;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.r2dbc.DataR2dbcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Runs the lifecycle loops over {@code soak.orders} orders (default two million) in a
+ * file-backed H2 database until every order is settled or rejected. Some orders start with an
+ * abandoned claim, as left by a crashed worker. Excluded from {@code mvn test}; run with
+ * {@code -Psoak}.
+ */
+@Tag("soak")
+@DataR2dbcTest(properties = {
+    "treasury.lifecycle.enabled=true",
+    "treasury.lifecycle.workers=4",
+    "treasury.lifecycle.batch-size=1000",
+    "treasury.lifecycle.poll-interval=100ms",
+    "treasury.lifecycle.claim-timeout=30s",
+    "treasury.lifecycle.settle-after=0s",
+    "treasury.lifecycle.max-rate-move-bps=50"})
+@Import({DatabaseInit.class, OrderEvents.class, OrderLifecycleProcessor.class})
+class OrderLifecycleSoakTest {
+
+    static final int ORDERS = Integer.getInteger("soak.orders", 2_000_000);
+    static final Duration TIMEOUT = Duration.ofMinutes(Long.getLong("soak.minutes", 30));
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) throws IOException {
+        Path dir = Files.createTempDirectory("treasury-soak");
+        registry.add("spring.r2dbc.url", () -> "r2dbc:h2:file:///" + dir.resolve("orders").toAbsolutePath()
+            + "?options=DB_CLOSE_DELAY=-1");
+    }
+
+    @TestConfiguration
+    static class Beans {
+        @Bean
+        YieldService yieldService() {
+            List<YieldPoint> points = List.of(
+                new YieldPoint("3M", 4.0f), new YieldPoint("2Y", 4.2f), new YieldPoint("10Y", 4.5f),
+                new YieldPoint("30Y", 4.7f));
+            YieldService service = mock(YieldService.class);
+            when(service.getInterpolatedCurve(any())).thenAnswer(inv ->
+                Mono.just(InterpolatedCurve.fit(points, inv.getArgument(0))));
+            return service;
+        }
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @Autowired
+    private DatabaseClient client;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    @Autowired
+    private DatabaseInit schema;
+
+    @Test
+    void everyOrderReachesAFinalStatus() throws Exception {
+        schema.ready().block(Duration.ofSeconds(10));
+        // one in a hundred orders was priced far from the curve, one in 97 has an abandoned claim;
+        // written in one statement, as the loops are already running
+        client.sql("""
+                INSERT INTO orders (term, amount, created_at, status, rate_at_submission,
+                                    claim_token, claimed_at, attempts)
+                SELECT CASE MOD(X, 4) WHEN 0 THEN '3M' WHEN 1 THEN '2Y' WHEN 2 THEN '10Y' ELSE '30Y' END,
+                       1000 + MOD(X, 1000), :createdAt, :status,
+                       CASE WHEN MOD(X, 100) = 0 THEN 9.0 ELSE NULL END,
+                       CASE WHEN MOD(X, 97) = 0 THEN 'crashed' ELSE NULL END,
+                       CASE WHEN MOD(X, 97) = 0 THEN :claimedAt ELSE NULL END,
+                       CASE WHEN MOD(X, 97) = 0 THEN 1 ELSE 0 END
+                FROM SYSTEM_RANGE(1, :n)
+                """)
+            .bind("createdAt", LocalDateTime.now().minusMinutes(5))
+            .bind("status", Order.STATUS_SUBMITTED)
+            .bind("claimedAt", LocalDateTime.now().minusHours(1))
+            .bind("n", ORDERS)
+            .fetch().rowsUpdated().block(Duration.ofMinutes(10));
+        long abandoned = ORDERS / 97;
+        long expectedRejected = ORDERS / 100;
+
+        long started = System.nanoTime();
+        long deadline = started + TIMEOUT.toNanos();
+        while (count("status IN ('SUBMITTED', 'ACCEPTED')") > 0) {
+            assertTrue(System.nanoTime() < deadline, "Orders still pending after " + TIMEOUT);
+            Thread.sleep(1000);
+        }
+        double seconds = (System.nanoTime() - started) / 1e9;
+
+        Map<String, Long> byStatus = client.sql("SELECT status, COUNT(*) AS n FROM orders GROUP BY status")
+            .map(row -> Map.entry(row.get("status", String.class), row.get("n", Long.class)))
+            .all().collectList().block().stream()
+            .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+        assertEquals(expectedRejected, byStatus.get(Order.STATUS_REJECTED));
+        assertEquals(ORDERS - expectedRejected, byStatus.get(Order.STATUS_SETTLED));
+        assertEquals(0, count("claim_token IS NOT NULL"));
+
+        assertEquals(abandoned, registry.get("treasury.orders.lifecycle.recovered").counter().count());
+        assertEquals(ORDERS - expectedRejected, transitions(Order.STATUS_ACCEPTED));
+        assertEquals(ORDERS - expectedRejected, transitions(Order.STATUS_SETTLED));
+        System.out.printf("Soak: %d orders through check and settle in %.1f s (%.0f transitions/s)%n",
+            ORDERS, seconds, (2.0 * ORDERS - expectedRejected) / seconds);
+    }
+
+    private long count(String where) {
+        return client.sql("SELECT COUNT(*) AS n FROM orders WHERE " + where)
+            .map(row -> row.get("n", Long.class)).one().block();
+    }
+
+    private long transitions(String status) {
+        return (long) registry.get("treasury.orders.lifecycle.transitions").tag("to", status).counter().count();
+    }
+}
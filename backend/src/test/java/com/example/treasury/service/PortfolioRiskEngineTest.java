@@ -0,0 +1,133 @@
+package com.example.treasury.service;
+
+import com.example.treasury.config.DatabaseInit;
+import com.example.treasury.domain.Order;
+import com.example.treasury.domain.OrderRisk;
+import com.example.treasury.domain.PortfolioRisk;
+import com.example.treasury.domain.YieldCurve;
+import com.example.treasury.domain.YieldPoint;
+import com.example.treasury.repo.OrderRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.r2dbc.DataR2dbcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@DataR2dbcTest
+@Import({DatabaseInit.class, OrderIngestService.class, OrderEvents.class, LiquidityAggregates.class,
+    PortfolioRiskEngine.class})
+class PortfolioRiskEngineTest {
+
+    static final YieldCurve CURVE = YieldCurve.of(null, List.of(
+        new YieldPoint("1Y", 4.0), new YieldPoint("2Y", 4.2), new YieldPoint("10Y", 4.5)));
+    static final Sinks.Many<YieldCurve> UPDATES = Sinks.many().multicast().directBestEffort();
+
+    // stubbed before the context starts: the engine subscribes on ApplicationReadyEvent
+    @TestConfiguration
+    static class Curve {
+        @Bean
+        YieldService yieldService() {
+            YieldService service = mock(YieldService.class);
+            when(service.getYieldCurve()).thenReturn(Mono.just(CURVE));
+            when(service.curveUpdates()).thenReturn(UPDATES.asFlux());
+            when(service.getInterpolatedCurve(any())).thenAnswer(inv ->
+                Mono.just(InterpolatedCurve.fit(CURVE, inv.getArgument(0))));
+            return service;
+        }
+    }
+
+    @Autowired
+    private PortfolioRiskEngine engine;
+
+    @Autowired
+    private OrderIngestService orderIngest;
+
+    @Autowired
+    private OrderRepository orderRepo;
+
+    @Autowired
+    private DatabaseInit schema;
+
+    @BeforeEach
+    void setUp() throws InterruptedException {
+        schema.ready().block(Duration.ofSeconds(10));
+        // orders still on their way from an earlier test would land in this one's book
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (orderIngest.pending() > 0 && System.nanoTime() < deadline) Thread.sleep(10);
+        assertEquals(0, orderIngest.pending(), "orders from an earlier test are still being written");
+        orderRepo.deleteAll().block();
+        engine.reload().block(Duration.ofSeconds(10));
+        engine.onCurve(CURVE);
+    }
+
+    @Test
+    void portfolioRisk_isTheSumOfPerOrderRisk() {
+        List<Order> saved = Flux.range(1, 300)
+            .flatMap(i -> orderIngest.submit(i % 3 == 0 ? "10Y" : i % 3 == 1 ? "2Y" : "SOON", BigDecimal.valueOf(i * 100L)))
+            .collectList()
+            .block(Duration.ofSeconds(30));
+
+        PortfolioRisk risk = engine.portfolioRisk().block();
+        assertEquals(200, risk.getPositions());
+        assertEquals(100, risk.getUnpriced());
+
+        double pv = 0, dv01 = 0;
+        Map<Order, OrderRisk> marks = engine.markToMarket(saved);
+        for (Order o : saved) {
+            OrderRisk r = engine.markToMarket(o);
+            assertEquals(r, marks.get(o));
+            if (o.getTerm().equals("SOON")) {
+                assertNull(r);
+                continue;
+            }
+            pv += r.getMarketValue();
+            dv01 += r.getDv01();
+            // priced at the curve it was submitted at: P&L is only the roll-down since submission
+            assertEquals(0, r.getPnl(), o.getAmount().doubleValue() * 1e-4);
+        }
+        assertEquals(pv, risk.getMarketValue(), 1e-6);
+        assertEquals(dv01, risk.getDv01(), 1e-9);
+        assertEquals(risk.getDv01(), risk.getKeyRates().stream().mapToDouble(k -> k.getDv01()).sum(), 1e-9);
+    }
+
+    @Test
+    void curveUpdate_revaluesTheLoadedBook() {
+        Flux.range(1, 50).flatMap(i -> orderIngest.submit("2Y", BigDecimal.valueOf(1_000))).blockLast(Duration.ofSeconds(30));
+        engine.reload().block(Duration.ofSeconds(10));
+        PortfolioRisk before = engine.portfolioRisk().block();
+        assertEquals(50, before.getPositions());
+
+        UPDATES.tryEmitNext(YieldCurve.of(null, List.of(
+            new YieldPoint("1Y", 4.0), new YieldPoint("2Y", 4.3), new YieldPoint("10Y", 4.5))));
+        PortfolioRisk after = awaitChange(before.getMarketValue());
+        // +10bp on the 2Y: roughly 2 years of duration times 10bp
+        double expected = before.getMarketValue() * (Math.exp(-0.001 * 2) - 1);
+        assertEquals(expected, after.getMarketValue() - before.getMarketValue(), Math.abs(expected) * 0.01);
+        assertTrue(after.getPnl() < 0);
+    }
+
+    private PortfolioRisk awaitChange(double marketValue) {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (System.nanoTime() < deadline) {
+            PortfolioRisk r = engine.portfolioRisk().block();
+            if (r.getMarketValue() != marketValue) return r;
+            Thread.onSpinWait();
+        }
+        fail("curve update was not applied");
+        return null;
+    }
+}
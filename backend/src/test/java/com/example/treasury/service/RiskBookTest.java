@@ -0,0 +1,138 @@
+package com.example.treasury.service;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RiskBookTest {
+
+    private static final int DAY = 20_000;
+    private static final ForkJoinPool SERIAL = new ForkJoinPool(1);
+    private static final ForkJoinPool PARALLEL = new ForkJoinPool(4);
+
+    @AfterAll
+    static void shutdown() {
+        SERIAL.shutdown();
+        PARALLEL.shutdown();
+    }
+
+    @Test
+    void setCurve_revaluesOnlySegmentsNextToMovedTenors() {
+        double[] rates = rates();
+        RiskBook book = book(PARALLEL, DAY, 200_000, 1);
+        assertEquals(RiskBook.TENORS + 1, book.setCurve(rates));
+
+        rates[7] += 0.05; // 2Y
+        assertEquals(2, book.setCurve(rates));
+        rates[RiskBook.TENORS - 1] -= 0.05; // 30Y: its segment and the one beyond it
+        assertEquals(2, book.setCurve(rates));
+        assertEquals(0, book.setCurve(rates));
+
+        RiskBook fresh = book(PARALLEL, DAY, 200_000, 1);
+        fresh.setCurve(rates);
+        assertArrayEquals(fresh.totals(), book.totals(), 1e-3);
+    }
+
+    @Test
+    void totals_sameOnOneOrManyThreads() {
+        RiskBook serial = book(SERIAL, DAY, 300_000, 2);
+        RiskBook parallel = book(PARALLEL, DAY, 300_000, 2);
+        serial.setCurve(rates());
+        parallel.setCurve(rates());
+        double[] a = serial.totals(), b = parallel.totals();
+        for (int i = 0; i < a.length; i++) assertEquals(a[i], b[i], Math.abs(a[i]) * 1e-12);
+    }
+
+    @Test
+    void dv01AndKeyRates_matchBumpedRevaluation() {
+        double[] rates = rates();
+        RiskBook book = book(SERIAL, DAY, 20_000, 3);
+        book.setCurve(rates);
+        double[] base = book.totals();
+        double dv01 = base[2] * 1e-4;
+
+        double keyRateSum = 0;
+        for (int t = 0; t < RiskBook.TENORS; t++) {
+            double keyRate = base[3 + t] * 1e-4;
+            keyRateSum += keyRate;
+            assertEquals(keyRate, centralDifference(book, rates, t), Math.max(keyRate * 1e-5, 1e-6), "tenor " + t);
+        }
+        assertEquals(dv01, keyRateSum, dv01 * 1e-9);
+
+        assertEquals(dv01, centralDifference(book, rates, -1), dv01 * 1e-5);
+    }
+
+    /** Value lost per +1bp at tenor t (all tenors when t < 0), from +/-1bp revaluations. */
+    private static double centralDifference(RiskBook book, double[] rates, int t) {
+        double[] up = rates.clone(), down = rates.clone();
+        for (int i = 0; i < rates.length; i++) {
+            if (t >= 0 && i != t) continue;
+            up[i] += 0.01;
+            down[i] -= 0.01;
+        }
+        book.setCurve(up);
+        double pvUp = book.totals()[0];
+        book.setCurve(down);
+        double pvDown = book.totals()[0];
+        return (pvDown - pvUp) / 2;
+    }
+
+    @Test
+    void add_afterCurveIsValuedLikeTheRest() {
+        RiskBook incremental = new RiskBook(SERIAL, DAY);
+        incremental.setCurve(rates());
+        RiskBook batch = book(SERIAL, DAY, 5_000, 4);
+        batch.setCurve(rates());
+        fill(incremental, DAY, 5_000, 4);
+        assertArrayEquals(batch.totals(), incremental.totals(), 1e-3);
+    }
+
+    @Test
+    void rollTo_resegmentsForTheNewDay() {
+        RiskBook rolled = book(PARALLEL, DAY, 50_000, 5);
+        rolled.setCurve(rates());
+        rolled.rollTo(DAY + 400);
+        RiskBook fresh = book(PARALLEL, DAY + 400, 50_000, 5);
+        fresh.setCurve(rates());
+        assertEquals(fresh.size(), rolled.size());
+        assertArrayEquals(fresh.totals(), rolled.totals(), 1e-3);
+        for (int k = 0; k <= RiskBook.TENORS; k++) assertEquals(fresh.segment(k).size, rolled.segment(k).size);
+    }
+
+    @Test
+    void presentValue_interpolatesLinearlyAndFlatOutside() {
+        double[] rates = rates();
+        // between 1Y (365d) and 2Y (730d)
+        double w = (730 - 547) / 365.0;
+        double rate = w * rates[6] + (1 - w) * rates[7];
+        assertEquals(100 * Math.exp(-rate / 100 * 547 / 365), RiskBook.presentValue(100, 547, rates), 1e-9);
+        assertEquals(100 * Math.exp(-rates[0] / 100 * 10 / 365.0), RiskBook.presentValue(100, 10, rates), 1e-9);
+        assertEquals(100 * Math.exp(-rates[13] / 100 * 40), RiskBook.presentValue(100, 365 * 40, rates), 1e-9);
+        assertEquals(100, RiskBook.presentValue(100, -3, rates), 0);
+    }
+
+    private static double[] rates() {
+        double[] r = new double[RiskBook.TENORS];
+        for (int t = 0; t < r.length; t++) r[t] = 5.4 - 0.1 * t + 0.01 * t * t;
+        return r;
+    }
+
+    private static RiskBook book(ForkJoinPool pool, int day, int n, long seed) {
+        RiskBook book = new RiskBook(pool, day);
+        fill(book, DAY, n, seed);
+        return book;
+    }
+
+    /** Positions maturing from slightly in the past to 40 years out, always relative to {@link #DAY}. */
+    private static void fill(RiskBook book, int day, int n, long seed) {
+        Random random = new Random(seed);
+        for (int i = 0; i < n; i++) {
+            double cost = 1_000 + random.nextInt(1_000_000);
+            book.add(i + 1, cost * 1.05, cost, day - 30 + random.nextInt(365 * 40));
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package com.example.treasury.service;
+
+import com.example.treasury.domain.Tenor;
+import com.example.treasury.domain.YieldCurve;
+import com.example.treasury.domain.YieldPoint;
+import org.junit.jupiter.api.Test;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+import org.xml.sax.InputSource;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.xpath.XPath;
+import javax.xml.xpath.XPathConstants;
+import javax.xml.xpath.XPathFactory;
+import java.io.ByteArrayInputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Parity tests between {@link TreasuryFeedParser} and the DOM + XPath extraction it replaced.
+ */
+class TreasuryFeedParserTest {
+
+    private static final LocalDate ON_OR_BEFORE = LocalDate.of(2024, 1, 31);
+
+    @Test
+    void parity_mockServerFixture() {
+        assertParity(YieldServiceTest.createMockTreasuryXml(), ON_OR_BEFORE);
+    }
+
+    @Test
+    void parity_atomODataFeed_picksNewestEntry() {
+        String xml = atomFeed(
+            entry("NEW_DATE", "2024-01-02T00:00:00", "4.10", "N/A", "4.20"),
+            entry("NEW_DATE", "2024-01-12T00:00:00", "4.30", "4.32", "4.40"),
+            entry("NEW_DATE", "2024-01-05T00:00:00", "4.15", "4.16", "4.25"));
+        List<YieldPoint> pts = assertParity(xml, ON_OR_BEFORE);
+        assertEquals(4.30, pts.get(0).getRate());
+        assertEquals(LocalDate.of(2024, 1, 12), parse(xml, ON_OR_BEFORE).asOf());
+    }
+
+    @Test
+    void parity_skipsEntriesAfterCutoff() {
+        String xml = atomFeed(
+            entry("NEW_DATE", "2024-01-10T00:00:00", "4.00", "4.01", "4.02"),
+            entry("NEW_DATE", "2024-02-01T00:00:00", "9.00", "9.01", "9.02"));
+        List<YieldPoint> pts = assertParity(xml, ON_OR_BEFORE);
+        assertEquals(4.00, pts.get(0).getRate());
+    }
+
+    @Test
+    void parity_alternateDateFields() {
+        assertParity(atomFeed(entry("CMTDATE", "2024-01-03", "4.50", "4.60", "4.70")), ON_OR_BEFORE);
+        assertParity(atomFeed(entry("DATE", " 2024-01-04T00:00:00 ", "4.51", "4.61", "4.71")), ON_OR_BEFORE);
+    }
+
+    @Test
+    void parity_notAvailableValues() {
+        String xml = atomFeed(
+            entry("NEW_DATE", "2024-01-08T00:00:00", "4.00", "4.01", "4.02"),
+            entry("NEW_DATE", "2024-01-09T00:00:00", "N/A", "n/a", ""));
+        // BC_30YEARDISPLAY still counts as a value, so the newer all-N/A day wins with no mapped tenors
+        assertTrue(assertParity(xml, ON_OR_BEFORE).isEmpty());
+    }
+
+    @Test
+    void parity_missingOrBadDate() {
+        assertParity(atomFeed(entry("NEW_DATE", "", "4.00", "4.01", "4.02")), ON_OR_BEFORE);
+        assertParity(atomFeed(entry("NEW_DATE", "not-a-date", "4.00", "4.01", "4.02")), ON_OR_BEFORE);
+    }
+
+    @Test
+    void parity_emptyAndMalformedDocuments() {
+        assertTrue(parse("<feed/>", ON_OR_BEFORE).isEmpty());
+        assertTrue(parse("<feed><entry>", ON_OR_BEFORE).isEmpty());
+        assertTrue(parse("not xml", ON_OR_BEFORE).isEmpty());
+    }
+
+    @Test
+    void rejectsDoctype() {
+        String xxe = """
+            <?xml version="1.0"?>
+            <!DOCTYPE feed [<!ENTITY x SYSTEM "file:///etc/passwd">]>
+            <feed><entry><NEW_DATE>2024-01-02</NEW_DATE><BC_1MONTH>&x;</BC_1MONTH></entry></feed>
+            """;
+        assertTrue(parse(xxe, ON_OR_BEFORE).isEmpty());
+    }
+
+    @Test
+    void parity_fullMonthFeed() {
+        StringBuilder entries = new StringBuilder();
+        for (int day = 1; day <= 31; day++) {
+            String rate = String.format("%.2f", 4 + day / 100.0);
+            entries.append(entry("NEW_DATE", String.format("2024-01-%02dT00:00:00", day), rate, rate, rate));
+        }
+        List<YieldPoint> pts = assertParity(atomFeed(entries.toString()), LocalDate.of(2024, 1, 20));
+        assertEquals(4.20, pts.get(0).getRate());
+    }
+
+    private static List<YieldPoint> assertParity(String xml, LocalDate onOrBefore) {
+        Map<String, Double> expected = domExtract(xml, onOrBefore);
+        List<YieldPoint> actual = parse(xml, onOrBefore).points();
+        Map<String, Double> actualMap = new HashMap<>();
+        for (YieldPoint p : actual) actualMap.put(p.getTerm(), p.getRate());
+        assertEquals(expected, actualMap);
+
+        // Output must already be in canonical tenor order
+        List<Integer> idx = new ArrayList<>();
+        for (YieldPoint p : actual) idx.add(Tenor.of(p.getTerm()).ordinal());
+        assertEquals(idx.stream().sorted().toList(), idx);
+        return actual;
+    }
+
+    private static YieldCurve parse(String xml, LocalDate onOrBefore) {
+        return TreasuryFeedParser.parseLatest(
+            new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)), onOrBefore);
+    }
+
+    private static String atomFeed(String... entries) {
+        return """
+            <?xml version="1.0" encoding="utf-8" standalone="yes"?>
+            <feed xml:base="https://home.treasury.gov/" xmlns="http://www.w3.org/2005/Atom"
+                  xmlns:d="http://schemas.microsoft.com/ado/2007/08/dataservices"
+                  xmlns:m="http://schemas.microsoft.com/ado/2007/08/dataservices/metadata">
+              <title type="text">DailyTreasuryYieldCurveRateData</title>
+            """ + String.join("", entries) + "</feed>";
+    }
+
+    private static String entry(String dateField, String date, String m1, String m2, String y10) {
+        return """
+              <entry>
+                <id>https://home.treasury.gov/x</id>
+                <content type="application/xml">
+                  <m:properties>
+                    <d:Id m:type="Edm.Int32">1</d:Id>
+                    <d:%1$s m:type="Edm.DateTime">%2$s</d:%1$s>
+                    <d:BC_1MONTH m:type="Edm.Double">%3$s</d:BC_1MONTH>
+                    <d:BC_2MONTH m:type="Edm.Double">%4$s</d:BC_2MONTH>
+                    <d:BC_10YEAR m:type="Edm.Double">%5$s</d:BC_10YEAR>
+                    <d:BC_30YEARDISPLAY m:type="Edm.Double">0</d:BC_30YEARDISPLAY>
+                  </m:properties>
+                </content>
+              </entry>
+            """.formatted(dateField, date, m1, m2, y10);
+    }
+
+    /** The DOM + XPath extraction previously used by YieldService, kept as the parity oracle. */
+    private static Map<String, Double> domExtract(String xml, LocalDate onOrBefore) {
+        Map<String, String> fieldToLabel = new HashMap<>();
+        for (int i = 0; i < TreasuryFeedParser.FIELDS.length; i++) {
+            fieldToLabel.put(TreasuryFeedParser.FIELDS[i], Tenor.at(i).label());
+        }
+        try {
+            DocumentBuilderFactory dbf = DocumentBuilderFactory.newInstance();
+            dbf.setNamespaceAware(true);
+            dbf.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+            Document doc = dbf.newDocumentBuilder().parse(new InputSource(new StringReader(xml)));
+            XPath xp = XPathFactory.newInstance().newXPath();
+            NodeList entries = (NodeList) xp.evaluate("//*[local-name()='entry']", doc, XPathConstants.NODESET);
+
+            LocalDate bestDate = null;
+            Map<String, Double> best = null;
+            for (int i = 0; i < entries.getLength(); i++) {
+                Node entry = entries.item(i);
+                String dateStr = (String) xp.evaluate(
+                    "string(.//*[local-name()='NEW_DATE' or local-name()='CMTDATE' or local-name()='DATE'])",
+                    entry, XPathConstants.STRING);
+                if (dateStr == null || dateStr.isBlank()) continue;
+                LocalDate d;
+                try {
+                    d = LocalDate.parse(dateStr.split("T")[0].trim());
+                } catch (Exception ex) {
+                    continue;
+                }
+                if (d.isAfter(onOrBefore)) continue;
+
+                NodeList bcNodes = (NodeList) xp.evaluate(".//*[starts-with(local-name(),'BC_')]",
+                    entry, XPathConstants.NODESET);
+                Map<String, Double> map = new HashMap<>();
+                for (int j = 0; j < bcNodes.getLength(); j++) {
+                    Element el = (Element) bcNodes.item(j);
+                    String text = el.getTextContent() != null ? el.getTextContent().trim() : "";
+                    if (text.isEmpty() || "N/A".equalsIgnoreCase(text)) continue;
+                    try {
+                        map.put(el.getLocalName(), Double.parseDouble(text));
+                    } catch (NumberFormatException ignored) {}
+                }
+                if (!map.isEmpty() && (bestDate == null || d.isAfter(bestDate))) {
+                    bestDate = d;
+                    best = map;
+                }
+            }
+
+            Map<String, Double> out = new HashMap<>();
+            if (best == null) return out;
+            for (var e : fieldToLabel.entrySet()) {
+                Double v = best.get(e.getKey());
+                if (v != null) out.put(e.getValue(), v);
+            }
+            return out;
+        } catch (Exception e) {
+            return new HashMap<>();
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.treasury.service;
+
+import com.example.treasury.domain.Tenor;
+import com.example.treasury.domain.YieldCurveSnapshot;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class YieldHistoryStoreTest {
+
+    private static final int[] ONE_MONTH_AND_TEN_YEAR = {
+        Tenor.M1.ordinal(), Tenor.Y10.ordinal()
+    };
+
+    @Test
+    void appendsAndQueriesRange() {
+        YieldHistoryStore store = new YieldHistoryStore();
+        store.ingest(rows(LocalDate.of(2024, 1, 2), LocalDate.of(2024, 1, 3), LocalDate.of(2024, 1, 4)));
+        store.ingest(rows(LocalDate.of(2024, 1, 5)));
+
+        List<YieldCurveSnapshot> range = store.range(LocalDate.of(2024, 1, 3), LocalDate.of(2024, 1, 5), ONE_MONTH_AND_TEN_YEAR);
+        assertEquals(List.of("2024-01-03", "2024-01-04", "2024-01-05"), range.stream().map(YieldCurveSnapshot::getDate).toList());
+        assertEquals("10Y", range.get(0).getPoints().get(1).getTerm());
+        assertEquals(rateFor(LocalDate.of(2024, 1, 4)), range.get(1).getPoints().get(0).getRate(), 1e-6);
+        assertEquals(LocalDate.of(2024, 1, 5), store.lastDate());
+    }
+
+    @Test
+    void backfillMergesOlderDaysAndReplacesDuplicates() {
+        YieldHistoryStore store = new YieldHistoryStore();
+        store.ingest(rows(LocalDate.of(2024, 2, 1), LocalDate.of(2024, 2, 2)));
+
+        TreeMap<Integer, double[]> older = rows(LocalDate.of(2024, 1, 30), LocalDate.of(2024, 2, 1));
+        Arrays.fill(older.get((int) LocalDate.of(2024, 2, 1).toEpochDay()), 9.99);
+        store.ingest(older);
+
+        assertEquals(3, store.size());
+        List<YieldCurveSnapshot> all = store.range(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 12, 31), ONE_MONTH_AND_TEN_YEAR);
+        assertEquals(List.of("2024-01-30", "2024-02-01", "2024-02-02"), all.stream().map(YieldCurveSnapshot::getDate).toList());
+        assertEquals(9.99, all.get(1).getPoints().get(0).getRate());
+    }
+
+    @Test
+    void onOrBeforeFallsBackToPreviousBusinessDay() {
+        YieldHistoryStore store = new YieldHistoryStore();
+        assertNull(store.onOrBefore(LocalDate.of(2024, 1, 6), ONE_MONTH_AND_TEN_YEAR));
+
+        store.ingest(rows(LocalDate.of(2024, 1, 4), LocalDate.of(2024, 1, 5)));
+        // Saturday -> Friday
+        assertEquals("2024-01-05", store.onOrBefore(LocalDate.of(2024, 1, 6), ONE_MONTH_AND_TEN_YEAR).getDate());
+        assertNull(store.onOrBefore(LocalDate.of(2024, 1, 3), ONE_MONTH_AND_TEN_YEAR));
+    }
+
+    @Test
+    void skipsMissingTenors() {
+        YieldHistoryStore store = new YieldHistoryStore();
+        TreeMap<Integer, double[]> r = rows(LocalDate.of(2024, 1, 2));
+        r.firstEntry().getValue()[Tenor.Y10.ordinal()] = Double.NaN;
+        store.ingest(r);
+
+        YieldCurveSnapshot s = store.onOrBefore(LocalDate.of(2024, 1, 2), ONE_MONTH_AND_TEN_YEAR);
+        assertEquals(1, s.getPoints().size());
+        assertEquals("1M", s.getPoints().get(0).getTerm());
+    }
+
+    private static TreeMap<Integer, double[]> rows(LocalDate... dates) {
+        TreeMap<Integer, double[]> rows = new TreeMap<>();
+        for (LocalDate d : dates) {
+            double[] v = new double[TreasuryFeedParser.FIELDS.length];
+            Arrays.fill(v, rateFor(d));
+            rows.put((int) d.toEpochDay(), v);
+        }
+        return rows;
+    }
+
+    private static double rateFor(LocalDate d) {
+        return 4 + d.getDayOfMonth() / 100.0;
+    }
+}
@@ -1,20 +1,30 @@
 package com.example.treasury.service;
 
+import com.example.treasury.domain.CurveStatus;
+import com.example.treasury.domain.Tenor;
+import com.example.treasury.domain.YieldCurve;
 import com.example.treasury.domain.YieldPoint;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import okhttp3.mockwebserver.MockResponse;
 import okhttp3.mockwebserver.MockWebServer;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 import reactor.test.StepVerifier;
 
 import java.io.IOException;
+import java.nio.file.Path;
 import java.time.Duration;
 import java.time.Instant;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -53,7 +63,7 @@ class YieldServiceTest {
             .setResponseCode(200));
 
         // When - first call
-        Mono<List<YieldPoint>> firstCall = yieldService.getYieldCurve();
+        Mono<YieldCurve> firstCall = yieldService.getYieldCurve();
         
         // Then - verify first call
         StepVerifier.create(firstCall)
@@ -64,7 +74,7 @@ class YieldServiceTest {
             .verifyComplete();
 
         // When - second call (should use cache, no new HTTP request)
-        Mono<List<YieldPoint>> secondCall = yieldService.getYieldCurve();
+        Mono<YieldCurve> secondCall = yieldService.getYieldCurve();
         
         // Then - verify second call returns cached data
         StepVerifier.create(secondCall)
@@ -94,9 +104,12 @@ class YieldServiceTest {
                 assertFalse(yieldPoints.isEmpty());
                 
                 // Verify some basic properties
-                YieldPoint firstPoint = yieldPoints.get(0);
+                YieldPoint firstPoint = yieldPoints.points().get(0);
                 assertNotNull(firstPoint.getTerm());
                 assertTrue(firstPoint.getRate() > 0);
+                assertEquals(LocalDate.of(2024, 1, 15), yieldPoints.asOf());
+                assertEquals(5.15, yieldPoints.rate(Tenor.Y10));
+                assertTrue(Double.isNaN(yieldPoints.rate(Tenor.M4)));
             })
             .verifyComplete();
     }
@@ -155,7 +168,263 @@ class YieldServiceTest {
             .verifyComplete();
     }
 
-    private String createMockTreasuryXml() {
+    @Test
+    void testGetYieldCurve_RefreshThatThrowsStillReleasesCallers(@TempDir Path dir) {
+        CurveSnapshotStore failing = new CurveSnapshotStore(dir.resolve("curve-snapshot.bin")) {
+            @Override
+            void saveCurve(YieldCurve curve, Instant fetchedAt) {
+                throw new IllegalStateException("disk full");
+            }
+        };
+        ReflectionTestUtils.setField(yieldService, "snapshots", failing);
+        mockWebServer.enqueue(new MockResponse().setBody(createMockTreasuryXml()).setResponseCode(200));
+        mockWebServer.enqueue(new MockResponse().setBody(createMockTreasuryXml()).setResponseCode(200));
+
+        StepVerifier.create(yieldService.getYieldCurve())
+            .assertNext(curve -> assertFalse(curve.isEmpty()))
+            .expectComplete()
+            .verify(Duration.ofSeconds(5));
+
+        // the next refresh is not left waiting on the first one
+        ReflectionTestUtils.setField(yieldService, "lastFetch", Instant.now().minus(Duration.ofHours(7)));
+        StepVerifier.create(yieldService.getYieldCurve())
+            .assertNext(curve -> assertFalse(curve.isEmpty()))
+            .expectComplete()
+            .verify(Duration.ofSeconds(5));
+        assertEquals(2, mockWebServer.getRequestCount());
+    }
+
+    @Test
+    void testGetYieldCurve_SingleFlight() {
+        // Given - a slow upstream so every caller arrives while the refresh is in flight
+        mockWebServer.enqueue(new MockResponse()
+            .setBody(createMockTreasuryXml())
+            .setBodyDelay(300, TimeUnit.MILLISECONDS)
+            .setResponseCode(200));
+
+        // When - thousands of simultaneous callers on a cold cache
+        int callers = 5000;
+        Mono<List<YieldCurve>> all = Flux.range(0, callers)
+            .flatMap(i -> Mono.defer(yieldService::getYieldCurve).subscribeOn(Schedulers.parallel()), callers)
+            .collectList();
+
+        // Then - all of them get the curve from exactly one upstream request
+        StepVerifier.create(all)
+            .assertNext(results -> {
+                assertEquals(callers, results.size());
+                results.forEach(r -> assertFalse(r.isEmpty()));
+            })
+            .expectComplete()
+            .verify(Duration.ofSeconds(30));
+        assertEquals(1, mockWebServer.getRequestCount());
+    }
+
+    @Test
+    void testGetYieldCurve_StaleWhileRevalidate() throws InterruptedException {
+        // Given - a stale (past soft TTL, within hard TTL) cached curve
+        YieldCurve stale = YieldCurve.of(null, List.of(new YieldPoint("1M", 1.0)));
+        ReflectionTestUtils.setField(yieldService, "cache", stale);
+        ReflectionTestUtils.setField(yieldService, "lastFetch", Instant.now().minus(Duration.ofHours(1)));
+        mockWebServer.enqueue(new MockResponse()
+            .setBody(createMockTreasuryXml())
+            .setBodyDelay(200, TimeUnit.MILLISECONDS)
+            .setResponseCode(200));
+
+        // When & Then - the stale curve is served immediately
+        StepVerifier.create(yieldService.getYieldCurve())
+            .expectNext(stale)
+            .verifyComplete();
+
+        // and a single background refresh replaces it
+        assertNotNull(mockWebServer.takeRequest(5, TimeUnit.SECONDS));
+        StepVerifier.create(Mono.defer(yieldService::getYieldCurve)
+                .filter(curve -> curve != stale)
+                .repeatWhenEmpty(20, f -> f.delayElements(Duration.ofMillis(100))))
+            .assertNext(curve -> assertTrue(curve.size() > 1))
+            .verifyComplete();
+        assertEquals(1, mockWebServer.getRequestCount());
+    }
+
+    @Test
+    void testGetYieldCurve_ErrorBackoff() {
+        // Given - upstream failing
+        mockWebServer.enqueue(new MockResponse().setResponseCode(500));
+        mockWebServer.enqueue(new MockResponse().setResponseCode(500));
+
+        StepVerifier.create(yieldService.getYieldCurve())
+            .assertNext(yieldPoints -> assertTrue(yieldPoints.isEmpty()))
+            .verifyComplete();
+
+        // When - called again inside the backoff window
+        StepVerifier.create(yieldService.getYieldCurve())
+            .assertNext(yieldPoints -> assertTrue(yieldPoints.isEmpty()))
+            .verifyComplete();
+
+        // Then - no new upstream attempt was made
+        assertEquals(1, mockWebServer.getRequestCount());
+    }
+
+    @Test
+    void testGetYieldCurve_Metrics() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        yieldService.bindMetrics(registry);
+        mockWebServer.enqueue(new MockResponse().setBody(createMockTreasuryXml()).setResponseCode(200));
+
+        StepVerifier.create(yieldService.getYieldCurve()).expectNextCount(1).verifyComplete();
+        StepVerifier.create(yieldService.getYieldCurve()).expectNextCount(1).verifyComplete();
+
+        assertEquals(1, registry.get("treasury.curve.requests").tag("result", "miss").counter().count());
+        assertEquals(1, registry.get("treasury.curve.requests").tag("result", "hit").counter().count());
+        assertEquals(1, registry.get("treasury.curve.refresh").tag("outcome", "success").counter().count());
+        assertEquals(1, registry.get("treasury.fetch").tag("status", "200").timer().count());
+        assertTrue(registry.get("treasury.fetch.bytes").summary().totalAmount() > 0);
+        assertEquals(1, registry.get("treasury.parse.entries").summary().totalAmount());
+        assertEquals(0, registry.get("treasury.curve.refresh.failures").gauge().value());
+    }
+
+    @Test
+    void testGetYieldCurve_MetricsOnUpstreamError() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        yieldService.bindMetrics(registry);
+        mockWebServer.enqueue(new MockResponse().setResponseCode(500));
+
+        StepVerifier.create(yieldService.getYieldCurve()).expectNextCount(1).verifyComplete();
+
+        assertEquals(1, registry.get("treasury.fetch").tag("status", "500").timer().count());
+        assertEquals(1, registry.get("treasury.curve.refresh").tag("outcome", "failure").counter().count());
+        assertEquals(1, registry.get("treasury.curve.refresh.failures").gauge().value());
+        assertTrue(registry.get("treasury.curve.backoff.remaining").gauge().value() > 0);
+    }
+
+    @Test
+    void testGetYieldCurve_WarmStartFromSnapshot(@TempDir Path dir) {
+        // Given - a snapshot written by an earlier run
+        Path file = dir.resolve("snap.bin");
+        CurveSnapshotStore previousRun = new CurveSnapshotStore(file);
+        previousRun.saveCurve(YieldCurve.of(LocalDate.now(),
+            List.of(new YieldPoint("1M", 5.5), new YieldPoint("10Y", 4.3))), Instant.now());
+        previousRun.flush();
+
+        // When - a new service starts with it
+        yieldService.bindSnapshots(new CurveSnapshotStore(file));
+
+        // Then - the first request is served without touching the upstream
+        StepVerifier.create(yieldService.getYieldCurve())
+            .assertNext(curve -> assertEquals(2, curve.size()))
+            .verifyComplete();
+        assertEquals(0, mockWebServer.getRequestCount());
+        assertEquals(CurveStatus.SOURCE_SNAPSHOT, yieldService.status().getSource());
+        assertFalse(yieldService.status().isStale());
+    }
+
+    @Test
+    void testGetYieldCurve_ServesLastKnownCurveWhenUpstreamFails(@TempDir Path dir) {
+        // Given - an old snapshot and a failing upstream
+        Path file = dir.resolve("snap.bin");
+        CurveSnapshotStore previousRun = new CurveSnapshotStore(file);
+        previousRun.saveCurve(YieldCurve.of(LocalDate.now().minusDays(3), List.of(new YieldPoint("10Y", 4.3))),
+            Instant.now().minus(Duration.ofDays(3)));
+        previousRun.flush();
+        yieldService.bindSnapshots(new CurveSnapshotStore(file));
+        mockWebServer.enqueue(new MockResponse().setResponseCode(500));
+
+        // Then - the stale curve is served and marked as such
+        StepVerifier.create(yieldService.getYieldCurve())
+            .assertNext(curve -> assertEquals(List.of(new YieldPoint("10Y", 4.3)), curve.points()))
+            .verifyComplete();
+        assertEquals(1, mockWebServer.getRequestCount());
+        CurveStatus status = yieldService.status();
+        assertTrue(status.isStale());
+        assertTrue(status.getAgeSeconds() >= Duration.ofDays(3).getSeconds());
+    }
+
+    @Test
+    void testGetYieldCurve_PersistsRefreshedCurve(@TempDir Path dir) {
+        Path file = dir.resolve("snap.bin");
+        CurveSnapshotStore store = new CurveSnapshotStore(file);
+        yieldService.bindSnapshots(store);
+        mockWebServer.enqueue(new MockResponse().setBody(createMockTreasuryXml()).setResponseCode(200));
+
+        StepVerifier.create(yieldService.getYieldCurve()).expectNextCount(1).verifyComplete();
+        store.flush();
+
+        CurveSnapshotFile.Snapshot saved = CurveSnapshotFile.read(file);
+        assertNotNull(saved);
+        assertEquals(12, saved.curve().size());
+        assertEquals(LocalDate.of(2024, 1, 15), saved.curve().asOf());
+    }
+
+    @Test
+    void testGetYieldCurve_Offline() {
+        ReflectionTestUtils.setField(yieldService, "offline", true);
+
+        StepVerifier.create(yieldService.getYieldCurve())
+            .assertNext(curve -> assertTrue(curve.isEmpty()))
+            .verifyComplete();
+        assertEquals(0, mockWebServer.getRequestCount());
+        assertTrue(yieldService.status().isOffline());
+        assertEquals(CurveStatus.SOURCE_NONE, yieldService.status().getSource());
+    }
+
+    @Test
+    void testPrime_FetchesTheCurveBeforeTheFirstRequest() throws InterruptedException {
+        mockWebServer.enqueue(new MockResponse().setBody(createMockTreasuryXml()).setResponseCode(200));
+
+        yieldService.prime();
+
+        // the fetch starts without any caller; the first request joins or hits it
+        assertNotNull(mockWebServer.takeRequest(5, TimeUnit.SECONDS));
+        StepVerifier.create(yieldService.getYieldCurve())
+            .assertNext(curve -> assertEquals(12, curve.size()))
+            .verifyComplete();
+        assertEquals(1, mockWebServer.getRequestCount());
+    }
+
+    @Test
+    void testPrime_Offline() {
+        ReflectionTestUtils.setField(yieldService, "offline", true);
+
+        yieldService.prime();
+
+        assertEquals(0, mockWebServer.getRequestCount());
+        assertEquals(CurveStatus.SOURCE_NONE, yieldService.status().getSource());
+    }
+
+    @Test
+    void testHttpClient_BuiltOnFirstUse() {
+        YieldService fresh = new YieldService();
+        assertNull(ReflectionTestUtils.getField(fresh, "http"));
+
+        fresh.warmup().block(Duration.ofSeconds(10));
+
+        assertNotNull(ReflectionTestUtils.getField(fresh, "http"));
+    }
+
+    @Test
+    void testGetYieldCurve_VersionFollowsContent() {
+        mockWebServer.enqueue(new MockResponse().setBody(createMockTreasuryXml()).setResponseCode(200));
+        mockWebServer.enqueue(new MockResponse().setBody(createMockTreasuryXml()).setResponseCode(200));
+        mockWebServer.enqueue(new MockResponse()
+            .setBody(createMockTreasuryXml().replace("5.15", "5.20"))
+            .setResponseCode(200));
+        assertNull(yieldService.curveVersion());
+
+        String first = yieldService.getCurveVersion().block();
+        assertNotNull(first);
+        assertEquals(first, yieldService.curveVersion());
+        assertEquals(first, yieldService.status().getVersion());
+
+        // the same curve fetched again keeps its version
+        ReflectionTestUtils.setField(yieldService, "lastFetch", Instant.now().minus(Duration.ofHours(7)));
+        assertEquals(first, yieldService.getCurveVersion().block());
+
+        ReflectionTestUtils.setField(yieldService, "lastFetch", Instant.now().minus(Duration.ofHours(7)));
+        String changed = yieldService.getCurveVersion().block();
+        assertNotEquals(first, changed);
+        assertEquals(changed, yieldService.status().getVersion());
+    }
+
+    static String createMockTreasuryXml() {
         return """
             <?xml version="1.0" encoding="UTF-8"?>
             <feed xmlns="http://www.w3.org/2005/Atom">
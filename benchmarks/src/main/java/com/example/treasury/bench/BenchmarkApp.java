@@ -0,0 +1,107 @@
+package com.example.treasury.bench;
+
+import com.example.treasury.Application;
+import com.example.treasury.config.DatabaseInit;
+import com.example.treasury.service.Feeds;
+import com.example.treasury.service.YieldService;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Boots the application without a web server for benchmarks that go through Spring beans, or
+ * with one on a random port (unless {@code --server.port} names one) for benchmarks and load tests
+ * that go through HTTP.
+ *
+ * Each context gets its own in-memory database unless the arguments name one
+ * ({@code --spring.r2dbc.url}), and is returned once the schema is migrated. The history back-fill,
+ * order lifecycle processing and startup priming ({@code treasury.startup.*}) are off unless the
+ * arguments turn them on, and R2DBC logging is quiet. Contexts from {@link #start} and
+ * {@link #startServer} also have a primed cache that never expires and no snapshot file, so
+ * nothing reaches the network or the disk.
+ */
+public final class BenchmarkApp {
+
+  private static final String[] PRIMED = {
+      "--treasury.snapshot.path=",
+      "--treasury.curve.soft-ttl=3650d",
+      "--treasury.curve.hard-ttl=3650d"};
+
+  private BenchmarkApp() {}
+
+  /** Boots with a curve already cached; {@code extraArgs} are further {@code --key=value} overrides. */
+  public static ConfigurableApplicationContext start(String... extraArgs) {
+    return prime(boot(concat(PRIMED, extraArgs)));
+  }
+
+  /** As {@link #start}, with the HTTP server listening on {@code local.server.port}. */
+  public static ConfigurableApplicationContext startServer(String... extraArgs) {
+    return prime(run("reactive", concat(concat(PRIMED, new String[] {"--server.port=0"}), extraArgs)));
+  }
+
+  /** Boots with an empty cache, exactly as configured by {@code extraArgs}. */
+  public static ConfigurableApplicationContext boot(String... extraArgs) {
+    return run("none", extraArgs);
+  }
+
+  /** As {@link #boot}, with the HTTP server listening on {@code local.server.port}. */
+  public static ConfigurableApplicationContext serve(String... extraArgs) {
+    return run("reactive", extraArgs);
+  }
+
+  private static ConfigurableApplicationContext prime(ConfigurableApplicationContext ctx) {
+    Feeds.prime(ctx.getBean(YieldService.class), Feeds.curve());
+    return ctx;
+  }
+
+  private static ConfigurableApplicationContext run(String webApplicationType, String[] extraArgs) {
+    String[] args = {
+        "--spring.main.web-application-type=" + webApplicationType,
+        "--spring.main.banner-mode=off",
+        "--logging.level.root=WARN",
+        "--logging.level.org.springframework.r2dbc=WARN",
+        "--logging.level.io.r2dbc.h2=WARN"};
+    // Defaults a benchmark may override; a property given twice would be read as a list
+    String[] defaults = {
+        "--spring.r2dbc.url=r2dbc:h2:mem:///bench-" + UUID.randomUUID() + "?options=DB_CLOSE_DELAY=-1",
+        "--server.port=0",
+        "--treasury.history.enabled=false",
+        "--treasury.lifecycle.enabled=false",
+        "--treasury.startup.prime-curve=false",
+        "--treasury.startup.warm-http-client=false"};
+    for (String d : defaults) {
+      String key = d.substring(0, d.indexOf('=') + 1);
+      if (Arrays.stream(extraArgs).noneMatch(a -> a.startsWith(key))) args = concat(args, new String[] {d});
+    }
+    ConfigurableApplicationContext ctx = new SpringApplication(Application.class).run(concat(args, extraArgs));
+    ctx.getBean(DatabaseInit.class).ready().block();
+    return ctx;
+  }
+
+  private static String[] concat(String[] a, String[] b) {
+    String[] all = Arrays.copyOf(a, a.length + b.length);
+    System.arraycopy(b, 0, all, a.length, b.length);
+    return all;
+  }
+
+  /**
+   * Inserts {@code rows} orders one second apart, starting 2024-01-01, with ids 1..rows
+   * on an empty table; terms cycle through 3M, 2Y, 10Y and 30Y.
+   */
+  public static void seedOrders(DatabaseClient db, int rows) {
+    db.sql("""
+        INSERT INTO orders (term, amount, created_at, status, rate_at_submission)
+        SELECT CASE MOD(X, 4) WHEN 0 THEN '3M' WHEN 1 THEN '2Y' WHEN 2 THEN '10Y' ELSE '30Y' END,
+               1000000 + MOD(X, 1000),
+               DATEADD('SECOND', X, TIMESTAMP '2024-01-01 00:00:00'),
+               'SUBMITTED',
+               4.25
+        FROM SYSTEM_RANGE(1, :rows)
+        """)
+        .bind("rows", rows)
+        .fetch().rowsUpdated().block();
+  }
+}
@@ -0,0 +1,45 @@
+package com.example.treasury.bench;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.List;
+
+/**
+ * JMH entry point with the project's defaults: the GC profiler is always on (allocation per op
+ * is reported next to the score) and results go to {@code jmh-result.json} unless
+ * {@code -rf}/{@code -rff} say otherwise. All other JMH options work as usual.
+ *
+ * <pre>
+ *   java -jar benchmarks/target/benchmarks.jar                      # everything
+ *   java -jar benchmarks/target/benchmarks.jar CurveBenchmark -rff jmh-after.json
+ *   java -jar benchmarks/target/benchmarks.jar -l                   # list benchmarks
+ * </pre>
+ *
+ * Compare two result files with {@link CompareResults}.
+ */
+public final class BenchmarkMain {
+
+  private BenchmarkMain() {}
+
+  public static void main(String[] args) throws Exception {
+    CommandLineOptions cmd = new CommandLineOptions(args);
+    if (cmd.shouldHelp() || cmd.shouldList() || cmd.shouldListWithParams()
+        || cmd.shouldListProfilers() || cmd.shouldListResultFormats()) {
+      org.openjdk.jmh.Main.main(args);
+      return;
+    }
+
+    ChainedOptionsBuilder opts = new OptionsBuilder().parent(cmd);
+    if (cmd.getProfilers().stream().noneMatch(p -> List.of("gc", GCProfiler.class.getName()).contains(p.getKlass()))) {
+      opts.addProfiler(GCProfiler.class);
+    }
+    if (!cmd.getResultFormat().hasValue()) opts.resultFormat(ResultFormatType.JSON);
+    if (!cmd.getResult().hasValue()) opts.result("jmh-result.json");
+    new Runner(opts.build()).run();
+  }
+}
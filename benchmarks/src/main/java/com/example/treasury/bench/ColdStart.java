@@ -0,0 +1,143 @@
+package com.example.treasury.bench;
+
+import com.example.treasury.service.Feeds;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Starts the application jar in a fresh JVM several times and reports time to ready and time to
+ * the first non-empty {@code yieldCurve}, which is where AOT processing and a CDS archive show.
+ *
+ * <pre>
+ *   java -cp benchmarks/target/benchmarks.jar com.example.treasury.bench.ColdStart \
+ *       RUNS JAR [JVM_ARGS...]
+ * </pre>
+ *
+ * e.g. {@code 10 backend/target/treasury-liquidity-backend-0.1.0-exec.jar -XX:SharedArchiveFile=app.jsa}.
+ * Times run from process launch to a {@code UP} readiness probe and to the first curve over
+ * {@code /graphql}. The Treasury is a {@link TreasuryStub} answering after 300 ms, each run starts
+ * in an empty working directory (no feed cache, no snapshot), and a run's {@code app.log} is kept
+ * when it fails.
+ */
+public final class ColdStart {
+
+  private static final int UPSTREAM_LATENCY_MS = 300;
+  private static final Duration TIMEOUT = Duration.ofSeconds(60);
+  private static final String YIELD_CURVE = "{\"query\":\"{ yieldCurve { term rate } }\"}";
+
+  private ColdStart() {}
+
+  record Run(long readyMs, long firstCurveMs) {}
+
+  public static void main(String[] args) throws Exception {
+    if (args.length < 2) {
+      System.err.println("usage: ColdStart RUNS JAR [JVM_ARGS...]");
+      System.exit(2);
+    }
+    int runs = Integer.parseInt(args[0]);
+    Path jar = Path.of(args[1]).toAbsolutePath();
+    List<String> jvmArgs = Arrays.asList(args).subList(2, args.length);
+
+    HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+    List<Run> results = new ArrayList<>(runs);
+    try (TreasuryStub treasury = new TreasuryStub(Feeds.xml(22), UPSTREAM_LATENCY_MS)) {
+      for (int i = 0; i < runs; i++) {
+        Run run = run(http, jar, jvmArgs, treasury.baseUrl());
+        System.out.printf("run %2d: ready %5d ms, first curve %5d ms%n", i + 1, run.readyMs(), run.firstCurveMs());
+        results.add(run);
+      }
+    }
+    report("ready", results.stream().mapToLong(Run::readyMs).sorted().toArray());
+    report("first curve", results.stream().mapToLong(Run::firstCurveMs).sorted().toArray());
+  }
+
+  private static Run run(HttpClient http, Path jar, List<String> jvmArgs, String baseUrl)
+      throws IOException, InterruptedException {
+    Path dir = Files.createTempDirectory("cold-start");
+    Path log = dir.resolve("app.log");
+    int port = freePort();
+    List<String> command = new ArrayList<>();
+    command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+    command.addAll(jvmArgs);
+    command.addAll(List.of("-jar", jar.toString(),
+        "--server.port=" + port,
+        "--treasury.feed.base-url=" + baseUrl,
+        "--treasury.feed.cache-dir=",
+        "--treasury.snapshot.path=",
+        "--treasury.history.enabled=false",
+        "--management.endpoint.health.probes.enabled=true",
+        "--logging.level.root=WARN"));
+
+    long started = System.nanoTime();
+    Process app = new ProcessBuilder(command).directory(dir.toFile())
+        .redirectErrorStream(true).redirectOutput(log.toFile()).start();
+    boolean ok = false;
+    try {
+      String base = "http://127.0.0.1:" + port;
+      await(app, http, HttpRequest.newBuilder(URI.create(base + "/actuator/health/readiness")).GET().build(), "\"UP\"");
+      long ready = elapsedMs(started);
+      await(app, http, HttpRequest.newBuilder(URI.create(base + "/graphql"))
+          .header("Content-Type", "application/json")
+          .POST(HttpRequest.BodyPublishers.ofString(YIELD_CURVE)).build(), "\"term\"");
+      long firstCurve = elapsedMs(started);
+      ok = true;
+      return new Run(ready, firstCurve);
+    } finally {
+      app.destroy();
+      if (!app.waitFor(10, TimeUnit.SECONDS)) app.destroyForcibly().waitFor();
+      if (ok) delete(dir);
+      else System.err.println("run failed, log kept at " + log);
+    }
+  }
+
+  /** Repeats the request until the body contains {@code expected}. */
+  private static void await(Process app, HttpClient http, HttpRequest request, String expected)
+      throws IOException, InterruptedException {
+    long deadline = System.nanoTime() + TIMEOUT.toNanos();
+    while (System.nanoTime() < deadline) {
+      if (!app.isAlive()) throw new IllegalStateException("application exited with " + app.exitValue());
+      try {
+        HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() == 200 && response.body().contains(expected)) return;
+      } catch (IOException notListeningYet) {
+        // fall through and poll again
+      }
+      Thread.sleep(5);
+    }
+    throw new IllegalStateException("no " + expected + " from " + request.uri() + " within " + TIMEOUT);
+  }
+
+  private static void report(String name, long[] sortedMs) {
+    System.out.printf("%-12s min %5d ms, median %5d ms, max %5d ms%n", name,
+        sortedMs[0], sortedMs[sortedMs.length / 2], sortedMs[sortedMs.length - 1]);
+  }
+
+  private static long elapsedMs(long startedNanos) {
+    return (System.nanoTime() - startedNanos) / 1_000_000;
+  }
+
+  private static int freePort() throws IOException {
+    try (ServerSocket socket = new ServerSocket(0)) {
+      return socket.getLocalPort();
+    }
+  }
+
+  private static void delete(Path dir) throws IOException {
+    try (var files = Files.walk(dir)) {
+      for (Path p : files.sorted(Comparator.reverseOrder()).toList()) Files.delete(p);
+    }
+  }
+}
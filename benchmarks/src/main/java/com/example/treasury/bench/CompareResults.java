@@ -0,0 +1,87 @@
+package com.example.treasury.bench;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Diffs two JMH JSON result files, e.g. from the parent commit and the working tree.
+ *
+ * <pre>
+ *   java -cp benchmarks/target/benchmarks.jar com.example.treasury.bench.CompareResults \
+ *       jmh-before.json jmh-after.json [threshold-percent]
+ * </pre>
+ *
+ * Prints score and allocation per op for every benchmark/params present in both files and exits
+ * with status 1 when any score got worse by more than the threshold (default 10%). Whether
+ * higher is better follows the benchmark mode: throughput up, time per op down.
+ */
+public final class CompareResults {
+
+  private static final String ALLOC_NORM = "gc.alloc.rate.norm";
+
+  private CompareResults() {}
+
+  record Result(String mode, double score, double error, String unit, double allocPerOp) {}
+
+  public static void main(String[] args) throws IOException {
+    if (args.length < 2) {
+      System.err.println("usage: CompareResults <before.json> <after.json> [threshold-percent]");
+      System.exit(2);
+    }
+    double threshold = args.length > 2 ? Double.parseDouble(args[2]) : 10.0;
+    Map<String, Result> before = read(new File(args[0]));
+    Map<String, Result> after = read(new File(args[1]));
+
+    int regressions = 0;
+    System.out.printf("%-70s %14s %14s %9s %12s %12s%n", "benchmark", "before", "after", "change", "B/op before", "B/op after");
+    for (Map.Entry<String, Result> e : after.entrySet()) {
+      Result a = e.getValue();
+      Result b = before.get(e.getKey());
+      if (b == null) {
+        System.out.printf("%-70s %14s %14.3f %9s %12s %12.0f%n", e.getKey(), "-", a.score(), "new", "-", a.allocPerOp());
+        continue;
+      }
+      double change = (a.score() - b.score()) / b.score() * 100;
+      boolean worse = a.mode().equals("thrpt") ? change < -threshold : change > threshold;
+      // Changes inside the combined error bars are noise
+      if (worse && Math.abs(a.score() - b.score()) <= a.error() + b.error()) worse = false;
+      if (worse) regressions++;
+      System.out.printf("%-70s %14.3f %14.3f %+8.1f%% %12.0f %12.0f %s%n", e.getKey(), b.score(), a.score(), change,
+          b.allocPerOp(), a.allocPerOp(), worse ? "REGRESSION" : "");
+    }
+    for (String key : before.keySet()) {
+      if (!after.containsKey(key)) System.out.printf("%-70s removed%n", key);
+    }
+    if (regressions > 0) {
+      System.out.printf("%d regression(s) over %.1f%%%n", regressions, threshold);
+      System.exit(1);
+    }
+  }
+
+  static Map<String, Result> read(File file) throws IOException {
+    Map<String, Result> out = new LinkedHashMap<>();
+    for (JsonNode run : new ObjectMapper().readTree(file)) {
+      StringBuilder key = new StringBuilder(run.path("benchmark").asText());
+      Iterator<Map.Entry<String, JsonNode>> params = run.path("params").fields();
+      while (params.hasNext()) {
+        Map.Entry<String, JsonNode> p = params.next();
+        key.append(' ').append(p.getKey()).append('=').append(p.getValue().asText());
+      }
+      JsonNode primary = run.path("primaryMetric");
+      JsonNode alloc = run.path("secondaryMetrics").path(ALLOC_NORM);
+      out.put(key.toString(), new Result(
+          run.path("mode").asText(),
+          primary.path("score").asDouble(),
+          primary.path("scoreError").asDouble(0),
+          primary.path("scoreUnit").asText(),
+          alloc.isMissingNode() ? Double.NaN : alloc.path("score").asDouble()));
+    }
+    return out;
+  }
+}
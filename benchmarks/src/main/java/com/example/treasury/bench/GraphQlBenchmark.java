@@ -0,0 +1,86 @@
+package com.example.treasury.bench;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.graphql.ExecutionGraphQlResponse;
+import org.springframework.graphql.ExecutionGraphQlService;
+import org.springframework.graphql.support.DefaultExecutionGraphQlRequest;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end query execution through {@link ExecutionGraphQlService}: document parsing and
+ * validation, data fetchers, R2DBC for orders, and conversion to the response map.
+ * No HTTP transport is involved. {@code observed=false} switches off the GraphQL and R2DBC
+ * observations to show what instrumentation costs per request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GraphQlBenchmark {
+
+  private static final String YIELD_CURVE = "{ yieldCurve { term rate } }";
+  private static final String ORDERS = """
+      query($term: String) {
+        orders(first: 50, term: $term) {
+          edges { cursor node { id term amount createdAt status rateAtSubmission } }
+          pageInfo { hasNextPage endCursor }
+        }
+      }
+      """;
+
+  @Param({"10000"})
+  public int rows;
+
+  @Param({"true", "false"})
+  public boolean observed;
+
+  private ConfigurableApplicationContext ctx;
+  private ExecutionGraphQlService graphQl;
+
+  @Setup
+  public void setUp() {
+    ctx = BenchmarkApp.start(
+        "--management.observations.enable.graphql=" + observed,
+        "--management.observations.enable.r2dbc=" + observed);
+    BenchmarkApp.seedOrders(ctx.getBean(DatabaseClient.class), rows);
+    graphQl = ctx.getBean(ExecutionGraphQlService.class);
+    check(yieldCurve());
+    check(orders());
+  }
+
+  @TearDown
+  public void tearDown() {
+    ctx.close();
+  }
+
+  @Benchmark
+  public Map<String, Object> yieldCurve() {
+    return execute(YIELD_CURVE, null);
+  }
+
+  @Benchmark
+  public Map<String, Object> orders() {
+    return execute(ORDERS, null);
+  }
+
+  @Benchmark
+  public Map<String, Object> ordersByTerm() {
+    return execute(ORDERS, Map.of("term", "10Y"));
+  }
+
+  private Map<String, Object> execute(String document, Map<String, Object> variables) {
+    ExecutionGraphQlResponse response = graphQl.execute(
+        new DefaultExecutionGraphQlRequest(document, null, variables, null, "bench", null)).block();
+    return response.toMap();
+  }
+
+  private static void check(Map<String, Object> result) {
+    if (result.containsKey("errors")) throw new IllegalStateException("Query failed: " + result.get("errors"));
+  }
+}
@@ -0,0 +1,92 @@
+package com.example.treasury.bench;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code yieldCurve} latency over HTTP while 16 clients send {@code createOrder} as fast as they
+ * can, with admission control on and off. Sampled, so the report has the read percentiles
+ * ({@code flood:read} p0.99 against {@code quiet}); {@code flood:write} includes fast rejections.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MutationFloodBenchmark {
+
+  private static final Map<String, Object> READ = Map.of("query", "{ yieldCurve { term rate } }");
+  private static final Map<String, Object> WRITE = Map.of("query",
+      "mutation { createOrder(input: {term: \"2Y\", amount: 1000000}) { id } }");
+
+  @Param({"true", "false"})
+  public boolean admission;
+
+  private ConfigurableApplicationContext ctx;
+  private WebClient http;
+  private DatabaseClient db;
+
+  /** Each writer thread is its own client, as far as the per-client buckets are concerned. */
+  @State(Scope.Thread)
+  public static class Client {
+    final String id = UUID.randomUUID().toString();
+  }
+
+  @Setup
+  public void setUp() {
+    ctx = BenchmarkApp.startServer("--treasury.graphql.admission.enabled=" + admission,
+        "--treasury.graphql.admission.trust-client-id=true");
+    http = WebClient.create("http://127.0.0.1:" + ctx.getEnvironment().getProperty("local.server.port"));
+    db = ctx.getBean(DatabaseClient.class);
+    String body = new String(post(READ, null), StandardCharsets.UTF_8);
+    if (body.contains("\"errors\"")) throw new IllegalStateException("Query failed: " + body);
+  }
+
+  @TearDown(Level.Iteration)
+  public void truncate() {
+    db.sql("TRUNCATE TABLE orders").fetch().rowsUpdated().block();
+  }
+
+  @TearDown
+  public void tearDown() {
+    ctx.close();
+  }
+
+  @Benchmark
+  @Threads(2)
+  public byte[] quiet() {
+    return post(READ, null);
+  }
+
+  @Benchmark
+  @Group("flood")
+  @GroupThreads(2)
+  public byte[] read() {
+    return post(READ, null);
+  }
+
+  @Benchmark
+  @Group("flood")
+  @GroupThreads(16)
+  public byte[] write(Client client) {
+    return post(WRITE, client.id);
+  }
+
+  private byte[] post(Map<String, Object> body, String clientId) {
+    return http.post().uri("/graphql").contentType(MediaType.APPLICATION_JSON)
+        .headers(h -> {
+          if (clientId != null) h.set("X-Client-Id", clientId);
+        })
+        .bodyValue(body)
+        .retrieve().bodyToMono(byte[].class).block();
+  }
+}
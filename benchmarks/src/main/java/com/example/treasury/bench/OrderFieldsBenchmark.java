@@ -0,0 +1,125 @@
+package com.example.treasury.bench;
+
+import com.example.treasury.domain.Order;
+import com.example.treasury.service.InterpolatedCurve;
+import com.example.treasury.service.Interpolation;
+import com.example.treasury.service.YieldService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.graphql.ExecutionGraphQlService;
+import org.springframework.graphql.data.method.annotation.SchemaMapping;
+import org.springframework.graphql.support.DefaultExecutionGraphQlRequest;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Controller;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A single {@code orders} page of {@code rows} orders with the computed fields (currentRate,
+ * rateChangeBps, ageSeconds): the batch resolvers of GraphQLApi against per-row resolvers that
+ * look the curve up once per field and order, as a plain {@code @SchemaMapping} would.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrderFieldsBenchmark {
+
+  private static final String PLAIN = page("id term rateAtSubmission");
+  private static final String BATCHED = page("id term rateAtSubmission currentRate rateChangeBps ageSeconds");
+  private static final String PER_FIELD =
+      page("id term rateAtSubmission currentRatePerField rateChangeBpsPerField ageSecondsPerField");
+
+  @Param({"10000"})
+  public int rows;
+
+  private ConfigurableApplicationContext ctx;
+  private ExecutionGraphQlService graphQl;
+  private Map<String, Object> variables;
+
+  /** Resolves the per-field variants declared in graphql/bench.graphqls, one curve lookup per call. */
+  @Controller
+  public static class PerField {
+    private final YieldService yieldService;
+
+    public PerField(YieldService yieldService) {
+      this.yieldService = yieldService;
+    }
+
+    @SchemaMapping(typeName = "Order")
+    public Mono<Double> currentRatePerField(Order order) {
+      return rate(order);
+    }
+
+    @SchemaMapping(typeName = "Order")
+    public Mono<Double> rateChangeBpsPerField(Order order) {
+      return rate(order).map(now -> (now - order.getRateAtSubmission()) * 100);
+    }
+
+    @SchemaMapping(typeName = "Order")
+    public long ageSecondsPerField(Order order) {
+      return Instant.now().getEpochSecond() - order.getCreatedAt().getEpochSecond();
+    }
+
+    private Mono<Double> rate(Order order) {
+      int days = InterpolatedCurve.maturityDays(order.getTerm());
+      return yieldService.getInterpolatedCurve(Interpolation.MONOTONE_CUBIC)
+          .filter(curve -> days > 0 && !curve.isEmpty())
+          .map(curve -> curve.rateAtDays(days));
+    }
+  }
+
+  @Setup
+  public void setUp() {
+    ctx = BenchmarkApp.start("--treasury.graphql.max-page-size=" + rows);
+    BenchmarkApp.seedOrders(ctx.getBean(DatabaseClient.class), rows);
+    graphQl = ctx.getBean(ExecutionGraphQlService.class);
+    variables = Map.of("first", rows);
+    check(plain());
+    check(batched());
+    check(perField());
+  }
+
+  @TearDown
+  public void tearDown() {
+    ctx.close();
+  }
+
+  @Benchmark
+  public Map<String, Object> plain() {
+    return execute(PLAIN);
+  }
+
+  @Benchmark
+  public Map<String, Object> batched() {
+    return execute(BATCHED);
+  }
+
+  @Benchmark
+  public Map<String, Object> perField() {
+    return execute(PER_FIELD);
+  }
+
+  private Map<String, Object> execute(String document) {
+    return graphQl.execute(new DefaultExecutionGraphQlRequest(document, null, variables, null, "bench", null))
+        .block()
+        .toMap();
+  }
+
+  private static String page(String fields) {
+    return "query($first: Int) { orders(first: $first) { edges { node { " + fields + " } } } }";
+  }
+
+  @SuppressWarnings("unchecked")
+  private void check(Map<String, Object> result) {
+    if (result.containsKey("errors")) throw new IllegalStateException("Query failed: " + result.get("errors"));
+    Map<String, Object> orders = (Map<String, Object>) ((Map<String, Object>) result.get("data")).get("orders");
+    int edges = ((java.util.List<?>) orders.get("edges")).size();
+    if (edges != rows) throw new IllegalStateException("Expected " + rows + " rows, got " + edges);
+  }
+}
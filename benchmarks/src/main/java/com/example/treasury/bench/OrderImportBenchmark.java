@@ -0,0 +1,89 @@
+package com.example.treasury.bench;
+
+import com.example.treasury.domain.OrderImportResult;
+import com.example.treasury.service.OrderImport;
+import com.example.treasury.service.OrderIngestService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Importing a file of {@value #ROWS} orders through {@link OrderIngestService#importOrders}, from
+ * 64 KB buffers as the HTTP endpoint receives them, as NDJSON and as CSV. Scores are orders per
+ * second.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrderImportBenchmark {
+
+  static final int ROWS = 100_000;
+  private static final int CHUNK = 64 * 1024;
+  private static final String[] TERMS = {"3M", "2Y", "10Y", "30Y"};
+
+  private ConfigurableApplicationContext ctx;
+  private OrderIngestService ingest;
+  private DatabaseClient db;
+  private byte[] ndjson;
+  private byte[] csv;
+
+  @Setup
+  public void setUp() {
+    ctx = BenchmarkApp.start();
+    ingest = ctx.getBean(OrderIngestService.class);
+    db = ctx.getBean(DatabaseClient.class);
+    StringBuilder json = new StringBuilder(ROWS * 40);
+    StringBuilder text = new StringBuilder(ROWS * 16).append("term,amount\n");
+    for (int i = 0; i < ROWS; i++) {
+      String term = TERMS[i % TERMS.length];
+      int amount = 1_000_000 + i % 1000;
+      json.append("{\"term\":\"").append(term).append("\",\"amount\":").append(amount).append("}\n");
+      text.append(term).append(',').append(amount).append('\n');
+    }
+    ndjson = json.toString().getBytes(StandardCharsets.UTF_8);
+    csv = text.toString().getBytes(StandardCharsets.UTF_8);
+    check(importNdjson());
+  }
+
+  @TearDown(Level.Iteration)
+  public void truncate() {
+    db.sql("TRUNCATE TABLE orders").fetch().rowsUpdated().block();
+  }
+
+  @TearDown
+  public void tearDown() {
+    ctx.close();
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(ROWS)
+  public OrderImportResult importNdjson() {
+    return ingest.importOrders(OrderImport.ndjson(chunks(ndjson), 4096)).block();
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(ROWS)
+  public OrderImportResult importCsv() {
+    return ingest.importOrders(OrderImport.csv(chunks(csv), 4096)).block();
+  }
+
+  private static Flux<DataBuffer> chunks(byte[] file) {
+    return Flux.range(0, (file.length + CHUNK - 1) / CHUNK)
+        .map(i -> DefaultDataBufferFactory.sharedInstance.wrap(
+            ByteBuffer.wrap(file, i * CHUNK, Math.min(CHUNK, file.length - i * CHUNK)).slice()));
+  }
+
+  private void check(OrderImportResult result) {
+    if (result.getAccepted() != ROWS) throw new IllegalStateException("Import failed: " + result);
+  }
+}
@@ -0,0 +1,79 @@
+package com.example.treasury.bench;
+
+import com.example.treasury.domain.Order;
+import com.example.treasury.repo.OrderCursor;
+import com.example.treasury.repo.OrderRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Listing orders newest first: keyset pages from the start, from the middle of the table and
+ * filtered by term, against loading the whole table and sorting it in memory.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class OrderReadBenchmark {
+
+  private static final int PAGE = 50;
+  private static final Instant SEED_START = Instant.parse("2024-01-01T00:00:00Z");
+
+  @Param({"10000", "1000000"})
+  public int rows;
+
+  private ConfigurableApplicationContext ctx;
+  private OrderRepository orders;
+  private OrderCursor middle;
+
+  @Setup
+  public void setUp() {
+    ctx = BenchmarkApp.start();
+    BenchmarkApp.seedOrders(ctx.getBean(DatabaseClient.class), rows);
+    orders = ctx.getBean(OrderRepository.class);
+    Order mid = orders.findById((long) rows / 2).block();
+    middle = OrderCursor.of(mid);
+  }
+
+  @TearDown
+  public void tearDown() {
+    ctx.close();
+  }
+
+  @Benchmark
+  public List<Order> firstPage() {
+    return orders.findPage(null, null, null, null, null, PAGE + 1).collectList().block();
+  }
+
+  @Benchmark
+  public List<Order> middlePage() {
+    return orders.findPage(null, null, null, null, middle, PAGE + 1).collectList().block();
+  }
+
+  @Benchmark
+  public List<Order> termPage() {
+    return orders.findPage("10Y", null, null, null, null, PAGE + 1).collectList().block();
+  }
+
+  @Benchmark
+  public List<Order> timeWindowPage() {
+    Instant to = SEED_START.plusSeconds(rows / 2);
+    return orders.findPage(null, null, to.minusSeconds(3600), to, null, PAGE + 1).collectList().block();
+  }
+
+  @Benchmark
+  public List<Order> findAllSorted() {
+    return orders.findAll()
+        .sort(Comparator.comparing(Order::getCreatedAt).reversed())
+        .take(PAGE + 1)
+        .collectList().block();
+  }
+}
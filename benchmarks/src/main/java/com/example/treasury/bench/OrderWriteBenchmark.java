@@ -0,0 +1,75 @@
+package com.example.treasury.bench;
+
+import com.example.treasury.domain.Order;
+import com.example.treasury.repo.OrderRepository;
+import com.example.treasury.service.OrderIngestService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writing a burst of {@value #BURST} orders: one repository save at a time, concurrent saves,
+ * and the micro-batched {@link OrderIngestService}. Scores are per order.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrderWriteBenchmark {
+
+  static final int BURST = 64;
+  private static final BigDecimal AMOUNT = new BigDecimal("1000000.00");
+
+  private ConfigurableApplicationContext ctx;
+  private OrderRepository orders;
+  private OrderIngestService ingest;
+  private DatabaseClient db;
+
+  @Setup
+  public void setUp() {
+    ctx = BenchmarkApp.start();
+    orders = ctx.getBean(OrderRepository.class);
+    ingest = ctx.getBean(OrderIngestService.class);
+    db = ctx.getBean(DatabaseClient.class);
+  }
+
+  @TearDown(Level.Iteration)
+  public void truncate() {
+    // Keep the table (and its indexes) from growing across iterations
+    db.sql("TRUNCATE TABLE orders").fetch().rowsUpdated().block();
+  }
+
+  @TearDown
+  public void tearDown() {
+    ctx.close();
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(BURST)
+  public void saveSequential() {
+    for (int i = 0; i < BURST; i++) orders.save(newOrder()).block();
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(BURST)
+  public void saveConcurrent() {
+    Flux.range(0, BURST).flatMap(i -> orders.save(newOrder())).then().block();
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(BURST)
+  public void submitBatched() {
+    Flux.range(0, BURST).flatMap(i -> ingest.submit("10Y", AMOUNT)).then().block();
+  }
+
+  private static Order newOrder() {
+    return new Order(null, "10Y", AMOUNT, Instant.now(), "SUBMITTED", 4.25);
+  }
+}
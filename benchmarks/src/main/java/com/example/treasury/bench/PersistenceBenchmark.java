@@ -0,0 +1,98 @@
+package com.example.treasury.bench;
+
+import com.example.treasury.domain.Order;
+import com.example.treasury.repo.OrderRepository;
+import com.example.treasury.service.OrderIngestService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mixed order load on the in-memory database and on the durable profile's file-backed one, at
+ * several pool sizes: writers submit through the micro-batched {@link OrderIngestService} while
+ * readers page the newest orders and the submitted ones, on a table seeded with {@value #SEED}
+ * rows. Sampled, so the report has percentiles for each side ({@code mixed:write} p0.99 against
+ * {@code mixed:newestPage}); the pool is fixed at {@code poolSize} connections.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class PersistenceBenchmark {
+
+  static final int SEED = 100_000;
+  private static final int PAGE = 50;
+  private static final String[] TERMS = {"3M", "2Y", "10Y", "30Y"};
+  private static final BigDecimal AMOUNT = new BigDecimal("1000000.00");
+
+  @Param({"mem", "file"})
+  public String storage;
+
+  @Param({"4", "16", "32"})
+  public int poolSize;
+
+  private Path dir;
+  private ConfigurableApplicationContext ctx;
+  private OrderIngestService ingest;
+  private OrderRepository orders;
+
+  @Setup
+  public void setUp() throws IOException {
+    List<String> args = new ArrayList<>(List.of(
+        "--spring.r2dbc.pool.initial-size=" + poolSize,
+        "--spring.r2dbc.pool.max-size=" + poolSize));
+    if (storage.equals("file")) {
+      dir = Files.createTempDirectory("persistence-bench");
+      args.add("--spring.profiles.active=durable");
+      args.add("--spring.r2dbc.url=r2dbc:h2:file:///" + dir.resolve("orders").toAbsolutePath()
+          + "?options=DB_CLOSE_ON_EXIT=FALSE;WRITE_DELAY=100");
+    }
+    ctx = BenchmarkApp.start(args.toArray(String[]::new));
+    BenchmarkApp.seedOrders(ctx.getBean(DatabaseClient.class), SEED);
+    ingest = ctx.getBean(OrderIngestService.class);
+    orders = ctx.getBean(OrderRepository.class);
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    ctx.close();
+    if (dir != null) {
+      try (var files = Files.walk(dir)) {
+        for (Path p : files.sorted(Comparator.reverseOrder()).toList()) Files.delete(p);
+      }
+    }
+  }
+
+  @Benchmark
+  @Group("mixed")
+  @GroupThreads(4)
+  public Order write() {
+    return ingest.submit(TERMS[ThreadLocalRandom.current().nextInt(TERMS.length)], AMOUNT).block();
+  }
+
+  @Benchmark
+  @Group("mixed")
+  @GroupThreads(2)
+  public List<Order> newestPage() {
+    return orders.findPage(null, null, null, null, null, PAGE + 1).collectList().block();
+  }
+
+  @Benchmark
+  @Group("mixed")
+  @GroupThreads(2)
+  public List<Order> submittedPage() {
+    return orders.findPage(null, Order.STATUS_SUBMITTED, null, null, null, PAGE + 1).collectList().block();
+  }
+}
@@ -0,0 +1,103 @@
+package com.example.treasury.bench;
+
+import com.example.treasury.service.Feeds;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.graphql.ExecutionGraphQlResponse;
+import org.springframework.graphql.ExecutionGraphQlService;
+import org.springframework.graphql.support.DefaultExecutionGraphQlRequest;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time from {@code SpringApplication.run} until the application is ready (started, schema
+ * migrated) and until the first non-empty {@code yieldCurve} answer, with and without a curve
+ * snapshot left behind by a previous run, and with startup priming ({@code treasury.startup.*})
+ * on and off.
+ *
+ * The Treasury is replaced by a {@link TreasuryStub} that answers every month request after
+ * {@code upstreamLatencyMs}, standing in for the real round trip. Boots repeat in one JVM, so this
+ * measures the application's own startup work; class loading, which AOT processing and a CDS
+ * archive cut, only shows in fresh JVMs (see {@link ColdStart}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 10)
+@Fork(1)
+public class StartupBenchmark {
+
+  private static final String YIELD_CURVE = "{ yieldCurve { term rate } }";
+
+  @Param({"false", "true"})
+  public boolean snapshot;
+
+  @Param({"false", "true"})
+  public boolean prime;
+
+  @Param({"300"})
+  public int upstreamLatencyMs;
+
+  private TreasuryStub treasury;
+  private Path dir;
+  private String[] args;
+  private ConfigurableApplicationContext ctx;
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    treasury = new TreasuryStub(Feeds.xml(22), upstreamLatencyMs);
+    dir = Files.createTempDirectory("startup-bench");
+    Path file = dir.resolve("curve-snapshot.bin");
+    args = new String[] {
+        "--treasury.feed.base-url=" + treasury.baseUrl(),
+        "--treasury.snapshot.path=" + (snapshot ? file : ""),
+        "--treasury.startup.prime-curve=" + prime,
+        "--treasury.startup.warm-http-client=" + prime};
+
+    // A previous run that fetched a curve and shut down cleanly
+    if (snapshot) Feeds.writeSnapshot(file, Feeds.curve(), Instant.now());
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    treasury.close();
+    try (var files = Files.list(dir)) {
+      for (Path p : files.toList()) Files.delete(p);
+    }
+    Files.delete(dir);
+  }
+
+  @TearDown(Level.Invocation)
+  public void closeContext() {
+    if (ctx != null) ctx.close();
+    ctx = null;
+  }
+
+  @Benchmark
+  public ConfigurableApplicationContext timeToReady() {
+    ctx = BenchmarkApp.boot(args);
+    return ctx;
+  }
+
+  @Benchmark
+  public Object timeToFirstCurve() {
+    ctx = BenchmarkApp.boot(args);
+    return firstCurve(ctx);
+  }
+
+  private static Object firstCurve(ConfigurableApplicationContext ctx) {
+    ExecutionGraphQlService graphQl = ctx.getBean(ExecutionGraphQlService.class);
+    while (true) {
+      ExecutionGraphQlResponse response = graphQl.execute(
+          new DefaultExecutionGraphQlRequest(YIELD_CURVE, null, null, null, "startup", null)).block();
+      List<?> curve = response.field("yieldCurve").getValue();
+      if (curve != null && !curve.isEmpty()) return curve;
+    }
+  }
+}
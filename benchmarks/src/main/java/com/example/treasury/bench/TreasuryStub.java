@@ -0,0 +1,76 @@
+package com.example.treasury.bench;
+
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Stands in for the Treasury feed on a local port: every month request is answered with the same
+ * document after {@code latencyMs}. Requests are served concurrently, like the real endpoint.
+ * With a {@code failureRate}, that share of requests gets a {@code 503} instead, after the same
+ * latency.
+ */
+public final class TreasuryStub implements AutoCloseable {
+
+  private final HttpServer server;
+  private final ExecutorService workers = Executors.newCachedThreadPool();
+  private final AtomicLong requests = new AtomicLong();
+  private final AtomicLong failures = new AtomicLong();
+
+  public TreasuryStub(byte[] month, int latencyMs) throws IOException {
+    this(month, latencyMs, 0);
+  }
+
+  public TreasuryStub(byte[] month, int latencyMs, double failureRate) throws IOException {
+    if (failureRate < 0 || failureRate > 1) throw new IllegalArgumentException("failureRate not in [0, 1]: " + failureRate);
+    server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+    server.setExecutor(workers);
+    server.createContext("/", exchange -> {
+      requests.incrementAndGet();
+      try {
+        Thread.sleep(latencyMs);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      if (failureRate > 0 && ThreadLocalRandom.current().nextDouble() < failureRate) {
+        failures.incrementAndGet();
+        exchange.sendResponseHeaders(503, -1);
+        exchange.close();
+        return;
+      }
+      exchange.getResponseHeaders().add("Content-Type", "application/xml");
+      exchange.sendResponseHeaders(200, month.length);
+      try (OutputStream out = exchange.getResponseBody()) {
+        out.write(month);
+      }
+    });
+    server.start();
+  }
+
+  /** Value for {@code treasury.feed.base-url}. */
+  public String baseUrl() {
+    return "http://127.0.0.1:" + server.getAddress().getPort() + "/xml";
+  }
+
+  /** Month requests received so far. */
+  public long requests() {
+    return requests.get();
+  }
+
+  /** Requests answered with a {@code 503} so far. */
+  public long failures() {
+    return failures.get();
+  }
+
+  @Override
+  public void close() {
+    server.stop(0);
+    workers.shutdownNow();
+  }
+}
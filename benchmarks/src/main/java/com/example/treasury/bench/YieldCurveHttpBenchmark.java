@@ -0,0 +1,98 @@
+package com.example.treasury.bench;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code yieldCurve} over HTTP on a local server, in requests per second with concurrent clients:
+ * a regular POST that is parsed, executed and serialized each time ({@code post}), against the
+ * persisted GET served from bytes rendered once per curve ({@code persistedGet}) and its
+ * revalidation with {@code If-None-Match} answered by a 304 ({@code persistedGetNotModified}).
+ * Client and server share the JVM, so allocation per operation covers both sides.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class YieldCurveHttpBenchmark {
+
+  private static final String YIELD_CURVE = "{ yieldCurve { term rate } }";
+
+  private ConfigurableApplicationContext ctx;
+  private WebClient http;
+  private Map<String, Object> postBody;
+  private String extensions;
+  private String etag;
+
+  @Setup
+  public void setUp() throws Exception {
+    ctx = BenchmarkApp.startServer();
+    http = WebClient.create("http://127.0.0.1:" + ctx.getEnvironment().getProperty("local.server.port"));
+    postBody = Map.of("query", YIELD_CURVE);
+
+    String hash = HexFormat.of().formatHex(
+        MessageDigest.getInstance("SHA-256").digest(YIELD_CURVE.getBytes(StandardCharsets.UTF_8)));
+    Map<String, Object> persisted = Map.of("persistedQuery", Map.of("version", 1, "sha256Hash", hash));
+    extensions = "{\"persistedQuery\":{\"version\":1,\"sha256Hash\":\"" + hash + "\"}}";
+    // registers the document, as a client does after PersistedQueryNotFound
+    http.post().uri("/graphql").contentType(MediaType.APPLICATION_JSON)
+        .bodyValue(Map.of("query", YIELD_CURVE, "extensions", persisted))
+        .retrieve().toBodilessEntity().block();
+
+    ResponseEntity<byte[]> first = get(null);
+    etag = first.getHeaders().getETag();
+    if (etag == null) throw new IllegalStateException("Persisted yieldCurve was not served with an ETag");
+    check(post().getBody());
+    check(first.getBody());
+    if (!HttpStatus.NOT_MODIFIED.equals(get(etag).getStatusCode())) throw new IllegalStateException("Expected 304");
+  }
+
+  @TearDown
+  public void tearDown() {
+    ctx.close();
+  }
+
+  @Benchmark
+  public ResponseEntity<byte[]> post() {
+    return http.post().uri("/graphql").contentType(MediaType.APPLICATION_JSON)
+        .bodyValue(postBody)
+        .retrieve().toEntity(byte[].class).block();
+  }
+
+  @Benchmark
+  public ResponseEntity<byte[]> persistedGet() {
+    return get(null);
+  }
+
+  @Benchmark
+  public ResponseEntity<byte[]> persistedGetNotModified() {
+    return get(etag);
+  }
+
+  private ResponseEntity<byte[]> get(String ifNoneMatch) {
+    return http.get().uri(b -> b.path("/graphql").queryParam("extensions", "{ext}").build(extensions))
+        .headers(h -> {
+          if (ifNoneMatch != null) h.set(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        })
+        .retrieve().toEntity(byte[].class).block();
+  }
+
+  private static void check(byte[] body) {
+    String s = new String(body, StandardCharsets.UTF_8);
+    if (s.contains("\"errors\"") || !s.contains("\"term\"")) throw new IllegalStateException("Query failed: " + s);
+  }
+}
@@ -0,0 +1,294 @@
+package com.example.treasury.load;
+
+import com.example.treasury.bench.BenchmarkApp;
+import com.example.treasury.bench.TreasuryStub;
+import com.example.treasury.service.Feeds;
+import io.r2dbc.spi.ConnectionFactory;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.netty.resources.LoopResources;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drives a mix of {@code yieldCurve}, {@code orders} and {@code createOrder} over HTTP, each at
+ * its own constant arrival rate (see {@link OpenLoop}), and reports throughput and response-time
+ * percentiles.
+ *
+ * <pre>
+ *   java -cp benchmarks/target/benchmarks.jar com.example.treasury.load.LoadTest \
+ *       [--option=value ...] [-- application args...]
+ * </pre>
+ *
+ * By default the application is started in this JVM against a {@link TreasuryStub} with the
+ * given latency and failure rate. The curve's soft TTL is short, so refreshes (and failures) reach
+ * the stub during the run. Order lifecycle processing is on, the history back-fill off, and
+ * {@code --seed-orders} rows are in the table before the first request. Arguments after
+ * {@code --} go to the application and win over these settings. With {@code --target} a running
+ * deployment is loaded instead; nothing is started and the upstream options do not apply.
+ *
+ * {@code --subscribers} holds that many WebSocket clients open, subscribed as the web app is (see
+ * {@link Subscribers}). {@code --pollers} is the polling that replaced: that many clients asking for
+ * {@code yieldCurve} and {@code orders} every {@code --poll-interval}, added to those operations'
+ * rates. In-process runs also report the CPU time and database reads of the measured period, so
+ * the two can be compared at the same write rate:
+ *
+ * <pre>
+ *   LoadTest --subscribers=5000 --yield-curve-rate=0 --orders-rate=0
+ *   LoadTest --pollers=5000 --yield-curve-rate=0 --orders-rate=0
+ * </pre>
+ *
+ * A load generator in the same JVM competes with the application for CPU and GC; for sizing,
+ * run the application on its own and use {@code --target}.
+ */
+public final class LoadTest {
+
+  private static final Map<String, String> DEFAULTS = new LinkedHashMap<>();
+
+  static {
+    DEFAULTS.put("yield-curve-rate", "500");      // requests per second; 0 leaves an operation out
+    DEFAULTS.put("orders-rate", "100");
+    DEFAULTS.put("create-order-rate", "50");
+    DEFAULTS.put("subscribers", "0");             // WebSocket clients, subscribed like the web app
+    DEFAULTS.put("pollers", "0");                 // clients polling yieldCurve and orders instead
+    DEFAULTS.put("poll-interval", "5s");
+    DEFAULTS.put("duration", "60s");              // measured, after the warm-up
+    DEFAULTS.put("warmup", "10s");
+    DEFAULTS.put("clients", "64");                // X-Client-Id values; admission limits are per client when trusted
+    DEFAULTS.put("connections", "256");
+    DEFAULTS.put("target", "");                   // base URL of a running deployment
+    DEFAULTS.put("upstream-latency-ms", "50");
+    DEFAULTS.put("upstream-failure-rate", "0");   // share of feed requests answered with 503
+    DEFAULTS.put("curve-ttl", "10s");
+    DEFAULTS.put("seed-orders", "10000");
+    DEFAULTS.put("histograms", "");               // directory for <operation>.hgrm distributions
+    DEFAULTS.put("max-p99-ms", "");               // exit 1 when an operation's p99 is above it
+  }
+
+  private LoadTest() {}
+
+  public static void main(String[] args) throws Exception {
+    Map<String, String> options = new LinkedHashMap<>(DEFAULTS);
+    List<String> appArgs = new ArrayList<>();
+    for (int i = 0; i < args.length; i++) {
+      if (args[i].equals("--")) {
+        appArgs.addAll(List.of(args).subList(i + 1, args.length));
+        break;
+      }
+      int eq = args[i].indexOf('=');
+      String key = args[i].startsWith("--") && eq > 2 ? args[i].substring(2, eq) : null;
+      if (args[i].equals("--help")) usage(null);
+      if (key == null || !DEFAULTS.containsKey(key)) usage("unknown option " + args[i]);
+      options.put(key, args[i].substring(eq + 1));
+    }
+    System.exit(run(options, appArgs));
+  }
+
+  private static int run(Map<String, String> options, List<String> appArgs) throws IOException, InterruptedException {
+    Duration duration = DurationStyle.detectAndParse(options.get("duration"));
+    Duration warmup = DurationStyle.detectAndParse(options.get("warmup"));
+    int subscribers = Integer.parseInt(options.get("subscribers"));
+    double pollRate = Integer.parseInt(options.get("pollers"))
+        / (DurationStyle.detectAndParse(options.get("poll-interval")).toNanos() / 1e9);
+    String[] clients = new String[Integer.parseInt(options.get("clients"))];
+    for (int i = 0; i < clients.length; i++) clients[i] = "load-" + i;
+
+    TreasuryStub treasury = null;
+    ConfigurableApplicationContext ctx = null;
+    ServerUsage usage = null;
+    Subscribers watchers = null;
+    String target = options.get("target");
+    ConnectionProvider pool = ConnectionProvider.builder("load")
+        .maxConnections(Integer.parseInt(options.get("connections")))
+        .pendingAcquireMaxCount(-1)
+        .pendingAcquireTimeout(OpenLoop.TIMEOUT)
+        .build();
+    // Own event loops, so an in-process server does not share them with its load
+    LoopResources loops = LoopResources.create("load", Math.max(2, Runtime.getRuntime().availableProcessors() / 2), true);
+    try {
+      if (target.isBlank()) {
+        treasury = new TreasuryStub(Feeds.xml(22), Integer.parseInt(options.get("upstream-latency-ms")),
+            Double.parseDouble(options.get("upstream-failure-rate")));
+        ctx = BenchmarkApp.serve(withDefaults(appArgs, List.of(
+            "--treasury.feed.base-url=" + treasury.baseUrl(),
+            "--treasury.feed.cache-dir=",
+            "--treasury.snapshot.path=",
+            "--treasury.curve.soft-ttl=" + options.get("curve-ttl"),
+            "--treasury.lifecycle.enabled=true",
+            "--treasury.graphql.admission.trust-client-id=true",
+            "--treasury.startup.prime-curve=true",
+            "--treasury.startup.warm-http-client=true")));
+        BenchmarkApp.seedOrders(ctx.getBean(DatabaseClient.class), Integer.parseInt(options.get("seed-orders")));
+        usage = new ServerUsage(ctx.getBean(ConnectionFactory.class));
+        target = "http://127.0.0.1:" + ctx.getEnvironment().getProperty("local.server.port");
+      }
+      WebClient http = WebClient.builder()
+          .baseUrl(target)
+          .clientConnector(new ReactorClientHttpConnector(HttpClient.create(pool).runOn(loops)))
+          .build();
+
+      List<OpenLoop> mix = new ArrayList<>();
+      for (Operation op : Operation.values()) {
+        double rate = Double.parseDouble(options.get(op.rateOption)) + (op.polled ? pollRate : 0);
+        if (rate > 0) mix.add(new OpenLoop(op, rate, http, clients));
+      }
+      if (mix.isEmpty() && subscribers == 0) usage("every rate is 0");
+
+      if (subscribers > 0) {
+        watchers = new Subscribers(subscribers, URI.create(target.replaceFirst("^http", "ws") + "/graphql-ws"),
+            HttpClient.create(ConnectionProvider.newConnection()).runOn(loops));
+        watchers.open(Duration.ofMinutes(2));
+        System.out.printf("%d of %d subscribers connected%n", subscribers - watchers.errors.sum(), subscribers);
+      }
+      System.out.printf("Loading %s for %s after %s warm-up:%s%n", target, duration, warmup,
+          mix.stream().map(l -> " " + l.op.label + " " + l.rate + "/s").reduce("", String::concat));
+      drive(mix, watchers, usage, warmup, duration);
+
+      report(mix, duration);
+      if (watchers != null) {
+        System.out.printf("%nsubscribers: %d, %d events pushed (%.1f/s), %d errors%n", watchers.count,
+            watchers.events.sum(), watchers.events.sum() / (duration.toNanos() / 1e9), watchers.errors.sum());
+      }
+      if (usage != null) usage.report();
+      if (treasury != null) {
+        System.out.printf("%nupstream: %d feed requests, %d answered 503%n", treasury.requests(), treasury.failures());
+      }
+      if (!options.get("histograms").isBlank()) writeHistograms(mix, Path.of(options.get("histograms")));
+      return slo(mix, options.get("max-p99-ms"));
+    } finally {
+      if (watchers != null) watchers.close();
+      if (ctx != null) ctx.close();
+      if (treasury != null) treasury.close();
+      pool.disposeLater().block();
+      loops.disposeLater().block();
+    }
+  }
+
+  /**
+   * Runs every loop on its own thread, printing a progress line each second, then waits for
+   * stragglers. Subscriber events and server usage are counted from the first tick after the warm-up.
+   */
+  private static void drive(List<OpenLoop> mix, Subscribers watchers, ServerUsage usage, Duration warmup,
+                            Duration duration) throws InterruptedException {
+    long start = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(100);
+    long measureFrom = start + warmup.toNanos();
+    long end = measureFrom + duration.toNanos();
+    List<Thread> senders = new ArrayList<>();
+    for (OpenLoop loop : mix) {
+      Thread t = new Thread(() -> loop.drive(start, measureFrom, end), "load-" + loop.op.label);
+      t.setDaemon(true);
+      t.start();
+      senders.add(t);
+    }
+
+    boolean measuring = false;
+    long second = 1;
+    for (long tick = start + TimeUnit.SECONDS.toNanos(1); tick <= end; tick += TimeUnit.SECONDS.toNanos(1), second++) {
+      long wait;
+      while ((wait = tick - System.nanoTime()) > 0) TimeUnit.NANOSECONDS.sleep(wait);
+      if (!measuring && tick >= measureFrom) {
+        measuring = true;
+        if (watchers != null) watchers.measure();
+        if (usage != null) usage.start();
+      }
+      StringBuilder line = new StringBuilder(String.format("%5ds%s", second, tick <= measureFrom ? " warm-up" : ""));
+      long inFlight = 0;
+      for (OpenLoop loop : mix) {
+        Histogram h = loop.interval();
+        line.append(String.format("  %s %d/s p99 %.1f ms", loop.op.label, h.getTotalCount(), ms(h.getValueAtPercentile(99))));
+        inFlight += loop.inFlight();
+      }
+      if (watchers != null) line.append(String.format("  pushed %d/s", watchers.interval()));
+      System.out.println(line.append("  in flight ").append(inFlight));
+    }
+    if (usage != null) usage.stop();
+    for (Thread t : senders) t.join();
+
+    long deadline = System.nanoTime() + OpenLoop.TIMEOUT.toNanos() + TimeUnit.SECONDS.toNanos(1);
+    while (mix.stream().mapToLong(OpenLoop::inFlight).sum() > 0 && System.nanoTime() < deadline) {
+      TimeUnit.MILLISECONDS.sleep(10);
+    }
+  }
+
+  private static void report(List<OpenLoop> mix, Duration duration) {
+    double seconds = duration.toNanos() / 1e9;
+    System.out.printf("%n%-14s %10s %11s %10s %8s %9s %9s %9s %9s%n",
+        "response time", "target/s", "achieved/s", "requests", "errors", "p50 ms", "p99 ms", "p99.9 ms", "max ms");
+    for (OpenLoop loop : mix) row(loop, loop.responseTime, seconds);
+    System.out.printf("%n%-14s %10s %11s %10s %8s %9s %9s %9s %9s%n",
+        "service time", "", "", "", "", "p50 ms", "p99 ms", "p99.9 ms", "max ms");
+    for (OpenLoop loop : mix) {
+      Histogram h = loop.serviceTime;
+      System.out.printf("%-14s %10s %11s %10s %8s %9.2f %9.2f %9.2f %9.2f%n", loop.op.label, "", "", "", "",
+          ms(h.getValueAtPercentile(50)), ms(h.getValueAtPercentile(99)), ms(h.getValueAtPercentile(99.9)), ms(h.getMaxValue()));
+    }
+  }
+
+  private static void row(OpenLoop loop, Histogram h, double seconds) {
+    System.out.printf("%-14s %10.1f %11.1f %10d %8d %9.2f %9.2f %9.2f %9.2f%n", loop.op.label, loop.rate,
+        h.getTotalCount() / seconds, h.getTotalCount(), loop.errors.sum(),
+        ms(h.getValueAtPercentile(50)), ms(h.getValueAtPercentile(99)), ms(h.getValueAtPercentile(99.9)), ms(h.getMaxValue()));
+  }
+
+  /** Full response-time distributions in HdrHistogram's percentile format, in milliseconds. */
+  private static void writeHistograms(List<OpenLoop> mix, Path dir) throws IOException {
+    Files.createDirectories(dir);
+    for (OpenLoop loop : mix) {
+      try (PrintStream out = new PrintStream(Files.newOutputStream(dir.resolve(loop.op.label + ".hgrm")))) {
+        loop.responseTime.outputPercentileDistribution(out, 1000.0);
+      }
+    }
+    System.out.println("Histograms written to " + dir);
+  }
+
+  private static int slo(List<OpenLoop> mix, String maxP99Ms) {
+    if (maxP99Ms.isBlank()) return 0;
+    double max = Double.parseDouble(maxP99Ms);
+    int status = 0;
+    for (OpenLoop loop : mix) {
+      double p99 = ms(loop.responseTime.getValueAtPercentile(99));
+      if (p99 > max) {
+        System.out.printf("%s p99 %.2f ms is above %.2f ms%n", loop.op.label, p99, max);
+        status = 1;
+      }
+    }
+    return status;
+  }
+
+  /** The application arguments, plus each default whose property they do not set. */
+  private static String[] withDefaults(List<String> appArgs, List<String> defaults) {
+    List<String> all = new ArrayList<>(appArgs);
+    for (String d : defaults) {
+      String key = d.substring(0, d.indexOf('=') + 1);
+      if (appArgs.stream().noneMatch(a -> a.startsWith(key))) all.add(d);
+    }
+    return all.toArray(String[]::new);
+  }
+
+  private static double ms(long micros) {
+    return micros / 1000.0;
+  }
+
+  private static void usage(String problem) {
+    if (problem != null) System.err.println(problem);
+    System.err.println("usage: LoadTest [--option=value ...] [-- application args...]");
+    DEFAULTS.forEach((k, v) -> System.err.printf("  --%s=%s%n", k, v));
+    System.exit(2);
+  }
+}
@@ -0,0 +1,111 @@
+package com.example.treasury.load;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Sends one {@link Operation} at a constant arrival rate, whatever the responses do (an open
+ * model): request {@code n} is due at {@code start + n / rate}, and is sent then, or at once when
+ * the sender is late. Response time runs from when a request was due, so a stall counts against
+ * every request it delayed instead of hiding them (no coordinated omission). Service time runs from
+ * when it was actually sent; the two drift apart when the load generator itself falls behind.
+ *
+ * Latencies are recorded in microseconds, up to {@link #TIMEOUT}. A request fails on a non-2xx
+ * status, a GraphQL {@code errors} entry (e.g. an admission rejection), a transport error or the
+ * timeout; failures are timed like successes.
+ */
+final class OpenLoop {
+
+  static final Duration TIMEOUT = Duration.ofSeconds(30);
+  private static final long MAX_MICROS = TimeUnit.SECONDS.toMicros(60);
+  private static final byte[] NO_BODY = new byte[0];
+
+  final Operation op;
+  final double rate;
+  private final WebClient http;
+  private final String[] clients;
+
+  /** Every completion, for the per-second progress line. */
+  private final Recorder progress = new Recorder(MAX_MICROS, 3);
+  /** Completions of requests due after the warm-up. */
+  final Histogram responseTime = new ConcurrentHistogram(MAX_MICROS, 3);
+  final Histogram serviceTime = new ConcurrentHistogram(MAX_MICROS, 3);
+  final LongAdder errors = new LongAdder();
+
+  private final LongAdder sent = new LongAdder();
+  private final LongAdder finished = new LongAdder();
+  private volatile long measureFrom = Long.MAX_VALUE;
+
+  OpenLoop(Operation op, double rate, WebClient http, String[] clients) {
+    this.op = op;
+    this.rate = rate;
+    this.http = http;
+    this.clients = clients;
+  }
+
+  /** Sends requests due in [start, end) on the calling thread; those due from measureFrom are reported. */
+  void drive(long start, long measureFrom, long end) {
+    this.measureFrom = measureFrom;
+    double interval = TimeUnit.SECONDS.toNanos(1) / rate;
+    for (long seq = 0; ; seq++) {
+      long due = start + (long) (seq * interval);
+      if (due >= end) return;
+      long wait;
+      while ((wait = due - System.nanoTime()) > 0) LockSupport.parkNanos(wait);
+      send(seq, due);
+    }
+  }
+
+  private void send(long seq, long due) {
+    long sentAt = System.nanoTime();
+    sent.increment();
+    http.post().uri("/graphql")
+        .contentType(MediaType.APPLICATION_JSON)
+        .header("X-Client-Id", clients[(int) (seq % clients.length)])
+        .bodyValue(op.body(seq))
+        .exchangeToMono(response -> response.bodyToMono(byte[].class)
+            .defaultIfEmpty(NO_BODY)
+            .map(body -> response.statusCode().is2xxSuccessful() && !hasErrors(body)))
+        .timeout(TIMEOUT)
+        .subscribe(ok -> done(due, sentAt, ok), e -> done(due, sentAt, false));
+  }
+
+  private void done(long due, long sentAt, boolean ok) {
+    long now = System.nanoTime();
+    long response = micros(now - due);
+    progress.recordValue(response);
+    if (due >= measureFrom) {
+      responseTime.recordValue(response);
+      serviceTime.recordValue(micros(now - sentAt));
+      if (!ok) errors.increment();
+    }
+    finished.increment();
+  }
+
+  /** Response times completed since the last call. */
+  Histogram interval() {
+    return progress.getIntervalHistogram();
+  }
+
+  /** Requests sent and not yet answered. */
+  long inFlight() {
+    return sent.sum() - finished.sum();
+  }
+
+  private static boolean hasErrors(byte[] body) {
+    return new String(body, StandardCharsets.ISO_8859_1).contains("\"errors\"");
+  }
+
+  private static long micros(long nanos) {
+    return Math.min(TimeUnit.NANOSECONDS.toMicros(nanos), MAX_MICROS);
+  }
+}
@@ -0,0 +1,49 @@
+package com.example.treasury.load;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.UncheckedIOException;
+import java.util.Map;
+
+/** The GraphQL calls a load test mixes, with their request bodies encoded once. */
+enum Operation {
+
+  YIELD_CURVE("yieldCurve", "yield-curve-rate", true,
+      "{ yieldCurve { term rate } }"),
+  ORDERS("orders", "orders-rate", true,
+      "{ orders(first: 50) { edges { node { id term amount status rateAtSubmission currentRate } } } }"),
+  CREATE_ORDER("createOrder", "create-order-rate", false,
+      "mutation { createOrder(input: {term: \"3M\", amount: 1000000}) { id status } }",
+      "mutation { createOrder(input: {term: \"2Y\", amount: 1000000}) { id status } }",
+      "mutation { createOrder(input: {term: \"10Y\", amount: 1000000}) { id status } }",
+      "mutation { createOrder(input: {term: \"30Y\", amount: 1000000}) { id status } }");
+
+  /** Field name, as reported. */
+  final String label;
+  /** Option giving its requests per second. */
+  final String rateOption;
+  /** Asked for by {@code --pollers}. */
+  final boolean polled;
+  private final byte[][] bodies;
+
+  Operation(String label, String rateOption, boolean polled, String... queries) {
+    this.label = label;
+    this.rateOption = rateOption;
+    this.polled = polled;
+    ObjectMapper json = new ObjectMapper();
+    bodies = new byte[queries.length][];
+    for (int i = 0; i < queries.length; i++) {
+      try {
+        bodies[i] = json.writeValueAsBytes(Map.of("query", queries[i]));
+      } catch (JsonProcessingException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+  }
+
+  /** Body of the {@code seq}-th request; writes cycle through the terms. */
+  byte[] body(long seq) {
+    return bodies[(int) (seq % bodies.length)];
+  }
+}
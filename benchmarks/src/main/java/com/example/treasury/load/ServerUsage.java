@@ -0,0 +1,64 @@
+package com.example.treasury.load;
+
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.Wrapped;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+
+/**
+ * What an in-process application used while measuring: CPU time of this JVM (the load generator's
+ * included) and the {@code SELECT}s its H2 database ran, from H2's query statistics. These are
+ * read over connections of their own, outside the application's pool, which the load may have
+ * used up.
+ */
+final class ServerUsage {
+
+  private static final Duration TIMEOUT = Duration.ofSeconds(10);
+  private static final String READS = """
+      SELECT CAST(COALESCE(SUM(EXECUTION_COUNT), 0) AS BIGINT) AS n
+      FROM INFORMATION_SCHEMA.QUERY_STATISTICS
+      WHERE UPPER(TRIM(SQL_STATEMENT)) LIKE 'SELECT%' AND SQL_STATEMENT NOT LIKE '%QUERY_STATISTICS%'
+      """;
+
+  private final DatabaseClient db;
+  private final com.sun.management.OperatingSystemMXBean os =
+      (com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean();
+  private long startedAt, cpuAtStart, readsAtStart;
+  private long elapsedNanos, cpuNanos, reads;
+
+  /** Turns H2's statistics on; done before any load, as changing them holds up other statements. */
+  ServerUsage(ConnectionFactory connections) {
+    if (connections instanceof Wrapped<?> pool && pool.unwrap() instanceof ConnectionFactory unpooled) {
+      connections = unpooled;
+    }
+    this.db = DatabaseClient.create(connections);
+    // one entry per distinct statement text; IN lists make many of them
+    db.sql("SET QUERY_STATISTICS_MAX_ENTRIES 1000000").then()
+        .then(db.sql("SET QUERY_STATISTICS TRUE").then())
+        .block(TIMEOUT);
+  }
+
+  void start() {
+    readsAtStart = reads();
+    startedAt = System.nanoTime();
+    cpuAtStart = os.getProcessCpuTime();
+  }
+
+  void stop() {
+    cpuNanos = os.getProcessCpuTime() - cpuAtStart;
+    elapsedNanos = System.nanoTime() - startedAt;
+    reads = reads() - readsAtStart;
+  }
+
+  private long reads() {
+    return db.sql(READS).map(row -> row.get("n", Long.class)).one().block(TIMEOUT);
+  }
+
+  void report() {
+    double s = elapsedNanos / 1e9;
+    System.out.printf("%nin-process usage: %.2f cores of CPU, %d database reads (%.1f/s)%n",
+        cpuNanos / 1e9 / s, reads, reads / s);
+  }
+}
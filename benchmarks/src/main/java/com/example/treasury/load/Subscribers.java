@@ -0,0 +1,88 @@
+package com.example.treasury.load;
+
+import org.springframework.graphql.client.WebSocketGraphQlClient;
+import org.springframework.web.reactive.socket.client.ReactorNettyWebSocketClient;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Holds {@code count} clients open on the GraphQL WebSocket endpoint, each with its own connection
+ * and subscribed to what the web app subscribes to, and counts the events pushed to them. Events
+ * are not timed: what matters is what keeping them up to date costs the server, against
+ * {@code --pollers} asking for the same data on a timer.
+ */
+final class Subscribers {
+
+  static final List<String> SUBSCRIPTIONS = List.of(
+      "subscription { orderCreated { id term amount createdAt rateAtSubmission } }",
+      "subscription { yieldCurveUpdated { term rate } }");
+  private static final int CONCURRENT_HANDSHAKES = 64;
+
+  final int count;
+  private final List<WebSocketGraphQlClient> clients = new ArrayList<>();
+  private final List<Disposable> subscriptions = new CopyOnWriteArrayList<>();
+
+  /** Every event, for the per-second progress line. */
+  private final LongAdder progress = new LongAdder();
+  /** Events pushed after the warm-up. */
+  final LongAdder events = new LongAdder();
+  /** Clients that could not connect, and subscriptions that ended in an error. */
+  final LongAdder errors = new LongAdder();
+  private volatile boolean measuring;
+
+  Subscribers(int count, URI endpoint, HttpClient http) {
+    this.count = count;
+    ReactorNettyWebSocketClient ws = new ReactorNettyWebSocketClient(http);
+    for (int i = 0; i < count; i++) clients.add(WebSocketGraphQlClient.builder(endpoint, ws).build());
+  }
+
+  /** Connects every client and subscribes it; returns once each is subscribed or has failed. */
+  void open(Duration timeout) {
+    Flux.fromIterable(clients)
+        .flatMap(client -> client.start()
+            .doOnSuccess(v -> {
+              for (String subscription : SUBSCRIPTIONS) {
+                subscriptions.add(client.document(subscription).executeSubscription()
+                    .subscribe(event -> pushed(), e -> errors.increment()));
+              }
+            })
+            .onErrorResume(e -> {
+              errors.increment();
+              return Mono.empty();
+            }), CONCURRENT_HANDSHAKES)
+        .then()
+        .block(timeout);
+  }
+
+  private void pushed() {
+    progress.increment();
+    if (measuring) events.increment();
+  }
+
+  /** Counts events from now on. */
+  void measure() {
+    measuring = true;
+  }
+
+  /** Events pushed since the last call. */
+  long interval() {
+    return progress.sumThenReset();
+  }
+
+  void close() {
+    subscriptions.forEach(Disposable::dispose);
+    Flux.fromIterable(clients)
+        .flatMap(client -> client.stop().onErrorResume(e -> Mono.empty()), CONCURRENT_HANDSHAKES)
+        .then()
+        .block(Duration.ofSeconds(30));
+  }
+}
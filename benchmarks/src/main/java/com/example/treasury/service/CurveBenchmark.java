@@ -0,0 +1,103 @@
+package com.example.treasury.service;
+
+import com.example.treasury.domain.Tenor;
+import com.example.treasury.domain.YieldCurve;
+import com.example.treasury.domain.YieldPoint;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Curve assembly and the per-order rate lookups, with the {@code List<YieldPoint>} versions that
+ * {@link YieldCurve} replaced kept as baselines; compare {@code gc.alloc.rate.norm} between them.
+ *
+ * {@code assembleCurve} is what a refresh does with the parser's rates; {@code assemblePointList}
+ * is the former path (boxed points, re-ordered through a map). {@code tenorLookup} reads one
+ * tenor by label; {@code exactTermScan} is the former search over the point list.
+ * {@code rateLookup} is the work {@link OrderIngestService} does for each order once a batch has
+ * its curve: parse the term, evaluate the fitted curve.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CurveBenchmark {
+
+  // On-grid tenors and arbitrary maturities, as clients send them
+  private static final String[] TERMS = {"1M", "3M", "18M", "2Y", "4Y", "7Y", "10Y", "90D", "25Y", "30Y"};
+
+  private YieldCurve curve;
+  private double[] parsed;
+  private int next;
+
+  @Setup
+  public void setUp() {
+    curve = Feeds.curve();
+    parsed = Feeds.rates(1, 42)[0];
+  }
+
+  /** A curve fitted through {@link YieldService#getInterpolatedCurve}, one per method. */
+  @State(Scope.Benchmark)
+  public static class Fitted {
+    @Param
+    public Interpolation method;
+
+    InterpolatedCurve curve;
+
+    @Setup
+    public void setUp() {
+      YieldService service = new YieldService();
+      Feeds.prime(service, Feeds.curve());
+      curve = service.getInterpolatedCurve(method).block();
+    }
+  }
+
+  @Benchmark
+  public YieldCurve assembleCurve() {
+    return YieldCurve.of(Feeds.AS_OF, parsed);
+  }
+
+  @Benchmark
+  public List<YieldPoint> assemblePointList() {
+    List<YieldPoint> pts = new ArrayList<>(parsed.length);
+    for (int t = 0; t < parsed.length; t++) pts.add(new YieldPoint(Tenor.at(t).label(), (float) parsed[t]));
+    Map<String, YieldPoint> byTerm = new HashMap<>();
+    for (YieldPoint p : pts) byTerm.putIfAbsent(p.getTerm(), p);
+    List<YieldPoint> ordered = new ArrayList<>();
+    for (int t = 0; t < Tenor.COUNT; t++) {
+      YieldPoint p = byTerm.get(Tenor.at(t).label());
+      if (p != null) ordered.add(p);
+    }
+    return ordered;
+  }
+
+  @Benchmark
+  public double tenorLookup() {
+    Tenor tenor = Tenor.of(TERMS[next++ % TERMS.length]);
+    return tenor != null ? curve.rate(tenor) : Double.NaN;
+  }
+
+  @Benchmark
+  public YieldPoint exactTermScan() {
+    String term = TERMS[next++ % TERMS.length];
+    return curve.points().stream().filter(p -> p.getTerm().equalsIgnoreCase(term)).findFirst().orElse(null);
+  }
+
+  @Benchmark
+  public double rateLookup(Fitted fitted) {
+    String term = TERMS[next++ % TERMS.length];
+    int days = InterpolatedCurve.maturityDays(term);
+    return days > 0 ? fitted.curve.rateAtDays(days) : Double.NaN;
+  }
+
+  @Benchmark
+  public InterpolatedCurve fit(Fitted fitted) {
+    return InterpolatedCurve.fit(curve, fitted.method);
+  }
+}
@@ -0,0 +1,64 @@
+package com.example.treasury.service;
+
+import com.example.treasury.domain.YieldCurve;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import io.micrometer.prometheusmetrics.PrometheusConfig;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of {@link CurveMetrics} on the cache-hit and parse paths: the same calls with no registry
+ * bound and with a Prometheus registry configured like application.yml (histograms on).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CurveMetricsBenchmark {
+
+  public enum Registry { NONE, PROMETHEUS }
+
+  @Param
+  public Registry registry;
+
+  private YieldService service;
+  private byte[] month;
+
+  @Setup
+  public void setUp() {
+    service = new YieldService();
+    if (registry == Registry.PROMETHEUS) {
+      PrometheusMeterRegistry prometheus = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+      prometheus.config().meterFilter(new MeterFilter() {
+        @Override
+        public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+          return id.getName().startsWith("treasury.")
+              ? DistributionStatisticConfig.builder().percentilesHistogram(true).build().merge(config)
+              : config;
+        }
+      });
+      service.bindMetrics(prometheus);
+    }
+    Feeds.prime(service, Feeds.curve());
+    month = Feeds.xml(22);
+  }
+
+  @Benchmark
+  public Mono<YieldCurve> cachedCurve() {
+    return service.getYieldCurve();
+  }
+
+  @Benchmark
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public YieldCurve parseMonth() {
+    return service.extractLatestCurve(DefaultDataBufferFactory.sharedInstance.wrap(month), Feeds.AS_OF);
+  }
+}
@@ -0,0 +1,51 @@
+package com.example.treasury.service;
+
+import com.example.treasury.domain.YieldCurve;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link YieldService#extractLatestCurve} on feeds of one day, one month and five years of entries.
+ * The buffer wraps a pre-built byte array, so the score is parsing plus curve assembly only.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FeedParseBenchmark {
+
+  public enum Size {
+    SMALL(1), MONTH(22), MULTI_YEAR(5 * 252);
+
+    final int entries;
+
+    Size(int entries) {
+      this.entries = entries;
+    }
+  }
+
+  @Param
+  public Size size;
+
+  private byte[] xml;
+  private YieldService service;
+  private final DefaultDataBufferFactory buffers = DefaultDataBufferFactory.sharedInstance;
+
+  @Setup
+  public void setUp() {
+    xml = Feeds.xml(size.entries);
+    service = new YieldService();
+    if (extractLatestCurve().size() != TreasuryFeedParser.FIELDS.length) {
+      throw new IllegalStateException("Synthetic feed did not parse");
+    }
+  }
+
+  @Benchmark
+  public YieldCurve extractLatestCurve() {
+    return service.extractLatestCurve(buffers.wrap(xml), Feeds.AS_OF);
+  }
+}
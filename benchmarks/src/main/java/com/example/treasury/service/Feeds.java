@@ -0,0 +1,130 @@
+package com.example.treasury.service;
+
+import com.example.treasury.domain.Tenor;
+import com.example.treasury.domain.YieldCurve;
+import org.springframework.util.ReflectionUtils;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Synthetic Treasury data shaped like the real feed: Atom entries with OData
+ * {@code m:properties}, one per business day, every BC_* column plus the display-only ones.
+ * Rates follow a seeded random walk so runs are reproducible.
+ */
+public final class Feeds {
+
+  public static final LocalDate AS_OF = LocalDate.of(2024, 6, 28);
+
+  private static final String[] DISPLAY_ONLY = {"BC_30YEARDISPLAY"};
+
+  private Feeds() {}
+
+  /** Business days ending at {@code last}, oldest first. */
+  public static List<LocalDate> businessDays(int count, LocalDate last) {
+    List<LocalDate> days = new ArrayList<>(count);
+    LocalDate d = last;
+    while (days.size() < count) {
+      if (d.getDayOfWeek() != DayOfWeek.SATURDAY && d.getDayOfWeek() != DayOfWeek.SUNDAY) days.add(0, d);
+      d = d.minusDays(1);
+    }
+    return days;
+  }
+
+  /** One row of rates per day, index-aligned with {@link TreasuryFeedParser#FIELDS}. */
+  public static double[][] rates(int days, long seed) {
+    SplittableRandom rnd = new SplittableRandom(seed);
+    int tenors = TreasuryFeedParser.FIELDS.length;
+    double[][] rows = new double[days][tenors];
+    double level = 4.5;
+    for (int i = 0; i < days; i++) {
+      level = Math.max(0.05, level + (rnd.nextDouble() - 0.5) * 0.06);
+      for (int t = 0; t < tenors; t++) {
+        // inverted front end, gentle hump around 20Y
+        rows[i][t] = Math.round((level + 0.6 - 0.9 * t / tenors + (t == 12 ? 0.2 : 0)) * 100) / 100.0;
+      }
+    }
+    return rows;
+  }
+
+  /** A feed document with {@code entries} daily curves ending at {@link #AS_OF}. */
+  public static byte[] xml(int entries) {
+    List<LocalDate> days = businessDays(entries, AS_OF);
+    double[][] rates = rates(entries, 42);
+    StringBuilder sb = new StringBuilder(entries * 2_000 + 512);
+    sb.append("<?xml version=\"1.0\" encoding=\"utf-8\" standalone=\"yes\"?>\n")
+        .append("<feed xml:base=\"https://home.treasury.gov/resource-center/data-chart-center/interest-rates/pages/xml\"")
+        .append(" xmlns=\"http://www.w3.org/2005/Atom\"")
+        .append(" xmlns:d=\"http://schemas.microsoft.com/ado/2007/08/dataservices\"")
+        .append(" xmlns:m=\"http://schemas.microsoft.com/ado/2007/08/dataservices/metadata\">\n")
+        .append("  <title type=\"text\">DailyTreasuryYieldCurveRateData</title>\n")
+        .append("  <id>https://home.treasury.gov/resource-center/data-chart-center/interest-rates/pages/xml</id>\n")
+        .append("  <updated>").append(AS_OF).append("T18:00:00Z</updated>\n");
+    for (int i = 0; i < entries; i++) {
+      int id = 8_000 + i;
+      sb.append("  <entry>\n")
+          .append("    <id>DailyTreasuryYieldCurveRateData(").append(id).append(")</id>\n")
+          .append("    <title type=\"text\"></title>\n")
+          .append("    <updated>").append(days.get(i)).append("T18:00:00Z</updated>\n")
+          .append("    <author><name /></author>\n")
+          .append("    <link rel=\"edit\" title=\"DailyTreasuryYieldCurveRateDatum\" href=\"DailyTreasuryYieldCurveRateData(")
+          .append(id).append(")\" />\n")
+          .append("    <category term=\"TreasuryDataWarehouseModel.DailyTreasuryYieldCurveRateDatum\"")
+          .append(" scheme=\"http://schemas.microsoft.com/ado/2007/08/dataservices/scheme\" />\n")
+          .append("    <content type=\"application/xml\">\n")
+          .append("      <m:properties>\n")
+          .append("        <d:Id m:type=\"Edm.Int32\">").append(id).append("</d:Id>\n")
+          .append("        <d:NEW_DATE m:type=\"Edm.DateTime\">").append(days.get(i)).append("T00:00:00</d:NEW_DATE>\n");
+      for (int t = 0; t < TreasuryFeedParser.FIELDS.length; t++) {
+        String f = TreasuryFeedParser.FIELDS[t];
+        sb.append("        <d:").append(f).append(" m:type=\"Edm.Double\">").append(rates[i][t])
+            .append("</d:").append(f).append(">\n");
+      }
+      for (String f : DISPLAY_ONLY) {
+        sb.append("        <d:").append(f).append(" m:type=\"Edm.Double\">").append(rates[i][13])
+            .append("</d:").append(f).append(">\n");
+      }
+      sb.append("      </m:properties>\n")
+          .append("    </content>\n")
+          .append("  </entry>\n");
+    }
+    sb.append("</feed>\n");
+    return sb.toString().getBytes(StandardCharsets.UTF_8);
+  }
+
+  /** A full curve as of {@link #AS_OF}. */
+  public static YieldCurve curve() {
+    return YieldCurve.of(AS_OF, rates(1, 42)[0]);
+  }
+
+  /** Puts {@code curve} into the service's cache as if it had just been fetched. */
+  public static void prime(YieldService service, YieldCurve curve) {
+    set(service, "cache", curve);
+    set(service, "lastFetch", Instant.now());
+  }
+
+  /** Writes a snapshot file holding {@code curve} as fetched at {@code fetchedAt}, with no history. */
+  public static void writeSnapshot(Path path, YieldCurve curve, Instant fetchedAt) throws IOException {
+    CurveSnapshotFile.write(path, fetchedAt, curve, new int[0], new double[Tenor.COUNT][0], 0);
+  }
+
+  /** Marks the books as rebuilt (from an empty table) so records apply directly. */
+  public static void ready(LiquidityAggregates liquidity) {
+    set(liquidity, "ready", true);
+  }
+
+  private static void set(Object target, String name, Object value) {
+    Field f = ReflectionUtils.findField(target.getClass(), name);
+    if (f == null) throw new IllegalStateException("No field " + name + " on " + target.getClass());
+    ReflectionUtils.makeAccessible(f);
+    ReflectionUtils.setField(f, target, value);
+  }
+}
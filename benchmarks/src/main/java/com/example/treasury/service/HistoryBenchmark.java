@@ -0,0 +1,93 @@
+package com.example.treasury.service;
+
+import com.example.treasury.domain.Tenor;
+import com.example.treasury.domain.YieldCurveSnapshot;
+import com.example.treasury.domain.YieldPoint;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jol.info.GraphLayout;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Range queries on {@link YieldHistoryStore} against the same history held as boxed snapshots.
+ * Setup prints the retained size of both representations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Djol.magicFieldOffset=true")
+public class HistoryBenchmark {
+
+  private static final int[] ALL_TENORS = allTenors();
+  private static final int[] TEN_YEAR = {Tenor.Y10.ordinal()};
+
+  @Param({"5", "30"})
+  public int years;
+
+  private YieldHistoryStore store;
+  private List<YieldCurveSnapshot> boxed;
+  private LocalDate from;
+  private LocalDate to;
+
+  @Setup
+  public void setUp() {
+    int n = years * 252;
+    List<LocalDate> days = Feeds.businessDays(n, Feeds.AS_OF);
+    double[][] rates = Feeds.rates(n, 42);
+
+    TreeMap<Integer, double[]> rows = new TreeMap<>();
+    boxed = new ArrayList<>(n);
+    for (int i = 0; i < n; i++) {
+      rows.put((int) days.get(i).toEpochDay(), rates[i]);
+      List<YieldPoint> pts = new ArrayList<>(ALL_TENORS.length);
+      for (int t : ALL_TENORS) pts.add(new YieldPoint(Tenor.at(t).label(), rates[i][t]));
+      boxed.add(new YieldCurveSnapshot(days.get(i).toString(), pts));
+    }
+    store = new YieldHistoryStore();
+    store.ingest(rows);
+
+    // One year out of the middle of the history
+    to = days.get(n / 2);
+    from = to.minusYears(1);
+
+    System.out.printf("%n%d days retained: columnar %,d bytes, boxed %,d bytes%n",
+        n, GraphLayout.parseInstance(store).totalSize(), GraphLayout.parseInstance(boxed).totalSize());
+  }
+
+  @Benchmark
+  public List<YieldCurveSnapshot> rangeYearAllTenors() {
+    return store.range(from, to, ALL_TENORS);
+  }
+
+  @Benchmark
+  public List<YieldCurveSnapshot> rangeYearOneTenor() {
+    return store.range(from, to, TEN_YEAR);
+  }
+
+  @Benchmark
+  public List<YieldCurveSnapshot> rangeYearBoxedScan() {
+    String lo = from.toString(), hi = to.toString();
+    List<YieldCurveSnapshot> out = new ArrayList<>();
+    for (YieldCurveSnapshot s : boxed) {
+      if (s.getDate().compareTo(lo) >= 0 && s.getDate().compareTo(hi) <= 0) out.add(s);
+    }
+    return out;
+  }
+
+  @Benchmark
+  public YieldCurveSnapshot onOrBefore() {
+    return store.onOrBefore(to, ALL_TENORS);
+  }
+
+  private static int[] allTenors() {
+    int[] all = new int[TreasuryFeedParser.FIELDS.length];
+    for (int i = 0; i < all.length; i++) all[i] = i;
+    return all;
+  }
+}
@@ -0,0 +1,65 @@
+package com.example.treasury.service;
+
+import com.example.treasury.domain.LiquiditySummary;
+import com.example.treasury.domain.Order;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link LiquidityAggregates} under contention: writers recording orders across four terms while
+ * one reader takes hourly summaries. Run with {@code -t} / {@code -tg} to vary the writer count.
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LiquidityBenchmark {
+
+  private static final String[] TERMS = {"3M", "2Y", "10Y", "30Y"};
+
+  private LiquidityAggregates liquidity;
+  private final AtomicLong ids = new AtomicLong();
+
+  @State(Scope.Thread)
+  public static class Writer {
+    Order[] orders = new Order[TERMS.length * 8];
+    int next;
+
+    @Setup
+    public void setUp() {
+      for (int i = 0; i < orders.length; i++) {
+        orders[i] = new Order(null, TERMS[i % TERMS.length], BigDecimal.valueOf(1_000 + i * 250L),
+            Instant.now(), "SUBMITTED", 4.0 + i / 100.0);
+      }
+    }
+  }
+
+  @Setup
+  public void setUp() {
+    liquidity = new LiquidityAggregates(null, null);
+    Feeds.ready(liquidity);
+  }
+
+  @Benchmark
+  @Group("mixed")
+  @GroupThreads(3)
+  public void record(Writer w) {
+    Order o = w.orders[w.next++ & (w.orders.length - 1)];
+    o.setId(ids.incrementAndGet());
+    liquidity.record(o);
+  }
+
+  @Benchmark
+  @Group("mixed")
+  @GroupThreads(1)
+  public LiquiditySummary summary() {
+    return liquidity.summary(null, Duration.ofHours(1));
+  }
+}
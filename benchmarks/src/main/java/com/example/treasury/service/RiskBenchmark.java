@@ -0,0 +1,74 @@
+package com.example.treasury.service;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link RiskBook} revaluation on a fork-join pool of {@code parallelism} threads: the whole book
+ * (every tenor moves) and a single-tenor move, which only revalues the two segments around it.
+ * Running across parallelism values gives the scaling curve; it flattens at the core count.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class RiskBenchmark {
+
+  @Param({"1000000", "10000000"})
+  public int positions;
+
+  @Param({"1", "2", "4", "8"})
+  public int parallelism;
+
+  private ForkJoinPool pool;
+  private RiskBook book;
+  private double[] curveA, curveB, bumpA, bumpB;
+  private boolean flip;
+
+  @Setup
+  public void setUp() {
+    pool = new ForkJoinPool(parallelism);
+    int today = 20_000;
+    book = new RiskBook(pool, today);
+    Random random = new Random(42);
+    String[] terms = {"3M", "6M", "1Y", "2Y", "5Y", "10Y", "30Y"};
+    for (int i = 0; i < positions; i++) {
+      int termDays = InterpolatedCurve.maturityDays(terms[random.nextInt(terms.length)]);
+      double cost = 1_000 + random.nextInt(1_000_000);
+      // submitted within the last two years; some have already matured
+      book.add(i + 1, cost * Math.exp(0.045 * termDays / 365.0), cost, today - random.nextInt(730) + termDays);
+    }
+    curveA = new double[RiskBook.TENORS];
+    for (int t = 0; t < curveA.length; t++) curveA[t] = 5.4 - 0.1 * t + 0.01 * t * t;
+    curveB = curveA.clone();
+    for (int t = 0; t < curveB.length; t++) curveB[t] += 0.01;
+    bumpA = curveA.clone();
+    bumpB = curveA.clone();
+    bumpB[7] += 0.01; // 2Y
+    book.setCurve(curveA);
+  }
+
+  @TearDown
+  public void tearDown() {
+    pool.shutdown();
+  }
+
+  @Benchmark
+  public double[] fullRevalue() {
+    flip = !flip;
+    book.setCurve(flip ? curveB : curveA);
+    return book.totals();
+  }
+
+  @Benchmark
+  public double[] singleTenorMove() {
+    flip = !flip;
+    book.setCurve(flip ? bumpB : bumpA);
+    return book.totals();
+  }
+}
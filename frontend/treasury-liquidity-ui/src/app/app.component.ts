@@ -1,7 +1,8 @@
-import { Component, OnInit, ChangeDetectorRef, ViewChild, ElementRef, AfterViewInit } from '@angular/core';
+import { Component, OnInit, OnDestroy, ChangeDetectorRef, ViewChild, ElementRef, AfterViewInit } from '@angular/core';
 import { HttpClient } from '@angular/common/http';
 import { NgIf, NgFor } from '@angular/common';
 import { FormsModule } from '@angular/forms';
+import { subscribeGraphQL } from './graphql-ws';
 
 @Component({
   selector: 'app-root',
@@ -89,7 +90,7 @@ import { FormsModule } from '@angular/forms';
   </div>
   `
 })
-export class AppComponent implements OnInit, AfterViewInit {
+export class AppComponent implements OnInit, OnDestroy, AfterViewInit {
   @ViewChild('yieldChart', { static: false }) yieldChart?: ElementRef<HTMLCanvasElement>;
   yieldData: any[] = [];
   yieldError: string = '';
@@ -100,6 +101,8 @@ export class AppComponent implements OnInit, AfterViewInit {
   selectedTerm = '2Y';
   orderAmount = 1000000;
 
+  private unsubscribers: (() => void)[] = [];
+
   constructor(private http: HttpClient, private cdr: ChangeDetectorRef) {}
 
   ngAfterViewInit() {
@@ -110,8 +113,34 @@ export class AppComponent implements OnInit, AfterViewInit {
     console.log('AppComponent ngOnInit called');
     this.loadYieldCurve();
     this.loadOrders();
-    // Refresh orders every 10 seconds
-    setInterval(() => this.loadOrders(), 10000);
+    // Server pushes new orders and curve changes instead of us polling
+    this.unsubscribers.push(subscribeGraphQL<{orderCreated: any}>(
+      'subscription { orderCreated { id term amount createdAt rateAtSubmission } }',
+      (data) => {
+        if (!this.orders.some(o => o.id === data.orderCreated.id)) {
+          this.orders = [...this.orders, data.orderCreated];
+        }
+        this.cdr.detectChanges();
+      }));
+    this.unsubscribers.push(subscribeGraphQL<{yieldCurveUpdated: {term: string, rate: number}[]}>(
+      'subscription { yieldCurveUpdated { term rate } }',
+      (data) => this.applyCurveDelta(data.yieldCurveUpdated)));
+  }
+
+  ngOnDestroy() {
+    this.unsubscribers.forEach(stop => stop());
+  }
+
+  /** Merges changed tenors into the displayed curve and redraws. */
+  private applyCurveDelta(changed: {term: string, rate: number}[]) {
+    if (this.yieldData.length === 0) {
+      this.yieldData = changed; // first push is the full curve
+    } else {
+      const byTerm = new Map(changed.map(p => [p.term, p.rate]));
+      this.yieldData = this.yieldData.map(p => byTerm.has(p.term) ? { ...p, rate: byTerm.get(p.term) } : p);
+    }
+    this.cdr.detectChanges();
+    setTimeout(() => this.drawYieldCurveChart(), 100);
   }
 
   loadYieldCurve() {
@@ -347,10 +376,10 @@ export class AppComponent implements OnInit, AfterViewInit {
     // }
 
   loadOrders() {
-    const query = { query: 'query { orders { id term amount createdAt rateAtSubmission } }' };
-    this.http.post<{data: {orders: any[]}}>('http://localhost:8080/graphql', query)
+    const query = { query: 'query { orders(first: 50) { edges { node { id term amount createdAt rateAtSubmission } } } }' };
+    this.http.post<{data: {orders: {edges: {node: any}[]}}}>('http://localhost:8080/graphql', query)
       .subscribe({
-        next: (response) => this.orders = response.data.orders.reverse(),
+        next: (response) => this.orders = response.data.orders.edges.map(e => e.node).reverse(),
         error: (err) => console.error('Failed to load orders:', err)
       });
   }
@@ -383,7 +412,7 @@ export class AppComponent implements OnInit, AfterViewInit {
           }
           this.orderMessage = '✅ Order submitted successfully';
           setTimeout(() => this.orderMessage = '', 3000);
-          this.loadOrders();
+          // the orderCreated subscription adds it to the table
         },
         error: (err) => {
           const serverMsg = err?.error?.errors?.[0]?.message || err?.message || 'Failed to submit order';
@@ -0,0 +1,40 @@
+/**
+ * Minimal client for the graphql-transport-ws protocol used by the backend's /graphql-ws endpoint.
+ * Reconnects after a short delay if the socket drops; call the returned function to stop.
+ */
+export function subscribeGraphQL<T>(query: string, onData: (data: T) => void,
+                                    url = 'ws://localhost:8080/graphql-ws'): () => void {
+  let socket: WebSocket | undefined;
+  let closed = false;
+
+  const connect = () => {
+    socket = new WebSocket(url, 'graphql-transport-ws');
+    socket.onopen = () => socket!.send(JSON.stringify({ type: 'connection_init' }));
+    socket.onmessage = (event) => {
+      const msg = JSON.parse(event.data);
+      switch (msg.type) {
+        case 'connection_ack':
+          socket!.send(JSON.stringify({ id: '1', type: 'subscribe', payload: { query } }));
+          break;
+        case 'ping':
+          socket!.send(JSON.stringify({ type: 'pong' }));
+          break;
+        case 'next':
+          if (msg.payload?.data) onData(msg.payload.data);
+          break;
+        case 'error':
+          console.error('Subscription error:', msg.payload);
+          break;
+      }
+    };
+    socket.onclose = () => {
+      if (!closed) setTimeout(connect, 5000);
+    };
+  };
+
+  connect();
+  return () => {
+    closed = true;
+    socket?.close();
+  };
+}
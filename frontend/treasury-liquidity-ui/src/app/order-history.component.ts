@@ -1,6 +1,7 @@
-import { Component, OnInit } from '@angular/core';
+import { Component, OnInit, OnDestroy } from '@angular/core';
 import { HttpClient } from '@angular/common/http';
 import { NgFor, DatePipe, DecimalPipe } from '@angular/common';
+import { subscribeGraphQL } from './graphql-ws';
 
 @Component({
   selector: 'app-order-history',
@@ -32,21 +33,28 @@ import { NgFor, DatePipe, DecimalPipe } from '@angular/common';
     </table>
   `
 })
-export class OrderHistoryComponent implements OnInit {
+export class OrderHistoryComponent implements OnInit, OnDestroy {
   orders: any[] = [];
-  
+  private stop?: () => void;
+
   constructor(private http: HttpClient) {}
   
   ngOnInit() {
     this.loadOrders();
-    setInterval(() => this.loadOrders(), 5000);
+    this.stop = subscribeGraphQL<{orderCreated: any}>(
+      'subscription { orderCreated { id term amount createdAt rateAtSubmission } }',
+      (data) => this.orders = [data.orderCreated, ...this.orders].slice(0, 50));
+  }
+
+  ngOnDestroy() {
+    this.stop?.();
   }
   
   private loadOrders() {
-    const query = { query: 'query { orders { id term amount createdAt rateAtSubmission } }' };
-    this.http.post<{data: {orders: any[]}}>('http://localhost:8080/graphql', query)
+    const query = { query: 'query { orders(first: 50) { edges { node { id term amount createdAt rateAtSubmission } } } }' };
+    this.http.post<{data: {orders: {edges: {node: any}[]}}}>('http://localhost:8080/graphql', query)
       .subscribe({
-        next: (response) => this.orders = response.data.orders,
+        next: (response) => this.orders = response.data.orders.edges.map(e => e.node),
         error: (err) => console.error('Failed to load orders:', err)
       });
   }